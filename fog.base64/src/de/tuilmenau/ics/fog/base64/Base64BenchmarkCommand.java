@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * Forwarding on Gates Simulator/Emulator - Base64 Gates
+ * Copyright (c) 2012, Integrated Communication Systems Group, TU Ilmenau.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html.
+ ******************************************************************************/
+package de.tuilmenau.ics.fog.base64;
+
+import java.lang.reflect.Method;
+import java.util.Random;
+
+import de.tuilmenau.ics.fog.base64.gates.Base64Codec;
+import de.tuilmenau.ics.fog.ui.Logging;
+import de.tuilmenau.ics.fog.ui.commands.Command;
+import de.tuilmenau.ics.middleware.Serializer;
+
+
+/**
+ * Measures the throughput of encoding and decoding payloads with the
+ * BASE64 gates. The results are compared with the procedure of older
+ * versions of the gates, which serialized every payload to a byte array
+ * and encoded it to a string with sun.misc.BASE64Encoder. The old
+ * encoder is accessed via reflection, since it is not available on all
+ * VMs. Without it, the current throughput is reported, only.
+ */
+public class Base64BenchmarkCommand implements Command
+{
+	private static final int[] PAYLOAD_SIZES = { 64, 1024, 16 * 1024, 256 * 1024 };
+	
+	/**
+	 * Amount of payload data processed per measurement
+	 */
+	private static final long BYTES_PER_RUN = 32 * 1024 * 1024;
+	
+	@Override
+	public void execute(Object object) throws Exception
+	{
+		Random tRandom = new Random(0);
+		
+		try {
+			mLegacyEncoder = Class.forName("sun.misc.BASE64Encoder").newInstance();
+			mLegacyDecoder = Class.forName("sun.misc.BASE64Decoder").newInstance();
+			mLegacyEncode = mLegacyEncoder.getClass().getMethod("encode", byte[].class);
+			mLegacyDecode = mLegacyDecoder.getClass().getMethod("decodeBuffer", String.class);
+		}
+		catch(Exception exc) {
+			Logging.warn(this, "Encoder of older gate versions not available. Comparison skipped.", exc);
+			mLegacyEncode = null;
+		}
+		
+		for(int tSize : PAYLOAD_SIZES) {
+			byte[] tBytes = new byte[tSize];
+			tRandom.nextBytes(tBytes);
+			
+			int tPackets = (int) Math.max(1, BYTES_PER_RUN / tSize);
+			
+			measure("byte[" +tSize +"]", tBytes, tSize, tPackets);
+			measure("String[" +tSize +"]", new String(tBytes, "ISO-8859-1"), tSize, tPackets);
+		}
+	}
+	
+	private void measure(String pName, Object pPayload, int pSize, int pPackets) throws Exception
+	{
+		// first run warms up the JIT
+		runCurrent(pPayload, pPackets);
+		long tCurrent = runCurrent(pPayload, pPackets);
+		
+		if(mLegacyEncode != null) {
+			runLegacy(pPayload, pPackets);
+			long tLegacy = runLegacy(pPayload, pPackets);
+			
+			Logging.log(this, "Payload " +pName +": " +getThroughput(tCurrent, pSize, pPackets) +" MB/s (legacy: " +getThroughput(tLegacy, pSize, pPackets) +" MB/s)");
+		} else {
+			Logging.log(this, "Payload " +pName +": " +getThroughput(tCurrent, pSize, pPackets) +" MB/s");
+		}
+	}
+	
+	/**
+	 * Encodes and decodes payload like the BASE64 gates.
+	 * 
+	 * @return Duration in nanoseconds
+	 */
+	private long runCurrent(Object pPayload, int pPackets) throws Exception
+	{
+		long tStart = System.nanoTime();
+		
+		for(int i = 0; i < pPackets; i++) {
+			Base64Codec.decodePayload(Base64Codec.encodePayload(pPayload));
+		}
+		
+		return System.nanoTime() -tStart;
+	}
+	
+	/**
+	 * Encodes and decodes payload with a serialization round trip and the
+	 * old encoder like older versions of the BASE64 gates.
+	 * 
+	 * @return Duration in nanoseconds
+	 */
+	private long runLegacy(Object pPayload, int pPackets) throws Exception
+	{
+		long tStart = System.nanoTime();
+		
+		for(int i = 0; i < pPackets; i++) {
+			byte[] tSerialized = Serializer.getInstance().toBytes(pPayload);
+			String tEncoded = (String) mLegacyEncode.invoke(mLegacyEncoder, tSerialized);
+			
+			byte[] tDecoded = (byte[]) mLegacyDecode.invoke(mLegacyDecoder, tEncoded);
+			Serializer.getInstance().toObject(tDecoded);
+		}
+		
+		return System.nanoTime() -tStart;
+	}
+	
+	private static long getThroughput(long pDuration, int pSize, int pPackets)
+	{
+		return ((long) pSize * pPackets * 1000L) / Math.max(1, pDuration);
+	}
+	
+	private Object mLegacyEncoder;
+	private Object mLegacyDecoder;
+	private Method mLegacyEncode;
+	private Method mLegacyDecode;
+}
@@ -0,0 +1,524 @@
+/*******************************************************************************
+ * Forwarding on Gates Simulator/Emulator - Base64 Gates
+ * Copyright (c) 2012, Integrated Communication Systems Group, TU Ilmenau.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html.
+ ******************************************************************************/
+package de.tuilmenau.ics.fog.base64.gates;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import de.tuilmenau.ics.middleware.Serializer;
+
+
+/**
+ * BASE64 codec (RFC 4648) used by the BASE64 gates. It works on byte
+ * arrays and streams and does not depend on internal JDK classes.
+ * 
+ * Encoded payloads are byte arrays containing the ASCII characters of
+ * the BASE64 code. The first byte of a payload indicates the type of the
+ * original data. Byte arrays are encoded directly; all other objects are
+ * serialized and encoded in one pass without intermediate byte arrays.
+ */
+public class Base64Codec
+{
+	/**
+	 * Type prefix for payloads, which had been byte arrays
+	 */
+	public static final byte TYPE_BYTES = 'B';
+	
+	/**
+	 * Type prefix for payloads, which had been serialized objects
+	 */
+	public static final byte TYPE_OBJECT = 'O';
+	
+	/**
+	 * Pooled buffers larger than this are not kept for the next packet.
+	 */
+	private static final int MAX_POOLED_BUFFER_SIZE = 1024 * 1024;
+	
+	private static final int INITIAL_BUFFER_SIZE = 4 * 1024;
+	
+	private static final byte PADDING = '=';
+	
+	private static final byte INVALID = -1;
+	private static final byte WHITESPACE = -2;
+	
+	private static final byte[] sAlphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".getBytes();
+	private static final byte[] sValues = new byte[256];
+	
+	static {
+		for(int i = 0; i < sValues.length; i++) {
+			sValues[i] = INVALID;
+		}
+		for(int i = 0; i < sAlphabet.length; i++) {
+			sValues[sAlphabet[i]] = (byte) i;
+		}
+		sValues[' '] = WHITESPACE;
+		sValues['\t'] = WHITESPACE;
+		sValues['\r'] = WHITESPACE;
+		sValues['\n'] = WHITESPACE;
+	}
+	
+	/**
+	 * Encodes a payload of a packet.
+	 * 
+	 * @param pData Payload (!= null)
+	 * @return BASE64 encoded payload with type prefix
+	 * @throws IOException On errors during serialization
+	 */
+	public static byte[] encodePayload(Object pData) throws IOException
+	{
+		if(pData instanceof byte[]) {
+			// fast path: no serialization; encode directly into the result
+			byte[] tData = (byte[]) pData;
+			byte[] tResult = new byte[1 +getEncodedLength(tData.length)];
+			
+			tResult[0] = TYPE_BYTES;
+			encode(tData, 0, tData.length, tResult, 1);
+			return tResult;
+		} else {
+			PooledBuffer tBuffer = sBuffers.get();
+			
+			try {
+				tBuffer.write(TYPE_OBJECT);
+				
+				EncoderOutputStream tStream = new EncoderOutputStream(tBuffer);
+				Serializer.getInstance().toStream(pData, tStream);
+				tStream.finish();
+				
+				return tBuffer.toByteArray();
+			}
+			finally {
+				release(tBuffer);
+			}
+		}
+	}
+	
+	/**
+	 * Decodes a payload encoded by {@link #encodePayload(Object)}.
+	 * 
+	 * @param pData BASE64 encoded payload with type prefix
+	 * @return Original payload
+	 * @throws IOException On invalid BASE64 code or errors during deserialization
+	 * @throws ClassNotFoundException If the class of a serialized object is not known
+	 */
+	public static Object decodePayload(byte[] pData) throws IOException, ClassNotFoundException
+	{
+		if(pData.length == 0) {
+			throw new IOException("BASE64 payload without type prefix.");
+		}
+		
+		if(pData[0] == TYPE_BYTES) {
+			byte[] tResult = new byte[getDecodedLength(pData, 1, pData.length -1)];
+			
+			decode(pData, 1, pData.length -1, tResult, 0);
+			return tResult;
+		}
+		else if(pData[0] == TYPE_OBJECT) {
+			return Serializer.getInstance().toObject(new DecoderInputStream(pData, 1, pData.length -1));
+		}
+		else {
+			throw new IOException("Unknown type prefix " +pData[0] +" of BASE64 payload.");
+		}
+	}
+	
+	/**
+	 * Decodes a serialized object, which was BASE64 encoded to a string.
+	 * Line breaks and other whitespace are ignored.
+	 * 
+	 * @param pData BASE64 encoded serialized object
+	 * @return Original object
+	 */
+	public static Object decodeObject(String pData) throws IOException, ClassNotFoundException
+	{
+		byte[] tData = pData.getBytes("ISO-8859-1");
+		
+		return Serializer.getInstance().toObject(new DecoderInputStream(tData, 0, tData.length));
+	}
+	
+	/**
+	 * @return Number of characters needed to encode pLength bytes
+	 */
+	public static int getEncodedLength(int pLength)
+	{
+		return ((pLength +2) / 3) * 4;
+	}
+	
+	/**
+	 * Encodes bytes including padding at the end.
+	 * 
+	 * @param pSrc Data to encode
+	 * @param pOffset Offset of the data in pSrc
+	 * @param pLength Number of bytes to encode
+	 * @param pDst Array for the characters (with space for {@link #getEncodedLength(int)} bytes)
+	 * @param pDstOffset Offset in pDst
+	 * @return Number of characters written to pDst
+	 */
+	public static int encode(byte[] pSrc, int pOffset, int pLength, byte[] pDst, int pDstOffset)
+	{
+		int tEnd = pOffset +pLength;
+		int tOut = pDstOffset;
+		int i = pOffset;
+		
+		while(i +3 <= tEnd) {
+			int tBits = ((pSrc[i] & 0xff) << 16) | ((pSrc[i +1] & 0xff) << 8) | (pSrc[i +2] & 0xff);
+			
+			pDst[tOut++] = sAlphabet[(tBits >>> 18) & 0x3f];
+			pDst[tOut++] = sAlphabet[(tBits >>> 12) & 0x3f];
+			pDst[tOut++] = sAlphabet[(tBits >>> 6) & 0x3f];
+			pDst[tOut++] = sAlphabet[tBits & 0x3f];
+			i += 3;
+		}
+		
+		int tRest = tEnd -i;
+		if(tRest > 0) {
+			int tBits = (pSrc[i] & 0xff) << 16;
+			if(tRest == 2) tBits |= (pSrc[i +1] & 0xff) << 8;
+			
+			pDst[tOut++] = sAlphabet[(tBits >>> 18) & 0x3f];
+			pDst[tOut++] = sAlphabet[(tBits >>> 12) & 0x3f];
+			pDst[tOut++] = (tRest == 2) ? sAlphabet[(tBits >>> 6) & 0x3f] : PADDING;
+			pDst[tOut++] = PADDING;
+		}
+		
+		return tOut -pDstOffset;
+	}
+	
+	/**
+	 * @return Number of bytes encoded in the characters (without whitespace)
+	 * @throws IOException If the number of characters is not valid
+	 */
+	public static int getDecodedLength(byte[] pSrc, int pOffset, int pLength) throws IOException
+	{
+		if(pLength % 4 != 0) {
+			throw new IOException("Length " +pLength +" of BASE64 code is not a multiple of 4.");
+		}
+		
+		int tPadding = 0;
+		if(pLength > 0) {
+			if(pSrc[pOffset +pLength -1] == PADDING) tPadding++;
+			if(pSrc[pOffset +pLength -2] == PADDING) tPadding++;
+		}
+		
+		return (pLength / 4) * 3 -tPadding;
+	}
+	
+	/**
+	 * Decodes characters without whitespace.
+	 * 
+	 * @param pSrc BASE64 code
+	 * @param pOffset Offset of the code in pSrc
+	 * @param pLength Number of characters
+	 * @param pDst Array for the data (with space for {@link #getDecodedLength(byte[], int, int)} bytes)
+	 * @param pDstOffset Offset in pDst
+	 * @return Number of bytes written to pDst
+	 * @throws IOException On invalid characters
+	 */
+	public static int decode(byte[] pSrc, int pOffset, int pLength, byte[] pDst, int pDstOffset) throws IOException
+	{
+		int tEnd = pDstOffset +getDecodedLength(pSrc, pOffset, pLength);
+		int tOut = pDstOffset;
+		int i = pOffset;
+		
+		while(tOut < tEnd) {
+			int tNumber = Math.min(3, tEnd -tOut);
+			int tBits = (getValue(pSrc[i]) << 18) | (getValue(pSrc[i +1]) << 12);
+			
+			if(tNumber >= 2) tBits |= getValue(pSrc[i +2]) << 6;
+			if(tNumber >= 3) tBits |= getValue(pSrc[i +3]);
+			
+			pDst[tOut++] = (byte) (tBits >>> 16);
+			if(tNumber >= 2) pDst[tOut++] = (byte) (tBits >>> 8);
+			if(tNumber >= 3) pDst[tOut++] = (byte) tBits;
+			i += 4;
+		}
+		
+		return tOut -pDstOffset;
+	}
+	
+	private static int getValue(byte pChar) throws IOException
+	{
+		int tValue = sValues[pChar & 0xff];
+		
+		if(tValue < 0) {
+			throw new IOException("Invalid BASE64 character " +(pChar & 0xff) +".");
+		}
+		
+		return tValue;
+	}
+	
+	private static void release(PooledBuffer pBuffer)
+	{
+		if(pBuffer.getCapacity() > MAX_POOLED_BUFFER_SIZE) {
+			sBuffers.remove();
+		} else {
+			pBuffer.reset();
+		}
+	}
+	
+	/**
+	 * Output buffer, which is reused for the packets handled by a thread.
+	 */
+	private static class PooledBuffer extends ByteArrayOutputStream
+	{
+		public PooledBuffer()
+		{
+			super(INITIAL_BUFFER_SIZE);
+		}
+		
+		public int getCapacity()
+		{
+			return buf.length;
+		}
+	}
+	
+	/**
+	 * Stream encoding all bytes written to it and passing the characters
+	 * to the next stream. {@link #finish()} writes the remaining bytes
+	 * and the padding.
+	 */
+	public static class EncoderOutputStream extends OutputStream
+	{
+		/**
+		 * Number of bytes encoded in one chunk (multiple of 3)
+		 */
+		private static final int CHUNK_SIZE = 3 * 256;
+		
+		public EncoderOutputStream(OutputStream pNext)
+		{
+			mNext = pNext;
+		}
+		
+		@Override
+		public void write(int pByte) throws IOException
+		{
+			mRest[mRestLength++] = (byte) pByte;
+			
+			if(mRestLength == 3) {
+				encode(mRest, 0, 3, mChunk, 0);
+				mNext.write(mChunk, 0, 4);
+				mRestLength = 0;
+			}
+		}
+		
+		@Override
+		public void write(byte[] pData, int pOffset, int pLength) throws IOException
+		{
+			// complete bytes left from previous write operation
+			while((mRestLength > 0) && (pLength > 0)) {
+				write(pData[pOffset]);
+				pOffset++;
+				pLength--;
+			}
+			
+			while(pLength >= 3) {
+				int tLength = Math.min(CHUNK_SIZE, pLength -(pLength % 3));
+				int tChars = encode(pData, pOffset, tLength, mChunk, 0);
+				
+				mNext.write(mChunk, 0, tChars);
+				pOffset += tLength;
+				pLength -= tLength;
+			}
+			
+			while(pLength > 0) {
+				mRest[mRestLength++] = pData[pOffset];
+				pOffset++;
+				pLength--;
+			}
+		}
+		
+		/**
+		 * Writes remaining bytes and the padding. The next stream is not closed.
+		 */
+		public void finish() throws IOException
+		{
+			if(mRestLength > 0) {
+				int tChars = encode(mRest, 0, mRestLength, mChunk, 0);
+				
+				mNext.write(mChunk, 0, tChars);
+				mRestLength = 0;
+			}
+			mNext.flush();
+		}
+		
+		@Override
+		public void flush() throws IOException
+		{
+			mNext.flush();
+		}
+		
+		@Override
+		public void close() throws IOException
+		{
+			finish();
+			mNext.close();
+		}
+		
+		private OutputStream mNext;
+		private byte[] mRest = new byte[3];
+		private int mRestLength = 0;
+		private byte[] mChunk = new byte[getEncodedLength(CHUNK_SIZE)];
+	}
+	
+	/**
+	 * Stream decoding BASE64 characters from a byte array. Whitespace
+	 * between the characters is ignored.
+	 */
+	public static class DecoderInputStream extends InputStream
+	{
+		public DecoderInputStream(byte[] pSrc, int pOffset, int pLength)
+		{
+			mSrc = pSrc;
+			mPosition = pOffset;
+			mEnd = pOffset +pLength;
+		}
+		
+		@Override
+		public int read() throws IOException
+		{
+			if(mBufferPosition >= mBufferLength) {
+				if(!fill()) return -1;
+			}
+			
+			return mBuffer[mBufferPosition++] & 0xff;
+		}
+		
+		@Override
+		public int read(byte[] pData, int pOffset, int pLength) throws IOException
+		{
+			if(pLength <= 0) return 0;
+			
+			if(mBufferPosition >= mBufferLength) {
+				if(!fill()) return -1;
+			}
+			
+			int tLength = Math.min(pLength, mBufferLength -mBufferPosition);
+			System.arraycopy(mBuffer, mBufferPosition, pData, pOffset, tLength);
+			mBufferPosition += tLength;
+			
+			return tLength;
+		}
+		
+		@Override
+		public int available()
+		{
+			return mBufferLength -mBufferPosition;
+		}
+		
+		/**
+		 * Decodes the next characters into the buffer.
+		 * 
+		 * @return false, if the end of the data was reached
+		 */
+		private boolean fill() throws IOException
+		{
+			mBufferPosition = 0;
+			mBufferLength = 0;
+			
+			while(!mFinished && (mBufferLength +3 <= mBuffer.length)) {
+				// fast path for blocks without whitespace and padding
+				if(mPosition +4 <= mEnd) {
+					int tValue0 = sValues[mSrc[mPosition] & 0xff];
+					int tValue1 = sValues[mSrc[mPosition +1] & 0xff];
+					int tValue2 = sValues[mSrc[mPosition +2] & 0xff];
+					int tValue3 = sValues[mSrc[mPosition +3] & 0xff];
+					
+					if((tValue0 | tValue1 | tValue2 | tValue3) >= 0) {
+						int tBits = (tValue0 << 18) | (tValue1 << 12) | (tValue2 << 6) | tValue3;
+						
+						mBuffer[mBufferLength++] = (byte) (tBits >>> 16);
+						mBuffer[mBufferLength++] = (byte) (tBits >>> 8);
+						mBuffer[mBufferLength++] = (byte) tBits;
+						mPosition += 4;
+						continue;
+					}
+				}
+				
+				if(!readQuad()) {
+					mFinished = true;
+					break;
+				}
+				
+				mBuffer[mBufferLength++] = (byte) (mBits >>> 16);
+				if(mQuadLength >= 3) mBuffer[mBufferLength++] = (byte) (mBits >>> 8);
+				if(mQuadLength >= 4) mBuffer[mBufferLength++] = (byte) mBits;
+				
+				// padding marks the end of the data
+				if(mQuadLength < 4) mFinished = true;
+			}
+			
+			return mBufferLength > 0;
+		}
+		
+		/**
+		 * Reads the next four characters (ignoring whitespace) into mBits.
+		 * mQuadLength is set to the number of characters without padding.
+		 * 
+		 * @return false, if no characters are left
+		 */
+		private boolean readQuad() throws IOException
+		{
+			int tChars = 0;
+			
+			mBits = 0;
+			mQuadLength = 0;
+			while(tChars < 4) {
+				if(mPosition >= mEnd) {
+					if(tChars == 0) return false;
+					else throw new IOException("BASE64 code ends within a block.");
+				}
+				
+				byte tChar = mSrc[mPosition++];
+				int tValue = sValues[tChar & 0xff];
+				
+				if(tValue == WHITESPACE) continue;
+				
+				if(tChar == PADDING) {
+					if(tChars < 2) throw new IOException("Invalid BASE64 padding.");
+					tValue = 0;
+				}
+				else if(tValue < 0) {
+					throw new IOException("Invalid BASE64 character " +(tChar & 0xff) +".");
+				}
+				else if(mQuadLength < tChars) {
+					throw new IOException("BASE64 characters after padding.");
+				}
+				else {
+					mQuadLength++;
+				}
+				
+				mBits = (mBits << 6) | tValue;
+				tChars++;
+			}
+			
+			return true;
+		}
+		
+		private byte[] mSrc;
+		private int mPosition;
+		private int mEnd;
+		private boolean mFinished = false;
+		
+		private int mBits;
+		private int mQuadLength;
+		
+		private byte[] mBuffer = new byte[3 * 256];
+		private int mBufferPosition = 0;
+		private int mBufferLength = 0;
+	}
+	
+	private static ThreadLocal<PooledBuffer> sBuffers = new ThreadLocal<PooledBuffer>() {
+		@Override
+		protected PooledBuffer initialValue()
+		{
+			return new PooledBuffer();
+		}
+	};
+}
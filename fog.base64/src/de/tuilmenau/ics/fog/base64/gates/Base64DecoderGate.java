@@ -9,18 +9,15 @@
  ******************************************************************************/
 package de.tuilmenau.ics.fog.base64.gates;
 
-import java.io.IOException;
 import java.io.Serializable;
 import java.util.HashMap;
 
-import sun.misc.BASE64Decoder;
 import de.tuilmenau.ics.fog.FoGEntity;
 import de.tuilmenau.ics.fog.base64.gates.role.Base64;
 import de.tuilmenau.ics.fog.facade.Identity;
 import de.tuilmenau.ics.fog.packets.Packet;
 import de.tuilmenau.ics.fog.transfer.ForwardingElement;
 import de.tuilmenau.ics.fog.transfer.gates.FunctionalGate;
-import de.tuilmenau.ics.middleware.Serializer;
 
 
 /**
@@ -53,22 +50,20 @@ public void handlePacket(Packet pPacket, ForwardingElement pLastHop)
 				
 				Object tData = pPacket.getData();
 				if(tData != null) {
-					
-					if(!(tData instanceof String)) {
-						mLogger.warn(this, "Payload to decode from BASE64 is no String but " + tData.getClass().getSimpleName() + ". Packet: " + pPacket);
-					}
-					
-					byte[] byteArray = null;
-					try {
-						byteArray = new BASE64Decoder().decodeBuffer(tData.toString());
-					} catch (IOException ioe) {
-						mLogger.err(this, "Error on decoding payload from BASE64. Packet " +pPacket +" dropped.", ioe);
-						return;
-					}
-					
-					// decode original objects from bytes
+					// decode original objects from BASE64 code
 					try {
-						Object tNewPayload = Serializer.getInstance().toObject(byteArray);
+						Object tNewPayload;
+						
+						if(tData instanceof byte[]) {
+							tNewPayload = Base64Codec.decodePayload((byte[]) tData);
+						} else {
+							// encoded string of older versions of the encoder gate
+							if(!(tData instanceof String)) {
+								mLogger.warn(this, "Payload to decode from BASE64 is no byte array but " + tData.getClass().getSimpleName() + ". Packet: " + pPacket);
+							}
+							
+							tNewPayload = Base64Codec.decodeObject(tData.toString());
+						}
 						
 						if(tNewPayload == null || !(tNewPayload instanceof Serializable)) {
 							mLogger.err(this, "Not able to deserialize payload. Packet " +pPacket +" dropped.");
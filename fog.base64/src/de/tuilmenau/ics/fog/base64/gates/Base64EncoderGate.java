@@ -13,17 +13,16 @@
 import java.io.Serializable;
 import java.util.HashMap;
 
-import sun.misc.BASE64Encoder;
 import de.tuilmenau.ics.fog.FoGEntity;
 import de.tuilmenau.ics.fog.base64.gates.role.Base64;
 import de.tuilmenau.ics.fog.facade.Identity;
 import de.tuilmenau.ics.fog.packets.Packet;
 import de.tuilmenau.ics.fog.transfer.ForwardingElement;
 import de.tuilmenau.ics.fog.transfer.gates.FunctionalGate;
-import de.tuilmenau.ics.middleware.Serializer;
 
 /**
  * Functional gate to encode the payload to BASE64.
+ * Byte arrays are encoded directly; other payloads are serialized first.
  */
 public class Base64EncoderGate extends FunctionalGate
 {
@@ -54,19 +53,7 @@ public void handlePacket(Packet pPacket, ForwardingElement pLastHop)
 				Object tData = pPacket.getData();
 				if(tData != null) {
 					try {
-						// convert object to byte array
-						byte[] byteArray = Serializer.getInstance().toBytes(tData);
-						
-						if(byteArray != null) {
-							// encode the byte array 
-							String encoded = new BASE64Encoder().encode(byteArray);
-							
-							// set encoded data as new packet content
-							pPacket.setData(encoded);
-						} else {
-							mLogger.err(this, "Not able to serialize payload. Packet " +pPacket +" dropped.");
-							return;
-						}
+						pPacket.setData(Base64Codec.encodePayload(tData));
 					} catch (IOException exc) {
 						mLogger.err(this, "Error on serialize payload. Packet " +pPacket +" dropped.", exc);
 						return;
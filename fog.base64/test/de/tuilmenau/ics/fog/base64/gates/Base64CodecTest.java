@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Forwarding on Gates Simulator/Emulator - Base64 Gates
+ * Copyright (c) 2012, Integrated Communication Systems Group, TU Ilmenau.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html.
+ ******************************************************************************/
+package de.tuilmenau.ics.fog.base64.gates;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.Test;
+
+import de.tuilmenau.ics.middleware.Serializer;
+
+/**
+ * Checks that the BASE64 codec produces the standard encoding (RFC 4648)
+ * and stays compatible with the strings of the old encoder gates.
+ */
+public class Base64CodecTest
+{
+	/**
+	 * Test vectors of RFC 4648, section 10
+	 */
+	private static final String[][] RFC_VECTORS = {
+		{ "", "" },
+		{ "f", "Zg==" },
+		{ "fo", "Zm8=" },
+		{ "foo", "Zm9v" },
+		{ "foob", "Zm9vYg==" },
+		{ "fooba", "Zm9vYmE=" },
+		{ "foobar", "Zm9vYmFy" }
+	};
+	
+	/**
+	 * Line length of sun.misc.BASE64Encoder
+	 */
+	private static final int OLD_ENCODER_LINE_LENGTH = 76;
+	
+	@Test
+	public void testEncodeRFCVectors() throws IOException
+	{
+		for(String[] tVector : RFC_VECTORS) {
+			byte[] tData = tVector[0].getBytes("ISO-8859-1");
+			byte[] tCode = new byte[Base64Codec.getEncodedLength(tData.length)];
+			
+			assertEquals(tCode.length, Base64Codec.encode(tData, 0, tData.length, tCode, 0));
+			assertEquals(tVector[1], new String(tCode, "ISO-8859-1"));
+		}
+	}
+	
+	@Test
+	public void testDecodeRFCVectors() throws IOException
+	{
+		for(String[] tVector : RFC_VECTORS) {
+			byte[] tCode = tVector[1].getBytes("ISO-8859-1");
+			byte[] tData = new byte[Base64Codec.getDecodedLength(tCode, 0, tCode.length)];
+			
+			assertEquals(tData.length, Base64Codec.decode(tCode, 0, tCode.length, tData, 0));
+			assertEquals(tVector[0], new String(tData, "ISO-8859-1"));
+		}
+	}
+	
+	@Test
+	public void testByteArrayPayloads() throws Exception
+	{
+		Random tRandom = new Random(4648);
+		
+		for(int tLength = 0; tLength < 300; tLength++) {
+			byte[] tData = new byte[tLength];
+			tRandom.nextBytes(tData);
+			
+			byte[] tPayload = Base64Codec.encodePayload(tData);
+			assertEquals(Base64Codec.TYPE_BYTES, tPayload[0]);
+			assertArrayEquals(tData, (byte[]) Base64Codec.decodePayload(tPayload));
+		}
+	}
+	
+	@Test
+	public void testStreamEncodingEqualsBlockEncoding() throws Exception
+	{
+		HashMap<String, Integer> tObject = new HashMap<String, Integer>();
+		for(int i = 0; i < 100; i++) {
+			tObject.put("entry" +i, i);
+		}
+		
+		byte[] tSerialized = Serializer.getInstance().toBytes(tObject);
+		byte[] tExpected = new byte[Base64Codec.getEncodedLength(tSerialized.length)];
+		Base64Codec.encode(tSerialized, 0, tSerialized.length, tExpected, 0);
+		
+		byte[] tPayload = Base64Codec.encodePayload(tObject);
+		assertEquals(Base64Codec.TYPE_OBJECT, tPayload[0]);
+		assertArrayEquals(tExpected, Arrays.copyOfRange(tPayload, 1, tPayload.length));
+		assertEquals(tObject, Base64Codec.decodePayload(tPayload));
+	}
+	
+	@Test
+	public void testDecodeOldEncoderString() throws Exception
+	{
+		String tObject = "payload of an old BASE64 encoder gate, which is long enough to span several lines of BASE64 code";
+		byte[] tSerialized = Serializer.getInstance().toBytes(tObject);
+		byte[] tCode = new byte[Base64Codec.getEncodedLength(tSerialized.length)];
+		Base64Codec.encode(tSerialized, 0, tSerialized.length, tCode, 0);
+		
+		// old encoder inserted line breaks
+		StringBuilder tOld = new StringBuilder();
+		for(int i = 0; i < tCode.length; i += OLD_ENCODER_LINE_LENGTH) {
+			tOld.append(new String(tCode, i, Math.min(OLD_ENCODER_LINE_LENGTH, tCode.length -i), "ISO-8859-1"));
+			tOld.append("\r\n");
+		}
+		
+		assertEquals(tObject, Base64Codec.decodeObject(tOld.toString()));
+	}
+	
+	@Test(expected = IOException.class)
+	public void testRejectInvalidCharacter() throws Exception
+	{
+		byte[] tCode = "Zm9v!mFy".getBytes("ISO-8859-1");
+		
+		Base64Codec.decode(tCode, 0, tCode.length, new byte[6], 0);
+	}
+}
@@ -20,6 +20,13 @@
  * For testing purposes, the Ethernet can be connected to a local
  * test implementation using named buffers.
  * "create ethernet <name of lower layer> <buffer name for receiving> <buffer name for sending>" 
+ * The local test implementation accepts optional parameters for testing the
+ * fragmentation (loss and reorder rates are probabilities per fragment):
+ * "create ethernet <name> <receive buffer> <send buffer> [<fragment size> [<loss rate> [<reorder rate>]]]"
+ * 
+ * Without native libraries, the Ethernet can be emulated with UDP
+ * sockets (e.g. on the loopback interface of a single machine):
+ * "create ethernet <name of lower layer> udp:[<host>:]<port> [udp:[<host>:]<port>,...]"
  */
 public class CreateCommandEthernet implements CreateCommand
 {
@@ -29,11 +36,16 @@ public boolean create(AutonomousSystem pAS, String[] pParameters)
 		try {
 			if(pParameters.length >= 4) {
 				String optionalOutName = pParameters[3];
+				String[] options = null;
 				if(pParameters.length >= 5) {
 					optionalOutName = pParameters[4];
 				}
+				if(pParameters.length >= 6) {
+					options = new String[pParameters.length -5];
+					System.arraycopy(pParameters, 5, options, 0, options.length);
+				}
 				
-				pAS.addBus(new Ethernet(pAS, pParameters[2], pParameters[3], optionalOutName));
+				pAS.addBus(new Ethernet(pAS, pParameters[2], pParameters[3], optionalOutName, options));
 				return true;
 			} else {
 				return false;
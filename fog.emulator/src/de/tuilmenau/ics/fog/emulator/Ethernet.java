@@ -13,8 +13,11 @@
 import java.io.Serializable;
 import java.rmi.RemoteException;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.Random;
 
+import de.tuilmenau.ics.fog.EventHandler;
 import de.tuilmenau.ics.fog.IEvent;
 import de.tuilmenau.ics.fog.IEventRef;
 import de.tuilmenau.ics.fog.application.util.LayerObserverCallback;
@@ -39,23 +42,57 @@
  * simple Hello protocol and timeouts. For the transmission and
  * (de)serialization it uses an proxy object of the type
  * {@link Interface}.
+ * 
+ * Hellos and timeouts are handled by events of the time base. The
+ * hello interval starts small after changes of the neighborhood and
+ * grows while it is stable. Packets are received by the shared
+ * {@link ReceiveLoop}. Only interfaces without support for it
+ * require a thread per lower layer.
  */
 public class Ethernet implements ILowerLayer, Runnable, IEvent
 {
 	private static final double TIMEOUT_SEC = 10;
 	private static final boolean EMULATE_BROKEN = false;
 	
+	/**
+	 * Hello interval after changes of the neighborhood
+	 */
+	private static final double HELLO_MIN_INTERVAL_SEC = 0.5;
+	
+	/**
+	 * Hello interval for a stable neighborhood; ensures multiple
+	 * hellos per timeout
+	 */
+	private static final double HELLO_MAX_INTERVAL_SEC = TIMEOUT_SEC / 3.0d;
+	
+	/**
+	 * Relative random variation of timer intervals in order to
+	 * avoid synchronized hellos of multiple nodes
+	 */
+	private static final double JITTER = 0.2;
+	
 	
 	public Ethernet(AutonomousSystem pAS, String pName, String pInterfaceNameIn, String pInterfaceNameOut) throws NetworkException
+	{
+		this(pAS, pName, pInterfaceNameIn, pInterfaceNameOut, null);
+	}
+	
+	/**
+	 * @param pInterfaceOptions Additional options for the interface; might be null
+	 */
+	public Ethernet(AutonomousSystem pAS, String pName, String pInterfaceNameIn, String pInterfaceNameOut, String[] pInterfaceOptions) throws NetworkException
 	{	
 		Logger tLogger = pAS.getLogger();
 		
 		mAS = pAS;
 		mName = pName;
-		mInterface = Interface.get(pInterfaceNameIn, pInterfaceNameOut, tLogger);
+		mInterface = Interface.get(pInterfaceNameIn, pInterfaceNameOut, pInterfaceOptions, pAS.getTimeBase(), tLogger);
 		mLogger = new Logger(tLogger);
 		
-		new Thread(this).start();
+		if(!ReceiveLoop.getInstance().register(this)) {
+			// interface requires blocking receive calls
+			new Thread(this).start();
+		}
 	}
 
 	@Override
@@ -84,7 +121,10 @@ public synchronized NeighborInformation attach(String name, ILowerLayerReceive r
 			mHigherLayer = receivingNode;
 			
 			mMe = new NeighborInformation(mHigherLayerName, mInterface.getAddress());
-			mTimer = mAS.getTimeBase().scheduleIn(0, this);
+			
+			mHelloInterval = HELLO_MIN_INTERVAL_SEC;
+			mNextHelloTime = mAS.getTimeBase().now();
+			scheduleTimer(mNextHelloTime);
 		}
 
 		return mMe;
@@ -140,8 +180,7 @@ public synchronized void detach(ILowerLayerReceive receivingNode)
 			mHigherLayer = null;
 			mMe = null;
 			
-			mAS.getTimeBase().cancelEvent(mTimer);
-			mTimer = null;
+			cancelTimer();
 		}
 	}
 
@@ -196,13 +235,15 @@ public String getASName()
 	@Override
 	public void close()
 	{
+		ReceiveLoop.getInstance().unregister(this);
+		
 		if(mInterface != null) {
 			mInterface.close();
 			mInterface = null;
 		}
 		
-		if(mTimer != null) {
-			
+		synchronized(this) {
+			cancelTimer();
 		}
 	}
 	
@@ -214,19 +255,68 @@ public RemoteMedium getProxy()
 	}
 
 	@Override
-	public void fire()
+	public synchronized void fire()
 	{
+		mTimer = null;
+		
 		if(mHigherLayer != null) {
-			mAS.getTimeBase().scheduleIn(TIMEOUT_SEC / 3.0d, this);
+			double tNow = mAS.getTimeBase().now();
 			
-			try {
-				sendHello();
-			}
-			catch(Exception exc) {
-				mLogger.err(this, "Can not send hello.", exc);
+			if(tNow >= mNextHelloTime) {
+				try {
+					sendHello();
+				}
+				catch(Exception exc) {
+					mLogger.err(this, "Can not send hello.", exc);
+				}
+				
+				mNextHelloTime = tNow +jitter(mHelloInterval);
+				
+				// neighborhood is stable; send hellos less often
+				mHelloInterval = Math.min(mHelloInterval * 2.0d, HELLO_MAX_INTERVAL_SEC);
 			}
 			
-			checkForTimeouts();
+			double tNextTimeout = checkForTimeouts(tNow);
+			
+			scheduleTimer(Math.min(mNextHelloTime, tNextTimeout));
+		}
+	}
+	
+	/**
+	 * Sends the next hellos with the minimal interval after a change
+	 * of the neighborhood.
+	 */
+	private void resetHelloInterval()
+	{
+		if(mHigherLayer != null) {
+			mHelloInterval = HELLO_MIN_INTERVAL_SEC;
+			
+			double tNextHelloTime = mAS.getTimeBase().now() +jitter(mHelloInterval);
+			if(tNextHelloTime < mNextHelloTime) {
+				mNextHelloTime = tNextHelloTime;
+				scheduleTimer(mNextHelloTime);
+			}
+		}
+	}
+	
+	private double jitter(double pInterval)
+	{
+		return pInterval * (1.0d +JITTER * (2.0d * mRandom.nextDouble() -1.0d));
+	}
+	
+	private void scheduleTimer(double pTime)
+	{
+		cancelTimer();
+		
+		EventHandler tTimeBase = mAS.getTimeBase();
+		mTimer = tTimeBase.scheduleIn(Math.max(0, pTime -tTimeBase.now()), this);
+	}
+	
+	private void cancelTimer()
+	{
+		if(mTimer != null) {
+			mAS.getTimeBase().cancelEvent(mTimer);
+			mTimer = null;
 		}
 	}
 	
@@ -247,31 +337,7 @@ private void receivedPacket()
 			ReceiveResult tRes = mInterface.receive();
 			
 			if(tRes != null) {
-				if(!mBroken) {
-					if(tRes.data instanceof NeighborInformation) {
-						helloReceived((NeighborInformation) tRes.data);
-					}
-					else if(tRes.data instanceof Packet) {
-						mLogger.trace(this, "Received " +tRes.data +" from " +tRes.source);
-						
-						NeighborInformation tSource = getNeighbor(tRes.source);
-						
-						if(mHigherLayer != null) {
-							try {
-								mHigherLayer.handlePacket((Packet) tRes.data, tSource);
-							}
-							catch (RemoteException tExc) {
-								mLogger.err(this, "Higher layer is not reachable." , tExc);
-							}
-						}
-						// else: ignore packet
-					}
-					else {
-						mLogger.err(this, "Received data of unknown type " +tRes.data +" from " +tRes.source);
-					}
-				} else {
-					mLogger.trace(this, "Received " +tRes.data +" from " +tRes.source +" in broken state. Ignoring packet.");
-				}
+				handleReceived(tRes);
 			}
 		}
 		catch(Exception tExc) {
@@ -279,6 +345,46 @@ else if(tRes.data instanceof Packet) {
 		}
 	}
 	
+	/**
+	 * @return Interface used for transmission; null if closed
+	 */
+	Interface getInterface()
+	{
+		return mInterface;
+	}
+	
+	/**
+	 * Processes a single packet received from Ethernet.
+	 */
+	void handleReceived(ReceiveResult pRes)
+	{
+		if(!mBroken) {
+			if(pRes.data instanceof NeighborInformation) {
+				helloReceived((NeighborInformation) pRes.data);
+			}
+			else if(pRes.data instanceof Packet) {
+				mLogger.trace(this, "Received " +pRes.data +" from " +pRes.source);
+				
+				NeighborInformation tSource = getNeighbor(pRes.source);
+				
+				if(mHigherLayer != null) {
+					try {
+						mHigherLayer.handlePacket((Packet) pRes.data, tSource);
+					}
+					catch (RemoteException tExc) {
+						mLogger.err(this, "Higher layer is not reachable." , tExc);
+					}
+				}
+				// else: ignore packet
+			}
+			else {
+				mLogger.err(this, "Received data of unknown type " +pRes.data +" from " +pRes.source);
+			}
+		} else {
+			mLogger.trace(this, "Received " +pRes.data +" from " +pRes.source +" in broken state. Ignoring packet.");
+		}
+	}
+	
 	@Override
 	public String toString()
 	{
@@ -335,6 +441,9 @@ private synchronized void helloReceived(NeighborInformation pNeighbor)
 			mNeighbors.add(pNeighbor);
 			mNeighborTimes.put(pNeighbor, mAS.getTimeBase().now());
 			
+			// inform the new neighbor about us soon
+			resetHelloInterval();
+			
 			// inform observer about new neighbor
 			for(LayerObserverCallback obs : observerList) {
 				try {
@@ -348,18 +457,28 @@ private synchronized void helloReceived(NeighborInformation pNeighbor)
 		}
 	}
 	
-	private synchronized void checkForTimeouts()
+	/**
+	 * Removes neighbors without hellos for the timeout.
+	 * 
+	 * @return Time of the next neighbor timeout
+	 */
+	private synchronized double checkForTimeouts(double pNow)
 	{
-		double tMinTime = mAS.getTimeBase().now() -TIMEOUT_SEC;
+		double tMinTime = pNow -TIMEOUT_SEC;
+		double tNextTimeout = Double.MAX_VALUE;
+		boolean tChanged = false;
 		
-		for(NeighborInformation tNeighbor : mNeighbors) {
+		Iterator<NeighborInformation> tIter = mNeighbors.iterator();
+		while(tIter.hasNext()) {
+			NeighborInformation tNeighbor = tIter.next();
 			double tLastHelloTime = mNeighborTimes.get(tNeighbor);
 			
-			if(tLastHelloTime < tMinTime) {
+			if(tLastHelloTime <= tMinTime) {
 				// neighbor timed out and is maybe not reachable any more
 				// -> remove it from list
-				mNeighbors.remove(tNeighbor);
+				tIter.remove();
 				mNeighborTimes.remove(tNeighbor);
+				tChanged = true;
 				
 				if(!EMULATE_BROKEN) {
 					// inform observer about deleted neighbor
@@ -374,12 +493,16 @@ private synchronized void checkForTimeouts()
 					}
 				}
 				// else: feedback is given in sendPacketTo
-				
-				// iterator is now invalid; wait for next
-				// check for checking the rest of the list
-				return;
+			} else {
+				tNextTimeout = Math.min(tNextTimeout, tLastHelloTime +TIMEOUT_SEC);
 			}
 		}
+		
+		if(tChanged) {
+			resetHelloInterval();
+		}
+		
+		return tNextTimeout;
 	}
 	
 	private AutonomousSystem mAS;
@@ -399,5 +522,8 @@ private synchronized void checkForTimeouts()
 	private NeighborList mNeighbors = new NeighborList(null);
 	private HashMap<NeighborInformation, Double> mNeighborTimes = new HashMap<NeighborInformation, Double>();
 	private IEventRef mTimer;
+	private double mHelloInterval = HELLO_MIN_INTERVAL_SEC;
+	private double mNextHelloTime = 0;
+	private Random mRandom = new Random();
 
 }
@@ -10,13 +10,16 @@
 package de.tuilmenau.ics.fog.emulator;
 
 import java.io.IOException;
+import java.nio.channels.SelectableChannel;
 
+import de.tuilmenau.ics.fog.EventHandler;
 import de.tuilmenau.ics.fog.emulator.ethernet.InterfaceMAC;
 import de.tuilmenau.ics.fog.emulator.ethernet.MACAddress;
 import de.tuilmenau.ics.fog.emulator.localLoop.InterfaceLocalTest;
+import de.tuilmenau.ics.fog.emulator.udp.InterfaceUDP;
 import de.tuilmenau.ics.fog.facade.NetworkException;
+import de.tuilmenau.ics.fog.packets.codec.PacketCodec;
 import de.tuilmenau.ics.fog.util.Logger;
-import de.tuilmenau.ics.middleware.Serializer;
 
 
 
@@ -30,14 +33,32 @@
 	 * 
 	 * @param inName Name of input interface (used for receiving)
 	 * @param outName Name of output interface (used for sending)
+	 * @param timeBase Time base for timeouts of the interface
 	 * @return Reference to interface (!= null)
 	 */
-	public static Interface get(String inName, String outName, Logger logger) throws NetworkException
+	public static Interface get(String inName, String outName, EventHandler timeBase, Logger logger) throws NetworkException
 	{
-		if((outName == null) || inName.equals(outName)) {
-			return new InterfaceMAC(inName, logger);
+		return get(inName, outName, null, timeBase, logger);
+	}
+	
+	/**
+	 * Factory method for creating interfaces via names with additional options.
+	 * 
+	 * @param inName Name of input interface (used for receiving)
+	 * @param outName Name of output interface (used for sending)
+	 * @param options Options for the interface (see {@link InterfaceLocalTest#create}); might be null
+	 * @param timeBase Time base for timeouts of the interface
+	 * @return Reference to interface (!= null)
+	 */
+	public static Interface get(String inName, String outName, String[] options, EventHandler timeBase, Logger logger) throws NetworkException
+	{
+		if(InterfaceUDP.isUDP(inName)) {
+			return new InterfaceUDP(inName, outName, logger);
+		}
+		else if((outName == null) || inName.equals(outName)) {
+			return new InterfaceMAC(inName, timeBase, logger);
 		} else {
-			return new InterfaceLocalTest(inName, outName);
+			return InterfaceLocalTest.create(inName, outName, options, timeBase, logger);
 		}
 	}
 	
@@ -63,37 +84,84 @@ public static Interface get(String inName, String outName, Logger logger) throws
 	public abstract ReceiveResult receive() throws Exception;
 	
 	/**
-	 * Helper method for deserializing objects.
+	 * @return true, if the interface implements {@link #poll()}; false, if packets can be received by {@link #receive()} only
+	 */
+	public boolean supportsPoll()
+	{
+		return false;
+	}
+	
+	/**
+	 * Receives a packet without blocking. Must be implemented by
+	 * interfaces returning true for {@link #supportsPoll()}.
+	 * 
+	 * @return Received packet and source or null if no packet is available
+	 */
+	public ReceiveResult poll() throws Exception
+	{
+		throw new UnsupportedOperationException(this +" - Non-blocking receive not supported.");
+	}
+	
+	/**
+	 * @return Channel signaling available packets to a selector; null if not supported
+	 */
+	public SelectableChannel getSelectableChannel()
+	{
+		return null;
+	}
+	
+	/**
+	 * Sets a listener, which is called if packets become available.
+	 * 
+	 * @param listener Listener called by the sending thread
+	 * @return true, if supported; false otherwise
+	 */
+	public boolean setReceiveListener(Runnable listener)
+	{
+		return false;
+	}
+	
+	/**
+	 * Helper method for decoding objects from the wire format.
 	 */
 	protected ReceiveResult toObject(byte[] bytes) throws Exception
 	{
-		Object obj = Serializer.getInstance().toObject(bytes);
+		return toObject(bytes, 0, bytes.length);
+	}
+	
+	/**
+	 * Helper method for decoding objects from a part of a buffer.
+	 * The buffer can be reused afterwards.
+	 */
+	protected ReceiveResult toObject(byte[] bytes, int offset, int length) throws IOException
+	{
+		Object obj = PacketCodec.getInstance().decode(bytes, offset, length);
 	
 		ReceiveResult result = new ReceiveResult();
 		if(obj instanceof Object[]) {
 			Object[] objs = (Object[]) obj;
 			if(objs.length == 1) {
 				result.data = objs[0];
-				result.size = bytes.length;
+				result.size = length;
 			}
 			else if(objs.length == 2) {
 				if(objs[0] instanceof MACAddress) {
 					result.source = (MACAddress) objs[0];
 				}
 				result.data = objs[1];
-				result.size = bytes.length;
+				result.size = length;
 			}
 			else {
 				throw new IOException("Invalid result after parsing byte stream. Got " +objs.length +" objects.");
 			}
 		} else {
 			result.data = obj;
-			result.size = bytes.length;
+			result.size = length;
 		}
 		
 		return result;
 	}
-
+	
 	/**
 	 * Sends data to a destination address.
 	 * 
@@ -0,0 +1,320 @@
+/*******************************************************************************
+ * Forwarding on Gates Simulator/Emulator - emulator interface
+ * Copyright (c) 2012, Integrated Communication Systems Group, TU Ilmenau.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html.
+ ******************************************************************************/
+package de.tuilmenau.ics.fog.emulator;
+
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+
+import de.tuilmenau.ics.fog.emulator.Interface.ReceiveResult;
+import de.tuilmenau.ics.fog.ui.Logging;
+
+
+/**
+ * Single thread receiving the packets for all Ethernet lower layers
+ * of the JVM. Interfaces with a selectable channel are handled with
+ * a selector. Other interfaces inform the loop about pending packets
+ * via a listener. Thus, the number of threads does not depend on the
+ * number of emulated interfaces.
+ * 
+ * Interfaces, which support neither of both or which do not support
+ * non-blocking receive calls (e.g. native Ethernet), are rejected by
+ * {@link #register}. Their lower layers have to use a dedicated thread.
+ * 
+ * The selector and its keys are modified by the loop thread, only.
+ * Other threads queue their changes and wake up the selector.
+ */
+public class ReceiveLoop implements Runnable
+{
+	/**
+	 * Maximum number of packets received from one interface before
+	 * the other interfaces are served
+	 */
+	private static final int MAX_PACKETS_PER_ROUND = 64;
+	
+	/**
+	 * Number of failed receive calls in a row after which an interface
+	 * is considered to be broken and is not served any longer
+	 */
+	private static final int MAX_CONSECUTIVE_ERRORS = 16;
+	
+	
+	public static synchronized ReceiveLoop getInstance()
+	{
+		if(sInstance == null) {
+			sInstance = new ReceiveLoop();
+		}
+		
+		return sInstance;
+	}
+	
+	private ReceiveLoop()
+	{
+	}
+	
+	/**
+	 * Registers a lower layer for receiving packets from its interface.
+	 * 
+	 * @param pEthernet Lower layer
+	 * @return true, if the loop receives packets for the lower layer; false, if the interface does not support it
+	 */
+	public synchronized boolean register(final Ethernet pEthernet)
+	{
+		Interface tInterface = pEthernet.getInterface();
+		SelectableChannel tChannel = tInterface.getSelectableChannel();
+		
+		if(!tInterface.supportsPoll()) {
+			return false;
+		}
+		else if(tChannel != null) {
+			start();
+			
+			synchronized(mPending) {
+				// re-registration before the key was canceled; keep it
+				mCancellations.remove(pEthernet);
+				mRegistrations.addLast(pEthernet);
+			}
+			mSelector.wakeup();
+			return true;
+		}
+		else {
+			// selector is required by the listener
+			start();
+			
+			if(tInterface.setReceiveListener(new Runnable() {
+					@Override
+					public void run()
+					{
+						ready(pEthernet);
+					}
+				})) {
+				// packets might be pending before registration
+				ready(pEthernet);
+				return true;
+			} else {
+				return false;
+			}
+		}
+	}
+	
+	/**
+	 * Stops receiving packets for a lower layer.
+	 */
+	public void unregister(Ethernet pEthernet)
+	{
+		Selector tSelector = mSelector;
+		Interface tInterface = pEthernet.getInterface();
+		
+		if((tInterface != null) && (tInterface.getSelectableChannel() == null)) {
+			tInterface.setReceiveListener(null);
+		}
+		
+		synchronized(mPending) {
+			mRegistrations.remove(pEthernet);
+			mReady.remove(pEthernet);
+			
+			// key is canceled by the loop thread
+			if(tSelector != null) {
+				mCancellations.addLast(pEthernet);
+			}
+		}
+		
+		if(tSelector != null) {
+			tSelector.wakeup();
+		}
+	}
+	
+	/**
+	 * Informs the loop about pending packets for a lower layer.
+	 */
+	private void ready(Ethernet pEthernet)
+	{
+		boolean tWakeup;
+		
+		synchronized(mPending) {
+			tWakeup = mReady.isEmpty();
+			mReady.add(pEthernet);
+		}
+		
+		if(tWakeup) {
+			mSelector.wakeup();
+		}
+	}
+	
+	private void start()
+	{
+		if(mSelector == null) {
+			try {
+				mSelector = Selector.open();
+			}
+			catch(IOException tExc) {
+				throw new RuntimeException(this +" - Can not open selector.", tExc);
+			}
+			
+			Thread tThread = new Thread(this, "EthernetReceiveLoop");
+			tThread.setDaemon(true);
+			tThread.start();
+		}
+	}
+	
+	@Override
+	public void run()
+	{
+		LinkedList<Ethernet> tReady = new LinkedList<Ethernet>();
+		
+		while(true) {
+			try {
+				mSelector.select();
+				
+				synchronized(mPending) {
+					for(Ethernet tEthernet : mRegistrations) {
+						registerChannel(tEthernet);
+					}
+					mRegistrations.clear();
+					
+					for(Ethernet tEthernet : mCancellations) {
+						cancelChannel(tEthernet);
+					}
+					mCancellations.clear();
+					
+					tReady.addAll(mReady);
+					mReady.clear();
+				}
+				
+				Iterator<SelectionKey> tKeys = mSelector.selectedKeys().iterator();
+				while(tKeys.hasNext()) {
+					SelectionKey tKey = tKeys.next();
+					tKeys.remove();
+					
+					if(tKey.isValid()) {
+						tReady.addLast((Ethernet) tKey.attachment());
+					}
+				}
+				
+				for(Ethernet tEthernet : tReady) {
+					if(receive(tEthernet)) {
+						// more packets pending; continue after the other interfaces
+						ready(tEthernet);
+					}
+				}
+				tReady.clear();
+			}
+			catch(Exception tExc) {
+				Logging.err(this, "Exception in receive loop. Continuing.", tExc);
+				tReady.clear();
+			}
+		}
+	}
+	
+	private void registerChannel(Ethernet pEthernet)
+	{
+		Interface tInterface = pEthernet.getInterface();
+		
+		if(tInterface != null) {
+			try {
+				tInterface.getSelectableChannel().register(mSelector, SelectionKey.OP_READ, pEthernet);
+			}
+			catch(ClosedChannelException tExc) {
+				Logging.warn(this, "Interface of " +pEthernet +" closed before registration.");
+			}
+		}
+	}
+	
+	private void cancelChannel(Ethernet pEthernet)
+	{
+		for(SelectionKey tKey : mSelector.keys()) {
+			if(tKey.attachment() == pEthernet) {
+				tKey.cancel();
+			}
+		}
+	}
+	
+	/**
+	 * Receives packets for a lower layer without blocking.
+	 * 
+	 * If the interface fails repeatedly without delivering a packet,
+	 * the lower layer is unregistered. Otherwise, a broken interface
+	 * would keep the loop busy forever.
+	 * 
+	 * @return true, if more packets might be pending
+	 */
+	private boolean receive(Ethernet pEthernet)
+	{
+		int tErrors = 0;
+		
+		for(int i = 0; i < MAX_PACKETS_PER_ROUND; i++) {
+			Interface tInterface = pEthernet.getInterface();
+			if(tInterface == null) {
+				// closed in the meantime
+				return false;
+			}
+			
+			try {
+				ReceiveResult tRes = tInterface.poll();
+				
+				if(tRes == null) {
+					return false;
+				}
+				
+				tErrors = 0;
+				pEthernet.handleReceived(tRes);
+			}
+			catch(Exception tExc) {
+				tErrors++;
+				
+				if(tErrors >= MAX_CONSECUTIVE_ERRORS) {
+					pEthernet.getLogger().err(pEthernet, "Receiving failed " +tErrors +" times in a row. Stop receiving data.", tExc);
+					unregister(pEthernet);
+					return false;
+				} else {
+					pEthernet.getLogger().err(pEthernet, "Can not receive data. Ignoring one packet.", tExc);
+				}
+			}
+		}
+		
+		return true;
+	}
+	
+	@Override
+	public String toString()
+	{
+		return getClass().getSimpleName();
+	}
+	
+	
+	private volatile Selector mSelector;
+	
+	/**
+	 * Lower layers with channels, which have to be registered at the selector
+	 */
+	private LinkedList<Ethernet> mRegistrations = new LinkedList<Ethernet>();
+	
+	/**
+	 * Lower layers, which keys have to be canceled
+	 */
+	private LinkedList<Ethernet> mCancellations = new LinkedList<Ethernet>();
+	
+	/**
+	 * Lower layers with pending packets signaled by a listener
+	 */
+	private LinkedHashSet<Ethernet> mReady = new LinkedHashSet<Ethernet>();
+	
+	/**
+	 * Lock for the registrations, cancellations and ready lower layers
+	 */
+	private Object mPending = new Object();
+	
+	private static ReceiveLoop sInstance = null;
+}
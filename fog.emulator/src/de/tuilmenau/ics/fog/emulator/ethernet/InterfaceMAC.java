@@ -12,25 +12,28 @@
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.net.NetworkInterface;
-import java.util.Arrays;
-import java.util.HashMap;
 import java.util.LinkedList;
 
 
 import jniImports.PacketFoG;
 
+import de.tuilmenau.ics.fog.EventHandler;
 import de.tuilmenau.ics.fog.eclipse.utils.Resources;
 import de.tuilmenau.ics.fog.emulator.Interface;
+import de.tuilmenau.ics.fog.emulator.fragmentation.Fragmenter;
+import de.tuilmenau.ics.fog.emulator.fragmentation.Reassembler;
 import de.tuilmenau.ics.fog.facade.NetworkException;
 import de.tuilmenau.ics.fog.facade.Signature;
 import de.tuilmenau.ics.fog.packets.Packet;
+import de.tuilmenau.ics.fog.packets.codec.PacketCodec;
+import de.tuilmenau.ics.fog.packets.codec.WireOutput;
 import de.tuilmenau.ics.fog.routing.Route;
 import de.tuilmenau.ics.fog.topology.NeighborInformation;
 import de.tuilmenau.ics.fog.ui.Logging;
+import de.tuilmenau.ics.fog.ui.Viewable;
 import de.tuilmenau.ics.fog.util.ARCHDetector;
 import de.tuilmenau.ics.fog.util.Logger;
 import de.tuilmenau.ics.fog.util.OSDetector;
-import de.tuilmenau.ics.middleware.Serializer;
 
 /**
  * Access wrapper for real Ethernet.
@@ -52,6 +55,11 @@ public class InterfaceMAC extends Interface
 	 */
 	private static int MAX_BUFFER_SIZE_FOR_ONE_SOURCE_BYTES = 1024 * 1024;
 	
+	/**
+	 * Number of FoG packets, which can be reassembled in parallel.
+	 */
+	private static int MAX_PACKETS_IN_REASSEMBLY = 64;
+	
 	/**
 	 * Maximum time between two fragments of the same packet.
 	 * Delay is not so critical, since it is mainly used for
@@ -164,9 +172,10 @@ public static String[] getLibDeps()
 	 * Creates object providing access to a local Ethernet interface.
 	 * 
 	 * @param pInterfaceName Name of the interface (e.g. "eth0")
+	 * @param pTimeBase Time base for the timeouts of the fragment reassembly
 	 * @throws NetworkException On error
 	 */
-	public InterfaceMAC(String pInterfaceName, Logger pLogger) throws NetworkException
+	public InterfaceMAC(String pInterfaceName, EventHandler pTimeBase, Logger pLogger) throws NetworkException
 	{
 		mLogger = pLogger;
 		if(mLogger == null) throw new RuntimeException(this +" - Logger not defined.");
@@ -175,6 +184,8 @@ public InterfaceMAC(String pInterfaceName, Logger pLogger) throws NetworkExcepti
 		mInterfaceHwAddress = determineAddress();
 		mLogger.trace(this, "MAC address for interface " + mInterfaceName + " is " + mInterfaceHwAddress);
 		
+		mReassembler = new Reassembler(pTimeBase, mLogger, MAX_PACKETS_IN_REASSEMBLY, MAX_BUFFER_SIZE_FOR_ONE_SOURCE_BYTES, MAX_INTER_FRAGMENT_TIME_MSEC / 1000.0d);
+		
 		try {
 			mRealFoGPacket = new PacketFoG();
 			mRealFoGPacket.SetSendDevice(mInterfaceName);
@@ -206,12 +217,11 @@ public ReceiveResult receive() throws Exception
 		
 		boolean tNewPacket = false;
 		MACAddress tSourceMacAddr = null;
+		byte[] tPayload = null;
 
-		// TODO check if a fragment is the first fragment in order to
-		//      be more robust in case of packet loss
 		do {
 			//
-			// receive next fragments until a last fragment is received
+			// receive next fragments until a packet is complete
 			//
 			do {
 				tNewPacket = mRealFoGPacket.Receive();
@@ -249,15 +259,16 @@ public ReceiveResult receive() throws Exception
 				mLogger.trace(this, "Received payload data: \n" + tPlData);
 			}
 
-			// store fragment in list, which is dedicated for source
-			enqueueFragment(tSourceMacAddr, tFragmentPayload);
+			// reassembly of fragments is done per source and packet
+			tPayload = mReassembler.add(tSourceMacAddr, tFragmentPayload, 0, tFragmentPayload.length);
 		}
-		while(!mRealFoGPacket.IsLastFragment());
-    	
-		//
-		// Reconstruct packet from the source, which sends the last fragment
-		//
-	    ReceiveResult tResult = concatenateFragments(tSourceMacAddr);
+		while(tPayload == null);
+		
+		if (DEBUG_MAC_LAYER)
+			mLogger.trace(this, "Reassembled fragments from " +tSourceMacAddr +" to " +tPayload.length +" byte packet.");
+		
+		ReceiveResult tResult = toObject(tPayload);
+		tResult.source = tSourceMacAddr;
 		if (DEBUG_MAC_LAYER) {
 			if(tResult.data != null) {
 				mLogger.trace(this, "Received via Ethernet an object of type " + tResult.data.getClass());
@@ -269,45 +280,6 @@ public ReceiveResult receive() throws Exception
 	    return tResult;
 	}
 	
-	/**
-	 * Adds a fragment from a source to the queue. 
-	 */
-	private void enqueueFragment(MACAddress pSource, byte[] pPayload)
-	{
-		FragmentBuffer tBuffer = mReceiveBuffer.get(pSource);
-		if(tBuffer == null) {
-			tBuffer = new FragmentBuffer();
-			mReceiveBuffer.put(pSource, tBuffer);
-		}
-		
-		tBuffer.add(pPayload);
-	}
-	
-	/**
-	 * Concatenate all fragments received from a source to a single packet.
-	 */
-	private ReceiveResult concatenateFragments(MACAddress pSource) throws Exception
-	{
-		FragmentBuffer tBuffer = mReceiveBuffer.get(pSource);
-		
-		if(tBuffer != null) {
-			if(tBuffer.hasFragments()) {
-				byte[] tPayload = tBuffer.concatenateFragments();
-				
-				if (DEBUG_MAC_LAYER)
-					mLogger.trace(this, "Reassembled fragments from " +pSource +" to " +tPayload.length +" byte packet.");
-				
-				ReceiveResult tResult = toObject(tPayload);
-			    tResult.source = pSource;
-			    return tResult;
-			} else {
-				throw new NetworkException(this, "Did not receive any fragments from " +pSource +" for concatenation.");
-			}
-		} else {
-			throw new NetworkException(this, pSource +" is not known to fragment buffer.");
-		}
-	}
-
 	@Override
 	public synchronized int send(MACAddress pDestination, Object data) throws IOException
 	{		
@@ -324,19 +296,19 @@ public synchronized int send(MACAddress pDestination, Object data) throws IOExce
 			pDestination = BROADCAST;
 		}
 
-		// create serialized FoG payload
-		byte[] tPayload = Serializer.getInstance().toBytes(data);
+		// create FoG payload in wire format; buffer is reused for next packet
+		mSendOutput.reset();
+		PacketCodec.getInstance().encode(data, mSendOutput);
+		int tPayloadLength = mSendOutput.getLength();
 		
-		// payload fragmentation needed?
-		int tRemainingFragments = 1;
-		int tRemainingBytes = tPayload.length;
-		int tPayloadPos = 0;
-		if(tPayload.length > PAYLOAD_SIZE_LIMIT) {
-			tRemainingFragments = (tRemainingBytes + PAYLOAD_SIZE_LIMIT -1) / PAYLOAD_SIZE_LIMIT; 
-			mLogger.trace(this, "Payload data size of " + tPayload.length + " is bigger than the limit of " + PAYLOAD_SIZE_LIMIT + ", packet will be splitted into " + tRemainingFragments + " fragments");
+		// split payload into fragments with reassembly header
+		LinkedList<byte[]> tFragments = mFragmenter.fragment(mSendOutput.getBuffer(), tPayloadLength);
+		int tRemainingFragments = tFragments.size();
+		if(tRemainingFragments > 1) {
+			mLogger.trace(this, "Payload data size of " + tPayloadLength + " is bigger than the limit of " + PAYLOAD_SIZE_LIMIT + ", packet will be splitted into " + tRemainingFragments + " fragments");
 		}
 
-		while(tRemainingFragments > 0) {
+		for(byte[] tFragment : tFragments) {
 			mRealFoGPacket.Reset();
 			
 			// set Ethernet header
@@ -356,7 +328,7 @@ public synchronized int send(MACAddress pDestination, Object data) throws IOExce
 			}
 
 			// if it is the first packet we have to prepare a FoG header
-			if(tPayloadPos == 0) {
+			if(tRemainingFragments == tFragments.size()) {
 				
 				// create default route
 				byte[] tDefaultRoute = (new Route()).toString().getBytes();
@@ -406,8 +378,8 @@ public synchronized int send(MACAddress pDestination, Object data) throws IOExce
 			}
 
 			// set FoG payload
-			int tFragmentSize = (tRemainingBytes > PAYLOAD_SIZE_LIMIT) ? PAYLOAD_SIZE_LIMIT : tRemainingBytes;			
-			mRealFoGPacket.SetFoGPayload(Arrays.copyOfRange(tPayload, tPayloadPos, tPayloadPos + tFragmentSize), tFragmentSize);
+			int tFragmentSize = tFragment.length;
+			mRealFoGPacket.SetFoGPayload(tFragment, tFragmentSize);
 
 			// send the final packet
 			int tResult = mRealFoGPacket.Send(); 
@@ -430,39 +402,25 @@ public synchronized int send(MACAddress pDestination, Object data) throws IOExce
 			if (DEBUG_MAC_LAYER_DATA) {
 				StringBuilder tSb = new StringBuilder();
 				
-				for (int i = 0; ((i + tPayloadPos < tPayload.length) && (i < 256)); i++) {
-					tSb.append(String.format("%02X%s", tPayload[i + tPayloadPos], (i + tPayloadPos < tPayload.length - 1) ? "," : ""));
+				for (int i = 0; ((i < tFragmentSize) && (i < 256)); i++) {
+					tSb.append(String.format("%02X%s", tFragment[i], (i < tFragmentSize - 1) ? "," : ""));
 				}
 	
 				String tPlData = tSb.toString();;
 				mLogger.trace(this, "Sent payload data: \n" + tPlData);
 			}
 			
-			tPayloadPos += PAYLOAD_SIZE_LIMIT;
-			tRemainingBytes -= PAYLOAD_SIZE_LIMIT;
 			tRemainingFragments --;
 		}
 			
-		return tPayload.length;
+		return tPayloadLength;
 	}
 
 	@Override
 	public void close()
 	{
 		mIsClosed = true;
-	}
-	
-	public void checkForTimeouts()
-	{
-		for(FragmentBuffer tBuffer : mReceiveBuffer.values()) {
-			if(tBuffer.isTimedOut()) {
-				
-				if (tBuffer.hasFragments()) {
-					tBuffer.clear();
-				}
-				//else TODO remove buffer from hash map 
-			}
-		}
+		mReassembler.close();
 	}
 	
 	private void initReceiving() throws NetworkException
@@ -514,67 +472,15 @@ private MACAddress determineAddress() throws NetworkException
 		return tResult;
 	}
 	
-	/**
-	 * Buffer for fragments from one source.
-	 * Stores the fragments and reassembles them to the original packet.
-	 */
-	private class FragmentBuffer
-	{
-		public synchronized void add(byte[] pFragment)
-		{
-			if(pFragment != null) {
-				mBuffer.addLast(pFragment);
-				mSumSizes += pFragment.length;
-				mLastAddMSec = System.currentTimeMillis();
-				
-				if(mSumSizes >= MAX_BUFFER_SIZE_FOR_ONE_SOURCE_BYTES) {
-					mLogger.err(this, "Buffer for fragments exceeds " +MAX_BUFFER_SIZE_FOR_ONE_SOURCE_BYTES +" bytes. Cleaning it.");
-					clear();
-				}
-			}
-		}
-		
-		public synchronized boolean hasFragments()
-		{
-			return !mBuffer.isEmpty();
-		}
-		
-		public boolean isTimedOut()
-		{
-			return (mLastAddMSec +MAX_INTER_FRAGMENT_TIME_MSEC <= System.currentTimeMillis());
-		}
-		
-		public synchronized byte[] concatenateFragments()
-		{
-			byte[] tPacket = new byte[mSumSizes];
-			int tCurrentStartOffset = 0;
-			
-			for(byte[] tFragment : mBuffer) {
-				System.arraycopy(tFragment,0, tPacket, tCurrentStartOffset, tFragment.length);
-				tCurrentStartOffset += tFragment.length;
-			}
-			
-			clear();
-			return tPacket;
-		}
-		
-		public synchronized void clear()
-		{
-			mBuffer.clear();
-			mSumSizes = 0;
-		}
-		
-		private long mLastAddMSec = -1;
-		private int mSumSizes = 0;
-		private LinkedList<byte[]> mBuffer = new LinkedList<byte[]>();
-	}
 
-	
 	private Logger mLogger;
 	private boolean mReceiveInitialized = false;
 	private PacketFoG mRealFoGPacket = null;
 	private String mInterfaceName;
 	private MACAddress mInterfaceHwAddress;
 	private boolean mIsClosed = false;
-	private HashMap<MACAddress, FragmentBuffer> mReceiveBuffer = new HashMap<MACAddress, FragmentBuffer>();
+	private Fragmenter mFragmenter = new Fragmenter(PAYLOAD_SIZE_LIMIT);
+	private WireOutput mSendOutput = new WireOutput(PAYLOAD_SIZE_LIMIT);
+	@Viewable(value="Reassembly")
+	private Reassembler mReassembler;
 }
@@ -9,8 +9,14 @@
  ******************************************************************************/
 package de.tuilmenau.ics.fog.emulator.ethernet;
 
+import java.io.IOException;
 import java.io.Serializable;
 
+import de.tuilmenau.ics.fog.packets.codec.Codec;
+import de.tuilmenau.ics.fog.packets.codec.PacketCodec;
+import de.tuilmenau.ics.fog.packets.codec.WireInput;
+import de.tuilmenau.ics.fog.packets.codec.WireOutput;
+
 
 public class MACAddress implements Serializable
 {
@@ -18,6 +24,27 @@ public class MACAddress implements Serializable
 	
 	public static int ETHERNET_ADDRESS_LENGTH = 6;
 
+	/**
+	 * Binary wire format of MAC addresses
+	 */
+	public static final Codec<MACAddress> CODEC = new Codec<MACAddress>() {
+		@Override
+		public void encode(MACAddress pAddress, WireOutput pOut)
+		{
+			pOut.writeString(pAddress.mAddress);
+		}
+		
+		@Override
+		public MACAddress decode(WireInput pIn) throws IOException
+		{
+			return new MACAddress(pIn.readString());
+		}
+	};
+	
+	static {
+		PacketCodec.getInstance().register(MACAddress.class, CODEC);
+	}
+	
 	public MACAddress(String pAddress)
 	{
 		mAddress = pAddress;
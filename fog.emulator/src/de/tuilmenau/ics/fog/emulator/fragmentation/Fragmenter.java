@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Forwarding on Gates Simulator/Emulator - emulator interface
+ * Copyright (c) 2012, Integrated Communication Systems Group, TU Ilmenau.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html.
+ ******************************************************************************/
+package de.tuilmenau.ics.fog.emulator.fragmentation;
+
+import java.util.LinkedList;
+import java.util.Random;
+
+
+/**
+ * Splits frames into fragments for links with a limited frame size.
+ * Each fragment starts with a header containing the frame id, the
+ * index of the fragment and the number of fragments of the frame.
+ * The fragments can be reassembled by a {@link Reassembler} in any
+ * order.
+ */
+public class Fragmenter
+{
+	/**
+	 * Size of the header in front of each fragment:
+	 * frame id (4 bytes), fragment index (2 bytes), fragment count (2 bytes)
+	 */
+	public static final int HEADER_SIZE = 8;
+	
+	/**
+	 * Maximum number of fragments per frame
+	 */
+	public static final int MAX_FRAGMENTS = 0xFFFF;
+	
+	
+	/**
+	 * @param pMaxFragmentSize Maximum size of a fragment including the header
+	 */
+	public Fragmenter(int pMaxFragmentSize)
+	{
+		if(pMaxFragmentSize <= HEADER_SIZE) {
+			throw new IllegalArgumentException(this +" - Fragment size " +pMaxFragmentSize +" does not exceed header size.");
+		}
+		
+		mMaxPayloadSize = pMaxFragmentSize -HEADER_SIZE;
+		
+		// start with random id in order to avoid collisions
+		// with frames sent before a restart
+		mNextFrameId = new Random().nextInt();
+	}
+	
+	/**
+	 * Splits a frame into fragments. Frames, which fit into a single
+	 * fragment, are sent as one fragment with header, too.
+	 * 
+	 * @param pFrame Buffer containing the frame
+	 * @param pLength Length of the frame in the buffer
+	 * @return Fragments including header (!= null)
+	 * @throws IllegalArgumentException If the frame requires too many fragments
+	 */
+	public LinkedList<byte[]> fragment(byte[] pFrame, int pLength)
+	{
+		int tCount = Math.max(1, (pLength +mMaxPayloadSize -1) / mMaxPayloadSize);
+		if(tCount > MAX_FRAGMENTS) {
+			throw new IllegalArgumentException(this +" - Frame with " +pLength +" bytes requires too many fragments.");
+		}
+		
+		int tFrameId = nextFrameId();
+		LinkedList<byte[]> tFragments = new LinkedList<byte[]>();
+		int tPos = 0;
+		
+		for(int tIndex = 0; tIndex < tCount; tIndex++) {
+			int tSize = Math.min(mMaxPayloadSize, pLength -tPos);
+			byte[] tFragment = new byte[HEADER_SIZE +tSize];
+			
+			tFragment[0] = (byte) (tFrameId >>> 24);
+			tFragment[1] = (byte) (tFrameId >>> 16);
+			tFragment[2] = (byte) (tFrameId >>> 8);
+			tFragment[3] = (byte) tFrameId;
+			tFragment[4] = (byte) (tIndex >>> 8);
+			tFragment[5] = (byte) tIndex;
+			tFragment[6] = (byte) (tCount >>> 8);
+			tFragment[7] = (byte) tCount;
+			System.arraycopy(pFrame, tPos, tFragment, HEADER_SIZE, tSize);
+			
+			tFragments.addLast(tFragment);
+			tPos += tSize;
+		}
+		
+		return tFragments;
+	}
+	
+	private synchronized int nextFrameId()
+	{
+		return mNextFrameId++;
+	}
+	
+	
+	private final int mMaxPayloadSize;
+	private int mNextFrameId;
+}
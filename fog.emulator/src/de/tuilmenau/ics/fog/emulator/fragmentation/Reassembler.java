@@ -0,0 +1,327 @@
+/*******************************************************************************
+ * Forwarding on Gates Simulator/Emulator - emulator interface
+ * Copyright (c) 2012, Integrated Communication Systems Group, TU Ilmenau.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html.
+ ******************************************************************************/
+package de.tuilmenau.ics.fog.emulator.fragmentation;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import de.tuilmenau.ics.fog.EventHandler;
+import de.tuilmenau.ics.fog.IEvent;
+import de.tuilmenau.ics.fog.IEventRef;
+import de.tuilmenau.ics.fog.util.Logger;
+
+
+/**
+ * Reassembles frames from fragments created by a {@link Fragmenter}.
+ * 
+ * Incomplete frames are stored in a slot table with a fixed size. A
+ * slot is identified by the source and the frame id of a fragment.
+ * Slots without new fragments for a timeout are evicted by an event
+ * scheduled with the time base. If all candidate slots for a new frame
+ * are in use, the oldest one is evicted. Thus, the memory consumption
+ * is limited even on lossy links.
+ * 
+ * Fragments have to be added by a single thread (the receiving thread
+ * of an interface). The eviction runs concurrently in the event thread
+ * and synchronizes with the receiving thread via atomic operations on
+ * the slot table only.
+ */
+public class Reassembler implements IEvent
+{
+	/**
+	 * Number of slots checked for a frame
+	 */
+	private static final int PROBES = 4;
+	
+	
+	/**
+	 * @param pTimeBase Time base for timeouts and for scheduling the eviction
+	 * @param pSlots Number of frames, which can be reassembled in parallel
+	 * @param pMaxFrameSize Maximum size of a reassembled frame in bytes
+	 * @param pTimeoutSec Maximum time between two fragments of a frame
+	 */
+	public Reassembler(EventHandler pTimeBase, Logger pLogger, int pSlots, int pMaxFrameSize, double pTimeoutSec)
+	{
+		mTimeBase = pTimeBase;
+		mLogger = pLogger;
+		mSlots = new AtomicReferenceArray<Slot>(Math.max(PROBES, pSlots));
+		mMaxFrameSize = pMaxFrameSize;
+		mTimeoutSec = pTimeoutSec;
+		
+		mTimer = mTimeBase.scheduleIn(mTimeoutSec / 2.0d, this);
+	}
+	
+	/**
+	 * Adds a fragment to the reassembly.
+	 * 
+	 * @param pSource Source of the fragment
+	 * @param pFragment Buffer containing the fragment including the header
+	 * @param pOffset Start of the fragment in the buffer
+	 * @param pLength Length of the fragment
+	 * @return Reassembled frame, if the fragment completes a frame; null otherwise
+	 */
+	public byte[] add(Object pSource, byte[] pFragment, int pOffset, int pLength)
+	{
+		if(pLength < Fragmenter.HEADER_SIZE) {
+			mLogger.warn(this, "Dropping fragment with " +pLength +" bytes from " +pSource +" without header.");
+			mDropped.incrementAndGet();
+			return null;
+		}
+		
+		int tFrameId = ((pFragment[pOffset] & 0xFF) << 24) | ((pFragment[pOffset +1] & 0xFF) << 16) | ((pFragment[pOffset +2] & 0xFF) << 8) | (pFragment[pOffset +3] & 0xFF);
+		int tIndex = ((pFragment[pOffset +4] & 0xFF) << 8) | (pFragment[pOffset +5] & 0xFF);
+		int tCount = ((pFragment[pOffset +6] & 0xFF) << 8) | (pFragment[pOffset +7] & 0xFF);
+		int tPayloadOffset = pOffset +Fragmenter.HEADER_SIZE;
+		int tPayloadLength = pLength -Fragmenter.HEADER_SIZE;
+		
+		if((tIndex >= tCount) || (tPayloadLength > mMaxFrameSize)) {
+			mLogger.warn(this, "Dropping invalid fragment " +tIndex +"/" +tCount +" of frame " +tFrameId +" from " +pSource);
+			mDropped.incrementAndGet();
+			return null;
+		}
+		
+		// fast path for frames without fragmentation
+		if(tCount == 1) {
+			byte[] tFrame = new byte[tPayloadLength];
+			System.arraycopy(pFragment, tPayloadOffset, tFrame, 0, tPayloadLength);
+			
+			mCompleted.incrementAndGet();
+			return tFrame;
+		}
+		
+		double tNow = mTimeBase.now();
+		Slot tSlot = getSlot(pSource, tFrameId, tCount, tNow);
+		
+		if(tSlot.fragments[tIndex] != null) {
+			mDuplicates.incrementAndGet();
+			return null;
+		}
+		
+		if(tSlot.size +tPayloadLength > mMaxFrameSize) {
+			mLogger.warn(this, "Frame " +tFrameId +" from " +pSource +" exceeds " +mMaxFrameSize +" bytes. Dropping it.");
+			if(mSlots.compareAndSet(tSlot.index, tSlot, null)) {
+				mDropped.incrementAndGet();
+			}
+			return null;
+		}
+		
+		byte[] tPayload = new byte[tPayloadLength];
+		System.arraycopy(pFragment, tPayloadOffset, tPayload, 0, tPayloadLength);
+		tSlot.fragments[tIndex] = tPayload;
+		tSlot.received++;
+		tSlot.size += tPayloadLength;
+		tSlot.lastUpdate = tNow;
+		
+		if(tSlot.received < tSlot.fragments.length) {
+			return null;
+		}
+		
+		// Frame is complete. Even if the slot was evicted in the
+		// meantime, the frame is valid and can be delivered.
+		mSlots.compareAndSet(tSlot.index, tSlot, null);
+		mCompleted.incrementAndGet();
+		
+		return tSlot.concatenate();
+	}
+	
+	/**
+	 * Determines the slot for a frame. If the frame is not known, a new
+	 * slot is allocated. If required, the oldest slot is evicted for it.
+	 * 
+	 * @return Slot storing the frame (!= null)
+	 */
+	private Slot getSlot(Object pSource, int pFrameId, int pCount, double pNow)
+	{
+		int tLength = mSlots.length();
+		int tStart = ((pSource.hashCode() * 31 +pFrameId) & 0x7FFFFFFF) % tLength;
+		int tFree = -1;
+		int tOldest = -1;
+		Slot tOldestSlot = null;
+		
+		for(int i = 0; i < PROBES; i++) {
+			int tIndex = (tStart +i) % tLength;
+			Slot tSlot = mSlots.get(tIndex);
+			
+			if(tSlot == null) {
+				if(tFree < 0) tFree = tIndex;
+			}
+			else if((tSlot.frameId == pFrameId) && (tSlot.fragments.length == pCount) && tSlot.source.equals(pSource)) {
+				return tSlot;
+			}
+			else if((tOldestSlot == null) || (tSlot.lastUpdate < tOldestSlot.lastUpdate)) {
+				tOldest = tIndex;
+				tOldestSlot = tSlot;
+			}
+		}
+		
+		if(tFree >= 0) {
+			// only the receiving thread fills slots
+			Slot tNewSlot = new Slot(tFree, pSource, pFrameId, pCount, pNow);
+			mSlots.set(tFree, tNewSlot);
+			return tNewSlot;
+		} else {
+			Slot tNewSlot = new Slot(tOldest, pSource, pFrameId, pCount, pNow);
+			
+			mLogger.trace(this, "Slot table full. Evicting oldest frame in favour of frame " +pFrameId +" from " +pSource);
+			if(mSlots.compareAndSet(tOldest, tOldestSlot, tNewSlot)) {
+				mEvicted.incrementAndGet();
+			} else {
+				// slot was evicted by timeout in the meantime
+				mSlots.set(tOldest, tNewSlot);
+			}
+			return tNewSlot;
+		}
+	}
+	
+	/**
+	 * Removes all frames without a new fragment for the timeout.
+	 * 
+	 * @return Number of evicted frames
+	 */
+	public int evictTimedOut()
+	{
+		double tMinTime = mTimeBase.now() -mTimeoutSec;
+		int tEvicted = 0;
+		
+		for(int i = 0; i < mSlots.length(); i++) {
+			Slot tSlot = mSlots.get(i);
+			
+			if((tSlot != null) && (tSlot.lastUpdate < tMinTime)) {
+				if(mSlots.compareAndSet(i, tSlot, null)) {
+					tEvicted++;
+				}
+			}
+		}
+		
+		if(tEvicted > 0) {
+			mEvicted.addAndGet(tEvicted);
+			mLogger.log(this, "Evicted " +tEvicted +" incomplete frames after timeout.");
+		}
+		
+		return tEvicted;
+	}
+	
+	@Override
+	public void fire()
+	{
+		if(!mClosed) {
+			evictTimedOut();
+			
+			mTimer = mTimeBase.scheduleIn(mTimeoutSec / 2.0d, this);
+		}
+	}
+	
+	/**
+	 * Stops the eviction and frees all slots.
+	 */
+	public void close()
+	{
+		mClosed = true;
+		
+		if(mTimer != null) {
+			mTimeBase.cancelEvent(mTimer);
+			mTimer = null;
+		}
+		
+		for(int i = 0; i < mSlots.length(); i++) {
+			mSlots.set(i, null);
+		}
+	}
+	
+	/**
+	 * @return Number of slots currently storing incomplete frames
+	 */
+	public int getNumberPendingFrames()
+	{
+		int tPending = 0;
+		
+		for(int i = 0; i < mSlots.length(); i++) {
+			if(mSlots.get(i) != null) tPending++;
+		}
+		
+		return tPending;
+	}
+	
+	public long getNumberCompletedFrames()
+	{
+		return mCompleted.get();
+	}
+	
+	public long getNumberDuplicates()
+	{
+		return mDuplicates.get();
+	}
+	
+	public long getNumberDroppedFrames()
+	{
+		return mDropped.get();
+	}
+	
+	public long getNumberEvictedFrames()
+	{
+		return mEvicted.get();
+	}
+	
+	@Override
+	public String toString()
+	{
+		return "Reassembler(completed=" +mCompleted +", pending=" +getNumberPendingFrames() +", evicted=" +mEvicted +", dropped=" +mDropped +", duplicates=" +mDuplicates +")";
+	}
+	
+	/**
+	 * Incomplete frame. It is modified by the receiving thread only.
+	 */
+	private static class Slot
+	{
+		public Slot(int pIndex, Object pSource, int pFrameId, int pCount, double pNow)
+		{
+			index = pIndex;
+			source = pSource;
+			frameId = pFrameId;
+			fragments = new byte[pCount][];
+			lastUpdate = pNow;
+		}
+		
+		public byte[] concatenate()
+		{
+			byte[] tFrame = new byte[size];
+			int tPos = 0;
+			
+			for(byte[] tFragment : fragments) {
+				System.arraycopy(tFragment, 0, tFrame, tPos, tFragment.length);
+				tPos += tFragment.length;
+			}
+			
+			return tFrame;
+		}
+		
+		public final int index;
+		public final Object source;
+		public final int frameId;
+		public final byte[][] fragments;
+		public int received = 0;
+		public int size = 0;
+		public volatile double lastUpdate;
+	}
+	
+	
+	private final EventHandler mTimeBase;
+	private final Logger mLogger;
+	private final AtomicReferenceArray<Slot> mSlots;
+	private final int mMaxFrameSize;
+	private final double mTimeoutSec;
+	private IEventRef mTimer;
+	private volatile boolean mClosed = false;
+	
+	private final AtomicLong mCompleted = new AtomicLong();
+	private final AtomicLong mDuplicates = new AtomicLong();
+	private final AtomicLong mDropped = new AtomicLong();
+	private final AtomicLong mEvicted = new AtomicLong();
+}
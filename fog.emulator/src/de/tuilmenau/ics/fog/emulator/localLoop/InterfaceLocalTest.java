@@ -12,33 +12,96 @@
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.Random;
 
+import de.tuilmenau.ics.fog.EventHandler;
 import de.tuilmenau.ics.fog.emulator.Interface;
 import de.tuilmenau.ics.fog.emulator.ethernet.MACAddress;
-import de.tuilmenau.ics.middleware.Serializer;
+import de.tuilmenau.ics.fog.emulator.fragmentation.Fragmenter;
+import de.tuilmenau.ics.fog.emulator.fragmentation.Reassembler;
+import de.tuilmenau.ics.fog.facade.NetworkException;
+import de.tuilmenau.ics.fog.packets.codec.PacketCodec;
+import de.tuilmenau.ics.fog.ui.Viewable;
+import de.tuilmenau.ics.fog.util.Logger;
 
 /**
  * Access wrapper for local queues. Class is for testing
  * purposes, only.
+ * 
+ * Frames are fragmented like on real Ethernet. For testing the
+ * reassembly, fragments can be dropped or reordered randomly.
  */
 public class InterfaceLocalTest extends Interface
 {
-	public InterfaceLocalTest(String inName, String outName)
+	/**
+	 * Same fragment size as for real Ethernet
+	 */
+	public static final int DEFAULT_FRAGMENT_SIZE = 1280;
+	
+	private static final int REASSEMBLY_SLOTS = 64;
+	private static final int MAX_FRAME_SIZE = 1024 * 1024;
+	private static final double REASSEMBLY_TIMEOUT_SEC = 10;
+	
+	
+	public InterfaceLocalTest(String inName, String outName, EventHandler timeBase, Logger logger)
+	{
+		this(inName, outName, timeBase, logger, DEFAULT_FRAGMENT_SIZE, 0, 0);
+	}
+	
+	/**
+	 * Creates interface with options from the creation parameters.
+	 * 
+	 * @param options Optional parameters in the order fragment size, loss rate and reorder rate; might be null
+	 * @throws NetworkException On invalid options
+	 */
+	public static InterfaceLocalTest create(String inName, String outName, String[] options, EventHandler timeBase, Logger logger) throws NetworkException
+	{
+		int fragmentSize = DEFAULT_FRAGMENT_SIZE;
+		double lossRate = 0;
+		double reorderRate = 0;
+		
+		try {
+			if((options != null) && (options.length >= 1)) fragmentSize = Integer.parseInt(options[0]);
+			if((options != null) && (options.length >= 2)) lossRate = Double.parseDouble(options[1]);
+			if((options != null) && (options.length >= 3)) reorderRate = Double.parseDouble(options[2]);
+		}
+		catch(NumberFormatException exc) {
+			throw new NetworkException("Invalid options for local test interface " +inName +"/" +outName +".", exc);
+		}
+		
+		if((fragmentSize <= Fragmenter.HEADER_SIZE) || (lossRate < 0) || (lossRate > 1) || (reorderRate < 0) || (reorderRate > 1)) {
+			throw new NetworkException("Options for local test interface " +inName +"/" +outName +" out of range.");
+		}
+		
+		return new InterfaceLocalTest(inName, outName, timeBase, logger, fragmentSize, lossRate, reorderRate);
+	}
+	
+	/**
+	 * @param fragmentSize Maximum size of a fragment in the queue; must exceed {@link Fragmenter#HEADER_SIZE}
+	 * @param lossRate Probability for dropping a fragment [0, 1]
+	 * @param reorderRate Probability for a fragment to overtake its predecessor in the queue [0, 1]
+	 */
+	public InterfaceLocalTest(String inName, String outName, EventHandler timeBase, Logger logger, int fragmentSize, double lossRate, double reorderRate)
 	{
 		out = streams.get(outName);
 		if(out == null) {
-			out = new LinkedList<byte[]>();
+			out = new Stream();
 			streams.put(outName, out);
 		}
 		
 		in = streams.get(inName);
 		if(in == null) {
-			in = new LinkedList<byte[]>();
+			in = new Stream();
 			streams.put(inName, in);
 		}
 		
 		// create dummy element with string name
 		me = new MACAddress(this.toString());
+		
+		this.lossRate = lossRate;
+		this.reorderRate = reorderRate;
+		fragmenter = new Fragmenter(fragmentSize);
+		reassembler = new Reassembler(timeBase, logger, REASSEMBLY_SLOTS, MAX_FRAME_SIZE, REASSEMBLY_TIMEOUT_SEC);
 	}
 	
 	@Override
@@ -53,17 +116,24 @@ public ReceiveResult receive() throws Exception
 		ReceiveResult result = null;
 		
 		do {
-			synchronized (in) {
-				if(!in.isEmpty()) {
-					byte[] nextBytes = in.removeFirst();
-					
-					result = toObject(nextBytes);
-				} else {
-					try {
-						in.wait();
-					}
-					catch(InterruptedException exc) {
-						// ignore it
+			result = poll();
+			
+			if(result == null) {
+				Stream queue = in;
+				if(queue == null) {
+					throw new IOException(this +" - Interface closed.");
+				}
+				
+				synchronized (queue) {
+					// wait only if no fragments arrived in the meantime
+					// and if the interface was not closed
+					if(queue.isEmpty() && (in != null)) {
+						try {
+							queue.wait();
+						}
+						catch(InterruptedException exc) {
+							// ignore it
+						}
 					}
 				}
 			}
@@ -73,15 +143,85 @@ public ReceiveResult receive() throws Exception
 		return result;
 	}
 	
+	@Override
+	public boolean supportsPoll()
+	{
+		return true;
+	}
+	
+	@Override
+	public ReceiveResult poll() throws Exception
+	{
+		Stream queue = in;
+		byte[] nextBytes = null;
+		
+		if(queue != null) {
+			synchronized (queue) {
+				while((nextBytes == null) && !queue.isEmpty()) {
+					Fragment next = queue.removeFirst();
+					nextBytes = reassembler.add(next.source, next.data, 0, next.data.length);
+				}
+			}
+		}
+		
+		// decode outside of lock in order to not block the sender
+		if(nextBytes != null) {
+			return toObject(nextBytes);
+		} else {
+			return null;
+		}
+	}
+	
+	@Override
+	public boolean setReceiveListener(Runnable listener)
+	{
+		Stream queue = in;
+		
+		if(queue != null) {
+			synchronized (queue) {
+				queue.listener = listener;
+			}
+			return true;
+		} else {
+			return false;
+		}
+	}
+	
 	@Override
 	public int send(MACAddress destination, Object data) throws IOException
 	{
+		Stream queue = out;
+		if(queue == null) {
+			throw new IOException(this +" - Interface closed.");
+		}
+		
 		// ignore destination, since data is just put in a single queue
-		byte[] nextBytes = Serializer.getInstance().toBytes(new Object[] {me, data});
+		byte[] nextBytes = PacketCodec.getInstance().encode(new Object[] {me, data});
+		LinkedList<byte[]> fragments = fragmenter.fragment(nextBytes, nextBytes.length);
+		Runnable listener;
+		
+		synchronized (queue) {
+			for(byte[] fragment : fragments) {
+				if(random.nextDouble() < lossRate) {
+					lostFragments++;
+					continue;
+				}
+				
+				Fragment entry = new Fragment(me, fragment);
+				if(!queue.isEmpty() && (random.nextDouble() < reorderRate)) {
+					queue.add(queue.size() -1, entry);
+					reorderedFragments++;
+				} else {
+					queue.addLast(entry);
+				}
+			}
+			queue.notify();
+			listener = queue.listener;
+		}
 		
-		synchronized (out) {
-			out.addLast(nextBytes);
-			out.notify();
+		// inform receiver outside of lock
+		if(listener != null) {
+			listener.run();
 		}
 		
 		return nextBytes.length;
@@ -89,15 +229,63 @@ public int send(MACAddress destination, Object data) throws IOException
 	
 	public void close()
 	{
+		Stream queue = in;
+		
+		reassembler.close();
 		in = null;
 		out = null;
+		
+		// wake up a receiving thread waiting for new fragments
+		if(queue != null) {
+			synchronized (queue) {
+				queue.listener = null;
+				queue.notifyAll();
+			}
+		}
+	}
+	
+	/**
+	 * Queue of fragments with optional listener of the receiver
+	 */
+	private static class Stream extends LinkedList<Fragment>
+	{
+		private static final long serialVersionUID = 2218417624839256703L;
+		
+		public Runnable listener = null;
+	}
+	
+	/**
+	 * Entry of a queue
+	 */
+	private static class Fragment
+	{
+		public Fragment(MACAddress source, byte[] data)
+		{
+			this.source = source;
+			this.data = data;
+		}
+		
+		public final MACAddress source;
+		public final byte[] data;
 	}
 
 	
-	private LinkedList<byte[]> in;
-	private LinkedList<byte[]> out;
+	private volatile Stream in;
+	private volatile Stream out;
 	
 	private MACAddress me;
 	
-	private static HashMap<String, LinkedList<byte[]>> streams = new HashMap<String, LinkedList<byte[]>>();
+	private Fragmenter fragmenter;
+	@Viewable(value="Reassembly")
+	private Reassembler reassembler;
+	
+	private Random random = new Random();
+	private double lossRate;
+	private double reorderRate;
+	@Viewable(value="Lost fragments")
+	private long lostFragments = 0;
+	@Viewable(value="Reordered fragments")
+	private long reorderedFragments = 0;
+	
+	private static HashMap<String, Stream> streams = new HashMap<String, Stream>();
 }
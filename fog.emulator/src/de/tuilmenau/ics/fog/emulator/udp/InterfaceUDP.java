@@ -0,0 +1,375 @@
+/*******************************************************************************
+ * Forwarding on Gates Simulator/Emulator - emulator interface
+ * Copyright (c) 2012, Integrated Communication Systems Group, TU Ilmenau.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html.
+ ******************************************************************************/
+package de.tuilmenau.ics.fog.emulator.udp;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+
+import de.tuilmenau.ics.fog.emulator.Interface;
+import de.tuilmenau.ics.fog.emulator.ethernet.MACAddress;
+import de.tuilmenau.ics.fog.facade.NetworkException;
+import de.tuilmenau.ics.fog.packets.codec.PacketCodec;
+import de.tuilmenau.ics.fog.packets.codec.WireOutput;
+import de.tuilmenau.ics.fog.ui.Viewable;
+import de.tuilmenau.ics.fog.util.Logger;
+
+/**
+ * Emulated Ethernet based on UDP datagrams. It does not require native
+ * libraries or root privileges and enables emulations with multiple
+ * processes on one machine via the loopback interface.
+ * 
+ * The interface is named "udp:[<host>:]<port>" for the local socket.
+ * The peers of the segment, which receive broadcasts, are named
+ * "udp:[<host>:]<port>,[<host>:]<port>,..." (host defaults to the
+ * loopback address). Senders of received frames are added to the
+ * peers automatically. Therefore, it is sufficient if one side knows
+ * its peers.
+ * 
+ * Each frame is sent in a single datagram without fragmentation. Frames
+ * are encoded into and decoded from the arrays backing the socket
+ * buffers. These heap buffers are allocated once per interface and are
+ * reused for all frames. A receive call drains all pending datagrams at
+ * once.
+ */
+public class InterfaceUDP extends Interface
+{
+	public static final String PREFIX = "udp:";
+	
+	/**
+	 * Maximum payload of an UDP datagram over IPv4
+	 */
+	public static final int MAX_FRAME_SIZE = 65507;
+	
+	private static final String DEFAULT_HOST = "127.0.0.1";
+	private static final int RECEIVE_BLOCKING_MAX_MSEC = 1000;
+	
+	/**
+	 * Maximum number of datagrams read from the socket per wake up
+	 */
+	private static final int RECEIVE_BATCH_SIZE = 32;
+	
+	/**
+	 * Requested size of the socket buffers; large buffers reduce the
+	 * losses during bursts
+	 */
+	private static final int SOCKET_BUFFER_SIZE = 4 * 1024 * 1024;
+	
+	
+	/**
+	 * @return true, if the name describes an UDP interface
+	 */
+	public static boolean isUDP(String pName)
+	{
+		return (pName != null) && pName.startsWith(PREFIX);
+	}
+	
+	/**
+	 * Creates an UDP socket for an emulated Ethernet segment.
+	 * 
+	 * @param pLocalName Name of local socket (e.g. "udp:5000")
+	 * @param pPeerNames Name of peers (e.g. "udp:5001,5002"); might be null
+	 * @throws NetworkException On error
+	 */
+	public InterfaceUDP(String pLocalName, String pPeerNames, Logger pLogger) throws NetworkException
+	{
+		mLogger = pLogger;
+		if(mLogger == null) throw new RuntimeException(this +" - Logger not defined.");
+		
+		InetSocketAddress tLocal = parseAddress(pLocalName.substring(PREFIX.length()));
+		
+		if((pPeerNames != null) && !pPeerNames.equals(pLocalName) && isUDP(pPeerNames)) {
+			for(String tPeer : pPeerNames.substring(PREFIX.length()).split(",")) {
+				if(tPeer.trim().length() > 0) {
+					mPeers.add(parseAddress(tPeer.trim()));
+				}
+			}
+		}
+		
+		try {
+			mChannel = DatagramChannel.open();
+			mChannel.socket().setReuseAddress(true);
+			mChannel.socket().setReceiveBufferSize(SOCKET_BUFFER_SIZE);
+			mChannel.socket().setSendBufferSize(SOCKET_BUFFER_SIZE);
+			mChannel.socket().bind(tLocal);
+			mChannel.configureBlocking(false);
+			
+			mSelector = Selector.open();
+			mChannel.register(mSelector, SelectionKey.OP_READ);
+		}
+		catch(IOException tExc) {
+			close();
+			throw new NetworkException(this, "Can not open UDP socket " +tLocal, tExc);
+		}
+		
+		mAddress = toMACAddress(tLocal);
+		mLogger.log(this, "Opened UDP socket " +mAddress +" with peers " +mPeers);
+	}
+	
+	@Override
+	public MACAddress getAddress()
+	{
+		return mAddress;
+	}
+	
+	@Override
+	public ReceiveResult receive() throws Exception
+	{
+		try {
+			while(mReceived.isEmpty()) {
+				if(mIsClosed) {
+					throw new IOException(this +" - Interface closed.");
+				}
+				
+				mSelector.select(RECEIVE_BLOCKING_MAX_MSEC);
+				mSelector.selectedKeys().clear();
+				
+				receiveBatch();
+			}
+		}
+		catch(ClosedChannelException tExc) {
+			throw new IOException(this +" - Interface closed.");
+		}
+		catch(ClosedSelectorException tExc) {
+			throw new IOException(this +" - Interface closed.");
+		}
+		
+		return mReceived.removeFirst();
+	}
+	
+	@Override
+	public boolean supportsPoll()
+	{
+		return true;
+	}
+	
+	@Override
+	public ReceiveResult poll() throws Exception
+	{
+		if(mReceived.isEmpty()) {
+			receiveBatch();
+		}
+		
+		return mReceived.poll();
+	}
+	
+	@Override
+	public SelectableChannel getSelectableChannel()
+	{
+		return mChannel;
+	}
+	
+	/**
+	 * Reads all pending datagrams (up to {@link #RECEIVE_BATCH_SIZE})
+	 * from the socket without blocking.
+	 */
+	private void receiveBatch() throws IOException
+	{
+		for(int i = 0; i < RECEIVE_BATCH_SIZE; i++) {
+			mReceiveBuffer.clear();
+			
+			SocketAddress tSender = mChannel.receive(mReceiveBuffer);
+			if(tSender == null) {
+				// no more datagrams pending
+				break;
+			}
+			
+			// decode directly from the array of the buffer
+			int tLength = mReceiveBuffer.position();
+			
+			try {
+				ReceiveResult tResult = toObject(mReceiveBuffer.array(), 0, tLength);
+				tResult.source = getSource(tSender);
+				
+				mReceived.addLast(tResult);
+				mReceivedFrames++;
+			}
+			catch(IOException tExc) {
+				mLogger.err(this, "Ignoring invalid frame with " +tLength +" bytes from " +tSender, tExc);
+			}
+		}
+	}
+	
+	@Override
+	public synchronized int send(MACAddress pDestination, Object data) throws IOException
+	{
+		if(mIsClosed) {
+			throw new IOException(this +" - Interface closed.");
+		}
+		
+		mSendOutput.reset();
+		PacketCodec.getInstance().encode(data, mSendOutput);
+		
+		int tLength = mSendOutput.getLength();
+		if(tLength > MAX_FRAME_SIZE) {
+			throw new IOException(this +" - Frame with " +tLength +" bytes exceeds maximum frame size of " +MAX_FRAME_SIZE +" bytes.");
+		}
+		
+		// send directly from the array of the output; wrap it again only
+		// if the output had to enlarge it
+		if((mSendBuffer == null) || (mSendBuffer.array() != mSendOutput.getBuffer())) {
+			mSendBuffer = ByteBuffer.wrap(mSendOutput.getBuffer());
+		}
+		mSendBuffer.clear();
+		mSendBuffer.limit(tLength);
+		
+		if(pDestination == null) {
+			// broadcast: same buffer is sent to all peers
+			for(InetSocketAddress tPeer : mPeers) {
+				mSendBuffer.rewind();
+				sendDatagram(tPeer);
+			}
+		} else {
+			sendDatagram(getDestination(pDestination));
+		}
+		
+		return tLength;
+	}
+	
+	private void sendDatagram(InetSocketAddress pDestination) throws IOException
+	{
+		if(mChannel.send(mSendBuffer, pDestination) > 0) {
+			mSentFrames++;
+		} else {
+			// socket buffer is full; frame is lost like on a real link
+			mDroppedFrames++;
+			mLogger.warn(this, "Socket buffer full. Dropping frame to " +pDestination +" (" +mDroppedFrames +" frames dropped).");
+		}
+	}
+	
+	@Override
+	public void close()
+	{
+		mIsClosed = true;
+		
+		try {
+			if(mSelector != null) {
+				mSelector.close();
+			}
+			if(mChannel != null) {
+				mChannel.close();
+			}
+		}
+		catch(IOException tExc) {
+			mLogger.err(this, "Error while closing UDP socket.", tExc);
+		}
+	}
+	
+	/**
+	 * Determines the MAC address of a sender and adds it to the peers.
+	 */
+	private synchronized MACAddress getSource(SocketAddress pSender)
+	{
+		MACAddress tSource = mSources.get(pSender);
+		
+		if(tSource == null) {
+			InetSocketAddress tSender = (InetSocketAddress) pSender;
+			
+			tSource = toMACAddress(tSender);
+			mSources.put(pSender, tSource);
+			mDestinations.put(tSource, tSender);
+			
+			if(mPeers.add(tSender)) {
+				mLogger.log(this, "Learned peer " +tSource);
+			}
+		}
+		
+		return tSource;
+	}
+	
+	private InetSocketAddress getDestination(MACAddress pDestination) throws IOException
+	{
+		InetSocketAddress tDestination = mDestinations.get(pDestination);
+		
+		if(tDestination == null) {
+			try {
+				tDestination = parseAddress(pDestination.toString());
+			}
+			catch(NetworkException tExc) {
+				throw new IOException(this +" - Can not send to " +pDestination, tExc);
+			}
+			
+			mDestinations.put(pDestination, tDestination);
+		}
+		
+		return tDestination;
+	}
+	
+	private static MACAddress toMACAddress(InetSocketAddress pAddress)
+	{
+		return new MACAddress(pAddress.getAddress().getHostAddress() +":" +pAddress.getPort());
+	}
+	
+	/**
+	 * Parses addresses in the format "[<host>:]<port>".
+	 */
+	private InetSocketAddress parseAddress(String pAddress) throws NetworkException
+	{
+		String tHost = DEFAULT_HOST;
+		String tPort = pAddress;
+		
+		int tSeparator = pAddress.lastIndexOf(':');
+		if(tSeparator >= 0) {
+			tHost = pAddress.substring(0, tSeparator);
+			tPort = pAddress.substring(tSeparator +1);
+		}
+		
+		try {
+			return new InetSocketAddress(tHost, Integer.parseInt(tPort));
+		}
+		catch(IllegalArgumentException tExc) {
+			throw new NetworkException(this, "Invalid UDP address " +pAddress, tExc);
+		}
+	}
+	
+	@Override
+	public String toString()
+	{
+		return getClass().getSimpleName() +"(" +mAddress +")";
+	}
+	
+	
+	private Logger mLogger;
+	private DatagramChannel mChannel;
+	private Selector mSelector;
+	@Viewable(value="Address")
+	private MACAddress mAddress;
+	private volatile boolean mIsClosed = false;
+	
+	/**
+	 * Peers receiving broadcasts
+	 */
+	@Viewable(value="Peers")
+	private LinkedHashSet<InetSocketAddress> mPeers = new LinkedHashSet<InetSocketAddress>();
+	private HashMap<SocketAddress, MACAddress> mSources = new HashMap<SocketAddress, MACAddress>();
+	private HashMap<MACAddress, InetSocketAddress> mDestinations = new HashMap<MACAddress, InetSocketAddress>();
+	
+	private WireOutput mSendOutput = new WireOutput(4096);
+	private ByteBuffer mSendBuffer = null;
+	private ByteBuffer mReceiveBuffer = ByteBuffer.allocate(MAX_FRAME_SIZE);
+	private LinkedList<ReceiveResult> mReceived = new LinkedList<ReceiveResult>();
+	
+	@Viewable(value="Sent frames")
+	private long mSentFrames = 0;
+	@Viewable(value="Received frames")
+	private long mReceivedFrames = 0;
+	@Viewable(value="Dropped frames")
+	private long mDroppedFrames = 0;
+}
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Forwarding on Gates Simulator/Emulator - emulator interface
+ * Copyright (c) 2012, Integrated Communication Systems Group, TU Ilmenau.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html.
+ ******************************************************************************/
+package de.tuilmenau.ics.fog.emulator;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+
+import de.tuilmenau.ics.fog.EventHandler;
+import de.tuilmenau.ics.fog.IEvent;
+import de.tuilmenau.ics.fog.IEventRef;
+
+/**
+ * Time base for tests. The time does not pass by itself; it is advanced
+ * by the test, which fires all events due until then. No event thread
+ * is started.
+ */
+public class ManualTimeBase extends EventHandler
+{
+	@Override
+	public synchronized void start()
+	{
+		// no event thread; events are fired by advance
+	}
+	
+	@Override
+	public double now()
+	{
+		return mTime;
+	}
+	
+	@Override
+	public synchronized IEventRef scheduleAt(double pTime, IEvent pEvent)
+	{
+		ScheduledEvent tEvent = new ScheduledEvent(pTime, pEvent);
+		
+		mEvents.add(tEvent);
+		return tEvent;
+	}
+	
+	@Override
+	public IEventRef scheduleIn(double pAfterSeconds, IEvent pEvent)
+	{
+		return scheduleAt(now() +pAfterSeconds, pEvent);
+	}
+	
+	@Override
+	public synchronized void cancelEvent(IEventRef pEvent)
+	{
+		mEvents.remove(pEvent);
+	}
+	
+	/**
+	 * Advances the time and fires all events due until the new time.
+	 */
+	public void advance(double pSeconds)
+	{
+		double tEnd = mTime +pSeconds;
+		ScheduledEvent tNext;
+		
+		do {
+			tNext = null;
+			
+			synchronized(this) {
+				Iterator<ScheduledEvent> tIter = mEvents.iterator();
+				while(tIter.hasNext()) {
+					ScheduledEvent tEvent = tIter.next();
+					
+					if((tEvent.time <= tEnd) && ((tNext == null) || (tEvent.time < tNext.time))) {
+						tNext = tEvent;
+					}
+				}
+				
+				if(tNext != null) {
+					mEvents.remove(tNext);
+					mTime = Math.max(mTime, tNext.time);
+				}
+			}
+			
+			if(tNext != null) {
+				tNext.event.fire();
+			}
+		}
+		while(tNext != null);
+		
+		mTime = tEnd;
+	}
+	
+	private static class ScheduledEvent implements IEventRef
+	{
+		public ScheduledEvent(double pTime, IEvent pEvent)
+		{
+			time = pTime;
+			event = pEvent;
+		}
+		
+		public final double time;
+		public final IEvent event;
+	}
+	
+	private volatile double mTime = 0;
+	private LinkedList<ScheduledEvent> mEvents = new LinkedList<ScheduledEvent>();
+}
@@ -0,0 +1,231 @@
+/*******************************************************************************
+ * Forwarding on Gates Simulator/Emulator - emulator interface
+ * Copyright (c) 2012, Integrated Communication Systems Group, TU Ilmenau.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html.
+ ******************************************************************************/
+package de.tuilmenau.ics.fog.emulator.fragmentation;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.tuilmenau.ics.fog.emulator.ManualTimeBase;
+import de.tuilmenau.ics.fog.util.Logger;
+
+/**
+ * Checks the reassembly of fragmented frames with reordered, lost and
+ * duplicated fragments and the eviction of incomplete frames.
+ */
+public class ReassemblerTest
+{
+	private static final int FRAGMENT_SIZE = 100;
+	private static final int SLOTS = 8;
+	private static final int MAX_FRAME_SIZE = 64 * 1024;
+	private static final double TIMEOUT_SEC = 10;
+	
+	@Before
+	public void setUp()
+	{
+		mTimeBase = new ManualTimeBase();
+		mReassembler = new Reassembler(mTimeBase, new Logger(), SLOTS, MAX_FRAME_SIZE, TIMEOUT_SEC);
+		mFragmenter = new Fragmenter(FRAGMENT_SIZE);
+	}
+	
+	@After
+	public void tearDown()
+	{
+		mReassembler.close();
+	}
+	
+	private byte[] createFrame(int pLength)
+	{
+		byte[] tFrame = new byte[pLength];
+		
+		mRandom.nextBytes(tFrame);
+		return tFrame;
+	}
+	
+	/**
+	 * Adds fragments and checks that only the last one completes the frame.
+	 * 
+	 * @return Reassembled frame
+	 */
+	private byte[] addAll(Object pSource, Iterable<byte[]> pFragments)
+	{
+		byte[] tResult = null;
+		
+		for(byte[] tFragment : pFragments) {
+			assertNull("Frame completed before last fragment", tResult);
+			tResult = mReassembler.add(pSource, tFragment, 0, tFragment.length);
+		}
+		
+		return tResult;
+	}
+	
+	@Test
+	public void testSingleFragment()
+	{
+		byte[] tFrame = createFrame(FRAGMENT_SIZE -Fragmenter.HEADER_SIZE);
+		LinkedList<byte[]> tFragments = mFragmenter.fragment(tFrame, tFrame.length);
+		
+		assertEquals(1, tFragments.size());
+		assertArrayEquals(tFrame, addAll("A", tFragments));
+		assertEquals(0, mReassembler.getNumberPendingFrames());
+	}
+	
+	@Test
+	public void testInOrder()
+	{
+		byte[] tFrame = createFrame(1000);
+		
+		assertArrayEquals(tFrame, addAll("A", mFragmenter.fragment(tFrame, tFrame.length)));
+		assertEquals(1, mReassembler.getNumberCompletedFrames());
+		assertEquals(0, mReassembler.getNumberPendingFrames());
+	}
+	
+	@Test
+	public void testReordered()
+	{
+		for(int i = 0; i < 20; i++) {
+			byte[] tFrame = createFrame(1000 +i);
+			ArrayList<byte[]> tFragments = new ArrayList<byte[]>(mFragmenter.fragment(tFrame, tFrame.length));
+			
+			Collections.shuffle(tFragments, mRandom);
+			assertArrayEquals(tFrame, addAll("A", tFragments));
+		}
+		
+		assertEquals(20, mReassembler.getNumberCompletedFrames());
+		assertEquals(0, mReassembler.getNumberPendingFrames());
+	}
+	
+	@Test
+	public void testInterleavedSources()
+	{
+		byte[] tFrameA = createFrame(500);
+		byte[] tFrameB = createFrame(700);
+		LinkedList<byte[]> tFragmentsA = mFragmenter.fragment(tFrameA, tFrameA.length);
+		LinkedList<byte[]> tFragmentsB = new Fragmenter(FRAGMENT_SIZE).fragment(tFrameB, tFrameB.length);
+		byte[] tResultA = null;
+		byte[] tResultB = null;
+		
+		while(!tFragmentsA.isEmpty() || !tFragmentsB.isEmpty()) {
+			if(!tFragmentsA.isEmpty()) {
+				byte[] tFragment = tFragmentsA.removeFirst();
+				tResultA = mReassembler.add("A", tFragment, 0, tFragment.length);
+			}
+			if(!tFragmentsB.isEmpty()) {
+				byte[] tFragment = tFragmentsB.removeFirst();
+				tResultB = mReassembler.add("B", tFragment, 0, tFragment.length);
+			}
+		}
+		
+		assertArrayEquals(tFrameA, tResultA);
+		assertArrayEquals(tFrameB, tResultB);
+	}
+	
+	@Test
+	public void testDuplicates()
+	{
+		byte[] tFrame = createFrame(300);
+		LinkedList<byte[]> tFragments = mFragmenter.fragment(tFrame, tFrame.length);
+		byte[] tFirst = tFragments.getFirst();
+		
+		assertNull(mReassembler.add("A", tFirst, 0, tFirst.length));
+		assertNull(mReassembler.add("A", tFirst, 0, tFirst.length));
+		assertEquals(1, mReassembler.getNumberDuplicates());
+		
+		tFragments.removeFirst();
+		assertArrayEquals(tFrame, addAll("A", tFragments));
+	}
+	
+	@Test
+	public void testLossEvictedAfterTimeout()
+	{
+		byte[] tFrame = createFrame(1000);
+		LinkedList<byte[]> tFragments = mFragmenter.fragment(tFrame, tFrame.length);
+		
+		// lose one fragment in the middle
+		tFragments.remove(tFragments.size() / 2);
+		assertNull(addAll("A", tFragments));
+		assertEquals(1, mReassembler.getNumberPendingFrames());
+		
+		// still pending before the timeout
+		mTimeBase.advance(TIMEOUT_SEC / 2.0d);
+		assertEquals(1, mReassembler.getNumberPendingFrames());
+		
+		// eviction event of the reassembler removes it
+		mTimeBase.advance(TIMEOUT_SEC);
+		assertEquals(0, mReassembler.getNumberPendingFrames());
+		assertEquals(1, mReassembler.getNumberEvictedFrames());
+		assertEquals(0, mReassembler.getNumberCompletedFrames());
+		
+		// next frame is reassembled normally
+		byte[] tNext = createFrame(1000);
+		assertArrayEquals(tNext, addAll("A", mFragmenter.fragment(tNext, tNext.length)));
+	}
+	
+	@Test
+	public void testLateFragmentsAfterTimeout()
+	{
+		byte[] tFrame = createFrame(1000);
+		LinkedList<byte[]> tFragments = mFragmenter.fragment(tFrame, tFrame.length);
+		byte[] tLast = tFragments.removeLast();
+		
+		addAll("A", tFragments);
+		mTimeBase.advance(2 * TIMEOUT_SEC);
+		
+		// remaining fragment alone does not complete the frame
+		assertNull(mReassembler.add("A", tLast, 0, tLast.length));
+		assertEquals(1, mReassembler.getNumberPendingFrames());
+	}
+	
+	@Test
+	public void testSlotTableFull()
+	{
+		// many incomplete frames: memory stays limited by the slot table
+		for(int i = 0; i < 10 * SLOTS; i++) {
+			byte[] tFrame = createFrame(300);
+			byte[] tFirst = mFragmenter.fragment(tFrame, tFrame.length).getFirst();
+			
+			assertNull(mReassembler.add("A", tFirst, 0, tFirst.length));
+		}
+		
+		assertEquals(SLOTS, mReassembler.getNumberPendingFrames());
+		assertEquals(9 * SLOTS, mReassembler.getNumberEvictedFrames());
+		
+		// complete frames are still possible
+		byte[] tFrame = createFrame(1000);
+		assertArrayEquals(tFrame, addAll("A", mFragmenter.fragment(tFrame, tFrame.length)));
+	}
+	
+	@Test
+	public void testInvalidFragments()
+	{
+		assertNull(mReassembler.add("A", new byte[Fragmenter.HEADER_SIZE -1], 0, Fragmenter.HEADER_SIZE -1));
+		
+		// index 2 of 2 fragments
+		byte[] tInvalid = new byte[] { 0, 0, 0, 1, 0, 2, 0, 2, 42 };
+		assertNull(mReassembler.add("A", tInvalid, 0, tInvalid.length));
+		
+		assertEquals(2, mReassembler.getNumberDroppedFrames());
+		assertEquals(0, mReassembler.getNumberPendingFrames());
+	}
+	
+	private ManualTimeBase mTimeBase;
+	private Reassembler mReassembler;
+	private Fragmenter mFragmenter;
+	private Random mRandom = new Random(1280);
+}
@@ -0,0 +1,236 @@
+/*******************************************************************************
+ * Forwarding on Gates Simulator/Emulator - emulator interface
+ * Copyright (c) 2012, Integrated Communication Systems Group, TU Ilmenau.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html.
+ ******************************************************************************/
+package de.tuilmenau.ics.fog.emulator.localLoop;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.HashSet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.tuilmenau.ics.fog.emulator.Interface.ReceiveResult;
+import de.tuilmenau.ics.fog.emulator.ManualTimeBase;
+import de.tuilmenau.ics.fog.emulator.fragmentation.Fragmenter;
+import de.tuilmenau.ics.fog.facade.NetworkException;
+import de.tuilmenau.ics.fog.util.Logger;
+
+/**
+ * Checks the local test interface with fragmentation, loss and reordering.
+ */
+public class InterfaceLocalTestTest
+{
+	private static final int FRAMES = 200;
+	
+	@Before
+	public void setUp()
+	{
+		mTimeBase = new ManualTimeBase();
+		mLogger = new Logger();
+		
+		// streams are global; use new names for each test
+		sTestNumber++;
+		mNameAB = "ab" +sTestNumber;
+		mNameBA = "ba" +sTestNumber;
+	}
+	
+	@After
+	public void tearDown()
+	{
+		if(mA != null) mA.close();
+		if(mB != null) mB.close();
+	}
+	
+	private void createPair(int pFragmentSize, double pLossRate, double pReorderRate)
+	{
+		mA = new InterfaceLocalTest(mNameBA, mNameAB, mTimeBase, mLogger, pFragmentSize, pLossRate, pReorderRate);
+		mB = new InterfaceLocalTest(mNameAB, mNameBA, mTimeBase, mLogger, pFragmentSize, pLossRate, pReorderRate);
+	}
+	
+	private static String createMessage(int pNumber)
+	{
+		StringBuilder tMsg = new StringBuilder();
+		
+		tMsg.append(pNumber).append(':');
+		for(int i = 0; i < 50 +(pNumber % 17) * 20; i++) {
+			tMsg.append((char) ('a' +(i % 26)));
+		}
+		
+		return tMsg.toString();
+	}
+	
+	/**
+	 * Sends messages from A to B and returns all messages received by B.
+	 */
+	private HashSet<String> transfer() throws Exception
+	{
+		HashSet<String> tReceived = new HashSet<String>();
+		
+		for(int i = 0; i < FRAMES; i++) {
+			mA.send(mB.getAddress(), createMessage(i));
+		}
+		
+		ReceiveResult tResult = mB.poll();
+		while(tResult != null) {
+			assertEquals(mA.getAddress(), tResult.source);
+			assertTrue(tResult.data instanceof String);
+			assertTrue("Duplicate " +tResult.data, tReceived.add((String) tResult.data));
+			
+			tResult = mB.poll();
+		}
+		
+		return tReceived;
+	}
+	
+	@Test
+	public void testCreateOptions() throws Exception
+	{
+		mA = InterfaceLocalTest.create(mNameBA, mNameAB, null, mTimeBase, mLogger);
+		mB = InterfaceLocalTest.create(mNameAB, mNameBA, new String[] { "100", "0.1", "0.2" }, mTimeBase, mLogger);
+		
+		String[][] tInvalid = new String[][] {
+				{ Integer.toString(Fragmenter.HEADER_SIZE) },
+				{ "0" },
+				{ "-5" },
+				{ "100", "1.5" },
+				{ "100", "0", "-0.1" },
+				{ "abc" } };
+		
+		for(String[] tOptions : tInvalid) {
+			try {
+				InterfaceLocalTest.create("x" +sTestNumber, "y" +sTestNumber, tOptions, mTimeBase, mLogger);
+				fail("Options " +tOptions[0] +" accepted");
+			}
+			catch(NetworkException exc) {
+				// expected
+			}
+		}
+	}
+	
+	@Test
+	public void testFragmented() throws Exception
+	{
+		createPair(64, 0, 0);
+		
+		HashSet<String> tReceived = transfer();
+		
+		assertEquals(FRAMES, tReceived.size());
+		for(int i = 0; i < FRAMES; i++) {
+			assertTrue(tReceived.contains(createMessage(i)));
+		}
+	}
+	
+	@Test
+	public void testReordered() throws Exception
+	{
+		createPair(64, 0, 0.5);
+		
+		HashSet<String> tReceived = transfer();
+		
+		// reordering must not corrupt or lose any frame
+		assertEquals(FRAMES, tReceived.size());
+		for(int i = 0; i < FRAMES; i++) {
+			assertTrue(tReceived.contains(createMessage(i)));
+		}
+	}
+	
+	@Test
+	public void testLoss() throws Exception
+	{
+		createPair(64, 0.05, 0.2);
+		
+		HashSet<String> tReceived = transfer();
+		
+		// frames with lost fragments are dropped; the others are intact
+		assertTrue(tReceived.size() < FRAMES);
+		for(String tMsg : tReceived) {
+			int tNumber = Integer.parseInt(tMsg.substring(0, tMsg.indexOf(':')));
+			assertEquals(createMessage(tNumber), tMsg);
+		}
+		
+		// incomplete frames are removed after the timeout and
+		// do not disturb the following transmissions
+		mTimeBase.advance(60);
+		mB.close();
+		mA.close();
+		createPair(64, 0, 0);
+		assertEquals(FRAMES, transfer().size());
+	}
+	
+	@Test
+	public void testCloseWakesUpReceiver() throws Exception
+	{
+		createPair(64, 0, 0);
+		
+		final Exception[] tError = new Exception[1];
+		Thread tReceiver = new Thread() {
+			public void run()
+			{
+				try {
+					mB.receive();
+				}
+				catch(Exception exc) {
+					tError[0] = exc;
+				}
+			}
+		};
+		
+		tReceiver.start();
+		Thread.sleep(100);
+		mB.close();
+		tReceiver.join(5000);
+		
+		assertFalse("Receiver still blocked", tReceiver.isAlive());
+		assertNotNull(tError[0]);
+		assertTrue(tError[0] instanceof IOException);
+	}
+	
+	@Test
+	public void testUseAfterClose() throws Exception
+	{
+		createPair(64, 0, 0);
+		mB.close();
+		
+		assertNull(mB.poll());
+		assertFalse(mB.setReceiveListener(null));
+		
+		try {
+			mB.receive();
+			fail("Receive after close");
+		}
+		catch(IOException exc) {
+			// expected
+		}
+		
+		try {
+			mB.send(mA.getAddress(), "test");
+			fail("Send after close");
+		}
+		catch(IOException exc) {
+			// expected
+		}
+	}
+	
+	private static int sTestNumber = 0;
+	
+	private ManualTimeBase mTimeBase;
+	private Logger mLogger;
+	private String mNameAB;
+	private String mNameBA;
+	private InterfaceLocalTest mA;
+	private InterfaceLocalTest mB;
+}
@@ -10,6 +10,7 @@
 package de.tuilmenau.ics.fog.encryption;
 
 import java.io.Serializable;
+import java.security.SecureRandom;
 import java.util.HashMap;
 
 import de.tuilmenau.ics.fog.encryption.gates.role.Encryption;
@@ -21,10 +22,63 @@
 
 /**
  * Requests the encryption of a communication.
+ * 
+ * For real cipher suites, the key of the connection is part of the
+ * parameters of the property. It is transported in cleartext within the
+ * requirements {@link de.tuilmenau.ics.fog.facade.Description} of the
+ * connection and the gate configuration. Thus, the encryption protects
+ * the payload against eavesdroppers on the links, only. It does not
+ * protect against nodes, which can read the signaling of the connection
+ * setup.
  */
 public class EncryptionProperty extends FunctionalRequirementProperty
 {
 	private static final long serialVersionUID = 7901814506635752324L;
+	
+	/**
+	 * Key lengths in bytes for connections using real encryption
+	 */
+	private static final int KEY_LENGTH = 16;
+	
+	public static final String HashKey_CipherSuite = "CipherSuite";
+	
+	/**
+	 * Hex encoded key of the connection; transported in cleartext
+	 */
+	public static final String HashKey_Key = "Key";
+	
+	/**
+	 * Algorithms used by the encryption gates.
+	 */
+	public static enum CipherSuite
+	{
+		/** No real encryption; payload is just moved into a header (best simulation performance). */
+		SIMULATED,
+		/** AES-GCM with 128 bit key */
+		AES_GCM,
+		/** ChaCha20-Poly1305; requires a VM supporting it */
+		CHACHA20_POLY1305,
+		/** AES-CTR with HMAC-SHA256 (encrypt-then-MAC); supported by all VMs */
+		AES_CTR_HMAC_SHA256;
+		
+		/**
+		 * @return Suite for the name or null, if name is not known
+		 */
+		public static CipherSuite parse(String pName)
+		{
+			if(pName != null) {
+				String tName = pName.trim().toUpperCase().replace('-', '_');
+				
+				for(CipherSuite tSuite : values()) {
+					if(tSuite.name().equals(tName)) return tSuite;
+				}
+			}
+			
+			return null;
+		}
+	}
+	
+	private static SecureRandom sRandom = null;
 
 	/**
 	 * The direction-pair of encoding and decoding relative to the direction
@@ -99,17 +153,70 @@ public EncryptionDirectionPair getReverseDirectionPair()
 	 * Requests the ability to encrypt payload and vice-versa.
 	 */
 	public EncryptionProperty(EncryptionDirectionPair pDirectionPair)
+	{
+		this(pDirectionPair, CipherSuite.SIMULATED);
+	}
+	
+	/**
+	 * Requests the encryption of payload with a specific cipher suite. For
+	 * real cipher suites, a new key is generated for the connection. It is
+	 * transported to the peer together with the requirements of the
+	 * connection.
+	 * 
+	 * @param pSuite Cipher suite; null for {@link CipherSuite#SIMULATED}
+	 */
+	public EncryptionProperty(EncryptionDirectionPair pDirectionPair, CipherSuite pSuite)
+	{
+		this(pDirectionPair, pSuite, null);
+		
+		if(getCipherSuite() != CipherSuite.SIMULATED) {
+			mParameters.put(HashKey_Key, toHex(generateKey()));
+		}
+	}
+	
+	private EncryptionProperty(EncryptionDirectionPair pDirectionPair, CipherSuite pSuite, String pKey)
 	{
 		mDirectionPair = pDirectionPair;
 		if(mDirectionPair == null) {
 			mDirectionPair = EncryptionDirectionPair.DecodeUp_EncodeDown;
 		}
+		
+		if(pSuite == null) {
+			pSuite = CipherSuite.SIMULATED;
+		}
+		
+		// keep parameters empty for simulated encryption in order to stay compatible with existing capabilities
+		if(pSuite != CipherSuite.SIMULATED) {
+			mParameters = new HashMap<String, Serializable>();
+			mParameters.put(HashKey_CipherSuite, pSuite.name());
+			if(pKey != null) {
+				mParameters.put(HashKey_Key, pKey);
+			}
+		}
 	}
 
 	@Override
 	protected String getPropertyValues()
 	{
-		return "Encryption_" + mDirectionPair.name();
+		if(getCipherSuite() != CipherSuite.SIMULATED) {
+			return "Encryption_" + mDirectionPair.name() +"_" +getCipherSuite();
+		} else {
+			return "Encryption_" + mDirectionPair.name();
+		}
+	}
+	
+	/**
+	 * @return Cipher suite used for the encryption (!= null)
+	 */
+	public CipherSuite getCipherSuite()
+	{
+		if(mParameters != null) {
+			CipherSuite tSuite = CipherSuite.parse((String) mParameters.get(HashKey_CipherSuite));
+			
+			if(tSuite != null) return tSuite;
+		}
+		
+		return CipherSuite.SIMULATED;
 	}
 	
 	/**
@@ -127,15 +234,15 @@ public IDirectionPair getDirectionPair()
 	@Override
 	public HashMap<String, Serializable> getUpValueMap()
 	{
-		// XOR encryption does not need additional arguments.
-		return null;
+		// simulated encryption does not need additional arguments.
+		return mParameters;
 	}
 	
 	@Override
 	public HashMap<String, Serializable> getDownValueMap()
 	{
-		// XOR encryption does not need additional arguments.
-		return null;
+		// simulated encryption does not need additional arguments.
+		return mParameters;
 	}
 	
 	/**
@@ -146,10 +253,62 @@ public HashMap<String, Serializable> getDownValueMap()
 	@Override
 	public FunctionalRequirementProperty getRemoteProperty()
 	{
+		// peer uses the same suite and key
+		String tKey = null;
+		if(mParameters != null) {
+			tKey = (String) mParameters.get(HashKey_Key);
+		}
+		
 		if(mDirectionPair != null) {
-			return new EncryptionProperty(mDirectionPair.getReverseDirectionPair());
+			return new EncryptionProperty(mDirectionPair.getReverseDirectionPair(), getCipherSuite(), tKey);
+		}
+		return new EncryptionProperty(null, getCipherSuite(), tKey);
+	}
+	
+	private static synchronized byte[] generateKey()
+	{
+		if(sRandom == null) {
+			sRandom = new SecureRandom();
+		}
+		
+		byte[] tKey = new byte[KEY_LENGTH];
+		sRandom.nextBytes(tKey);
+		return tKey;
+	}
+	
+	/**
+	 * Keys are stored as strings in the parameters, since the parameters
+	 * are compared with equals, which does not work for arrays.
+	 */
+	public static String toHex(byte[] pData)
+	{
+		StringBuilder tRes = new StringBuilder(pData.length * 2);
+		
+		for(byte tByte : pData) {
+			tRes.append(Character.forDigit((tByte >> 4) & 0xF, 16));
+			tRes.append(Character.forDigit(tByte & 0xF, 16));
 		}
-		return new EncryptionProperty(null);
+		
+		return tRes.toString();
+	}
+	
+	/**
+	 * @return Bytes of a hex string or null, if the string is not valid
+	 */
+	public static byte[] fromHex(String pHex)
+	{
+		if((pHex == null) || (pHex.length() % 2 != 0)) return null;
+		
+		byte[] tRes = new byte[pHex.length() / 2];
+		for(int i = 0; i < tRes.length; i++) {
+			int tHigh = Character.digit(pHex.charAt(2 * i), 16);
+			int tLow = Character.digit(pHex.charAt(2 * i +1), 16);
+			
+			if((tHigh < 0) || (tLow < 0)) return null;
+			tRes[i] = (byte) ((tHigh << 4) | tLow);
+		}
+		
+		return tRes;
 	}
 	
 	/** 
@@ -158,4 +317,8 @@ public FunctionalRequirementProperty getRemoteProperty()
 	 */
 	private EncryptionDirectionPair mDirectionPair;
 	
+	/**
+	 * Cipher suite and key of the connection; null for simulated encryption
+	 */
+	private HashMap<String, Serializable> mParameters = null;
 }
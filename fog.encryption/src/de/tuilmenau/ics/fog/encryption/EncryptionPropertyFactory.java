@@ -9,6 +9,7 @@
  ******************************************************************************/
 package de.tuilmenau.ics.fog.encryption;
 
+import de.tuilmenau.ics.fog.encryption.EncryptionProperty.CipherSuite;
 import de.tuilmenau.ics.fog.encryption.EncryptionProperty.EncryptionDirectionPair;
 import de.tuilmenau.ics.fog.facade.properties.Property;
 import de.tuilmenau.ics.fog.facade.properties.PropertyException;
@@ -24,7 +25,15 @@ public Property createProperty(String pName, Object pParameters) throws Property
 		
 		if(pParameters != null)
 		{
-			tProp = new EncryptionProperty(EncryptionDirectionPair.DecodeUp_EncodeDown);//TODO: parse params and find direction-pair			
+			// parameter selects the cipher suite
+			CipherSuite tSuite = CipherSuite.parse(pParameters.toString());
+			
+			// do not fall back to another suite, since peers might choose different ones
+			if(tSuite == null) {
+				throw new PropertyException(this, "Unknown cipher suite '" +pParameters +"' for encryption.");
+			}
+			
+			tProp = new EncryptionProperty(EncryptionDirectionPair.DecodeUp_EncodeDown, tSuite);
 		}else
 		{
 			tProp = new EncryptionProperty(EncryptionDirectionPair.DecodeUp_EncodeDown);
@@ -0,0 +1,240 @@
+/*******************************************************************************
+ * Forwarding on Gates Simulator/Emulator - Encryption Gates
+ * Copyright (c) 2012, Integrated Communication Systems Group, TU Ilmenau.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html.
+ ******************************************************************************/
+package de.tuilmenau.ics.fog.encryption.gates;
+
+import java.lang.reflect.Constructor;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.spec.AlgorithmParameterSpec;
+import java.util.Arrays;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.NoSuchPaddingException;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import de.tuilmenau.ics.fog.encryption.EncryptionProperty;
+import de.tuilmenau.ics.fog.encryption.EncryptionProperty.CipherSuite;
+
+
+/**
+ * Authenticated encryption with associated data for the encryption gates.
+ * The algorithms are provided by the JCE providers of the VM. AES-GCM and
+ * ChaCha20-Poly1305 are used directly. AES-CTR with HMAC-SHA256
+ * (encrypt-then-MAC) is constructed from the basic algorithms. There is no
+ * fallback to another suite, if the VM does not support the requested one,
+ * since the peer would not be able to decrypt the data.
+ * 
+ * Cipher objects are not thread safe. Thus, an object of this class must
+ * be used by one thread at a time.
+ */
+class AEADCipher
+{
+	/**
+	 * Length of the nonces in bytes (96 bit as recommended for GCM)
+	 */
+	public static final int NONCE_LENGTH = 12;
+	
+	/**
+	 * Length of the authentication tag in bytes
+	 */
+	public static final int TAG_LENGTH = 16;
+	
+	/**
+	 * @param pSuite Requested cipher suite
+	 * @param pKey Hex encoded key of the connection
+	 * @throws GeneralSecurityException If the VM does not support the suite
+	 */
+	public AEADCipher(CipherSuite pSuite, String pKey) throws GeneralSecurityException
+	{
+		byte[] tKey = EncryptionProperty.fromHex(pKey);
+		
+		if(tKey == null) {
+			throw new GeneralSecurityException("No key for cipher suite " +pSuite +" available.");
+		}
+		
+		mSuite = pSuite;
+		if(mSuite == CipherSuite.AES_GCM) {
+			mCipher = getCipher("AES/GCM/NoPadding");
+			mKey = new SecretKeySpec(tKey, "AES");
+		}
+		else if(mSuite == CipherSuite.CHACHA20_POLY1305) {
+			mCipher = getCipher("ChaCha20-Poly1305");
+			mKey = new SecretKeySpec(deriveKey(tKey, "ChaCha20", 32), "ChaCha20");
+		}
+		else if(mSuite == CipherSuite.AES_CTR_HMAC_SHA256) {
+			mCipher = Cipher.getInstance("AES/CTR/NoPadding");
+			mKey = new SecretKeySpec(deriveKey(tKey, "enc", 16), "AES");
+			mMac = Mac.getInstance("HmacSHA256");
+			mMac.init(new SecretKeySpec(deriveKey(tKey, "mac", 32), "HmacSHA256"));
+		}
+		else {
+			throw new GeneralSecurityException("Cipher suite " +pSuite +" does not support real encryption.");
+		}
+		
+		if(mCipher == null) {
+			throw new GeneralSecurityException("Cipher suite " +pSuite +" not supported by VM.");
+		}
+		
+		// check if provider accepts key and parameters
+		if(mMac == null) {
+			try {
+				mCipher.init(Cipher.DECRYPT_MODE, mKey, getParameters(new byte[NONCE_LENGTH]));
+			}
+			catch(GeneralSecurityException exc) {
+				throw new GeneralSecurityException("Cipher suite " +pSuite +" not supported by VM.", exc);
+			}
+		}
+	}
+	
+	/**
+	 * @return Suite used for encryption
+	 */
+	public CipherSuite getSuite()
+	{
+		return mSuite;
+	}
+	
+	/**
+	 * Encrypts and authenticates the plain text.
+	 * 
+	 * @param pNonce Nonce, which must not be used twice with the same key
+	 * @param pPlainText Data to encrypt
+	 * @return Cipher text including authentication tag
+	 */
+	public byte[] seal(byte[] pNonce, byte[] pPlainText) throws GeneralSecurityException
+	{
+		if(mMac == null) {
+			mCipher.init(Cipher.ENCRYPT_MODE, mKey, getParameters(pNonce));
+			return mCipher.doFinal(pPlainText);
+		} else {
+			mCipher.init(Cipher.ENCRYPT_MODE, mKey, new IvParameterSpec(getCounterBlock(pNonce)));
+			
+			byte[] tResult = new byte[pPlainText.length +TAG_LENGTH];
+			mCipher.doFinal(pPlainText, 0, pPlainText.length, tResult, 0);
+			
+			byte[] tTag = calculateTag(pNonce, tResult, pPlainText.length);
+			System.arraycopy(tTag, 0, tResult, pPlainText.length, TAG_LENGTH);
+			return tResult;
+		}
+	}
+	
+	/**
+	 * Checks the authentication tag and decrypts the cipher text.
+	 * 
+	 * @param pNonce Nonce used for encryption
+	 * @param pCipherText Cipher text including authentication tag
+	 * @return Plain text
+	 * @throws GeneralSecurityException If the authentication fails
+	 */
+	public byte[] open(byte[] pNonce, byte[] pCipherText) throws GeneralSecurityException
+	{
+		if(mMac == null) {
+			mCipher.init(Cipher.DECRYPT_MODE, mKey, getParameters(pNonce));
+			return mCipher.doFinal(pCipherText);
+		} else {
+			int tLength = pCipherText.length -TAG_LENGTH;
+			
+			if(tLength < 0) {
+				throw new GeneralSecurityException("Cipher text too short.");
+			}
+			
+			// check tag before decrypting the data
+			byte[] tTag = calculateTag(pNonce, pCipherText, tLength);
+			byte[] tReceivedTag = Arrays.copyOfRange(pCipherText, tLength, pCipherText.length);
+			
+			if(!MessageDigest.isEqual(tTag, tReceivedTag)) {
+				throw new GeneralSecurityException("Authentication tag invalid.");
+			}
+			
+			mCipher.init(Cipher.DECRYPT_MODE, mKey, new IvParameterSpec(getCounterBlock(pNonce)));
+			return mCipher.doFinal(pCipherText, 0, tLength);
+		}
+	}
+	
+	private byte[] calculateTag(byte[] pNonce, byte[] pCipherText, int pLength)
+	{
+		mMac.update(pNonce);
+		mMac.update(pCipherText, 0, pLength);
+		
+		return Arrays.copyOf(mMac.doFinal(), TAG_LENGTH);
+	}
+	
+	/**
+	 * @return Parameters for the AEAD ciphers
+	 */
+	private AlgorithmParameterSpec getParameters(byte[] pNonce) throws GeneralSecurityException
+	{
+		if(mSuite == CipherSuite.AES_GCM) {
+			// GCMParameterSpec is available since Java 7, only
+			if(sGCMParameterSpec == null) {
+				try {
+					sGCMParameterSpec = Class.forName("javax.crypto.spec.GCMParameterSpec").getConstructor(int.class, byte[].class);
+				}
+				catch(Exception exc) {
+					throw new GeneralSecurityException("No parameter specification for GCM available.", exc);
+				}
+			}
+			
+			try {
+				return (AlgorithmParameterSpec) sGCMParameterSpec.newInstance(TAG_LENGTH * 8, pNonce);
+			}
+			catch(Exception exc) {
+				throw new GeneralSecurityException("Can not create GCM parameters.", exc);
+			}
+		} else {
+			return new IvParameterSpec(pNonce);
+		}
+	}
+	
+	/**
+	 * @return Initial counter block for CTR mode: nonce followed by a 32 bit block counter
+	 */
+	private static byte[] getCounterBlock(byte[] pNonce)
+	{
+		return Arrays.copyOf(pNonce, NONCE_LENGTH +4);
+	}
+	
+	/**
+	 * Derives a key for a specific purpose from the key of the connection.
+	 */
+	private static byte[] deriveKey(byte[] pKey, String pPurpose, int pLength) throws GeneralSecurityException
+	{
+		Mac tMac = Mac.getInstance("HmacSHA256");
+		tMac.init(new SecretKeySpec(pKey, "HmacSHA256"));
+		
+		return Arrays.copyOf(tMac.doFinal(pPurpose.getBytes()), pLength);
+	}
+	
+	/**
+	 * @return Cipher or null, if the VM does not support the transformation
+	 */
+	private static Cipher getCipher(String pTransformation)
+	{
+		try {
+			return Cipher.getInstance(pTransformation);
+		}
+		catch(NoSuchAlgorithmException exc) {
+			return null;
+		}
+		catch(NoSuchPaddingException exc) {
+			return null;
+		}
+	}
+	
+	private static Constructor<?> sGCMParameterSpec = null;
+	
+	private CipherSuite mSuite;
+	private Cipher mCipher = null;
+	private SecretKeySpec mKey;
+	private Mac mMac = null;
+}
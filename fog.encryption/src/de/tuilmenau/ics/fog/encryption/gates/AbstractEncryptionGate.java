@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * Forwarding on Gates Simulator/Emulator - Encryption Gates
+ * Copyright (c) 2012, Integrated Communication Systems Group, TU Ilmenau.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html.
+ ******************************************************************************/
+package de.tuilmenau.ics.fog.encryption.gates;
+
+import java.io.Serializable;
+import java.security.GeneralSecurityException;
+import java.util.HashMap;
+
+import de.tuilmenau.ics.CommonSim.datastream.numeric.CounterNode;
+import de.tuilmenau.ics.CommonSim.datastream.numeric.DoubleNode;
+import de.tuilmenau.ics.CommonSim.datastream.numeric.IDoubleWriter;
+import de.tuilmenau.ics.CommonSim.datastream.numeric.SumNode;
+import de.tuilmenau.ics.fog.FoGEntity;
+import de.tuilmenau.ics.fog.encryption.EncryptionProperty;
+import de.tuilmenau.ics.fog.encryption.EncryptionProperty.CipherSuite;
+import de.tuilmenau.ics.fog.facade.Identity;
+import de.tuilmenau.ics.fog.transfer.ForwardingElement;
+import de.tuilmenau.ics.fog.transfer.gates.FunctionalGate;
+import de.tuilmenau.ics.fog.transfer.gates.roles.IFunctionDescriptor;
+import de.tuilmenau.ics.fog.ui.Viewable;
+
+
+/**
+ * Base class for the encryption gates. It sets up the cipher for the
+ * connection based on the configuration derived from the
+ * {@link EncryptionProperty} and provides the statistics about the
+ * crypto operations.
+ */
+public abstract class AbstractEncryptionGate extends FunctionalGate
+{
+	public AbstractEncryptionGate(FoGEntity pEntity, ForwardingElement pNext, IFunctionDescriptor pFunctionDescriptor, HashMap<String, Serializable> pConfigParams, Identity pOwner)
+	{
+		super(pEntity, pNext, pFunctionDescriptor, pOwner);
+		
+		if(pConfigParams != null) {
+			mSuiteName = (String) pConfigParams.get(EncryptionProperty.HashKey_CipherSuite);
+			mSuite = CipherSuite.parse(mSuiteName);
+			mKey = (String) pConfigParams.get(EncryptionProperty.HashKey_Key);
+		}
+		if((mSuite == null) && (mSuiteName == null)) {
+			mSuite = CipherSuite.SIMULATED;
+		}
+	}
+	
+	@Override
+	protected void init()
+	{
+		// the peer uses the suite given in the configuration; another one
+		// would just lead to authentication failures at the peer
+		if(mSuite == null) {
+			mLogger.err(this, "Unknown cipher suite '" +mSuiteName +"' in gate configuration.");
+			switchToState(GateState.ERROR);
+			return;
+		}
+		
+		if(mSuite != CipherSuite.SIMULATED) {
+			try {
+				mCipher = new AEADCipher(mSuite, mKey);
+			}
+			catch(GeneralSecurityException exc) {
+				mLogger.err(this, "Can not set up cipher suite " +mSuite +".", exc);
+				switchToState(GateState.ERROR);
+				return;
+			}
+			
+			String tBaseName = getClass().getCanonicalName() +"." +getEntity() +"." +getGateID() +"." +mSuite;
+			mLatency = DoubleNode.openAsWriter(tBaseName +".latency");
+			mBytes = SumNode.openAsWriter(tBaseName +".bytes");
+			mFailures = CounterNode.openAsWriter(tBaseName +".failures");
+		}
+		
+		switchToState(GateState.OPERATE);
+	}
+	
+	/**
+	 * @return Cipher suite of the gate; null if the configuration contains an unknown suite
+	 */
+	protected CipherSuite getSuite()
+	{
+		return mSuite;
+	}
+	
+	/**
+	 * @return Cipher for real encryption or null, if the encryption is simulated
+	 */
+	protected AEADCipher getCipher()
+	{
+		return mCipher;
+	}
+	
+	/**
+	 * Records the statistics of a crypto operation.
+	 * 
+	 * @param pBytes Number of bytes processed
+	 * @param pStartNanoTime Value of {@link System#nanoTime()} at the beginning of the operation
+	 */
+	protected void accountOperation(int pBytes, long pStartNanoTime)
+	{
+		double tLatencyMicroSec = (System.nanoTime() -pStartNanoTime) / 1000.0d;
+		
+		mOperations++;
+		mBytesProcessed += pBytes;
+		mTimeMicroSec += tLatencyMicroSec;
+		
+		if(mLatency != null) {
+			mLatency.write(tLatencyMicroSec, getEntity().getTimeBase().nowStream());
+			mBytes.write(pBytes, getEntity().getTimeBase().nowStream());
+		}
+	}
+	
+	/**
+	 * Records a failed crypto operation (e.g. authentication failure or replay).
+	 */
+	protected void accountFailure()
+	{
+		mNumberFailures++;
+		
+		if(mFailures != null) {
+			mFailures.write(+1.0d, getEntity().getTimeBase().nowStream());
+		}
+	}
+	
+	/**
+	 * @return Throughput of the crypto operations in bytes per second of processing time
+	 */
+	public double getThroughput()
+	{
+		if(mTimeMicroSec > 0) {
+			return mBytesProcessed / (mTimeMicroSec / 1000000.0d);
+		} else {
+			return 0;
+		}
+	}
+	
+	@Override
+	protected boolean checkAvailability(HashMap<String, Serializable> pConfigData)
+	{
+		// gate can be reused for the same suite and key, only
+		String tKey = null;
+		CipherSuite tSuite = null;
+		
+		if(pConfigData != null) {
+			tSuite = CipherSuite.parse((String) pConfigData.get(EncryptionProperty.HashKey_CipherSuite));
+			tKey = (String) pConfigData.get(EncryptionProperty.HashKey_Key);
+		}
+		if(tSuite == null) {
+			tSuite = CipherSuite.SIMULATED;
+		}
+		
+		if(tSuite == CipherSuite.SIMULATED) {
+			return (mCipher == null);
+		} else {
+			return (mCipher != null) && (tKey != null) && tKey.equals(mKey);
+		}
+	}
+	
+	@Viewable("Cipher suite")
+	private CipherSuite mSuite = null;
+	private String mSuiteName = null;
+	private String mKey = null;
+	private AEADCipher mCipher = null;
+	
+	@Viewable("Operations")
+	private long mOperations = 0;
+	@Viewable("Bytes processed")
+	private long mBytesProcessed = 0;
+	@Viewable("Processing time [us]")
+	private double mTimeMicroSec = 0;
+	@Viewable("Failures")
+	private long mNumberFailures = 0;
+	
+	private IDoubleWriter mLatency = null;
+	private IDoubleWriter mBytes = null;
+	private IDoubleWriter mFailures = null;
+}
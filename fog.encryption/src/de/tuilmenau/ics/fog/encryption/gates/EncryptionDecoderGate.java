@@ -10,6 +10,7 @@
 package de.tuilmenau.ics.fog.encryption.gates;
 
 import java.io.Serializable;
+import java.security.GeneralSecurityException;
 import java.util.HashMap;
 
 import de.tuilmenau.ics.fog.FoGEntity;
@@ -18,16 +19,17 @@
 import de.tuilmenau.ics.fog.facade.Identity;
 import de.tuilmenau.ics.fog.packets.Packet;
 import de.tuilmenau.ics.fog.transfer.ForwardingElement;
-import de.tuilmenau.ics.fog.transfer.gates.FunctionalGate;
+import de.tuilmenau.ics.middleware.Serializer;
 
 /**
  * Functional gate to decode the payload.
  * Gate is expecting a packet with payload {@link EncryptionHeader}.
- * Current implementation does not perform a real encryption. It just
- * extracts the non-encrypted payload given in the header. See
- * {@link EncryptionEncoderGate} for further details.
+ * For simulated encryption, it just extracts the non-encrypted payload
+ * given in the header. For real encryption, the payload is authenticated
+ * and decrypted. Packets failing the authentication, being replayed or
+ * using another cipher suite than the gate are dropped. See {@link EncryptionEncoderGate} for further details.
  */
-public class EncryptionDecoderGate extends FunctionalGate
+public class EncryptionDecoderGate extends AbstractEncryptionGate
 {
 	/**
 	 * @param pEntity The node this gate belongs to.
@@ -36,7 +38,7 @@ public class EncryptionDecoderGate extends FunctionalGate
 	 */
 	public EncryptionDecoderGate(FoGEntity pEntity, ForwardingElement pNext, HashMap<String, Serializable> pConfigParams, Identity pOwner)
 	{
-		super(pEntity, pNext, Encryption.DECODER, pOwner);
+		super(pEntity, pNext, Encryption.DECODER, pConfigParams, pOwner);
 	}
 	
 	@Override
@@ -54,9 +56,35 @@ public void handlePacket(Packet pPacket, ForwardingElement pLastHop)
 
 			if (pPacket.getData() instanceof EncryptionHeader) {
 				EncryptionHeader tEncHeader = (EncryptionHeader)pPacket.getData();
-				pPacket.setData((Serializable) tEncHeader.getData());
+				
+				if(tEncHeader.isEncrypted()) {
+					if(tEncHeader.getCipherSuite() != getSuite()) {
+						mLogger.warn(this, "Packet " +pPacket +" encrypted with cipher suite " +tEncHeader.getCipherSuite() +" but gate uses " +getSuite() +". Packet dropped.");
+						accountFailure();
+						return;
+					}
+					
+					if(!decrypt(pPacket, tEncHeader)) {
+						mLogger.warn(this, "Decryption failed. Packet " +pPacket +" dropped.");
+						return;
+					}
+				} else {
+					// do not accept plain payload, if the connection is encrypted
+					if(getCipher() != null) {
+						mLogger.warn(this, "Got unencrypted packet " +pPacket +" but gate uses cipher suite " +getSuite() +". Packet dropped.");
+						accountFailure();
+						return;
+					}
+					
+					pPacket.setData((Serializable) tEncHeader.getData());
+				}
 			} else {
 				mLogger.err(this, "Got plain data packet but expected crypted packet");
+				
+				if(getCipher() != null) {
+					accountFailure();
+					return;
+				}
 			}
 			
 			tTargetFE.handlePacket(pPacket, this);
@@ -66,16 +94,61 @@ public void handlePacket(Packet pPacket, ForwardingElement pLastHop)
 		}
 	}
 	
-	@Override
-	protected void init()
+	/**
+	 * Replaces the encrypted payload of the packet with the plain one.
+	 * 
+	 * @return true on success; false if packet has to be dropped
+	 */
+	private synchronized boolean decrypt(Packet pPacket, EncryptionHeader pHeader)
 	{
-		switchToState(GateState.OPERATE);
+		long tStart = System.nanoTime();
+		byte[] tNonce = pHeader.getNonce();
+		
+		if(getCipher() == null) {
+			mLogger.err(this, "Got encrypted packet but no key available");
+			accountFailure();
+			return false;
+		}
+		if((tNonce == null) || (tNonce.length != AEADCipher.NONCE_LENGTH)) {
+			accountFailure();
+			return false;
+		}
+		
+		int tSalt = 0;
+		long tSequenceNumber = 0;
+		for(int i = 0; i < 4; i++) {
+			tSalt = (tSalt << 8) | (tNonce[i] & 0xFF);
+		}
+		for(int i = 4; i < AEADCipher.NONCE_LENGTH; i++) {
+			tSequenceNumber = (tSequenceNumber << 8) | (tNonce[i] & 0xFF);
+		}
+		
+		if(!mReplayWindow.check(tSalt, tSequenceNumber)) {
+			mLogger.warn(this, "Replayed packet " +pPacket +" with sequence number " +tSequenceNumber);
+			accountFailure();
+			return false;
+		}
+		
+		try {
+			byte[] tPlainText = getCipher().open(tNonce, pHeader.getCipherText());
+			
+			// update window only for authenticated packets
+			mReplayWindow.update(tSalt, tSequenceNumber);
+			pPacket.setData((Serializable) Serializer.getInstance().toObject(tPlainText));
+			
+			accountOperation(tPlainText.length, tStart);
+			return true;
+		}
+		catch(GeneralSecurityException exc) {
+			mLogger.warn(this, "Authentication of " +pPacket +" failed.", exc);
+		}
+		catch(Exception exc) {
+			mLogger.err(this, "Can not deserialize payload of " +pPacket, exc);
+		}
+		
+		accountFailure();
+		return false;
 	}
 	
-	@Override
-	protected boolean checkAvailability(HashMap<String, Serializable> pConfigData)
-	{
-		// Every process is allowed to use this gate.
-		return true;
-	}
+	private ReplayWindow mReplayWindow = new ReplayWindow();
 }
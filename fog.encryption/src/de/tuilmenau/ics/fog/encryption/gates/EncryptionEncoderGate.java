@@ -9,7 +9,10 @@
  ******************************************************************************/
 package de.tuilmenau.ics.fog.encryption.gates;
 
+import java.io.IOException;
 import java.io.Serializable;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
 import java.util.HashMap;
 
 import de.tuilmenau.ics.fog.FoGEntity;
@@ -18,17 +21,20 @@
 import de.tuilmenau.ics.fog.facade.Identity;
 import de.tuilmenau.ics.fog.packets.Packet;
 import de.tuilmenau.ics.fog.transfer.ForwardingElement;
-import de.tuilmenau.ics.fog.transfer.gates.FunctionalGate;
+import de.tuilmenau.ics.middleware.Serializer;
 
 
 /**
  * Functional gate to encode the payload.
- * A real encryption is not performed. It is just simulated in a way
- * enabling good simulation performance. The original payload is moved
- * into a {@link EncryptionHeader} and this header is replacing the
+ * By default, a real encryption is not performed. It is just simulated
+ * in a way enabling good simulation performance. The original payload is
+ * moved into a {@link EncryptionHeader} and this header is replacing the
  * payload in a packet.
+ * If a real cipher suite is configured, the serialized payload is
+ * encrypted and authenticated. Each nonce consists of a random salt of
+ * the gate and a sequence number.
  */
-public class EncryptionEncoderGate extends FunctionalGate
+public class EncryptionEncoderGate extends AbstractEncryptionGate
 {
 	/**
 	 * @param pEntity The node this gate belongs to.
@@ -38,7 +44,11 @@ public class EncryptionEncoderGate extends FunctionalGate
 	 */
 	public EncryptionEncoderGate(FoGEntity pEntity, ForwardingElement pNext, HashMap<String, Serializable> pConfigParams, Identity pOwner)
 	{
-		super(pEntity, pNext, Encryption.ENCODER, pOwner);
+		super(pEntity, pNext, Encryption.ENCODER, pConfigParams, pOwner);
+		
+		synchronized (sRandom) {
+			mSalt = sRandom.nextInt();
+		}
 	}
 	
 	@Override
@@ -53,7 +63,14 @@ public void handlePacket(Packet pPacket, ForwardingElement pLastHop) {
 				incMessageCounter();
 			}
 
-			pPacket.setData(new EncryptionHeader(pPacket.getData()));
+			if(getCipher() != null) {
+				if(!encrypt(pPacket)) {
+					mLogger.err(this, "Encryption failed. Packet " +pPacket +" dropped.");
+					return;
+				}
+			} else {
+				pPacket.setData(new EncryptionHeader(pPacket.getData()));
+			}
 			
 			tTargetFE.handlePacket(pPacket, this);
 		} else {
@@ -62,14 +79,55 @@ public void handlePacket(Packet pPacket, ForwardingElement pLastHop) {
 		}
 	}
 	
-	@Override
-	protected void init() {
-		switchToState(GateState.OPERATE);
+	/**
+	 * Replaces the payload of the packet with its encrypted form.
+	 * 
+	 * @return true on success; false otherwise
+	 */
+	private synchronized boolean encrypt(Packet pPacket)
+	{
+		long tStart = System.nanoTime();
+		
+		try {
+			byte[] tPlainText = Serializer.getInstance().toBytes(pPacket.getData());
+			byte[] tNonce = nextNonce();
+			byte[] tCipherText = getCipher().seal(tNonce, tPlainText);
+			
+			pPacket.setData(new EncryptionHeader(getCipher().getSuite(), tNonce, tCipherText));
+			accountOperation(tPlainText.length, tStart);
+			return true;
+		}
+		catch(IOException exc) {
+			mLogger.err(this, "Can not serialize payload of " +pPacket, exc);
+		}
+		catch(GeneralSecurityException exc) {
+			mLogger.err(this, "Can not encrypt payload of " +pPacket, exc);
+		}
+		
+		accountFailure();
+		return false;
 	}
 	
-	@Override
-	protected boolean checkAvailability(HashMap<String, Serializable> pConfigData) {
-		// Every process is allowed to use this gate.
-		return true;
+	/**
+	 * @return Nonce consisting of the salt of the gate and the next sequence number
+	 */
+	private byte[] nextNonce()
+	{
+		byte[] tNonce = new byte[AEADCipher.NONCE_LENGTH];
+		long tSequenceNumber = mSequenceNumber++;
+		
+		for(int i = 0; i < 4; i++) {
+			tNonce[i] = (byte) (mSalt >>> (8 * (3 -i)));
+		}
+		for(int i = 0; i < 8; i++) {
+			tNonce[4 +i] = (byte) (tSequenceNumber >>> (8 * (7 -i)));
+		}
+		
+		return tNonce;
 	}
+	
+	private static final SecureRandom sRandom = new SecureRandom();
+	
+	private int mSalt;
+	private long mSequenceNumber = 0;
 }
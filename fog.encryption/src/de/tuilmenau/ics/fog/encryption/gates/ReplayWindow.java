@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Forwarding on Gates Simulator/Emulator - Encryption Gates
+ * Copyright (c) 2012, Integrated Communication Systems Group, TU Ilmenau.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html.
+ ******************************************************************************/
+package de.tuilmenau.ics.fog.encryption.gates;
+
+import java.util.HashMap;
+
+
+/**
+ * Sliding window for detecting replayed packets. Each sender of a connection
+ * (identified by the salt of its nonces) uses increasing sequence numbers.
+ * Sequence numbers older than the window or already seen are rejected.
+ */
+class ReplayWindow
+{
+	/**
+	 * Size of the window in packets
+	 */
+	public static final int WINDOW_SIZE = 64;
+	
+	/**
+	 * Checks, if a sequence number is acceptable. It does not update the
+	 * window, since the packet has to be authenticated first.
+	 * 
+	 * @return true, if the sequence number was not seen before; false otherwise
+	 */
+	public synchronized boolean check(int pSalt, long pSequenceNumber)
+	{
+		Window tWindow = mWindows.get(pSalt);
+		
+		if(tWindow == null) return true;
+		if(pSequenceNumber > tWindow.highest) return true;
+		
+		long tDiff = tWindow.highest -pSequenceNumber;
+		if(tDiff >= WINDOW_SIZE) return false;
+		
+		return (tWindow.bitmap & (1L << tDiff)) == 0;
+	}
+	
+	/**
+	 * Marks a sequence number of an authenticated packet as seen.
+	 */
+	public synchronized void update(int pSalt, long pSequenceNumber)
+	{
+		Window tWindow = mWindows.get(pSalt);
+		
+		if(tWindow == null) {
+			tWindow = new Window();
+			tWindow.highest = pSequenceNumber;
+			tWindow.bitmap = 1;
+			mWindows.put(pSalt, tWindow);
+		}
+		else if(pSequenceNumber > tWindow.highest) {
+			long tShift = pSequenceNumber -tWindow.highest;
+			
+			if(tShift >= WINDOW_SIZE) {
+				tWindow.bitmap = 1;
+			} else {
+				tWindow.bitmap = (tWindow.bitmap << tShift) | 1;
+			}
+			tWindow.highest = pSequenceNumber;
+		}
+		else {
+			long tDiff = tWindow.highest -pSequenceNumber;
+			
+			if(tDiff < WINDOW_SIZE) {
+				tWindow.bitmap |= (1L << tDiff);
+			}
+		}
+	}
+	
+	private static class Window
+	{
+		public long highest;
+		public long bitmap;
+	}
+	
+	private HashMap<Integer, Window> mWindows = new HashMap<Integer, Window>();
+}
@@ -9,8 +9,16 @@
  ******************************************************************************/
 package de.tuilmenau.ics.fog.encryption.gates.headers;
 
+import java.io.IOException;
+import java.util.Arrays;
+
+import de.tuilmenau.ics.fog.encryption.EncryptionProperty.CipherSuite;
 import de.tuilmenau.ics.fog.encryption.gates.EncryptionDecoderGate;
 import de.tuilmenau.ics.fog.encryption.gates.EncryptionEncoderGate;
+import de.tuilmenau.ics.fog.packets.codec.Codec;
+import de.tuilmenau.ics.fog.packets.codec.PacketCodec;
+import de.tuilmenau.ics.fog.packets.codec.WireInput;
+import de.tuilmenau.ics.fog.packets.codec.WireOutput;
 import de.tuilmenau.ics.fog.transfer.gates.headers.ProtocolHeader;
 import de.tuilmenau.ics.fog.ui.Viewable;
 import de.tuilmenau.ics.fog.util.Size;
@@ -29,22 +37,103 @@ public class EncryptionHeader implements ProtocolHeader
 	 */
 	private static final int ENCR_HEADER_OVERHEAD_BYTES = 10;
 
+	/**
+	 * Binary wire format of encryption headers
+	 */
+	public static final Codec<EncryptionHeader> CODEC = new Codec<EncryptionHeader>() {
+		@Override
+		public void encode(EncryptionHeader pHeader, WireOutput pOut) throws IOException
+		{
+			if(pHeader.isEncrypted()) {
+				pOut.writeBoolean(true);
+				pOut.writeString(pHeader.mSuite.name());
+				pOut.writeBytes(pHeader.mNonce);
+				pOut.writeBytes(pHeader.mCipherText);
+			} else {
+				pOut.writeBoolean(false);
+				pOut.writeObject(pHeader.mData);
+			}
+		}
+		
+		@Override
+		public EncryptionHeader decode(WireInput pIn) throws IOException
+		{
+			if(pIn.readBoolean()) {
+				CipherSuite tSuite = CipherSuite.parse(pIn.readString());
+				
+				if(tSuite == null) {
+					throw new IOException("Unknown cipher suite in wire data.");
+				}
+				return new EncryptionHeader(tSuite, pIn.readBytes(), pIn.readBytes());
+			} else {
+				return new EncryptionHeader(pIn.readObject());
+			}
+		}
+	};
+	
+	static {
+		PacketCodec.getInstance().register(EncryptionHeader.class, CODEC);
+	}
+	
 	public EncryptionHeader(Object pData)
 	{
 		mData = pData;
 	}
 	
+	/**
+	 * Header for really encrypted payload.
+	 * 
+	 * @param pSuite Cipher suite used for encryption
+	 * @param pNonce Nonce used for encryption
+	 * @param pCipherText Encrypted payload including authentication tag
+	 */
+	public EncryptionHeader(CipherSuite pSuite, byte[] pNonce, byte[] pCipherText)
+	{
+		mData = null;
+		mSuite = pSuite;
+		mNonce = pNonce;
+		mCipherText = pCipherText;
+	}
+	
+	/**
+	 * @return Plain payload for simulated encryption; null for real encryption
+	 */
 	public Object getData()
 	{
 		return mData;
 	}
 	
+	/**
+	 * @return true, if payload is really encrypted
+	 */
+	public boolean isEncrypted()
+	{
+		return mCipherText != null;
+	}
+	
+	public CipherSuite getCipherSuite()
+	{
+		return mSuite;
+	}
+	
+	public byte[] getNonce()
+	{
+		return mNonce;
+	}
+	
+	public byte[] getCipherText()
+	{
+		return mCipherText;
+	}
+	
 	@Override
 	public boolean equals(Object pObj)
 	{
 		if(pObj != null) {
 			if(pObj instanceof EncryptionHeader) {
-				return (((EncryptionHeader) pObj).mData == mData);
+				EncryptionHeader tHeader = (EncryptionHeader) pObj;
+				
+				return (tHeader.mData == mData) && Arrays.equals(tHeader.mNonce, mNonce) && Arrays.equals(tHeader.mCipherText, mCipherText);
 			}
 		}
 		
@@ -54,6 +143,11 @@ public boolean equals(Object pObj)
 	@Override
 	public int getSerialisedSize()
 	{
+		if(isEncrypted()) {
+			// suite + nonce + length + cipher text (incl. tag)
+			return 1 +mNonce.length +4 +mCipherText.length;
+		}
+		
 		int tResult = ENCR_HEADER_OVERHEAD_BYTES;
 		
 		// add size of original data
@@ -68,5 +162,10 @@ public int getSerialisedSize()
 	
 	@Viewable("Payload")
 	private Object mData;
+	
+	@Viewable("Cipher suite")
+	private CipherSuite mSuite = null;
+	private byte[] mNonce = null;
+	private byte[] mCipherText = null;
 }
 
@@ -18,6 +18,7 @@
 import java.util.Observable;
 import java.util.Observer;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.Platform;
@@ -145,25 +146,51 @@ public class HRMViewer extends EditorPart implements Observer, Runnable, IEvent
     private Button mBtnCoordAnnounce = null;
     
     private Table mTableRoutingTable = null;
+    private Table mTableHRMIDToL2RouteMapping = null;
     
     private int mGuiCounter = 0;
 
-    private boolean mNextGUIUpdateShouldUpdateRoutingTable = false;
-    private boolean mNextGUIUpdateShouldUpdateFullView = false;
-    
 	private boolean mShowClusterMembers = false;
 	private boolean mShowCoordinatorAsClusterMembers = false;
 
+	/**
+	 * Stores if the entire view (clusters, coordinators, ..) has to be redrawn during the next GUI update
+	 */
+	private AtomicBoolean mDirtyFullView = new AtomicBoolean(false);
+	
+	/**
+	 * Stores if the routing table has to be updated during the next GUI update
+	 */
+	private AtomicBoolean mDirtyRoutingTable = new AtomicBoolean(false);
+	
+	/**
+	 * Stores if the table of HRMID-to-L2Route mappings has to be updated during the next GUI update
+	 */
+	private AtomicBoolean mDirtyHRMIDToL2RouteMapping = new AtomicBoolean(false);
+	
+	/**
+	 * Stores if a GUI update is already planned
+	 */
+	private AtomicBoolean mGUIUpdatePlanned = new AtomicBoolean(false);
+	
 	/**
 	 * Stores the time stamp of the last GUI update
 	 */
-	private Double mTimestampLastGUIUpdate =  new Double(0);
+	private volatile double mTimestampLastGUIUpdate = 0;
 
-    /**
-     * Stores the simulation time for the next GUI update.
-     */
-    private double mTimeNextGUIUpdate = 0;
-    
+	/**
+	 * Stores the routing entries which are shown in the routing table, the order corresponds to the table rows
+	 */
+	private LinkedList<RoutingEntry> mShownRoutingEntries = new LinkedList<RoutingEntry>();
+	
+	/**
+	 * Stores the background colors of the routing table rows
+	 */
+	private Color mColLoop = null;
+	private Color mColNeighbor = null;
+	private Color mColShared = null;
+	private Color mColSharedLoop = null;
+	
 	/**
 	 * Stores the ID of the HRM plug-in
 	 */
@@ -611,50 +638,25 @@ public void handleEvent(Event e) {
 	    mContainerHRMID2L2RouteTable.setLayoutData(tLayoutDataMappingTable); 
 	    
 	    // create the table
-		final Table tTableMappingTable = new Table(mContainerHRMID2L2RouteTable, SWT.SINGLE | SWT.H_SCROLL | SWT.V_SCROLL | SWT.FULL_SELECTION);
-		tTableMappingTable.setHeaderVisible(true);
-		tTableMappingTable.setLinesVisible(true);
+		mTableHRMIDToL2RouteMapping = new Table(mContainerHRMID2L2RouteTable, SWT.SINGLE | SWT.H_SCROLL | SWT.V_SCROLL | SWT.FULL_SELECTION);
+		mTableHRMIDToL2RouteMapping.setHeaderVisible(true);
+		mTableHRMIDToL2RouteMapping.setLinesVisible(true);
 		
 		// create the columns and define the texts for the header row
 		// col. 0
-		TableColumn tTableHRMID = new TableColumn(tTableMappingTable, SWT.NONE, 0);
+		TableColumn tTableHRMID = new TableColumn(mTableHRMIDToL2RouteMapping, SWT.NONE, 0);
 		tTableHRMID.setText("Next hop");
 		// col. 1
-		TableColumn tTableL2Addr = new TableColumn(tTableMappingTable, SWT.NONE, 1);
+		TableColumn tTableL2Addr = new TableColumn(mTableHRMIDToL2RouteMapping, SWT.NONE, 1);
 		tTableL2Addr.setText("FoG route to neighbor");
 		
-		HashMap<HRMID, Route> tHRMIDToL2RouteMapping = mHRMController.getHRS().getHRMIDToL2RouteMapping();
-		if (HRM_VIEWER_DEBUGGING){
-			Logging.log(this, "Found " + tHRMIDToL2RouteMapping.keySet().size() + " HRMID-to-L2Route mappings");
-		}
-
-		if ((tHRMIDToL2RouteMapping != null) && (!tHRMIDToL2RouteMapping.isEmpty())) {
-			int tRowNumber = 0;
-			for(HRMID tAddr : tHRMIDToL2RouteMapping.keySet()) {
-				Route tL2Route = tHRMIDToL2RouteMapping.get(tAddr);
-				
-				// create the table row
-				TableItem tTableRow = new TableItem(tTableMappingTable, SWT.NONE, tRowNumber);
-				
-				/**
-				 * Column 0: the neighbor name
-				 */
-				tTableRow.setText(0, tAddr.toString());
-
-				/**
-				 * Column 1: route 
-				 */
-				tTableRow.setText(1, tL2Route.toString());
-
-				tRowNumber++;
-			}
-		}
+		updateHRMIDToL2RouteMapping();
 		
-		TableColumn[] columns4 = tTableMappingTable.getColumns();
+		TableColumn[] columns4 = mTableHRMIDToL2RouteMapping.getColumns();
 		for (int k = 0; k < columns4.length; k++){
 			columns4[k].pack();
 		}
-		tTableMappingTable.setLayoutData(new GridData(GridData.FILL_BOTH));
+		mTableHRMIDToL2RouteMapping.setLayoutData(new GridData(GridData.FILL_BOTH));
 
 		// create the container layout
 		TableColumnLayout tLayoutMappingTable = new TableColumnLayout();
@@ -825,6 +827,63 @@ public void handleEvent(Event e) {
 		        }
 			}
 	    });
+		
+		/**
+		 * The table context menu, it refers to the routing entries which are currently shown
+		 */
+		mTableRoutingTable.addMenuDetectListener(new MenuDetectListener()
+		{
+			@Override
+			public void menuDetected(MenuDetectEvent pEvent)
+			{
+				final int tSelectedIndex = mTableRoutingTable.getSelectionIndex();
+				// was there a row selected?
+				if ((tSelectedIndex != -1) && (tSelectedIndex < mShownRoutingEntries.size())){
+					final RoutingEntry tSelectedEntry = mShownRoutingEntries.get(tSelectedIndex);
+					
+					// identify which row was clicked.
+					TableItem tSelectedRow = mTableRoutingTable.getItem(tSelectedIndex);
+					tSelectedRow.getData();
+				
+					//Logging.log(this, "Context menu for comm. channels of entity: " + pControlEntity + ", index: " + tSelectedIndex + ", row data: " + tSelectedRow);
+					
+					/**
+					 * Create the context menu
+					 */
+					Menu tMenu = new Menu(mTableRoutingTable);
+					MenuItem tMenuItem = new MenuItem(tMenu, SWT.NONE);
+					tMenuItem.setText("Show cause for this entry");
+					tMenuItem.addSelectionListener(new SelectionListener() {
+						public void widgetDefaultSelected(SelectionEvent pEvent)
+						{
+							//Logging.log(this, "Default selected: " + pEvent);
+							showRoutingEntryCause(tSelectedEntry);
+						}
+						public void widgetSelected(SelectionEvent pEvent)
+						{
+							//Logging.log(this, "Widget selected: " + pEvent);
+							showRoutingEntryCause(tSelectedEntry);
+						}
+					});
+					MenuItem tMenuItem1 = new MenuItem(tMenu, SWT.NONE);
+					tMenuItem1.setText("Which entities have ever set this entry?");
+					tMenuItem1.addSelectionListener(new SelectionListener() {
+						public void widgetDefaultSelected(SelectionEvent pEvent)
+						{
+							//Logging.log(this, "Default selected: " + pEvent);
+							showRoutingEntryOwners(tSelectedEntry);
+						}
+						public void widgetSelected(SelectionEvent pEvent)
+						{
+							//Logging.log(this, "Widget selected: " + pEvent);
+							showRoutingEntryOwners(tSelectedEntry);
+						}
+					});
+					
+					mTableRoutingTable.setMenu(tMenu);
+				}
+			}
+		});
 	}
 
 	/**
@@ -1954,6 +2013,12 @@ public void dispose()
 	    mBtnCoordClusterMembers.dispose();
 	    mBtnCoordAnnounce.dispose();
 	    mTableRoutingTable.dispose();
+	    if(mColLoop != null){
+		    mColLoop.dispose();
+		    mColNeighbor.dispose();
+		    mColShared.dispose();
+		    mColSharedLoop.dispose();
+	    }
 
 		// call the original implementation
 		super.dispose();
@@ -2008,8 +2073,7 @@ public Object getAdapter(Class required)
 	}
 
 	/**
-	 * Thread main function, which is used if an asynchronous GUI update is needed.
-	 * In this case, the GUI update has to be delayed in order to do it within the main GUI thread.
+	 * Thread main function, which is used for the asynchronous GUI updates within the main GUI thread.
 	 */
 	@Override
 	public void run()
@@ -2018,277 +2082,288 @@ public void run()
 	}
 
 	/**
-	 * Destroys the content of the routing table
+	 * Updates the content of the routing table, only changed table rows are redrawn
 	 */
 	private void updateRoutingTable()
 	{
 		if(!mTableRoutingTable.isDisposed()){
-			int tOldSelectedIndex = mTableRoutingTable.getSelectionIndex();
-	
-		    mTableRoutingTable.removeAll();
-		    
 			RoutingTable tRoutingTable = mHRMController.getHRS().getRoutingTable();
 			if (HRM_VIEWER_DEBUGGING){
 				Logging.log(this, "Found " + tRoutingTable.size() + " entries in the local routing table");
 			}
-				
-		    Color tColLoop = new Color(mDisplay, 210, 210, 250);
-		    Color tColNeighbor = new Color(mDisplay, 210, 250, 210);
-		    Color tColShared = new Color(mDisplay, 250, 210, 210);
-		    Color tColSharedLoop = new Color(mDisplay, 255, 100, 100);
-		    
-			if ((tRoutingTable != null) && (!tRoutingTable.isEmpty())) {
-				int tRowNumber = 0;
+			
+			if(mColLoop == null){
+			    mColLoop = new Color(mDisplay, 210, 210, 250);
+			    mColNeighbor = new Color(mDisplay, 210, 250, 210);
+			    mColShared = new Color(mDisplay, 250, 210, 210);
+			    mColSharedLoop = new Color(mDisplay, 255, 100, 100);
+			}
+			
+			LinkedList<RoutingEntry> tShownRoutingEntries = new LinkedList<RoutingEntry>();
+			int tRowNumber = 0;
+			if (tRoutingTable != null) {
 				for(RoutingEntry tEntry : tRoutingTable) {
 					if ((HRMConfig.DebugOutput.GUI_SHOW_RELATIVE_ADDRESSES) || (tEntry.getDest() == null) || (!tEntry.getDest().isRelativeAddress())){
-						// create the table row
-						TableItem tTableRow = new TableItem(mTableRoutingTable, SWT.NONE, tRowNumber);
-						
-						/**
-						 * Column 0: destination
-						 */
-						tTableRow.setText(0, tEntry.getDest() != null ? tEntry.getDest().toString() : "undef.");
-		
-						/**
-						 * Column 1: next hop 
-						 */
-						if (tEntry.getNextHop() != null) {
-							tTableRow.setText(1, tEntry.getNextHop().toString());
-						}else{
-							tTableRow.setText(1, "??");
-						}
-						
-						/**
-						 * Column 2: hop costs
-						 */
-						if (tEntry.getHopCount() != RoutingEntry.NO_HOP_COSTS){
-							tTableRow.setText(2, Integer.toString(tEntry.getHopCount()));
-						}else{
-							tTableRow.setText(2, "none");
-						}
-						
-						/**
-						 * Column 3:  utilization
-						 */
-						double tUtilization = tEntry.getUtilization(); 
-						if (tUtilization == RoutingEntry.NO_UTILIZATION){
-							tUtilization = 0;
-						}
-						if(tUtilization < 0){
-							tUtilization = Double.NaN;
-						}
-						DecimalFormat tFormat = new DecimalFormat("0.#");
-						String tUtilizationStr = tFormat.format(tUtilization);
-						tTableRow.setText(3, tUtilizationStr);
-						
-						/**
-						 * Column 4: min. delay
-						 */
-						if (tEntry.getMinDelay() != RoutingEntry.NO_DELAY){					
-							tTableRow.setText(4, Long.toString(tEntry.getMinDelay()));
-						}else{
-							tTableRow.setText(4, "none");
-						}
-						
-						/**
-						 * Column 5: max. data rate
-						 */
-						double tDataRate = tEntry.getMaxAvailableDataRate();
-						if (tDataRate == RoutingEntry.INFINITE_DATARATE){
-							tTableRow.setText(5, "inf.");
-						}else if(tDataRate < 0){
-							tTableRow.setText(5, "undef.");
-						}else{
-							tTableRow.setText(5, Double.toString(tDataRate));
-						}
-						
-						/**
-						 * Column 6: loopback?
-						 */
-						if (tEntry.isLocalLoop()){
-							tTableRow.setText(6, "yes");				
-						}else{
-							tTableRow.setText(6, "no");
-						}
+						updateTableRow(mTableRoutingTable, tRowNumber, getRoutingTableRow(tEntry), getRoutingTableRowColor(tEntry));
+						tShownRoutingEntries.add(tEntry);
+						tRowNumber++;
+					}
+				}
+			}
+			
+			// remove the rows of deleted routing entries
+			if(mTableRoutingTable.getItemCount() > tRowNumber){
+				mTableRoutingTable.remove(tRowNumber, mTableRoutingTable.getItemCount() - 1);
+			}
+			
+			mShownRoutingEntries = tShownRoutingEntries;
+		}else{
+			Logging.warn(this, "Widget mTableRoutingTable was already disposed");
+		}
+	}
+	
+	/**
+	 * Determines the texts of a routing table row
+	 * 
+	 * @param pEntry the routing entry
+	 * 
+	 * @return the texts per column
+	 */
+	private String[] getRoutingTableRow(RoutingEntry pEntry)
+	{
+		String[] tResult = new String[15];
 		
-						/**
-						 * Column 7: direct neighbor?
-						 */
-						if (tEntry.isRouteToDirectNeighbor()){
-							tTableRow.setText(7, "yes");				
-						}else{
-							tTableRow.setText(7, "no");
-						}
+		/**
+		 * Column 0: destination
+		 */
+		tResult[0] = pEntry.getDest() != null ? pEntry.getDest().toString() : "undef.";
 		
-						/**
-						 * Column 8: source 
-						 */
-						if (tEntry.getSource() != null) {
-							tTableRow.setText(8, tEntry.getSource().toString());
-						}else{
-							tTableRow.setText(8, "??");
-						}
+		/**
+		 * Column 1: next hop 
+		 */
+		if (pEntry.getNextHop() != null) {
+			tResult[1] = pEntry.getNextHop().toString();
+		}else{
+			tResult[1] = "??";
+		}
+		
+		/**
+		 * Column 2: hop costs
+		 */
+		if (pEntry.getHopCount() != RoutingEntry.NO_HOP_COSTS){
+			tResult[2] = Integer.toString(pEntry.getHopCount());
+		}else{
+			tResult[2] = "none";
+		}
+		
+		/**
+		 * Column 3:  utilization
+		 */
+		double tUtilization = pEntry.getUtilization(); 
+		if (tUtilization == RoutingEntry.NO_UTILIZATION){
+			tUtilization = 0;
+		}
+		if(tUtilization < 0){
+			tUtilization = Double.NaN;
+		}
+		DecimalFormat tFormat = new DecimalFormat("0.#");
+		String tUtilizationStr = tFormat.format(tUtilization);
+		tResult[3] = tUtilizationStr;
+		
+		/**
+		 * Column 4: min. delay
+		 */
+		if (pEntry.getMinDelay() != RoutingEntry.NO_DELAY){					
+			tResult[4] = Long.toString(pEntry.getMinDelay());
+		}else{
+			tResult[4] = "none";
+		}
+		
+		/**
+		 * Column 5: max. data rate
+		 */
+		double tDataRate = pEntry.getMaxAvailableDataRate();
+		if (tDataRate == RoutingEntry.INFINITE_DATARATE){
+			tResult[5] = "inf.";
+		}else if(tDataRate < 0){
+			tResult[5] = "undef.";
+		}else{
+			tResult[5] = Double.toString(tDataRate);
+		}
+		
+		/**
+		 * Column 6: loopback?
+		 */
+		if (pEntry.isLocalLoop()){
+			tResult[6] = "yes";
+		}else{
+			tResult[6] = "no";
+		}
+		
+		/**
+		 * Column 7: direct neighbor?
+		 */
+		if (pEntry.isRouteToDirectNeighbor()){
+			tResult[7] = "yes";
+		}else{
+			tResult[7] = "no";
+		}
+		
+		/**
+		 * Column 8: source 
+		 */
+		if (pEntry.getSource() != null) {
+			tResult[8] = pEntry.getSource().toString();
+		}else{
+			tResult[8] = "??";
+		}
 	
-						/**
-						 * Column 9: next hop L2Address
-						 */
-						if (tEntry.getNextHopL2Address() != null) {
-							tTableRow.setText(9, tEntry.getNextHopL2Address().toString());
-						}else{
-							tTableRow.setText(9, "??");
-						}
+		/**
+		 * Column 9: next hop L2Address
+		 */
+		if (pEntry.getNextHopL2Address() != null) {
+			tResult[9] = pEntry.getNextHopL2Address().toString();
+		}else{
+			tResult[9] = "??";
+		}
 	
-						/**
-						 * Column 10: origin
-						 */
-						if (tEntry.getTimeout() > 0) {
-							tTableRow.setText(10, (tEntry.getOrigin() != null ? tEntry.getOrigin().toString() : "??"));
-						}else{
-							tTableRow.setText(10, "undef.");
-						}
+		/**
+		 * Column 10: origin
+		 */
+		if (pEntry.getTimeout() > 0) {
+			tResult[10] = (pEntry.getOrigin() != null ? pEntry.getOrigin().toString() : "??");
+		}else{
+			tResult[10] = "undef.";
+		}
 	
-						/**
-						 * Column 11: timeout
-						 */
-						if (tEntry.getTimeout() > 0) {
-							tTableRow.setText(11, Double.toString(tEntry.getTimeout()));
-						}else{
-							tTableRow.setText(11, "undef.");
-						}
-
-						/**
-						 * Column 12: owner
-						 */
-						if (tEntry.getTimeout() > 0) {
-							tTableRow.setText(12, (tEntry.getOwner() != null ? tEntry.getOwner().toString() : "??"));
-						}else{
-							tTableRow.setText(12, "undef.");
-						}
-
-						/**
-						 * Column 13: sender
-						 */
-						if(tEntry.isSharedLink()){
-							if (tEntry.getTimeout() > 0) {
-								tTableRow.setText(13, (tEntry.getShareSender() != null ? tEntry.getShareSender().toString() : "??"));
-							}else{
-								tTableRow.setText(13, "undef.");
-							}
-						}else{
-							tTableRow.setText(13, "local");
-						}
+		/**
+		 * Column 11: timeout
+		 */
+		if (pEntry.getTimeout() > 0) {
+			tResult[11] = Double.toString(pEntry.getTimeout());
+		}else{
+			tResult[11] = "undef.";
+		}
 
-						/**
-						 * Column 14: next hop max. data rate
-						 */
-						double tNextHopDataRate = tEntry.getNextHopMaxAvailableDataRate();
-						if (tNextHopDataRate == RoutingEntry.INFINITE_DATARATE){
-							tTableRow.setText(14, "inf.");
-						}else if(tNextHopDataRate < 0){
-							tTableRow.setText(14, "undef.");
-						}else{
-							tTableRow.setText(14, Double.toString(tNextHopDataRate));
-						}
+		/**
+		 * Column 12: owner
+		 */
+		if (pEntry.getTimeout() > 0) {
+			tResult[12] = (pEntry.getOwner() != null ? pEntry.getOwner().toString() : "??");
+		}else{
+			tResult[12] = "undef.";
+		}
 
-						/**
-						 * Cells coloring
-						 */
-						for(int i = 0; i < 15; i++){
-							if(tEntry.isLocalLoop()){
-								tTableRow.setBackground(i, tColLoop);
-							}else if (tEntry.isRouteToDirectNeighbor()){
-								tTableRow.setBackground(i, tColNeighbor);
-							}else if (tEntry.isRouteAcrossNetwork()){
-								tTableRow.setBackground(tColSharedLoop);
-							}else{
-								tTableRow.setBackground(i, tColShared);
-							}
-						}
-						tRowNumber++;
-					}
-				}
-				mTableRoutingTable.setItemCount(tRowNumber);
-			}
-			
-			if(tOldSelectedIndex > 0){
-				mTableRoutingTable.select(tOldSelectedIndex);
+		/**
+		 * Column 13: sender
+		 */
+		if(pEntry.isSharedLink()){
+			if (pEntry.getTimeout() > 0) {
+				tResult[13] = (pEntry.getShareSender() != null ? pEntry.getShareSender().toString() : "??");
+			}else{
+				tResult[13] = "undef.";
 			}
-				
-			/**
-			 * The table context menu
-			 */
-			final RoutingTable tfRoutingTable = tRoutingTable;
-			mTableRoutingTable.addMenuDetectListener(new MenuDetectListener()
-			{
-				@Override
-				public void menuDetected(MenuDetectEvent pEvent)
-				{
-					final int tSelectedIndex = mTableRoutingTable.getSelectionIndex();
-					// was there a row selected?
-					if (tSelectedIndex != -1){
-						// identify which row was clicked.
-						TableItem tSelectedRow = mTableRoutingTable.getItem(tSelectedIndex);
-						tSelectedRow.getData();
-					
-						//Logging.log(this, "Context menu for comm. channels of entity: " + pControlEntity + ", index: " + tSelectedIndex + ", row data: " + tSelectedRow);
-						
-						/**
-						 * Create the context menu
-						 */
-						Menu tMenu = new Menu(mTableRoutingTable);
-						MenuItem tMenuItem = new MenuItem(tMenu, SWT.NONE);
-						tMenuItem.setText("Show cause for this entry");
-						tMenuItem.addSelectionListener(new SelectionListener() {
-							public void widgetDefaultSelected(SelectionEvent pEvent)
-							{
-								//Logging.log(this, "Default selected: " + pEvent);
-								showRoutingEntryCause(tfRoutingTable.get(tSelectedIndex));
-							}
-							public void widgetSelected(SelectionEvent pEvent)
-							{
-								//Logging.log(this, "Widget selected: " + pEvent);
-								showRoutingEntryCause(tfRoutingTable.get(tSelectedIndex));
-							}
-						});
-						MenuItem tMenuItem1 = new MenuItem(tMenu, SWT.NONE);
-						tMenuItem1.setText("Which entities have ever set this entry?");
-						tMenuItem1.addSelectionListener(new SelectionListener() {
-							public void widgetDefaultSelected(SelectionEvent pEvent)
-							{
-								//Logging.log(this, "Default selected: " + pEvent);
-								showRoutingEntryOwners(tfRoutingTable.get(tSelectedIndex));
-							}
-							public void widgetSelected(SelectionEvent pEvent)
-							{
-								//Logging.log(this, "Widget selected: " + pEvent);
-								showRoutingEntryOwners(tfRoutingTable.get(tSelectedIndex));
-							}
-						});
-	
-						mTableRoutingTable.setMenu(tMenu);
-					}
-				}
-			});
+		}else{
+			tResult[13] = "local";
+		}
 
-			tColLoop.dispose();
-		    tColNeighbor.dispose();
-		    tColShared.dispose();
+		/**
+		 * Column 14: next hop max. data rate
+		 */
+		double tNextHopDataRate = pEntry.getNextHopMaxAvailableDataRate();
+		if (tNextHopDataRate == RoutingEntry.INFINITE_DATARATE){
+			tResult[14] = "inf.";
+		}else if(tNextHopDataRate < 0){
+			tResult[14] = "undef.";
 		}else{
-			Logging.warn(this, "Widget mTableRoutingTable was already disposed");
+			tResult[14] = Double.toString(tNextHopDataRate);
 		}
+		
+		return tResult;
 	}
-
+	
 	/**
-	 * Resets the routing table and updates it
+	 * Determines the background color of a routing table row
+	 * 
+	 * @param pEntry the routing entry
+	 * 
+	 * @return the color
 	 */
-	private synchronized void redrawRoutingTable()
+	private Color getRoutingTableRowColor(RoutingEntry pEntry)
 	{
-		updateRoutingTable();
+		if(pEntry.isLocalLoop()){
+			return mColLoop;
+		}else if (pEntry.isRouteToDirectNeighbor()){
+			return mColNeighbor;
+		}else if (pEntry.isRouteAcrossNetwork()){
+			return mColSharedLoop;
+		}else{
+			return mColShared;
+		}
+	}
+	
+	/**
+	 * Updates a table row. Only changed cells are set in order to avoid needless redraws of the table.
+	 * 
+	 * @param pTable the table
+	 * @param pRowNumber the number of the row, a new row is appended if needed
+	 * @param pTexts the texts per column
+	 * @param pBackground the background color of the row or null
+	 */
+	private void updateTableRow(Table pTable, int pRowNumber, String[] pTexts, Color pBackground)
+	{
+		TableItem tTableRow = (pRowNumber < pTable.getItemCount() ? pTable.getItem(pRowNumber) : new TableItem(pTable, SWT.NONE, pRowNumber));
 		
-		mNextGUIUpdateShouldUpdateRoutingTable = false;
+		for(int i = 0; i < pTexts.length; i++){
+			if(!pTexts[i].equals(tTableRow.getText(i))){
+				tTableRow.setText(i, pTexts[i]);
+			}
+			if((pBackground != null) && (!pBackground.equals(tTableRow.getBackground(i)))){
+				tTableRow.setBackground(i, pBackground);
+			}
+		}
 	}
 	
-	private synchronized void redrawGUI()
+	/**
+	 * Updates the content of the table of HRMID-to-L2Route mappings, only changed table rows are redrawn
+	 */
+	private void updateHRMIDToL2RouteMapping()
+	{
+		if(!mTableHRMIDToL2RouteMapping.isDisposed()){
+			HashMap<HRMID, Route> tHRMIDToL2RouteMapping = mHRMController.getHRS().getHRMIDToL2RouteMapping();
+			if (HRM_VIEWER_DEBUGGING){
+				Logging.log(this, "Found " + tHRMIDToL2RouteMapping.keySet().size() + " HRMID-to-L2Route mappings");
+			}
+	
+			int tRowNumber = 0;
+			if (tHRMIDToL2RouteMapping != null) {
+				for(HRMID tAddr : tHRMIDToL2RouteMapping.keySet()) {
+					Route tL2Route = tHRMIDToL2RouteMapping.get(tAddr);
+					
+					/**
+					 * Column 0: the neighbor name
+					 * Column 1: route
+					 */
+					String[] tTexts = { tAddr.toString(), tL2Route.toString() };
+					
+					updateTableRow(mTableHRMIDToL2RouteMapping, tRowNumber, tTexts, null);
+					tRowNumber++;
+				}
+			}
+			
+			// remove the rows of deleted mappings
+			if(mTableHRMIDToL2RouteMapping.getItemCount() > tRowNumber){
+				mTableHRMIDToL2RouteMapping.remove(tRowNumber, mTableHRMIDToL2RouteMapping.getItemCount() - 1);
+			}
+		}else{
+			Logging.warn(this, "Widget mTableHRMIDToL2RouteMapping was already disposed");
+		}
+	}
+	
+	/**
+	 * Redraws the entire view
+	 */
+	private void redrawGUI()
 	{
 		if (HRMConfig.DebugOutput.GUI_SHOW_NOTIFICATIONS){
 			Logging.log(this, "Redrawing GUI");
@@ -2305,40 +2380,36 @@ private synchronized void redrawGUI()
 		}else{
 			Logging.warn(this, "Scroller is already disposed");
 		}
-		
-		mNextGUIUpdateShouldUpdateFullView = false;
-		mNextGUIUpdateShouldUpdateRoutingTable = false;
 	}
 	
 	/**
-	 * Resets the GUI and updates everything in this EditorPart
+	 * Updates the dirty parts of this EditorPart, this function has to be called within the main GUI thread
 	 */
 	private void resetGUI()
 	{
 		// store the time of this (last) GUI update
 		mTimestampLastGUIUpdate = mHRMController.getSimulationTime();
 
-		// reset stored GUI update time
-		mTimeNextGUIUpdate = 0;
-
-		if(mDisplay != null){
-			if(!mDisplay.isDisposed()) {
-				if(Thread.currentThread() != mDisplay.getThread()) {
-					//switches to different thread
-					mDisplay.asyncExec(this);
-				} else {
-					if(mNextGUIUpdateShouldUpdateFullView){
-						redrawGUI();					
-					}else if (mNextGUIUpdateShouldUpdateRoutingTable){
-						redrawRoutingTable();
-					}
-				}
+		// allow the planning of the next GUI update, changes from now on are considered by the next GUI update
+		mGUIUpdatePlanned.set(false);
+		
+		if(mDirtyFullView.getAndSet(false)){
+			mDirtyRoutingTable.set(false);
+			mDirtyHRMIDToL2RouteMapping.set(false);
+			redrawGUI();
+		}else{
+			if(mDirtyRoutingTable.getAndSet(false)){
+				updateRoutingTable();
+			}
+			if(mDirtyHRMIDToL2RouteMapping.getAndSet(false)){
+				updateHRMIDToL2RouteMapping();
 			}
 		}
 	}
 	
 	/**
 	 * Function for receiving notifications about changes in the corresponding HRMController instance
+	 * The function is called by the HRM threads. It only marks the affected GUI parts as dirty and plans a GUI update. It never waits for the GUI.
 	 */
 	@Override
 	public void update(Observable pSource, Object pReason)
@@ -2356,6 +2427,8 @@ public void update(Observable pSource, Object pReason)
 
 		if(pReason instanceof RoutingEntry){
 			startRoutingTableUpdateTimer();
+		}else if(pReason instanceof Route){
+			startHRMIDToL2RouteMappingUpdateTimer();
 		}else if (pReason instanceof HRMControllerObservableDeprecated){
 			closeWindow();
 		}else{
@@ -2363,86 +2436,84 @@ public void update(Observable pSource, Object pReason)
 		}
 	}
 	
+	/**
+	 * Marks the routing table as dirty and starts the timer for the "update GUI" event
+	 */
 	private void startRoutingTableUpdateTimer()
 	{
 		if (HRMConfig.DebugOutput.GUI_SHOW_NOTIFICATIONS){
 			Logging.log(this, "Got a routing table update");
 		}
 		
-		// is a GUI update already planned?
-		if (mTimeNextGUIUpdate == 0){
-			mNextGUIUpdateShouldUpdateRoutingTable = true;
-			
-			// when was the last GUI update? is the time period okay for a new update? -> determine a timeout for a new GUI update
-			double tNow = mHRMController.getSimulationTime();
-			double tTimeout = mTimestampLastGUIUpdate.longValue() + HRMConfig.DebugOutput.GUI_HRM_VIEWERS_UPDATE_INTERVAL;
-
-			if ((mTimestampLastGUIUpdate.doubleValue() == 0) || (tNow > tTimeout)){
-				mTimeNextGUIUpdate = tNow;
-
-				// register next trigger
-				mHRMController.getAS().getTimeBase().scheduleIn(0, this);
-			}else{
-				mTimeNextGUIUpdate = tTimeout;
-			
-				// register next trigger
-				mHRMController.getAS().getTimeBase().scheduleIn(tTimeout - tNow, this);
-			}
-
-		}else{
-			// timer is already started, we ignore the repeated request
+		mDirtyRoutingTable.set(true);
+		planGUIUpdate();
+	}
+	
+	/**
+	 * Marks the table of HRMID-to-L2Route mappings as dirty and starts the timer for the "update GUI" event
+	 */
+	private void startHRMIDToL2RouteMappingUpdateTimer()
+	{
+		if (HRMConfig.DebugOutput.GUI_SHOW_NOTIFICATIONS){
+			Logging.log(this, "Got an update of the HRMID-to-L2Route mappings");
 		}
+		
+		mDirtyHRMIDToL2RouteMapping.set(true);
+		planGUIUpdate();
 	}
 	
 	/**
-	 * Starts the timer for the "update GUI" event.
-	 * If the timer is already started nothing is done.
+	 * Marks the entire view as dirty and starts the timer for the "update GUI" event
+	 * 
+	 * @param pCause the cause for the GUI update
 	 */
 	private void startGUIUpdateTimer(String pCause)
 	{
 		if (HRMConfig.DebugOutput.GUI_SHOW_NOTIFICATIONS){
 			Logging.log(this, "Starting the GUI reset timer because of: " + pCause);
 			Logging.log(this, "   ..last update: " + mTimestampLastGUIUpdate);
-			Logging.log(this, "   ..next update: " + mTimeNextGUIUpdate);
 		}
 		
+		mDirtyFullView.set(true);
+		planGUIUpdate();
+	}
+	
+	/**
+	 * Starts the timer for the "update GUI" event. The GUI updates are limited to one per HRMConfig.DebugOutput.GUI_HRM_VIEWERS_UPDATE_INTERVAL.
+	 * If the timer is already started nothing is done because the planned GUI update considers all dirty GUI parts.
+	 */
+	private void planGUIUpdate()
+	{
 		// is a GUI update already planned?
-		if (mTimeNextGUIUpdate == 0){
-			mNextGUIUpdateShouldUpdateFullView = true;
-			
+		if (mGUIUpdatePlanned.compareAndSet(false, true)){
 			// when was the last GUI update? is the time period okay for a new update? -> determine a timeout for a new GUI update
 			double tNow = mHRMController.getSimulationTime();
-			double tTimeout = mTimestampLastGUIUpdate.longValue() + HRMConfig.DebugOutput.GUI_HRM_VIEWERS_UPDATE_INTERVAL;
-
-			if ((mTimestampLastGUIUpdate.doubleValue() == 0) || (tNow > tTimeout)){
-				mTimeNextGUIUpdate = tNow;
+			double tTimeout = mTimestampLastGUIUpdate + HRMConfig.DebugOutput.GUI_HRM_VIEWERS_UPDATE_INTERVAL;
 
+			if ((mTimestampLastGUIUpdate == 0) || (tNow > tTimeout)){
 				// register next trigger
 				mHRMController.getAS().getTimeBase().scheduleIn(0, this);
 			}else{
-				mTimeNextGUIUpdate = tTimeout;
-			
 				// register next trigger
 				mHRMController.getAS().getTimeBase().scheduleIn(tTimeout - tNow, this);
 			}
-
 		}else{
-			// timer is already started, we enforce a full update
-			mNextGUIUpdateShouldUpdateFullView = true;
+			// timer is already started, we ignore the repeated request
 		}
 	}
 	
 	/**
 	 * This function is called when the event is fired by the main event system.
+	 * The GUI update is delegated to the main GUI thread. The event thread doesn't wait for it.
 	 */
 	@Override
-	public synchronized void fire()
+	public void fire()
 	{
-		// reset stored GUI update time
-		mTimeNextGUIUpdate = 0;
-		
-		// trigger GUI update
-		resetGUI();
+		if((mDisplay != null) && (!mDisplay.isDisposed())){
+			mDisplay.asyncExec(this);
+		}else{
+			mGUIUpdatePlanned.set(false);
+		}
 	}
 
 	/**
@@ -429,6 +429,17 @@ public static int getDefaultSize()
 		return tResult;
 	}
 
+	/**
+	 * Returns the size of the headers for routing and transport control.
+	 * These headers are shared by all signaling messages which are transported within one bundle packet.
+	 * 
+	 * @return the size of the headers
+	 */
+	public static int getTransportHeaderSize()
+	{
+		return L2Address.getDefaultSize() + TCH_SIZE;
+	}
+	
 	/**
 	 * Returns if this packet type has a dynamic size
 	 * 
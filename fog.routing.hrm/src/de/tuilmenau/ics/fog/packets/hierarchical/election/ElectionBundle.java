@@ -0,0 +1,172 @@
+/*******************************************************************************
+ * Forwarding on Gates Simulator/Emulator - Hierarchical Routing Management
+ * Copyright (c) 2015, Integrated Communication Systems Group, TU Ilmenau.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html.
+ ******************************************************************************/
+package de.tuilmenau.ics.fog.packets.hierarchical.election;
+
+import java.util.LinkedList;
+
+import de.tuilmenau.ics.fog.packets.hierarchical.SignalingMessageHrm;
+import de.tuilmenau.ics.fog.routing.hierarchical.HRMConfig;
+import de.tuilmenau.ics.fog.routing.naming.hierarchical.HRMName;
+import de.tuilmenau.ics.fog.ui.Logging;
+
+/**
+ * PACKET: It is used to transport several election messages of different comm. channels towards the same peer node within one packet.
+ * 		   The packet is sent between two comm. sessions. Each contained election message has its own multiplex header.
+ */
+public class ElectionBundle extends SignalingMessageHrm
+{
+	/**
+	 * For using the class within (de-)serialization processes.
+	 */
+	private static final long serialVersionUID = -1745640180395413812L;
+	
+	/**
+	 * Stores the counter of created packets from this type
+	 * This value is only used for debugging. It is not part of the HRM concept.
+	 */
+	public static Long sCreatedPackets = new Long(0);
+	
+	/**
+	 * Stores the bundled election messages
+	 */
+	private LinkedList<SignalingMessageElection> mMessages = new LinkedList<SignalingMessageElection>();
+	
+	/**
+	 * Constructor for getDefaultSize()
+	 */
+	private ElectionBundle()
+	{
+		super();
+	}
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param pSenderName the name of the message sender
+	 * @param pReceiverName the name of the message receiver
+	 * @param pMessages the election messages which should be bundled
+	 */
+	public ElectionBundle(HRMName pSenderName, HRMName pReceiverName, LinkedList<SignalingMessageElection> pMessages)
+	{
+		super(pSenderName, pReceiverName);
+		mMessages.addAll(pMessages);
+		synchronized (sCreatedPackets) {
+			sCreatedPackets++;
+		}
+	}
+	
+	/**
+	 * Returns the bundled election messages
+	 * 
+	 * @return the list of election messages
+	 */
+	public LinkedList<SignalingMessageElection> getMessages()
+	{
+		return new LinkedList<SignalingMessageElection>(mMessages);
+	}
+	
+	/**
+	 * Returns the size of a serialized representation of this packet
+	 */
+	/* (non-Javadoc)
+	 * @see de.tuilmenau.ics.fog.transfer.gates.headers.ProtocolHeader#getSerialisedSize()
+	 */
+	@Override
+	public int getSerialisedSize()
+	{
+		/*************************************************************
+		 * Size of serialized elements in [bytes]:
+		 * 
+		 * 		[SignalingMessageHrm]
+		 * 		Messages.length			 = 1
+		 * 		Messages				 = dynamic (without routing and transport header)
+		 * 
+		 *************************************************************/
+		
+		int tResult = 0;
+		
+		tResult += getDefaultSize();
+		for(SignalingMessageElection tMessage : mMessages){
+			tResult += tMessage.getSerialisedSize() - SignalingMessageHrm.getTransportHeaderSize();
+		}
+		
+		return tResult;
+	}
+	
+	/**
+	 * Returns the default size of this packet
+	 * 
+	 * @return the default size
+	 */
+	public static int getDefaultSize()
+	{
+		/*************************************************************
+		 * Size of serialized elements in [bytes]:
+		 * 
+		 * 		[SignalingMessageHrm]
+		 * 		Messages.length			 = 1
+		 * 
+		 *************************************************************/
+		
+		int tResult = 0;
+		
+		ElectionBundle tTest = new ElectionBundle();
+		if(HRMConfig.DebugOutput.GUI_SHOW_PACKET_SIZE_CALCULATIONS){
+			Logging.log("Size of " + tTest.getClass().getSimpleName());
+		}
+		tResult += SignalingMessageHrm.getDefaultSize();
+		if(HRMConfig.DebugOutput.GUI_SHOW_PACKET_SIZE_CALCULATIONS){
+			Logging.log("   ..resulting size: " + tResult);
+		}
+		tResult += 1; // length of the message list
+		if(HRMConfig.DebugOutput.GUI_SHOW_PACKET_SIZE_CALCULATIONS){
+			Logging.log("   ..resulting size: " + tResult);
+		}
+		
+		return tResult;
+	}
+	
+	/**
+	 * Returns if this packet type has a dynamic size
+	 * 
+	 * @return true or false
+	 */
+	public static boolean hasDynamicSize()
+	{
+		return true;
+	}
+	
+	/**
+	 * Returns the counter of created packets from this type
+	 * 
+	 * @return the packet counter
+	 */
+	public static long getCreatedPackets()
+	{
+		long tResult = 0;
+		
+		synchronized (sCreatedPackets) {
+			tResult = sCreatedPackets;
+		}
+		
+		return tResult;
+	}
+	
+	/**
+	 * Returns an object describing string
+	 * 
+	 *  @return the describing string
+	 */
+	@Override
+	public String toString()
+	{
+		return getClass().getSimpleName() + "[" + getMessageNumber() + "](Sender=" + getSenderName()  + ", Receiver=" + getReceiverName() + ", Messages=" + mMessages.size() + ")";
+	}
+}
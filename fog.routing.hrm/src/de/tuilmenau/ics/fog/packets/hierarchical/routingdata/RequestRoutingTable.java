@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Forwarding on Gates Simulator/Emulator - Hierarchical Routing Management
+ * Copyright (c) 2015, Integrated Communication Systems Group, TU Ilmenau.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html.
+ ******************************************************************************/
+package de.tuilmenau.ics.fog.packets.hierarchical.routingdata;
+
+import de.tuilmenau.ics.fog.packets.hierarchical.SignalingMessageHrm;
+import de.tuilmenau.ics.fog.routing.hierarchical.HRMConfig;
+import de.tuilmenau.ics.fog.routing.naming.hierarchical.HRMName;
+import de.tuilmenau.ics.fog.ui.Logging;
+
+/**
+ * PACKET: This packet is used within the HRM "report" and "share" phase.
+ * 		   The receiver of routing table diffs uses this packet in order to request a complete routing table from the sender if it has detected lost updates.
+ */
+public class RequestRoutingTable extends SignalingMessageHrm
+{
+	/**
+	 * For using the class within (de-)serialization processes.  
+	 */
+	private static final long serialVersionUID = 4336494686435687151L;
+	
+	/**
+	 * Stores the counter of created packets from this type
+	 * This value is only used for debugging. It is not part of the HRM concept. 
+	 */
+	public static Long sCreatedPackets = new Long(0);
+	
+	/**
+	 * Stores if a complete shared routing table is requested, otherwise a complete reported routing table is requested
+	 */
+	private boolean mForRouteShare = false;
+	
+	/**
+	 * Constructor for getDefaultSize()
+	 */
+	private RequestRoutingTable()
+	{
+		super();
+	}
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param pSenderName the name of the message sender
+	 * @param pReceiverName the name of the message receiver
+	 * @param pForRouteShare true if a complete shared routing table is requested, false if a complete reported routing table is requested
+	 */
+	public RequestRoutingTable(HRMName pSenderName, HRMName pReceiverName, boolean pForRouteShare)
+	{
+		super(pSenderName, pReceiverName);
+		mForRouteShare = pForRouteShare;
+		synchronized (sCreatedPackets) {
+			sCreatedPackets++;
+		}
+	}
+	
+	/**
+	 * Returns if a complete shared routing table is requested
+	 * 
+	 * @return true for the share phase, false for the report phase
+	 */
+	public boolean isForRouteShare()
+	{
+		return mForRouteShare;
+	}
+	
+	/**
+	 * Returns the size of a serialized representation of this packet 
+	 */
+	/* (non-Javadoc)
+	 * @see de.tuilmenau.ics.fog.transfer.gates.headers.ProtocolHeader#getSerialisedSize()
+	 */
+	@Override
+	public int getSerialisedSize()
+	{
+		/*************************************************************
+		 * Size of serialized elements in [bytes]:
+		 * 
+		 * 		[MultiplexHeader]
+		 * 		[SignalingMessageHrm]
+		 * 		Flags					 = 1 (report or share?)
+		 * 
+		 *************************************************************/
+		
+		int tResult = 0;
+		
+		tResult += getDefaultSize();
+		tResult += 1;
+		
+		return tResult;
+	}
+	
+	/**
+	 * Returns the default size of this packet
+	 * 
+	 * @return the default size
+	 */
+	public static int getDefaultSize()
+	{
+		/*************************************************************
+		 * Size of serialized elements in [bytes]:
+		 * 
+		 * 		[MultiplexHeader]
+		 * 		[SignalingMessageHrm]
+		 * 
+		 *************************************************************/
+		
+		int tResult = 0;
+		
+		RequestRoutingTable tTest = new RequestRoutingTable();
+		if(HRMConfig.DebugOutput.GUI_SHOW_PACKET_SIZE_CALCULATIONS){
+			Logging.log("Size of " + tTest.getClass().getSimpleName());
+		}
+		tResult += SignalingMessageHrm.getDefaultSize();
+		if(HRMConfig.DebugOutput.GUI_SHOW_PACKET_SIZE_CALCULATIONS){
+			Logging.log("   ..resulting size: " + tResult);
+		}
+		
+		return tResult;
+	}
+	
+	/**
+	 * Returns the counter of created packets from this type
+	 *  
+	 * @return the packet counter
+	 */
+	public static long getCreatedPackets()
+	{
+		long tResult = 0;
+		
+		synchronized (sCreatedPackets) {
+			tResult = sCreatedPackets;
+		}
+		
+		return tResult;
+	}
+	
+	/**
+	 * Returns an object describing string
+	 * 
+	 *  @return the describing string
+	 */
+	@Override
+	public String toString()
+	{
+		return getClass().getSimpleName() + "[" + getMessageNumber() + "](Sender=" + getSenderName()  + ", Receiver=" + getReceiverName() + ", Phase=" + (mForRouteShare ? "share" : "report") + ")";
+	}
+}
@@ -128,11 +128,19 @@ public AnnounceCoordinator(HRMController pHRMController, HRMName pSenderName, Cl
 	
 	private double calcValidityDuration(Coordinator pCoordinator)
 	{
-		double tResult = 2 * HRMConfig.Hierarchy.COORDINATOR_ANNOUNCEMENTS_INTERVAL + HRMConfig.Hierarchy.MAX_E2E_DELAY; 
+		double tInterval = (pCoordinator != null ? pCoordinator.getAnnouncementInterval() : HRMConfig.Hierarchy.COORDINATOR_ANNOUNCEMENTS_INTERVAL);
+		
+		/**
+		 * the announcement has to survive the loss of the next periodic announcement, which follows after the (backed off) announcement interval
+		 */
+		double tResult = 2 * tInterval + HRMConfig.Hierarchy.MAX_E2E_DELAY;
+		if(tInterval >= HRMConfig.Hierarchy.COORDINATOR_ANNOUNCEMENTS_INTERVAL_LT_EXISTENCE){
+			tResult = HRMConfig.Hierarchy.COORDINATOR_ANNOUNCEMENTS_INTERVAL_LT_EXISTENCE + HRMConfig.Hierarchy.MAX_E2E_DELAY;
+		}
 		
 		if((pCoordinator != null) && (pCoordinator.hasLongTermExistence())){
 			//Logging.err(this, "Using higher lifetime here");
-			tResult = HRMConfig.Hierarchy.COORDINATOR_ANNOUNCEMENTS_INTERVAL_LT_EXISTENCE + HRMConfig.Hierarchy.MAX_E2E_DELAY;
+			tResult = Math.max(tResult, HRMConfig.Hierarchy.COORDINATOR_ANNOUNCEMENTS_INTERVAL_LT_EXISTENCE + HRMConfig.Hierarchy.MAX_E2E_DELAY);
 		}
 
 		return tResult;
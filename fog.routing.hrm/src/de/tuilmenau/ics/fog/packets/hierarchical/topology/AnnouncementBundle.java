@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Forwarding on Gates Simulator/Emulator - Hierarchical Routing Management
+ * Copyright (c) 2015, Integrated Communication Systems Group, TU Ilmenau.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html.
+ ******************************************************************************/
+package de.tuilmenau.ics.fog.packets.hierarchical.topology;
+
+import java.util.LinkedList;
+
+import de.tuilmenau.ics.fog.packets.hierarchical.SignalingMessageHrm;
+import de.tuilmenau.ics.fog.routing.hierarchical.HRMConfig;
+import de.tuilmenau.ics.fog.routing.naming.hierarchical.HRMName;
+import de.tuilmenau.ics.fog.ui.Logging;
+
+/**
+ * PACKET: It is used to transport several announcements (AnnounceCoordinator, InvalidCoordinator, AnnounceHRMIDs, RevokeHRMIDs) of
+ * 		   different comm. channels and hierarchy levels towards the same peer node within one packet.
+ * 		   The packet is sent between two comm. sessions. Each contained announcement has its own multiplex header and keeps its own
+ * 		   propagation state (TTL, passed nodes, route), hence the receiver handles each of them like a separately received packet.
+ */
+public class AnnouncementBundle extends SignalingMessageHrm
+{
+	/**
+	 * For using the class within (de-)serialization processes.
+	 */
+	private static final long serialVersionUID = 4920361837512604417L;
+	
+	/**
+	 * Stores the counter of created packets from this type
+	 * This value is only used for debugging. It is not part of the HRM concept.
+	 */
+	public static Long sCreatedPackets = new Long(0);
+	
+	/**
+	 * Stores the bundled announcements
+	 */
+	private LinkedList<SignalingMessageHrm> mMessages = new LinkedList<SignalingMessageHrm>();
+	
+	/**
+	 * Constructor for getDefaultSize()
+	 */
+	private AnnouncementBundle()
+	{
+		super();
+	}
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param pSenderName the name of the message sender
+	 * @param pReceiverName the name of the message receiver
+	 * @param pMessages the announcements which should be bundled
+	 */
+	public AnnouncementBundle(HRMName pSenderName, HRMName pReceiverName, LinkedList<SignalingMessageHrm> pMessages)
+	{
+		super(pSenderName, pReceiverName);
+		mMessages.addAll(pMessages);
+		synchronized (sCreatedPackets) {
+			sCreatedPackets++;
+		}
+	}
+	
+	/**
+	 * Returns the bundled announcements
+	 * 
+	 * @return the list of announcements
+	 */
+	public LinkedList<SignalingMessageHrm> getMessages()
+	{
+		return new LinkedList<SignalingMessageHrm>(mMessages);
+	}
+	
+	/**
+	 * Returns the size of a serialized representation of this packet
+	 */
+	/* (non-Javadoc)
+	 * @see de.tuilmenau.ics.fog.transfer.gates.headers.ProtocolHeader#getSerialisedSize()
+	 */
+	@Override
+	public int getSerialisedSize()
+	{
+		/*************************************************************
+		 * Size of serialized elements in [bytes]:
+		 * 
+		 * 		[SignalingMessageHrm]
+		 * 		Messages.length			 = 1
+		 * 		Messages				 = dynamic (without routing and transport header, including propagation state)
+		 * 
+		 *************************************************************/
+		
+		int tResult = 0;
+		
+		tResult += getDefaultSize();
+		for(SignalingMessageHrm tMessage : mMessages){
+			tResult += tMessage.getSerialisedSize() - SignalingMessageHrm.getTransportHeaderSize();
+		}
+		
+		return tResult;
+	}
+	
+	/**
+	 * Returns the default size of this packet
+	 * 
+	 * @return the default size
+	 */
+	public static int getDefaultSize()
+	{
+		/*************************************************************
+		 * Size of serialized elements in [bytes]:
+		 * 
+		 * 		[SignalingMessageHrm]
+		 * 		Messages.length			 = 1
+		 * 
+		 *************************************************************/
+		
+		int tResult = 0;
+		
+		AnnouncementBundle tTest = new AnnouncementBundle();
+		if(HRMConfig.DebugOutput.GUI_SHOW_PACKET_SIZE_CALCULATIONS){
+			Logging.log("Size of " + tTest.getClass().getSimpleName());
+		}
+		tResult += SignalingMessageHrm.getDefaultSize();
+		if(HRMConfig.DebugOutput.GUI_SHOW_PACKET_SIZE_CALCULATIONS){
+			Logging.log("   ..resulting size: " + tResult);
+		}
+		tResult += 1; // length of the message list
+		if(HRMConfig.DebugOutput.GUI_SHOW_PACKET_SIZE_CALCULATIONS){
+			Logging.log("   ..resulting size: " + tResult);
+		}
+		
+		return tResult;
+	}
+	
+	/**
+	 * Returns if this packet type has a dynamic size
+	 * 
+	 * @return true or false
+	 */
+	public static boolean hasDynamicSize()
+	{
+		return true;
+	}
+	
+	/**
+	 * Returns the counter of created packets from this type
+	 * 
+	 * @return the packet counter
+	 */
+	public static long getCreatedPackets()
+	{
+		long tResult = 0;
+		
+		synchronized (sCreatedPackets) {
+			tResult = sCreatedPackets;
+		}
+		
+		return tResult;
+	}
+	
+	/**
+	 * Returns an object describing string
+	 * 
+	 *  @return the describing string
+	 */
+	@Override
+	public String toString()
+	{
+		return getClass().getSimpleName() + "[" + getMessageNumber() + "](Sender=" + getSenderName()  + ", Receiver=" + getReceiverName() + ", Messages=" + mMessages.size() + ")";
+	}
+}
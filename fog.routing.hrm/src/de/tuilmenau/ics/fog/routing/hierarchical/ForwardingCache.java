@@ -0,0 +1,261 @@
+/*******************************************************************************
+ * Forwarding on Gates Simulator/Emulator - Hierarchical Routing Management
+ * Copyright (c) 2015, Integrated Communication Systems Group, TU Ilmenau.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html.
+ ******************************************************************************/
+package de.tuilmenau.ics.fog.routing.hierarchical;
+
+import java.util.HashMap;
+
+import de.tuilmenau.ics.fog.routing.Route;
+import de.tuilmenau.ics.fog.routing.naming.hierarchical.HRMID;
+import de.tuilmenau.ics.fog.routing.naming.hierarchical.L2Address;
+
+/**
+ * This class implements the forwarding information base (FIB) of an HRMRoutingService instance.
+ * It stores the results of previous routing decisions per destination HRMID and QoS class (desired data rate and delay).
+ * An entry consists of the chosen routing table entry, the L2 address of the next hop and the L2 route towards the next hop.
+ * 
+ * The cache is cleared if the local routing table got a new revision (see RoutingTable::getRevision()), if the HRMID-to-L2Address
+ * mapping changes, or if the L2 topology (neighbor routing graph) changes. Each clearing starts a new generation.
+ * Results, which were determined during an older generation, are not stored in the cache.
+ */
+public class ForwardingCache
+{
+	/**
+	 * Stores the cached forwarding entries
+	 */
+	private HashMap<Key, Entry> mEntries = new HashMap<Key, Entry>();
+	
+	/**
+	 * Stores the revision of the routing table, which was used for the cached entries
+	 */
+	private long mRoutingTableRevision = -1;
+	
+	/**
+	 * Stores the current generation of the cache
+	 */
+	private long mGeneration = 0;
+	
+	/**
+	 * Stores the measurement values, which account the cache hits, misses, and invalidations
+	 */
+	private HRMMetrics mMetrics = null;
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param pMetrics the measurement values of the simulation
+	 */
+	public ForwardingCache(HRMMetrics pMetrics)
+	{
+		mMetrics = pMetrics;
+	}
+	
+	/**
+	 * Checks the cache against the current revision of the routing table and clears the cache if needed
+	 * 
+	 * @param pRoutingTableRevision the current revision of the routing table
+	 * 
+	 * @return the current generation of the cache, it has to be used for storing a new entry
+	 */
+	public synchronized long validate(long pRoutingTableRevision)
+	{
+		if(mRoutingTableRevision != pRoutingTableRevision){
+			clear();
+			mRoutingTableRevision = pRoutingTableRevision;
+		}
+		
+		return mGeneration;
+	}
+	
+	/**
+	 * Searches for a cached forwarding entry
+	 * 
+	 * @param pDestination the destination HRMID
+	 * @param pDesiredDataRate the desired min. data rate
+	 * @param pDesiredDelay the desired max. delay
+	 * @param pLastHopHRMID the HRMID of the last hop (forbidden as next hop)
+	 * @param pLastHopL2Address the L2Address of the last hop (forbidden as next hop)
+	 * 
+	 * @return the found entry or null
+	 */
+	public synchronized Entry get(HRMID pDestination, long pDesiredDataRate, long pDesiredDelay, HRMID pLastHopHRMID, L2Address pLastHopL2Address)
+	{
+		Entry tResult = mEntries.get(new Key(pDestination, pDesiredDataRate, pDesiredDelay, pLastHopHRMID, pLastHopL2Address));
+		
+		mMetrics.accountForwardingCacheLookup(tResult != null);
+		
+		return tResult;
+	}
+	
+	/**
+	 * Stores a forwarding entry
+	 * 
+	 * @param pGeneration the generation of the cache, which was valid when the routing decision was started
+	 * @param pDestination the destination HRMID
+	 * @param pDesiredDataRate the desired min. data rate
+	 * @param pDesiredDelay the desired max. delay
+	 * @param pLastHopHRMID the HRMID of the last hop (forbidden as next hop)
+	 * @param pLastHopL2Address the L2Address of the last hop (forbidden as next hop)
+	 * @param pRoutingEntry the chosen routing table entry
+	 * @param pNextHopL2Address the L2 address of the next hop
+	 * @param pRouteToNextHop the L2 route towards the next hop
+	 */
+	public synchronized void put(long pGeneration, HRMID pDestination, long pDesiredDataRate, long pDesiredDelay, HRMID pLastHopHRMID, L2Address pLastHopL2Address, RoutingEntry pRoutingEntry, L2Address pNextHopL2Address, Route pRouteToNextHop)
+	{
+		// the routing decision is based on outdated data
+		if(pGeneration != mGeneration){
+			return;
+		}
+		
+		if(mEntries.size() >= HRMConfig.Routing.FORWARDING_CACHE_SIZE){
+			clear();
+		}
+		
+		mEntries.put(new Key(pDestination, pDesiredDataRate, pDesiredDelay, pLastHopHRMID, pLastHopL2Address), new Entry(pRoutingEntry, pNextHopL2Address, pRouteToNextHop));
+	}
+	
+	/**
+	 * Invalidates all cached entries, e.g., because the L2 topology has changed
+	 */
+	public synchronized void invalidate()
+	{
+		clear();
+	}
+	
+	/**
+	 * Drops all entries and starts a new generation
+	 */
+	private void clear()
+	{
+		if(!mEntries.isEmpty()){
+			mMetrics.accountForwardingCacheInvalidation();
+			mEntries.clear();
+		}
+		mGeneration++;
+	}
+	
+	/**
+	 * Returns the number of cached entries
+	 * 
+	 * @return the number of entries
+	 */
+	public synchronized int size()
+	{
+		return mEntries.size();
+	}
+	
+	/**
+	 * Returns a descriptive string about this object
+	 * 
+	 * @return the descriptive string
+	 */
+	@Override
+	public String toString()
+	{
+		return getClass().getSimpleName() + "(Entries=" + size() + ")";
+	}
+	
+	/**
+	 * A cached forwarding entry
+	 */
+	public static class Entry
+	{
+		private final RoutingEntry mRoutingEntry;
+		private final L2Address mNextHopL2Address;
+		private final Route mRouteToNextHop;
+		
+		private Entry(RoutingEntry pRoutingEntry, L2Address pNextHopL2Address, Route pRouteToNextHop)
+		{
+			mRoutingEntry = pRoutingEntry;
+			mNextHopL2Address = pNextHopL2Address;
+			mRouteToNextHop = pRouteToNextHop.clone();
+		}
+		
+		/**
+		 * Returns the chosen routing table entry
+		 * 
+		 * @return the routing table entry
+		 */
+		public RoutingEntry getRoutingEntry()
+		{
+			return mRoutingEntry;
+		}
+		
+		/**
+		 * Returns the L2 address of the next hop
+		 * 
+		 * @return the L2 address
+		 */
+		public L2Address getNextHopL2Address()
+		{
+			return mNextHopL2Address;
+		}
+		
+		/**
+		 * Returns a copy of the L2 route towards the next hop, the caller is allowed to extend it
+		 * 
+		 * @return the L2 route
+		 */
+		public Route getRouteToNextHop()
+		{
+			return mRouteToNextHop.clone();
+		}
+	}
+	
+	/**
+	 * The key of a cached forwarding entry, it uses the plain address values because routing decisions are based on them
+	 */
+	private static class Key
+	{
+		public Key(HRMID pDestination, long pDesiredDataRate, long pDesiredDelay, HRMID pLastHopHRMID, L2Address pLastHopL2Address)
+		{
+			mDestination = pDestination.getAddress();
+			mDesiredDataRate = pDesiredDataRate;
+			mDesiredDelay = pDesiredDelay;
+			mHasLastHopHRMID = (pLastHopHRMID != null);
+			mLastHopHRMID = (pLastHopHRMID != null ? pLastHopHRMID.getAddress() : 0);
+			mHasLastHopL2Address = (pLastHopL2Address != null);
+			mLastHopL2Address = (pLastHopL2Address != null ? pLastHopL2Address.getAddress() : 0);
+		}
+		
+		@Override
+		public boolean equals(Object pObj)
+		{
+			if(!(pObj instanceof Key)){
+				return false;
+			}
+			
+			Key tOther = (Key)pObj;
+			
+			return (mDestination == tOther.mDestination) && (mDesiredDataRate == tOther.mDesiredDataRate) && (mDesiredDelay == tOther.mDesiredDelay) &&
+				   (mHasLastHopHRMID == tOther.mHasLastHopHRMID) && (mLastHopHRMID == tOther.mLastHopHRMID) &&
+				   (mHasLastHopL2Address == tOther.mHasLastHopL2Address) && (mLastHopL2Address == tOther.mLastHopL2Address);
+		}
+		
+		@Override
+		public int hashCode()
+		{
+			long tResult = mDestination;
+			tResult = 31 * tResult + mDesiredDataRate;
+			tResult = 31 * tResult + mDesiredDelay;
+			tResult = 31 * tResult + mLastHopHRMID;
+			tResult = 31 * tResult + mLastHopL2Address;
+			
+			return (int)(tResult ^ (tResult >>> 32));
+		}
+		
+		private final long mDestination;
+		private final long mDesiredDataRate;
+		private final long mDesiredDelay;
+		private final boolean mHasLastHopHRMID;
+		private final long mLastHopHRMID;
+		private final boolean mHasLastHopL2Address;
+		private final long mLastHopL2Address;
+	}
+}
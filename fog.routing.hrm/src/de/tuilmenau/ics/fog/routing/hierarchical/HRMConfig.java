@@ -274,6 +274,27 @@
 		 */
 		public static final double COORDINATOR_ANNOUNCEMENTS_INTERVAL_LT_EXISTENCE_TIME = 30.0; // default: 30
 
+		/**
+		 * Defines the factor by which the period for AnnounceCoordinator broadcasts is increased after each announcement during a stable hierarchy.
+		 * The period starts at COORDINATOR_ANNOUNCEMENTS_INTERVAL and is limited by COORDINATOR_ANNOUNCEMENTS_INTERVAL_LT_EXISTENCE.
+		 * A value of 1.0 deactivates the back-off and restores the direct switch to COORDINATOR_ANNOUNCEMENTS_INTERVAL_LT_EXISTENCE.
+		 */
+		public static final double COORDINATOR_ANNOUNCEMENTS_INTERVAL_BACKOFF_FACTOR = 2.0; // default: 2
+
+		/**
+		 * Defines if announcements (AnnounceCoordinator, InvalidCoordinator, AnnounceHRMIDs, RevokeHRMIDs) towards the same peer node should be aggregated within one packet.
+		 * Additionally, a queued announcement is replaced by a newer one from the same origin.
+		 */
+		public static final boolean AGGREGATE_ANNOUNCEMENTS = true;
+
+		/**
+		 * Defines the time window for collecting announcements towards the same peer node before they are sent.
+		 * The periodic coordinator announcements are aligned to this time grid, hence the announcements of all hierarchy levels of a node are sent together.
+		 * 
+		 * measured in: [s]
+		 */
+		public static final double ANNOUNCEMENTS_AGGREGATION_WINDOW = 0.2; // default: 0.2
+
 		/**
 		 * Defines the time period for a node-specific stable hierarchy -> used for CoordinatorProxy invalidation and route reports/shares
 		 * 
@@ -390,6 +411,13 @@
 		 * Defines the time in [s] of idle time after a probably dead channel is pinged
 		 */
 		public static final double TIME_BEFORE_CHANNEL_IS_PINGED = 3 * COORDINATOR_ANNOUNCEMENTS_INTERVAL;
+		
+		/**
+		 * Defines the number of threads, which process the events of all HRMController instances.
+		 * A clustering might block a thread during connect(), thus, the value should be larger than the number of CPU cores.
+		 * A value of 0 uses twice the number of CPU cores.
+		 */
+		public static final int PROCESSOR_THREADS = 0;
 	}
 	
 	/**
@@ -401,6 +429,17 @@
 		 * Default priority for election process. This value is used when no value is explicitly defined for a node.
 		 */
 		public static final long DEFAULT_PRIORITY = 0;
+		
+		/**
+		 * Defines if election messages towards the same peer node should be aggregated within one packet.
+		 * Additionally, a queued priority update (or alive message) of a comm. channel is replaced by a newer one.
+		 */
+		public static final boolean AGGREGATE_MESSAGES = true;
+		
+		/**
+		 * Defines the time window for collecting election messages towards the same peer node before they are sent
+		 */
+		public static final double MESSAGE_AGGREGATION_WINDOW = 0.05;
 	}
 
 	/**
@@ -559,6 +598,16 @@ public enum REPORT_SHARE_TIMINGS {CONSTANT, LINEAR, EXPONENTIAL};
 		 * (corresponds to "DR_MIN")
 		 */
 		public static final long MIN_REMAINING_BE_DATA_RATE = 128;
+
+		/**
+		 * Defines if the results of routing decisions should be cached per destination and QoS class (forwarding information base)
+		 */
+		public static final boolean FORWARDING_CACHE = true;
+
+		/**
+		 * Defines the max. number of entries in the forwarding cache of a node, the cache is cleared if this limit is reached
+		 */
+		public static final int FORWARDING_CACHE_SIZE = 1024;
 	}
 
 	/**
@@ -661,6 +710,12 @@ public enum REPORT_SHARE_TIMINGS {CONSTANT, LINEAR, EXPONENTIAL};
 		 */
 		public static final double TIME_FOR_MEASURING_PACKETS_OVERHEAD = 30 * 60; //default: 30 mins., 10 times of ROUTE_TIMEOUT_STABLE_HIERARCHY 
 
+		/**
+		 * Defines the time period between two snapshots of the global measurement values (packets and bytes per link and packet type), which are written to the statistics output.
+		 * A value of 0 deactivates the snapshots.
+		 */
+		public static final double METRICS_SNAPSHOT_INTERVAL = 0; //default: 0
+		
 		/**
 		 * Defines if infinite connection retries should be processed in order to measure the startup phase for complex networks which might cause simulation overload situations, which again could connection timeouts
 		 */
@@ -17,10 +17,12 @@
 import java.util.ConcurrentModificationException;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Observer;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import de.tuilmenau.ics.fog.FoGEntity;
 import de.tuilmenau.ics.fog.IEvent;
@@ -57,6 +59,7 @@
 import de.tuilmenau.ics.fog.packets.hierarchical.clustering.RequestClusterMembership;
 import de.tuilmenau.ics.fog.packets.hierarchical.clustering.RequestClusterMembershipAck;
 import de.tuilmenau.ics.fog.packets.hierarchical.election.ElectionAlive;
+import de.tuilmenau.ics.fog.packets.hierarchical.election.ElectionBundle;
 import de.tuilmenau.ics.fog.packets.hierarchical.election.ElectionWinner;
 import de.tuilmenau.ics.fog.packets.hierarchical.election.ElectionLeave;
 import de.tuilmenau.ics.fog.packets.hierarchical.election.ElectionPriorityUpdate;
@@ -65,9 +68,11 @@
 import de.tuilmenau.ics.fog.packets.hierarchical.election.SignalingMessageElection;
 import de.tuilmenau.ics.fog.packets.hierarchical.topology.AnnounceCoordinator;
 import de.tuilmenau.ics.fog.packets.hierarchical.topology.AnnounceNeighborNode;
+import de.tuilmenau.ics.fog.packets.hierarchical.topology.AnnouncementBundle;
 import de.tuilmenau.ics.fog.packets.hierarchical.topology.IEthernetPayload;
 import de.tuilmenau.ics.fog.packets.hierarchical.topology.InvalidCoordinator;
 import de.tuilmenau.ics.fog.packets.hierarchical.routingdata.AnnounceHRMIDs;
+import de.tuilmenau.ics.fog.packets.hierarchical.routingdata.RequestRoutingTable;
 import de.tuilmenau.ics.fog.packets.hierarchical.routingdata.RouteReport;
 import de.tuilmenau.ics.fog.packets.hierarchical.routingdata.RouteShare;
 import de.tuilmenau.ics.fog.routing.Route;
@@ -165,6 +170,13 @@ public class HRMController extends Application implements ServerCallback, IEvent
 	 */
 	private LinkedList<HRMID> mRegisteredOwnHRMIDs = new LinkedList<HRMID>();
 
+	/**
+	 * Stores the local control entities per registered HRMID (reverse index for mRegisteredOwnHRMIDs).
+	 * The key is the long value of the HRMID because HRMID objects are modifiable.
+	 * This is protected by the lock of mRegisteredOwnHRMIDs.
+	 */
+	private HashMap<Long, LinkedList<ControlEntity>> mRegisteredOwnHRMIDOwners = new HashMap<Long, LinkedList<ControlEntity>>();
+	
 	/**
 	 * Stores the time for the next distribution of local HRMIDs 
 	 */
@@ -174,7 +186,7 @@ public class HRMController extends Application implements ServerCallback, IEvent
 	 * Stores a database about all registered coordinators.
 	 * For example, this list is used for the GUI.
 	 */
-	private LinkedList<Coordinator> mLocalCoordinators = new LinkedList<Coordinator>();
+	private ControlEntityRegistry<Coordinator> mLocalCoordinators = new ControlEntityRegistry<Coordinator>();
 
 	/**
 	 * Stores all former known Coordinator IDs
@@ -184,35 +196,41 @@ public class HRMController extends Application implements ServerCallback, IEvent
 	/**
 	 * Stores a database about all registered coordinator proxies.
 	 */
-	private LinkedList<CoordinatorProxy> mLocalCoordinatorProxies = new LinkedList<CoordinatorProxy>();
+	private ControlEntityRegistry<CoordinatorProxy> mLocalCoordinatorProxies = new ControlEntityRegistry<CoordinatorProxy>();
 	
 	/**
 	 * Stores a database about all registered clusters.
 	 * For example, this list is used for the GUI.
 	 */
-	private LinkedList<Cluster> mLocalClusters = new LinkedList<Cluster>();
+	private ControlEntityRegistry<Cluster> mLocalClusters = new ControlEntityRegistry<Cluster>();
 
 	/**
 	 * Stores a database about all registered cluster members (including Cluster objects).
 	 */
-	private LinkedList<ClusterMember> mLocalClusterMembers = new LinkedList<ClusterMember>();
+	private ControlEntityRegistry<ClusterMember> mLocalClusterMembers = new ControlEntityRegistry<ClusterMember>();
 
 	/**
 	 * Stores a database about all registered L0 cluster members (including Cluster objects).
 	 * This list is used for deriving connectivity data for the distribution of topology data.
 	 */
-	private LinkedList<ClusterMember> mLocalL0ClusterMembers = new LinkedList<ClusterMember>();
+	private ControlEntityRegistry<ClusterMember> mLocalL0ClusterMembers = new ControlEntityRegistry<ClusterMember>();
 
 	/**
 	 * Stores a database about all registered CoordinatorAsClusterMemeber instances.
 	 */
-	private LinkedList<CoordinatorAsClusterMember> mLocalCoordinatorAsClusterMemebers = new LinkedList<CoordinatorAsClusterMember>();
+	private ControlEntityRegistry<CoordinatorAsClusterMember> mLocalCoordinatorAsClusterMemebers = new ControlEntityRegistry<CoordinatorAsClusterMember>();
 	
 	/**
 	 * Stores a database about all registered comm. sessions.
 	 */
 	private LinkedList<ComSession> mCommunicationSessions = new LinkedList<ComSession>();
 	
+	/**
+	 * Stores the first registered comm. session per peer L2Address (index for mCommunicationSessions).
+	 * This is protected by the lock of mCommunicationSessions.
+	 */
+	private HashMap<L2Address, ComSession> mCommunicationSessionsPerPeer = new HashMap<L2Address, ComSession>();
+	
 	/**
 	 * Stores a reference to the local instance of the hierarchical routing service.
 	 */
@@ -231,7 +249,7 @@ public class HRMController extends Application implements ServerCallback, IEvent
 	/**
 	 * Stores a database including all HRMControllers of this physical simulation machine
 	 */
-	private static LinkedList<HRMController> sRegisteredHRMControllers = new LinkedList<HRMController>();
+	private static final CopyOnWriteArrayList<HRMController> sRegisteredHRMControllers = new CopyOnWriteArrayList<HRMController>();
 	
 	/**
 	 * Stores the number of pending connection creations
@@ -334,9 +352,9 @@ public class HRMController extends Application implements ServerCallback, IEvent
 	private String mDesriptionHierarchyPriorityUpdates = new String(); // memory consuming
 	
 	/**
-	 * Stores the thread for clustering tasks and packet processing
+	 * Stores the processor for clustering tasks and packet processing
 	 */
-	private HRMControllerProcessor mProcessorThread = null;
+	private HRMControllerProcessor mProcessor = null;
 	
 	/**
 	 * Stores a database about all known network interfaces of this node
@@ -452,30 +470,6 @@ public class HRMController extends Application implements ServerCallback, IEvent
 	 */
 	public static boolean ENFORCE_BE_ROUTING = false;
 	
-	/**
-	 * Stores a counter about seen packets per packet type and link
-	 * This value is not part of the concept. It is only used for debugging purposes and comparison measurements. 
-	 */
-	private static HashMap<Bus, HashMap<Class<?>, Integer>> sPacketCounterPerLink = new HashMap<Bus, HashMap<Class<?>, Integer>>();
-
-	/**
-	 * Stores byte counter per packet type and link
-	 * This value is not part of the concept. It is only used for debugging purposes and comparison measurements. 
-	 */
-	private static HashMap<Bus, HashMap<Class<?>, Integer>> sPacketOverheadCounterPerLink = new HashMap<Bus, HashMap<Class<?>, Integer>>();
-
-	/**
-	 * Stores byte counter per packet type and link, additional IP overhead is added per packet
-	 * This value is not part of the concept. It is only used for debugging purposes and comparison measurements. 
-	 */
-	private static HashMap<Bus, HashMap<Class<?>, Integer>> sPacketOverheadCounterPerLinkForIP = new HashMap<Bus, HashMap<Class<?>, Integer>>();
-
-	/**
-	 * Stores the simulation time when the packet overhead measurement started
-	 * This value is not part of the concept. It is only used for debugging purposes and comparison measurements. 
-	 */
-	private static double sPacketOverheadMeasurementStart = 0;
-	
 	/**
 	 * The global name space which is used to identify the HRM instances on nodes.
 	 */
@@ -664,13 +658,13 @@ public HRMController(Node pNode, HRMRoutingService pHierarchicalRoutingService,
 		tDecoration.setDecorator(mNode,  mDecoratorForNMSEntries);
 		
 		/**
-		 * Create clusterer thread
+		 * Create clusterer
 		 */
-		mProcessorThread = new HRMControllerProcessor(this);
+		mProcessor = new HRMControllerProcessor(this);
 		/**
-		 * Start the clusterer thread
+		 * Start the clusterer, it uses the shared thread pool of all HRMController instances
 		 */
-		mProcessorThread.start();
+		mProcessor.start();
 
 		/**
 		 * Create communication service
@@ -728,12 +722,10 @@ public static IHRMApi getHRMApi(Node pNode)
 	{
 		IHRMApi tResult = null;
 		
-		synchronized (sRegisteredHRMControllers) {
-			for(HRMController tHRMController: sRegisteredHRMControllers){
-				if(tHRMController.getNode().equals(pNode)){
-					tResult = tHRMController;
-					break;
-				}
+		for(HRMController tHRMController: sRegisteredHRMControllers){
+			if(tHRMController.getNode().equals(pNode)){
+				tResult = tHRMController;
+				break;
 			}
 		}
 		
@@ -750,72 +742,62 @@ public static void accountPacket(Bus pLink, ProtocolHeader pPacket)
 	{
 		Class <?> tPacketClass = pPacket.getClass();
 		
+		/**
+		 * requests for complete routing tables are part of the report/share phase -> account them for the phase
+		 */
+		if(pPacket instanceof RequestRoutingTable){
+			tPacketClass = (((RequestRoutingTable)pPacket).isForRouteShare() ? RouteShare.class : RouteReport.class);
+		}
+		
 		int tPacketSize = pPacket.getSerialisedSize();
 		if(tPacketSize > IPv6Packet.PATH_MTU - IPv6Packet.HEADER_SIZE){
 			//Logging.warn(null, "WARNING - ACCOUNTING for link " + pLink + " got a BIG PACKET of " + (tPacketSize < 10 ? "0" : "") + tPacketSize + " bytes for " + pPacket);
 		}
 		
-		synchronized (sPacketCounterPerLink) {
-			HashMap<Class<?>, Integer> tPacketsForBus = sPacketCounterPerLink.get(pLink);
-			if(tPacketsForBus == null){
-				tPacketsForBus = new HashMap<Class<?>, Integer>();
-			}
+		int tPacketSizeForIP = tPacketSize;
 	
-			Integer tPacketCount = tPacketsForBus.get(tPacketClass);
-			if(tPacketCount == null){
-				tPacketCount = new Integer(0);
-			}		
-			tPacketCount++;
-			
-			tPacketsForBus.put(tPacketClass, tPacketCount);
-			
-			sPacketCounterPerLink.put(pLink, tPacketsForBus);
+		/**
+		 * ADD: IP header size
+		 */
+		if(!(pPacket instanceof IEthernetPayload)){
+			tPacketSizeForIP += IPv6Packet.HEADER_SIZE;
 		}
 		
-		synchronized (sPacketOverheadCounterPerLink) {
-			HashMap<Class<?>, Integer> tPacketsForBus = sPacketOverheadCounterPerLink.get(pLink);
-			if(tPacketsForBus == null){
-				tPacketsForBus = new HashMap<Class<?>, Integer>();
-			}
+		HRMMetrics.getInstance(pLink.getAS().getSimulation()).accountPacket(pLink, tPacketClass, tPacketSize, tPacketSizeForIP);
+	}
 	
-			Integer tPacketCount = tPacketsForBus.get(tPacketClass);
-			if(tPacketCount == null){
-				tPacketCount = new Integer(0);
-			}		
-			tPacketCount += tPacketSize;
+	/**
+	 * Returns the global measurement values of the simulation of this HRMController instance
+	 * 
+	 * @return the measurement values
+	 */
+	public HRMMetrics getMetrics()
+	{
+		return HRMMetrics.getInstance(mAS.getSimulation());
+	}
 			
-			tPacketsForBus.put(tPacketClass, tPacketCount);
+	/**
+	 * Returns the global measurement values of the current simulation
+	 * 
+	 * @return the measurement values or null if no HRMController instance is registered
+	 */
+	private static HRMMetrics getCurrentMetrics()
+	{
+		HRMController tHRMController = getFirstHRMController();
 			
-			sPacketOverheadCounterPerLink.put(pLink, tPacketsForBus);
-		}
+		return (tHRMController != null ? tHRMController.getMetrics() : null);
+	}
 		
-		synchronized (sPacketOverheadCounterPerLinkForIP) {
-			HashMap<Class<?>, Integer> tPacketsForBus = sPacketOverheadCounterPerLinkForIP.get(pLink);
-			if(tPacketsForBus == null){
-				tPacketsForBus = new HashMap<Class<?>, Integer>();
-			}
+	/**
+	 * Returns the first registered HRMController instance
+	 * 
+	 * @return the HRMController instance or null
+	 */
+	private static HRMController getFirstHRMController()
+	{
+		Iterator<HRMController> tIterator = sRegisteredHRMControllers.iterator();
 	
-			Integer tPacketCount = tPacketsForBus.get(tPacketClass);
-			if(tPacketCount == null){
-				tPacketCount = new Integer(0);
-			}		
-			
-			/**
-			 * ADD: the packet size
-			 */
-			tPacketCount += tPacketSize;
-			
-			/**
-			 * ADD: IP header size
-			 */
-			if(!(pPacket instanceof IEthernetPayload)){
-				tPacketCount += IPv6Packet.HEADER_SIZE;						
-			}
-			
-			tPacketsForBus.put(tPacketClass, tPacketCount);
-			
-			sPacketOverheadCounterPerLinkForIP.put(pLink, tPacketsForBus);
-		}
+		return (tIterator.hasNext() ? tIterator.next() : null);
 	}
 	
 	/**
@@ -825,20 +807,10 @@ public static void resetPacketOverheadCounting()
 	{
 		GLOBAL_PACKET_OVERHEAD_WRITTEN = false;
 		
-		synchronized (sPacketOverheadCounterPerLink) {
-			sPacketOverheadCounterPerLink = new HashMap<Bus, HashMap<Class<?>, Integer>>();	
-			
-			synchronized (sRegisteredHRMControllers) {
-				if(sRegisteredHRMControllers.size() > 0){
-					HRMController tHRMController = sRegisteredHRMControllers.getFirst();
-					//Logging.warn(tHRMController, "Resetting the packet overhead measurement");
-					sPacketOverheadMeasurementStart = tHRMController.getSimulationTime();
-				}
-			}
-		}
-		
-		synchronized (sPacketOverheadCounterPerLinkForIP) {
-			sPacketOverheadCounterPerLinkForIP = new HashMap<Bus, HashMap<Class<?>, Integer>>();	
+		HRMController tHRMController = getFirstHRMController();
+		if(tHRMController != null){
+			//Logging.warn(tHRMController, "Resetting the packet overhead measurement");
+			tHRMController.getMetrics().resetPacketOverhead(tHRMController.getSimulationTime());
 		}
 	}
 
@@ -850,26 +822,13 @@ public static void resetPacketOverheadCounting()
 	public static double getPacketOverheadPerLinkMeasurementPeriod()
 	{
 		double tResult = 0;
-		HRMController tHRMController = null;
 		
-		if(sRegisteredHRMControllers != null){
-			synchronized (sRegisteredHRMControllers) {
-				if(sRegisteredHRMControllers.size() > 0){
-					tHRMController = sRegisteredHRMControllers.getFirst();
-					tResult = tHRMController.getSimulationTime() - sPacketOverheadMeasurementStart;
-				}
-			}
-		}else{
-			Logging.warn(null, "HRMController::getPacketOverheadPerLinkMeasurementPeriod() found an invalid HRMController database");
+		HRMController tHRMController = getFirstHRMController();
+		if(tHRMController != null){
+			tResult = tHRMController.getSimulationTime() - tHRMController.getMetrics().getPacketOverheadMeasurementStart();
 		}
 		
 		tResult = ((double)Math.round(100 * tResult)) / 100; 
-				
-//		if(tResult == 0){
-//			if(tHRMController != null){
-//				Logging.log(null, "HRMController::getPacketOverheadPerLinkMeasurementPeriod() found a zero result (" + tHRMController.getSimulationTime() + " - " + sPacketOverheadMeasurementStart + ")");  
-//			}
-//		}
 
 		return tResult;
 	}
@@ -879,42 +838,32 @@ public static double getPacketOverheadPerLinkMeasurementPeriod()
 	 */
 	public static void logPacketsOverheadPerLink()
 	{
-		synchronized (sPacketOverheadCounterPerLink) {
-			synchronized (sPacketOverheadCounterPerLinkForIP) {
-				double tPeriod = HRMConfig.Measurement.TIME_FOR_MEASURING_PACKETS_OVERHEAD;//getPacketOverheadPerLinkMeasurementPeriod();
-				HRMController tHRMController = null;
-				synchronized (sRegisteredHRMControllers) {
-					tHRMController = sRegisteredHRMControllers.getFirst();
-				}
-				Logging.warn(tHRMController, "Measured packet overhead since: " + sPacketOverheadMeasurementStart);
-				Logging.warn(tHRMController, "   ..results in a measurement period of: " + tPeriod + " seconds");
+		HRMController tHRMController = getFirstHRMController();
+		if(tHRMController == null){
+			return;
+		}
 				
+		HRMMetrics tMetrics = tHRMController.getMetrics();
+		double tPeriod = HRMConfig.Measurement.TIME_FOR_MEASURING_PACKETS_OVERHEAD;//getPacketOverheadPerLinkMeasurementPeriod();
+		Logging.warn(tHRMController, "Measured packet overhead since: " + tMetrics.getPacketOverheadMeasurementStart());
+		Logging.warn(tHRMController, "   ..results in a measurement period of: " + tPeriod + " seconds");
 				
-				for (Bus tBus: sPacketOverheadCounterPerLink.keySet()){
-					Logging.warn(tBus, "PACKETS OVERHEAD:..");
-					HashMap<Class<?>, Integer> tPacketsForBus = sPacketOverheadCounterPerLink.get(tBus);
-					HashMap<Class<?>, Integer> tPacketsForBusForIP = sPacketOverheadCounterPerLinkForIP.get(tBus);
-
-					for (Class<?> tPacketType : tPacketsForBus.keySet()){
-						Integer tCounter = tPacketsForBus.get(tPacketType);
-						Integer tCounterForIP = (tPacketsForBusForIP != null ? tPacketsForBusForIP.get(tPacketType) : null);
-
-						double tDataRate = ((double)Math.round(100 * (double)tCounter / tPeriod)) / 100;
-						DecimalFormat tFormat = new DecimalFormat("0.#");
-						String tDataRateStr = tFormat.format(tDataRate);
-						
-						String tDataRateStrForIP = "";
-						if(tCounterForIP != null){
-							double tDataRateForIP = ((double)Math.round(100 * (double)tCounterForIP / tPeriod)) / 100;
-							DecimalFormat tFormatForIP = new DecimalFormat("0.#");
-							tDataRateStrForIP = tFormatForIP.format(tDataRateForIP);
-						}
+		for (Bus tBus: tMetrics.getLinks()){
+			Logging.warn(tBus, "PACKETS OVERHEAD:..");
+			for (Class<?> tPacketType : tMetrics.getPacketClasses(tBus)){
+				long tCounter = tMetrics.getBytes(tBus, tPacketType);
+				long tCounterForIP = tMetrics.getBytesForIP(tBus, tPacketType);
+				
+				double tDataRate = ((double)Math.round(100 * (double)tCounter / tPeriod)) / 100;
+				DecimalFormat tFormat = new DecimalFormat("0.#");
+				String tDataRateStr = tFormat.format(tDataRate);
+				
+				double tDataRateForIP = ((double)Math.round(100 * (double)tCounterForIP / tPeriod)) / 100;
+				String tDataRateStrForIP = tFormat.format(tDataRateForIP);
 						
-						Logging.warn(tBus, "   .." + tPacketType.getSimpleName() + ": " + tCounter + " bytes, " + tDataRateStr + " bytes/s, ## for IP: " + tCounterForIP + " bytes, " + tDataRateStrForIP + " bytes/s");
-					}
-				}
+				Logging.warn(tBus, "   .." + tPacketType.getSimpleName() + ": " + tCounter + " bytes, " + tDataRateStr + " bytes/s, ## for IP: " + tCounterForIP + " bytes, " + tDataRateStrForIP + " bytes/s");
 			}
-		}				
+		}
 	}
 	
 	/**
@@ -922,16 +871,17 @@ public static void logPacketsOverheadPerLink()
 	 */
 	public static void logPacketsPerLink()
 	{
-		synchronized (sPacketCounterPerLink) {
-			for (Bus tBus: sPacketCounterPerLink.keySet()){
-				Logging.warn(tBus, "PACKETS:..");
-				HashMap<Class<?>, Integer> tPacketsForBus = sPacketCounterPerLink.get(tBus);
-				for (Class<?> tPacketType : tPacketsForBus.keySet()){
-					Integer tCounter = tPacketsForBus.get(tPacketType);
-					Logging.warn(tBus, "   .." + tPacketType.getSimpleName() + ": " + tCounter);
-				}
+		HRMMetrics tMetrics = getCurrentMetrics();
+		if(tMetrics == null){
+			return;
+		}
+		
+		for (Bus tBus: tMetrics.getLinks()){
+			Logging.warn(tBus, "PACKETS:..");
+			for (Class<?> tPacketType : tMetrics.getPacketClasses(tBus)){
+				Logging.warn(tBus, "   .." + tPacketType.getSimpleName() + ": " + tMetrics.getPackets(tBus, tPacketType));
 			}
-		}				
+		}
 	}
 	
 	/**
@@ -939,29 +889,23 @@ public static void logPacketsPerLink()
 	 */
 	public static void logPacketsPerType()
 	{
-		HashMap<Class<?>, HashMap<Bus, Integer>> tDB = new HashMap<Class<?>, HashMap<Bus,Integer>>();
+		HashMap<Class<?>, HashMap<Bus, Long>> tDB = new HashMap<Class<?>, HashMap<Bus, Long>>();
 		
-		synchronized (sPacketCounterPerLink) {
-			for (Bus tBus: sPacketCounterPerLink.keySet()){
-				HashMap<Class<?>, Integer> tPacketsForBus = sPacketCounterPerLink.get(tBus);
-				for (Class<?> tPacketType : tPacketsForBus.keySet()){
-					Integer tCounter = tPacketsForBus.get(tPacketType);
+		HRMMetrics tMetrics = getCurrentMetrics();
+		if(tMetrics == null){
+			return;
+		}
 					
-					HashMap<Bus, Integer> tDBCounterPerBus = tDB.get(tPacketType);
-					if(tDBCounterPerBus == null){
-						tDBCounterPerBus = new HashMap<Bus, Integer>();
-					}
+		for (Bus tBus: tMetrics.getLinks()){
+			for (Class<?> tPacketType : tMetrics.getPacketClasses(tBus)){
+				HashMap<Bus, Long> tDBCounterPerBus = tDB.get(tPacketType);
+				if(tDBCounterPerBus == null){
+					tDBCounterPerBus = new HashMap<Bus, Long>();
+				}
 					
-					Integer tDBPacketCount = tDBCounterPerBus.get(tPacketType);
-					if(tDBPacketCount == null){
-						tDBPacketCount = new Integer(0);
-					}		
-					tDBPacketCount += tCounter;
+				tDBCounterPerBus.put(tBus, tMetrics.getPackets(tBus, tPacketType));
 
-					tDBCounterPerBus.put(tBus, tDBPacketCount);
-					
-					tDB.put(tPacketType, tDBCounterPerBus);
-				}
+				tDB.put(tPacketType, tDBCounterPerBus);
 			}
 		}
 		
@@ -974,9 +918,9 @@ public static void logPacketsPerType()
 			tPacketTypeStr += tPacketTypeStrSpace;
 			
 			Logging.warn(tPacketTypeStr, "..PACKETS:");
-			HashMap<Bus, Integer> tPacketsForType = tDB.get(tPacketType);
+			HashMap<Bus, Long> tPacketsForType = tDB.get(tPacketType);
 			for (Bus tBus : tPacketsForType.keySet()){
-				Integer tCounter = tPacketsForType.get(tBus);
+				Long tCounter = tPacketsForType.get(tBus);
 				Logging.warn(tPacketTypeStr, "   .." + tBus + ": " + tCounter);
 			}
 		}
@@ -1230,8 +1174,8 @@ public synchronized void unregisterCoordinatorProxy(CoordinatorProxy pCoordinato
 					mLocalCoordinatorProxies.remove(pCoordinatorProxy);
 	
 					// update local hierarchy
-					if((mProcessorThread != null) && (mProcessorThread.isValid())){
-						mProcessorThread.eventUpdateCoordinatorsAboutLostRemoteCoordinator(pCoordinatorProxy);
+					if((mProcessor != null) && (mProcessor.isValid())){
+						mProcessor.eventUpdateCoordinatorsAboutLostRemoteCoordinator(pCoordinatorProxy);
 					}
 					
 					// increase hierarchy node priority
@@ -1309,14 +1253,12 @@ public synchronized void detectAndInformInferiorCoordinatorsAboutLostCoordinator
 		}
 		
 		if(HRMConfig.Measurement.VALIDATE_RESULTS){
-			synchronized (sRegisteredHRMControllers) {
-				for(HRMController tHRMController : sRegisteredHRMControllers){
-					Coordinator tCoordinator = tHRMController.getCoordinatorByClusterID(pLostCoordinatorProxy.getClusterID());
-					if(tCoordinator != null){
-						if(tCoordinator.isThisEntityValid()){
-							//TODO: improve time behavior of simulator for large scenarios to avoid such situations
-							//Logging.err(this, "FALSE-POSITIVE? for detectAndInformInferiorCoordinatorsAboutLostCoordinatorProxy(): " + pLostCoordinatorProxy);
-						}
+			for(HRMController tHRMController : sRegisteredHRMControllers){
+				Coordinator tCoordinator = tHRMController.getCoordinatorByClusterID(pLostCoordinatorProxy.getClusterID());
+				if(tCoordinator != null){
+					if(tCoordinator.isThisEntityValid()){
+						//TODO: improve time behavior of simulator for large scenarios to avoid such situations
+						//Logging.err(this, "FALSE-POSITIVE? for detectAndInformInferiorCoordinatorsAboutLostCoordinatorProxy(): " + pLostCoordinatorProxy);
 					}
 				}
 			}
@@ -1581,7 +1523,7 @@ public void registerHRMID(ControlEntity pEntity, HRMID pHRMID, String pCause)
 				 * Register the HRMID
 				 */
 				synchronized(mRegisteredOwnHRMIDs){
-					if (!mRegisteredOwnHRMIDs.contains(pHRMID)){
+					if (!mRegisteredOwnHRMIDOwners.containsKey(pHRMID.getAddress())){
 						/**
 						 * Update the local address DB with the given HRMID
 						 */
@@ -1636,6 +1578,12 @@ public void registerHRMID(ControlEntity pEntity, HRMID pHRMID, String pCause)
 					}
 					// register the new HRMID as local one -> allow duplicates here because two local entities might register the same HRMID and afterwards one of them unregisters its HRMID -> in case one HRMID registration remains!
 					mRegisteredOwnHRMIDs.add(pHRMID);
+					LinkedList<ControlEntity> tOwners = mRegisteredOwnHRMIDOwners.get(pHRMID.getAddress());
+					if(tOwners == null){
+						tOwners = new LinkedList<ControlEntity>();
+						mRegisteredOwnHRMIDOwners.put(pHRMID.getAddress(), tOwners);
+					}
+					tOwners.add(pEntity);
 					if(HRMConfig.DebugOutput.ALLOW_MEMORY_CONSUMING_TRACK_NODE_HRMIDIDS){
 						mDescriptionHRMIDUpdates += "\n + " + pHRMID.toString() + " <== " + pEntity + ", cause=" + pCause;
 					}
@@ -1692,12 +1640,23 @@ public void unregisterHRMID(ControlEntity pEntity, HRMID pOldHRMID, String pCaus
 						Logging.log(this, "Revoking the HRMID: " + pOldHRMID.toString() + " of: " + pEntity);
 					}
 					// unregister the HRMID as local one
-					mRegisteredOwnHRMIDs.remove(pOldHRMID);
+					if(mRegisteredOwnHRMIDs.remove(pOldHRMID)){
+						LinkedList<ControlEntity> tOwners = mRegisteredOwnHRMIDOwners.get(pOldHRMID.getAddress());
+						if(tOwners != null){
+							// keep one owner per registration, even if the HRMID was registered by another entity
+							if(!tOwners.remove(pEntity)){
+								tOwners.removeFirst();
+							}
+							if(tOwners.isEmpty()){
+								mRegisteredOwnHRMIDOwners.remove(pOldHRMID.getAddress());
+							}
+						}
+					}
 					if(HRMConfig.DebugOutput.ALLOW_MEMORY_CONSUMING_TRACK_NODE_HRMIDIDS){
 						mDescriptionHRMIDUpdates += "\n - " + pOldHRMID.toString() + " <== " + pEntity + ", cause=" + pCause;
 					}
 					
-					if (!mRegisteredOwnHRMIDs.contains(pOldHRMID)){
+					if (!mRegisteredOwnHRMIDOwners.containsKey(pOldHRMID.getAddress())){
 						/**
 						 * Update the local address DB with the given HRMID
 						 */
@@ -2000,14 +1959,11 @@ public LinkedList<NetworkInterface> getAllNetworkInterfaces()
 	 * 
 	 * @return the list of known local coordinators
 	 */
-	@SuppressWarnings("unchecked")
 	public LinkedList<Coordinator> getAllCoordinators()
 	{
 		LinkedList<Coordinator> tResult;
 		
-		synchronized (mLocalCoordinators) {
-			tResult = (LinkedList<Coordinator>) mLocalCoordinators.clone();
-		}
+		tResult = mLocalCoordinators.getAll();
 		
 		return tResult;
 	}
@@ -2021,21 +1977,7 @@ public LinkedList<Coordinator> getAllCoordinators()
 	 */
 	public LinkedList<Coordinator> getAllCoordinators(int pHierarchyLevel)
 	{
-		LinkedList<Coordinator> tResult = new LinkedList<Coordinator>();
-		
-		// get a list of all known coordinators
-		LinkedList<Coordinator> tAllCoordinators = getAllCoordinators();
-		
-		// iterate over all known coordinators
-		for (Coordinator tCoordinator : tAllCoordinators){
-			// have we found a matching coordinator?
-			if (tCoordinator.getHierarchyLevel().getValue() == pHierarchyLevel){
-				// add this coordinator to the result
-				tResult.add(tCoordinator);
-			}
-		}
-		
-		return tResult;
+		return mLocalCoordinators.getAll(pHierarchyLevel);
 	}
 
 	/**
@@ -2043,14 +1985,11 @@ public LinkedList<Coordinator> getAllCoordinators(int pHierarchyLevel)
 	 * 
 	 * @return the list of known local coordinator proxies
 	 */
-	@SuppressWarnings("unchecked")
 	public LinkedList<CoordinatorProxy> getAllCoordinatorProxies()
 	{
 		LinkedList<CoordinatorProxy> tResult;
 		
-		synchronized (mLocalCoordinatorProxies) {
-			tResult = (LinkedList<CoordinatorProxy>) mLocalCoordinatorProxies.clone();
-		}
+		tResult = mLocalCoordinatorProxies.getAll();
 		
 		return tResult;
 	}
@@ -2064,25 +2003,7 @@ public LinkedList<CoordinatorProxy> getAllCoordinatorProxies()
 	 */
 	public LinkedList<CoordinatorProxy> getAllCoordinatorProxies(int pHierarchyLevel)
 	{
-		//Logging.log(this, "Searching for coordinator proxies at hierarchy level: " + pHierarchyLevel);
-		
-		LinkedList<CoordinatorProxy> tResult = new LinkedList<CoordinatorProxy>();
-		
-		// get a list of all known coordinator proxies
-		LinkedList<CoordinatorProxy> tAllCoordinatorProxies = getAllCoordinatorProxies();
-		
-		// iterate over all known coordinator proxies
-		for (CoordinatorProxy tCoordinatorProxy : tAllCoordinatorProxies){
-			// have we found a matching coordinator proxy?
-			if (tCoordinatorProxy.getHierarchyLevel().getValue() == pHierarchyLevel){
-				// add this coordinator proxy to the result
-				tResult.add(tCoordinatorProxy);
-			}
-		}
-		
-		//Logging.log(this, "      ..found: " + tResult);
-				
-		return tResult;
+		return mLocalCoordinatorProxies.getAll(pHierarchyLevel);
 	}
 
 	/**
@@ -2477,14 +2398,11 @@ public void revokeClusterAddress(Cluster pCluster, HRMID pOldHRMID)
 	 * 
 	 * @return the list of known coordinator as cluster members
 	 */
-	@SuppressWarnings("unchecked")
 	public LinkedList<CoordinatorAsClusterMember> getAllCoordinatorAsClusterMembers()
 	{
 		LinkedList<CoordinatorAsClusterMember> tResult = null;
 		
-		synchronized (mLocalCoordinatorAsClusterMemebers) {
-			tResult = (LinkedList<CoordinatorAsClusterMember>) mLocalCoordinatorAsClusterMemebers.clone();
-		}
+		tResult = mLocalCoordinatorAsClusterMemebers.getAll();
 		
 		return tResult;
 	}
@@ -2494,14 +2412,11 @@ public LinkedList<CoordinatorAsClusterMember> getAllCoordinatorAsClusterMembers(
 	 * 
 	 * @return the list of known cluster members
 	 */
-	@SuppressWarnings("unchecked")
 	public LinkedList<ClusterMember> getAllClusterMembers()
 	{
 		LinkedList<ClusterMember> tResult = null;
 		
-		synchronized (mLocalClusterMembers) {
-			tResult = (LinkedList<ClusterMember>) mLocalClusterMembers.clone();
-		}
+		tResult = mLocalClusterMembers.getAll();
 		
 		return tResult;
 	}
@@ -2511,14 +2426,11 @@ public LinkedList<ClusterMember> getAllClusterMembers()
 	 * 
 	 * @return the list of known L0 cluster members
 	 */
-	@SuppressWarnings("unchecked")
 	public LinkedList<ClusterMember> getAllL0ClusterMembers()
 	{
 		LinkedList<ClusterMember> tResult = null;
 		
-		synchronized (mLocalL0ClusterMembers) {
-			tResult = (LinkedList<ClusterMember>) mLocalL0ClusterMembers.clone();
-		}
+		tResult = mLocalL0ClusterMembers.getAll();
 		
 		return tResult;
 	}
@@ -2544,21 +2456,7 @@ public LinkedList<ClusterMember> getAllClusterMembers(HierarchyLevel pHierarchyL
 	 */
 	public LinkedList<CoordinatorAsClusterMember> getAllCoordinatorAsClusterMembers(int pHierarchyLevel)
 	{
-		LinkedList<CoordinatorAsClusterMember> tResult = new LinkedList<CoordinatorAsClusterMember>();
-		
-		// get a list of all known coordinators
-		LinkedList<CoordinatorAsClusterMember> tAllCoordinatorAsClusterMembers = getAllCoordinatorAsClusterMembers();
-		
-		// iterate over all known coordinators
-		for (CoordinatorAsClusterMember tCoordinatorAsClusterMember : tAllCoordinatorAsClusterMembers){
-			// have we found a matching coordinator?
-			if (tCoordinatorAsClusterMember.getHierarchyLevel().getValue() == pHierarchyLevel){
-				// add this coordinator to the result
-				tResult.add(tCoordinatorAsClusterMember);
-			}
-		}
-		
-		return tResult;
+		return mLocalCoordinatorAsClusterMemebers.getAll(pHierarchyLevel);
 	}
 
 	/**
@@ -2570,21 +2468,7 @@ public LinkedList<CoordinatorAsClusterMember> getAllCoordinatorAsClusterMembers(
 	 */
 	public LinkedList<ClusterMember> getAllClusterMembers(int pHierarchyLevel)
 	{
-		LinkedList<ClusterMember> tResult = new LinkedList<ClusterMember>();
-		
-		// get a list of all known coordinators
-		LinkedList<ClusterMember> tAllClusterMembers = getAllClusterMembers();
-		
-		// iterate over all known coordinators
-		for (ClusterMember tClusterMember : tAllClusterMembers){
-			// have we found a matching coordinator?
-			if (tClusterMember.getHierarchyLevel().getValue() == pHierarchyLevel){
-				// add this coordinator to the result
-				tResult.add(tClusterMember);
-			}
-		}
-		
-		return tResult;
+		return mLocalClusterMembers.getAll(pHierarchyLevel);
 	}
 
 	/**
@@ -2592,14 +2476,11 @@ public LinkedList<ClusterMember> getAllClusterMembers(int pHierarchyLevel)
 	 * 
 	 * @return the list of known clusters
 	 */
-	@SuppressWarnings("unchecked")
 	public LinkedList<Cluster> getAllClusters()
 	{
 		LinkedList<Cluster> tResult = null;
 		
-		synchronized (mLocalClusters) {
-			tResult = (LinkedList<Cluster>) mLocalClusters.clone();
-		}
+		tResult = mLocalClusters.getAll();
 		
 		return tResult;
 	}
@@ -2625,21 +2506,7 @@ public LinkedList<Cluster> getAllClusters(HierarchyLevel pHierarchyLevel)
 	 */
 	public LinkedList<Cluster> getAllClusters(int pHierarchyLevel)
 	{
-		LinkedList<Cluster> tResult = new LinkedList<Cluster>();
-		
-		// get a list of all known coordinators
-		LinkedList<Cluster> tAllClusters = getAllClusters();
-		
-		// iterate over all known coordinators
-		for (Cluster tCluster : tAllClusters){
-			// have we found a matching coordinator?
-			if (tCluster.getHierarchyLevel().getValue() == pHierarchyLevel){
-				// add this coordinator to the result
-				tResult.add(tCluster);
-			}
-		}
-		
-		return tResult;
+		return mLocalClusters.getAll(pHierarchyLevel);
 	}
 
 	/**
@@ -2651,16 +2518,7 @@ public LinkedList<Cluster> getAllClusters(int pHierarchyLevel)
 	 */
 	public Cluster getCluster(int pHierarchyLevel)
 	{
-		Cluster tResult = null;
-
-		for(Cluster tKnownCluster : getAllClusters()) {
-			if(tKnownCluster.getHierarchyLevel().getValue() == pHierarchyLevel) {
-				tResult = tKnownCluster;
-				break;
-			}
-		}
-
-		return tResult;
+		return mLocalClusters.getFirst(pHierarchyLevel);
 	}
 
 	/**
@@ -2672,16 +2530,7 @@ public Cluster getCluster(int pHierarchyLevel)
 	 */
 	private Coordinator getCoordinator(int pHierarchyLevelValue)
 	{
-		Coordinator tResult = null;
-
-		for(Coordinator tKnownCoordinator : getAllCoordinators()) {
-			if(tKnownCoordinator.getHierarchyLevel().getValue() == pHierarchyLevelValue) {
-				tResult = tKnownCoordinator;
-				break;
-			}
-		}
-
-		return tResult;
+		return mLocalCoordinators.getFirst(pHierarchyLevelValue);
 	}
 
 	/**
@@ -2694,16 +2543,7 @@ private Coordinator getCoordinator(int pHierarchyLevelValue)
 	 */
 	public Coordinator getCoordinator(HierarchyLevel pHierarchyLevel)
 	{
-		Coordinator tResult = null;
-
-		for(Coordinator tKnownCoordinator : getAllCoordinators()) {
-			if(tKnownCoordinator.getHierarchyLevel().equals(pHierarchyLevel)) {
-				tResult = tKnownCoordinator;
-				break;
-			}
-		}
-
-		return tResult;
+		return mLocalCoordinators.getFirst(pHierarchyLevel.getValue());
 	}
 
 	/**
@@ -2717,12 +2557,11 @@ public CoordinatorProxy getCoordinatorProxyByName(ClusterName pClusterName)
 	{
 		CoordinatorProxy tResult = null;
 		
-		synchronized (mLocalCoordinatorProxies) {
-			for (CoordinatorProxy tCoordinatorProxy : mLocalCoordinatorProxies){
-				if(tCoordinatorProxy.equals(pClusterName)){
-					tResult = tCoordinatorProxy;
-					break;
-				}
+		// a coordinator proxy can only match a cluster name with the same cluster ID
+		for (CoordinatorProxy tCoordinatorProxy : mLocalCoordinatorProxies.getAllByClusterID(pClusterName.getClusterID())){
+			if(tCoordinatorProxy.equals(pClusterName)){
+				tResult = tCoordinatorProxy;
+				break;
 			}
 		}
 
@@ -2740,10 +2579,9 @@ public Coordinator getCoordinatorByClusterID(long pClusterID)
 	{
 		Coordinator tResult = null;
 		
-		for(Coordinator tKnownCoordinator : getAllCoordinators()) {
-			if (tKnownCoordinator.getClusterID() == pClusterID) {
-				tResult = tKnownCoordinator;
-			}
+		// the last registered coordinator wins
+		for(Coordinator tKnownCoordinator : mLocalCoordinators.getAllByClusterID(pClusterID)) {
+			tResult = tKnownCoordinator;
 		}
 		
 		return tResult;
@@ -2760,8 +2598,8 @@ public void cluster(ControlEntity pCause, final HierarchyLevel pHierarchyLevel)
 		if (HRMConfig.Hierarchy.CONTINUE_AUTOMATICALLY){ 
 			if(pHierarchyLevel.getValue() <= HRMConfig.Hierarchy.CONTINUE_AUTOMATICALLY_HIERARCHY_LIMIT){
 				Logging.log(this, "CLUSTERING REQUEST for hierarchy level: " + pHierarchyLevel.getValue() + ", cause=" + pCause);
-				if((mProcessorThread != null) && (mProcessorThread.isValid())){
-					mProcessorThread.eventUpdateCluster(pCause, pHierarchyLevel);
+				if((mProcessor != null) && (mProcessor.isValid())){
+					mProcessor.eventUpdateCluster(pCause, pHierarchyLevel);
 				}
 			}else{
 				Logging.log(this, "cluster() aborted because height limitation is reached at level: " + pHierarchyLevel.getValue());
@@ -2778,8 +2616,8 @@ public void cluster(ControlEntity pCause, final HierarchyLevel pHierarchyLevel)
 	 */
 	public void notifyPacketProcessor(ComChannel pComChannel)
 	{
-		if((mProcessorThread != null) && (mProcessorThread.isValid())){
-			mProcessorThread.eventReceivedPacket(pComChannel);
+		if((mProcessor != null) && (mProcessor.isValid())){
+			mProcessor.eventReceivedPacket(pComChannel);
 		}
 	}
 
@@ -2790,7 +2628,7 @@ public void notifyPacketProcessor(ComChannel pComChannel)
 	 */
 	public HRMControllerProcessor getProcessor()
 	{
-		return mProcessorThread;
+		return mProcessor;
 	}
 	
 	/**
@@ -2814,6 +2652,47 @@ public void registerSession(ComSession pComSession)
 		
 		synchronized (mCommunicationSessions) {
 			mCommunicationSessions.add(pComSession);
+			
+			L2Address tPeerL2Address = pComSession.getPeerL2Address();
+			if((tPeerL2Address != null) && (!mCommunicationSessionsPerPeer.containsKey(tPeerL2Address))){
+				mCommunicationSessionsPerPeer.put(tPeerL2Address, pComSession);
+			}
+		}
+	}
+	
+	/**
+	 * EVENT: the peer L2Address of a comm. session has changed
+	 * 
+	 * @param pComSession the comm. session
+	 * @param pFormerPeerL2Address the former peer L2Address
+	 */
+	public void eventSessionPeerChanged(ComSession pComSession, L2Address pFormerPeerL2Address)
+	{
+		synchronized (mCommunicationSessions) {
+			if(pFormerPeerL2Address != null){
+				updateSessionPeerIndex(pFormerPeerL2Address);
+			}
+			if(pComSession.getPeerL2Address() != null){
+				updateSessionPeerIndex(pComSession.getPeerL2Address());
+			}
+		}
+	}
+	
+	/**
+	 * Updates the session index for a given peer L2Address.
+	 * The index refers to the first registered comm. session towards this peer.
+	 * HINT: the caller has to hold the lock of mCommunicationSessions
+	 * 
+	 * @param pPeerL2Address the peer L2Address
+	 */
+	private void updateSessionPeerIndex(L2Address pPeerL2Address)
+	{
+		mCommunicationSessionsPerPeer.remove(pPeerL2Address);
+		for(ComSession tComSession : mCommunicationSessions){
+			if(pPeerL2Address.equals(tComSession.getPeerL2Address())){
+				mCommunicationSessionsPerPeer.put(pPeerL2Address, tComSession);
+				break;
+			}
 		}
 	}
 	
@@ -2903,20 +2782,7 @@ public ComSession getCreateComSession(L2Address pDestinationL2Address, String pC
 		if (pDestinationL2Address != null){
 			//Logging.log(this, "Searching for outgoing comm. session to: " + pDestinationL2Address);
 			synchronized (mCommunicationSessions) {
-				for (ComSession tComSession : mCommunicationSessions){
-					//Logging.log(this, "   ..ComSession: " + tComSession);
-					
-					// get the L2 address of the comm. session peer
-					L2Address tPeerL2Address = tComSession.getPeerL2Address();
-							
-					if(pDestinationL2Address.equals(tPeerL2Address)){
-						//Logging.log(this, "     ..found match");
-						tResult = tComSession;
-						break;
-					}else{
-						//Logging.log(this, "     ..uninteresting");
-					}
-				}
+				tResult = mCommunicationSessionsPerPeer.get(pDestinationL2Address);
 			}
 			
 			// have we found an already existing connection?
@@ -3036,12 +2902,12 @@ private ComSession createComSession(L2Address pDestinationL2Address, String pCau
 					//Logging.err(this, "Cannot connect to: " + pDestinationL2Address, tExc);
 				}
 			}
-	    }while((tRetryConnection) && (mProcessorThread != null) && (mProcessorThread.isValid()));
+	    }while((tRetryConnection) && (mProcessor != null) && (mProcessor.isValid()));
 	    synchronized (sPendingConnectionCreations) {
 	    	sPendingConnectionCreations--;
 	    }
 	    
-	    if((mProcessorThread != null) && (mProcessorThread.isValid())){
+	    if((mProcessor != null) && (mProcessor.isValid())){
 		    Logging.log(this, "    ..connectBlock() FINISHED");
 			if(tConnection != null) {
 			    if(tRetriedConnection){
@@ -3120,6 +2986,9 @@ public void unregisterSession(ComSession pComSession)
 		
 		synchronized (mCommunicationSessions) {
 			mCommunicationSessions.remove(pComSession);
+			if(pComSession.getPeerL2Address() != null){
+				updateSessionPeerIndex(pComSession.getPeerL2Address());
+			}
 			
 			/**
 			 * Remove the L2 route to the remote node from the local L2 routing graph
@@ -3250,11 +3119,31 @@ public boolean isLocal(HRMID pHRMID)
 	{
 		boolean tResult = false;
 		
-		synchronized(mRegisteredOwnHRMIDs){
-			for(HRMID tKnownHRMID : mRegisteredOwnHRMIDs){
-				if(tKnownHRMID.equals(pHRMID)){
-					tResult = true;
-					break;
+		if(pHRMID != null){
+			synchronized(mRegisteredOwnHRMIDs){
+				tResult = mRegisteredOwnHRMIDOwners.containsKey(pHRMID.getAddress());
+			}
+		}
+		
+		return tResult;
+	}
+	
+	/**
+	 * Returns the local control entities which have registered a given HRMID.
+	 * 
+	 * @param pHRMID the HRMID
+	 * 
+	 * @return the list of control entities (empty if the HRMID isn't a local one)
+	 */
+	public LinkedList<ControlEntity> getHRMIDOwners(HRMID pHRMID)
+	{
+		LinkedList<ControlEntity> tResult = new LinkedList<ControlEntity>();
+		
+		if(pHRMID != null){
+			synchronized(mRegisteredOwnHRMIDs){
+				LinkedList<ControlEntity> tOwners = mRegisteredOwnHRMIDOwners.get(pHRMID.getAddress());
+				if(tOwners != null){
+					tResult.addAll(tOwners);
 				}
 			}
 		}
@@ -3876,25 +3765,25 @@ public static void eventSimulationRestarted()
 		 */
 		QoSTestApp.removeAll();
 
-		resetPacketOverheadCounting();
-		sPacketOverheadMeasurementStart = 0;
+		/**
+		 * drop the measurement values of the previous simulation run
+		 */
+		HRMMetrics.releaseAll();
 
 		/**
 		 * Kill all processors and HRMViewers of the previous simulation run
 		 */
-		if(sRegisteredHRMControllers != null){
-			for(HRMController tHRMController : sRegisteredHRMControllers){
-				// stop all HRM processors
-				tHRMController.getProcessor().exit();
+		for(HRMController tHRMController : sRegisteredHRMControllers){
+			// stop all HRM processors
+			tHRMController.getProcessor().exit();
 				
-				// remove all deprecated GUI windows
-				tHRMController.notifyGUI(new HRMControllerObservableDeprecated());
-			}
+			// remove all deprecated GUI windows
+			tHRMController.notifyGUI(new HRMControllerObservableDeprecated());
 		}
 		
 		// reset the stored HRMController database
 		Logging.log("Remaining registered HRMController instances: " + sRegisteredHRMControllers);
-		sRegisteredHRMControllers = new LinkedList<HRMController>();
+		sRegisteredHRMControllers.clear();
 		sResetNMS = true;
 
 		sNextCheckForDeprecatedCoordinatorProxies = 0;
@@ -3952,6 +3841,13 @@ public static void resetPacketStatistic()
 		InvalidCoordinator.sCreatedPackets = new Long(0);
 		RouteReport.sCreatedPackets = new Long(0);
 		RouteShare.sCreatedPackets = new Long(0);
+		RequestRoutingTable.sCreatedPackets = new Long(0);
+		ElectionBundle.sCreatedPackets = new Long(0);
+		AnnouncementBundle.sCreatedPackets = new Long(0);
+		HRMMetrics tMetrics = getCurrentMetrics();
+		if(tMetrics != null){
+			tMetrics.resetStatistic();
+		}
 	}
 	
 	/**
@@ -4074,13 +3970,13 @@ private void updateConnectivityPriority(NetworkInterface pCausingNetworkInterfac
 			 * Asynchronous execution of "distributeHierarchyNodePriorityUpdate()" inside context of HRMControllerProcessor.
 			 * This also reduces convergence time for finding the correct network clustering 
 			 */ 
-			if((mProcessorThread != null) && (mProcessorThread.isValid())){
-				mProcessorThread.eventNewConnectivity(pCausingNetworkInterface);
+			if((mProcessor != null) && (mProcessor.isValid())){
+				mProcessor.eventNewConnectivity(pCausingNetworkInterface);
 			}else{
 				Logging.warn(this, "Processor thread is invalid, ignoring connectivity priority (" + pPriority + ") update (" + mConnectivityPriorityUpdates + ")");
 			}
 			//HINT: for synchronous execution use here "distributeHierarchyNodePriorityUpdate(pHierarchyLevel)"
-			//      instead of "mProcessorThread.eventNewHierarchyPriority(pHierarchyLevel)"
+			//      instead of "mProcessor.eventNewHierarchyPriority(pHierarchyLevel)"
 			
 			/**
 			 * Trigger: hierarchy data changed
@@ -4345,13 +4241,13 @@ private void updateHierarchyPriority(long pPriorityOffset, HierarchyLevel pHiera
 		 * Asynchronous execution of "distributeHierarchyNodePriorityUpdate()" inside context of HRMControllerProcessor.
 		 * This also reduces convergence time for finding the correct network clustering 
 		 */ 
-		if((mProcessorThread != null) && (mProcessorThread.isValid())){
-			mProcessorThread.eventNewHierarchyPriority(pHierarchyLevel);
+		if((mProcessor != null) && (mProcessor.isValid())){
+			mProcessor.eventNewHierarchyPriority(pHierarchyLevel);
 		}else{
 			Logging.warn(this, "Processor thread is invalid, ignoring priority (" + tPriority + ") update (" + mHierarchyPriorityUpdates + ")");
 		}
 		//HINT: for synchronous execution use here "distributeHierarchyNodePriorityUpdate(pHierarchyLevel)"
-		//      instead of "mProcessorThread.eventNewHierarchyPriority(pHierarchyLevel)"
+		//      instead of "mProcessor.eventNewHierarchyPriority(pHierarchyLevel)"
 		
 		/**
 		 * Trigger: hierarchy data changed
@@ -4597,7 +4493,7 @@ public String getGUIDescriptionHierarchyPriorityUpdates()
 	 */
 	public String getGUIDescriptionClusterUpdates()
 	{
-		return mProcessorThread.getGUIDescriptionClusterUpdates();
+		return mProcessor.getGUIDescriptionClusterUpdates();
 	}
 	
 	/**
@@ -4709,11 +4605,14 @@ public synchronized void eventLostPhysicalNeighborNode(final NetworkInterface pI
 					if((tComSession.isPeer(pNeighborL2Address)) || ((tCorrectPeerL2Address != null) && tComSession.isPeer(tCorrectPeerL2Address))){
 						Logging.log(this, "   ..stopping session: " + tComSession);
 						tCorrectPeerL2Address = tComSession.getPeerL2Address();
-						if((mProcessorThread != null) && (mProcessorThread.isValid())){
-							mProcessorThread.eventCloseSession(tComSession);
+						if((mProcessor != null) && (mProcessor.isValid())){
+							mProcessor.eventCloseSession(tComSession);
 						}
 						tRepeatSearch = true;
 						mCommunicationSessions.remove(tComSession);
+						if(tCorrectPeerL2Address != null){
+							updateSessionPeerIndex(tCorrectPeerL2Address);
+						}
 						break; // only the inner "for"-loop
 					}else{
 						Logging.log(this, "   ..leaving session: " + tComSession);
@@ -5034,9 +4933,9 @@ public synchronized void fire()
 			/**
 			 * wake-up the processor and let it check for pending event: esp. important for auto-removing deprecated com. channels
 			 */
-			if(mProcessorThread != null){
-				if(mProcessorThread.isValid()){
-					mProcessorThread.explicitCheckingQueues();
+			if(mProcessor != null){
+				if(mProcessor.isValid()){
+					mProcessor.explicitCheckingQueues();
 				}
 			}
 			
@@ -5110,26 +5009,24 @@ public synchronized void autoRemoveObsoleteCoordinatorProxies()
 				if(tProxy.isObsolete()){
 					boolean tSkipThisInvalidation = false;
 					if(HRMConfig.Measurement.VALIDATE_RESULTS){
-						synchronized (sRegisteredHRMControllers) {
-							for(HRMController tHRMController : sRegisteredHRMControllers){
-								Coordinator tCoordinator = tHRMController.getCoordinatorByClusterID(tProxy.getClusterID());
-								if(tCoordinator != null){
-									if(tCoordinator.isThisEntityValid()){
-										if((HRMConfig.Measurement.AUTO_SKIP_COORDINATOR_PROXY_INVALIDATION) &&
-											((tProxy.getHierarchyLevel().isBaseLevel()) || (HRMConfig.Hierarchy.DEPTH < 4))){
+						for(HRMController tHRMController : sRegisteredHRMControllers){
+							Coordinator tCoordinator = tHRMController.getCoordinatorByClusterID(tProxy.getClusterID());
+							if(tCoordinator != null){
+								if(tCoordinator.isThisEntityValid()){
+									if((HRMConfig.Measurement.AUTO_SKIP_COORDINATOR_PROXY_INVALIDATION) &&
+										((tProxy.getHierarchyLevel().isBaseLevel()) || (HRMConfig.Hierarchy.DEPTH < 4))){
+										tSkipThisInvalidation = true;
+										break;
+									}else{
+										/**
+										 * For hierarchies with a depth of more than 3, we have to make sure that even proxies of existing coordinators get dropped after some time. 
+										 * Otherwise, the radius limitation does not work correctly. 
+										 */
+										if(getSimulationTime() < tProxy.getTimeout() + HRMConfig.Hierarchy.COORDINATOR_ANNOUNCEMENTS_INTERVAL_LT_EXISTENCE_TIME / 2){
+											// okay, we wait until the timeout is far enough in the past
 											tSkipThisInvalidation = true;
-											break;
 										}else{
-											/**
-											 * For hierarchies with a depth of more than 3, we have to make sure that even proxies of existing coordinators get dropped after some time. 
-											 * Otherwise, the radius limitation does not work correctly. 
-											 */
-											if(getSimulationTime() < tProxy.getTimeout() + HRMConfig.Hierarchy.COORDINATOR_ANNOUNCEMENTS_INTERVAL_LT_EXISTENCE_TIME / 2){
-												// okay, we wait until the timeout is far enough in the past
-												tSkipThisInvalidation = true;
-											}else{
-												Logging.warn(this, "FALSE-POSITIVE? (at: " + getSimulationTime() + ") for CoordinatorProxy invalidation: " + tProxy);
-											}
+											Logging.warn(this, "FALSE-POSITIVE? (at: " + getSimulationTime() + ") for CoordinatorProxy invalidation: " + tProxy);
 										}
 									}
 								}
@@ -5842,11 +5739,11 @@ private static String getDataRatekBStr(Integer pBytes, double pPeriod)
 	 * 
 	 * @return the calculated data rate as a string in kbytes/s
 	 */
-	private static String getDataRateStr(Integer pBytes, double pPeriod)
+	private static String getDataRateStr(long pBytes, double pPeriod)
 	{
 		String tResult = "0";
 	
-		if((pBytes != null) && (pPeriod > 0)){
+		if(pPeriod > 0){
 			double tDataRate = ((double)pBytes / pPeriod);
 			DecimalFormat tFormat = new DecimalFormat("0.0#");
 			tResult = tFormat.format(tDataRate);
@@ -5868,14 +5765,8 @@ private static void writePacketsOverheadStatisticsToFile()
 					/**
 					 * get a reference to an HRMController instance 
 					 */
-					HRMController tHRMController = null;
-					if(sRegisteredHRMControllers != null){
-						synchronized (sRegisteredHRMControllers) {
-							if(sRegisteredHRMControllers.size() > 0){
-								tHRMController = sRegisteredHRMControllers.getFirst();
-							}
-						}
-					}
+					HRMController tHRMController = getFirstHRMController();
+					HRMMetrics tMetrics = tHRMController.getMetrics();
 		
 					/**
 					 * determine all busses from the simulation
@@ -5907,137 +5798,77 @@ private static void writePacketsOverheadStatisticsToFile()
 					}
 			
 					if(tHRMPacketsOverheadStatistic != null){
-						synchronized (sPacketOverheadCounterPerLink) {
-							synchronized (sPacketOverheadCounterPerLinkForIP) {
-								LinkedList<String> tTableHeader = new LinkedList<String>();
-								tTableHeader.add("Radius");
-								for(int i = 0; i < tCntBuss; i++){
-									tTableHeader.add("Sum_" + tGlobalBusList.get(i).getName());
-								}
-								tTableHeader.add("-");
-								for(int i = 0; i < tCntBuss; i++){
-									tTableHeader.add("IP_Sum_" + tGlobalBusList.get(i).getName());
-								}
-								tTableHeader.add("-");
-								for(int i = 0; i < tCntBuss; i++){
-									tTableHeader.add("AnnounceCoord_" + tGlobalBusList.get(i).getName());
-									tTableHeader.add("Report_" + tGlobalBusList.get(i).getName());
-									tTableHeader.add("Share_" + tGlobalBusList.get(i).getName());
-								}
-								tTableHeader.add("-");
-								for(int i = 0; i < tCntBuss; i++){
-									tTableHeader.add("IP_AnnounceCoord_" + tGlobalBusList.get(i).getName());
-									tTableHeader.add("IP_Report_" + tGlobalBusList.get(i).getName());
-									tTableHeader.add("IP_Share_" + tGlobalBusList.get(i).getName());
-								}
-								tHRMPacketsOverheadStatistic.log(tTableHeader);
-								tHRMPacketsOverheadStatistic.flush();
-		
-								LinkedList<String> tTableRow = new LinkedList<String>();
-								tTableRow.add("Radius " + Long.toString(HRMConfig.Hierarchy.RADIUS));
-								for(int i = 0; i < tCntBuss; i++){
-									Bus tBus = tGlobalBusList.get(i);
-									HashMap<Class<?>, Integer> tPacketsForBus = sPacketOverheadCounterPerLink.get(tBus);
-									if(tPacketsForBus == null){
-										tPacketsForBus = new HashMap<Class<?>, Integer>(); 
-									}
+						LinkedList<String> tTableHeader = new LinkedList<String>();
+						tTableHeader.add("Radius");
+						for(int i = 0; i < tCntBuss; i++){
+							tTableHeader.add("Sum_" + tGlobalBusList.get(i).getName());
+						}
+						tTableHeader.add("-");
+						for(int i = 0; i < tCntBuss; i++){
+							tTableHeader.add("IP_Sum_" + tGlobalBusList.get(i).getName());
+						}
+						tTableHeader.add("-");
+						for(int i = 0; i < tCntBuss; i++){
+							tTableHeader.add("AnnounceCoord_" + tGlobalBusList.get(i).getName());
+							tTableHeader.add("Report_" + tGlobalBusList.get(i).getName());
+							tTableHeader.add("Share_" + tGlobalBusList.get(i).getName());
+						}
+						tTableHeader.add("-");
+						for(int i = 0; i < tCntBuss; i++){
+							tTableHeader.add("IP_AnnounceCoord_" + tGlobalBusList.get(i).getName());
+							tTableHeader.add("IP_Report_" + tGlobalBusList.get(i).getName());
+							tTableHeader.add("IP_Share_" + tGlobalBusList.get(i).getName());
+						}
+						tHRMPacketsOverheadStatistic.log(tTableHeader);
+						tHRMPacketsOverheadStatistic.flush();
+		
+						LinkedList<String> tTableRow = new LinkedList<String>();
+						tTableRow.add("Radius " + Long.toString(HRMConfig.Hierarchy.RADIUS));
+						for(int i = 0; i < tCntBuss; i++){
+							Bus tBus = tGlobalBusList.get(i);
+							long tCountAnnounceCoord = tMetrics.getBytes(tBus, AnnounceCoordinator.class);
+							long tReports = tMetrics.getBytes(tBus, RouteReport.class);
+							long tShares = tMetrics.getBytes(tBus, RouteShare.class);
 									
-									Integer tCountAnnounceCoord = tPacketsForBus.get(AnnounceCoordinator.class);
-									if(tCountAnnounceCoord == null){
-										tCountAnnounceCoord = new Integer(0);
-									}
-									Integer tReports = tPacketsForBus.get(RouteReport.class);
-									if(tReports == null){
-										tReports = new Integer(0);
-									}
-									Integer tShares = tPacketsForBus.get(RouteShare.class);
-									if(tShares == null){
-										tShares = new Integer(0);
-									}
+							tTableRow.add(getDataRateStr(tCountAnnounceCoord + tReports + tShares, tPeriod));
+						}
+						tTableRow.add("-");
+						for(int i = 0; i < tCntBuss; i++){
+							Bus tBus = tGlobalBusList.get(i);
+							long tIPCountAnnounceCoord = tMetrics.getBytesForIP(tBus, AnnounceCoordinator.class);
+							long tIPReports = tMetrics.getBytesForIP(tBus, RouteReport.class);
+							long tIPShares = tMetrics.getBytesForIP(tBus, RouteShare.class);
 									
-									tTableRow.add(getDataRateStr(tCountAnnounceCoord + tReports + tShares, tPeriod));
-								}
-								tTableRow.add("-");
-								for(int i = 0; i < tCntBuss; i++){
-									Bus tBus = tGlobalBusList.get(i);
-									HashMap<Class<?>, Integer> tPacketsForBusForIP = sPacketOverheadCounterPerLinkForIP.get(tBus);
-									if(tPacketsForBusForIP == null){
-										tPacketsForBusForIP = new HashMap<Class<?>, Integer>(); 
-									}
-	
-									Integer tIPCountAnnounceCoord = (tPacketsForBusForIP != null ? tPacketsForBusForIP.get(AnnounceCoordinator.class) : new Integer(0));
-									if(tIPCountAnnounceCoord == null){
-										tIPCountAnnounceCoord = new Integer(0);
-									}
-									Integer tIPReports = (tPacketsForBusForIP != null ? tPacketsForBusForIP.get(RouteReport.class) : new Integer(0));
-									if(tIPReports == null){
-										tIPReports = new Integer(0);
-									}
-									Integer tIPShares = (tPacketsForBusForIP != null ? tPacketsForBusForIP.get(RouteShare.class) : new Integer(0));
-									if(tIPShares == null){
-										tIPShares = new Integer(0);
-									}
+							tTableRow.add(getDataRateStr(tIPCountAnnounceCoord + tIPReports + tIPShares, tPeriod));
+						}
+						tTableRow.add("-");
+						for(int i = 0; i < tCntBuss; i++){
+							Bus tBus = tGlobalBusList.get(i);
+							long tCountAnnounceCoord = tMetrics.getBytes(tBus, AnnounceCoordinator.class);
+							long tReports = tMetrics.getBytes(tBus, RouteReport.class);
+							long tShares = tMetrics.getBytes(tBus, RouteShare.class);
+	
+							tTableRow.add(getDataRateStr(tCountAnnounceCoord, tPeriod));
+							tTableRow.add(getDataRateStr(tReports, tPeriod));
+							tTableRow.add(getDataRateStr(tShares, tPeriod));
+						}
+						tTableRow.add("-");
+						for(int i = 0; i < tCntBuss; i++){
+							Bus tBus = tGlobalBusList.get(i);
+							long tIPCountAnnounceCoord = tMetrics.getBytesForIP(tBus, AnnounceCoordinator.class);
+							long tIPReports = tMetrics.getBytesForIP(tBus, RouteReport.class);
+							long tIPShares = tMetrics.getBytesForIP(tBus, RouteShare.class);
 									
-									tTableRow.add(getDataRateStr(tIPCountAnnounceCoord + tIPReports + tIPShares, tPeriod));
-								}
-								tTableRow.add("-");
-								for(int i = 0; i < tCntBuss; i++){
-									Bus tBus = tGlobalBusList.get(i);
-									HashMap<Class<?>, Integer> tPacketsForBus = sPacketOverheadCounterPerLink.get(tBus);
-									if(tPacketsForBus == null){
-										tPacketsForBus = new HashMap<Class<?>, Integer>(); 
-									}
+							tTableRow.add(getDataRateStr(tIPCountAnnounceCoord, tPeriod));
+							tTableRow.add(getDataRateStr(tIPReports, tPeriod));
+							tTableRow.add(getDataRateStr(tIPShares, tPeriod));
+						}
 	
-									Integer tCountAnnounceCoord = tPacketsForBus.get(AnnounceCoordinator.class);
-									if(tCountAnnounceCoord == null){
-										tCountAnnounceCoord = new Integer(0);
-									}
-									Integer tReports = tPacketsForBus.get(RouteReport.class);
-									if(tReports == null){
-										tReports = new Integer(0);
-									}
-									Integer tShares = tPacketsForBus.get(RouteShare.class);
-									if(tShares == null){
-										tShares = new Integer(0);
-									}
-									
-									tTableRow.add(getDataRateStr(tCountAnnounceCoord, tPeriod));
-									tTableRow.add(getDataRateStr(tReports, tPeriod));
-									tTableRow.add(getDataRateStr(tShares, tPeriod));
-								}
-								tTableRow.add("-");
-								for(int i = 0; i < tCntBuss; i++){
-									Bus tBus = tGlobalBusList.get(i);
-									HashMap<Class<?>, Integer> tPacketsForBusForIP = sPacketOverheadCounterPerLinkForIP.get(tBus);
-									if(tPacketsForBusForIP == null){
-										tPacketsForBusForIP = new HashMap<Class<?>, Integer>(); 
-									}
-					
-									Integer tIPCountAnnounceCoord = (tPacketsForBusForIP != null ? tPacketsForBusForIP.get(AnnounceCoordinator.class) : new Integer(0));
-									if(tIPCountAnnounceCoord == null){
-										tIPCountAnnounceCoord = new Integer(0);
-									}
-									Integer tIPReports = (tPacketsForBusForIP != null ? tPacketsForBusForIP.get(RouteReport.class) : new Integer(0));
-									if(tIPReports == null){
-										tIPReports = new Integer(0);
-									}
-									Integer tIPShares = (tPacketsForBusForIP != null ? tPacketsForBusForIP.get(RouteShare.class) : new Integer(0));
-									if(tIPShares == null){
-										tIPShares = new Integer(0);
-									}
+						tHRMPacketsOverheadStatistic.log(tTableRow);
+						tHRMPacketsOverheadStatistic.flush();
 									
-									tTableRow.add(getDataRateStr(tIPCountAnnounceCoord, tPeriod));
-									tTableRow.add(getDataRateStr(tIPReports, tPeriod));
-									tTableRow.add(getDataRateStr(tIPShares, tPeriod));
-								}
-								
-								tHRMPacketsOverheadStatistic.log(tTableRow);
-								tHRMPacketsOverheadStatistic.flush();
-		
-								Logging.getInstance().warn(tHRMController, "Closing SignalingMessageHrm packets overhead statistics log file");
-								tHRMPacketsOverheadStatistic.close();
-							}
-						}
+						Logging.getInstance().warn(tHRMController, "Closing SignalingMessageHrm packets overhead statistics log file");
+						tHRMPacketsOverheadStatistic.close();
 					}
 				}else{
 					// still pending packets
@@ -6095,6 +5926,9 @@ public void run()
 			tTableHeader.add("InvalidCoordinator");
 			tTableHeader.add("RouteReport");
 			tTableHeader.add("RouteShare");
+			tTableHeader.add("RequestRoutingTable");
+			tTableHeader.add("ElectionBundle");
+			tTableHeader.add("AnnouncementBundle");
 			tTableHeader.add("-");
 			tTableHeader.add("HierarchyHeight");
 			tTableHeader.add("ClusteringRadius");
@@ -6112,6 +5946,18 @@ public void run()
 			}
 			tTableHeader.add("-");
 			tTableHeader.add("ControlConnections");
+			tTableHeader.add("-");
+			tTableHeader.add("BundledElectionMessages");
+			tTableHeader.add("SuppressedElectionMessages");
+			tTableHeader.add("FinishedElections");
+			tTableHeader.add("AvgElectionConvergenceTime");
+			tTableHeader.add("MaxElectionConvergenceTime");
+			tTableHeader.add("BundledAnnouncements");
+			tTableHeader.add("SuppressedAnnouncements");
+			tTableHeader.add("ForwardingCacheHits");
+			tTableHeader.add("ForwardingCacheMisses");
+			tTableHeader.add("ForwardingCacheHitRate");
+			tTableHeader.add("ForwardingCacheInvalidations");
 
 			if(sHRMPacketsStatistic != null){
 				sHRMPacketsStatistic.log(tTableHeader);
@@ -6144,6 +5990,9 @@ public void run()
 		tTableRow.add(Long.toString(InvalidCoordinator.getCreatedPackets()));
 		tTableRow.add(Long.toString(RouteReport.getCreatedPackets()));
 		tTableRow.add(Long.toString(RouteShare.getCreatedPackets()));
+		tTableRow.add(Long.toString(RequestRoutingTable.getCreatedPackets()));
+		tTableRow.add(Long.toString(ElectionBundle.getCreatedPackets()));
+		tTableRow.add(Long.toString(AnnouncementBundle.getCreatedPackets()));
 		tTableRow.add("-");
 		tTableRow.add(Integer.toString(HRMConfig.Hierarchy.DEPTH));
 		tTableRow.add(Long.toString(HRMConfig.Hierarchy.RADIUS));
@@ -6164,6 +6013,18 @@ public void run()
 		}
 		tTableRow.add("-");
 		tTableRow.add(Integer.toString(Simulation.sCreatedConnections));
+		tTableRow.add("-");
+		tTableRow.add(Long.toString(getMetrics().getBundledElectionMessages()));
+		tTableRow.add(Long.toString(getMetrics().getSuppressedElectionMessages()));
+		tTableRow.add(Long.toString(getMetrics().getFinishedElections()));
+		tTableRow.add(Long.toString((long)(getMetrics().getAvgConvergenceTime() * 1000)));
+		tTableRow.add(Long.toString((long)(getMetrics().getMaxConvergenceTime() * 1000)));
+		tTableRow.add(Long.toString(getMetrics().getBundledAnnouncements()));
+		tTableRow.add(Long.toString(getMetrics().getSuppressedAnnouncements()));
+		tTableRow.add(Long.toString(getMetrics().getForwardingCacheHits()));
+		tTableRow.add(Long.toString(getMetrics().getForwardingCacheMisses()));
+		tTableRow.add(Double.toString(getMetrics().getForwardingCacheHitRate()));
+		tTableRow.add(Long.toString(getMetrics().getForwardingCacheInvalidations()));
 
 		if(sHRMPacketsStatistic != null){
 			sHRMPacketsStatistic.log(tTableRow);
@@ -6279,7 +6140,7 @@ public void run()
 					/**
 					 * check if this HRMController isn't stopped yet
 					 */
-					while((!mApplicationStopped) && (mProcessorThread != null) && (mProcessorThread.isValid())){
+					while((!mApplicationStopped) && (mProcessor != null) && (mProcessor.isValid())){
 						if(mPendingTopologyDistributerThreadCycles > 0){
 							//Logging.warn(this, "Found " + mPendingTopologyDistributerThreadCycles + " pending topology distribution cycles");
 						}
@@ -6291,7 +6152,7 @@ public void run()
 							}
 						}
 						
-						if((!mApplicationStopped) && (mProcessorThread != null) && (mProcessorThread.isValid())){
+						if((!mApplicationStopped) && (mProcessor != null) && (mProcessor.isValid())){
 							doReportAndSharePhase();
 						}
 					}
@@ -6587,9 +6448,10 @@ protected void started()
 		mApplicationStarted = true;
 		
 		// register in the global HRMController database
-		synchronized (sRegisteredHRMControllers) {
-			sRegisteredHRMControllers.add(this);
-		}
+		sRegisteredHRMControllers.add(this);
+		
+		// start the periodic export of the global measurement values
+		getMetrics().startSnapshots();
 		
 		/**
 		 * Reset global NMS is needed
@@ -6610,6 +6472,13 @@ protected void started()
 		}
 		
 		startTopologyDistributer();
+		
+		/**
+		 * Process the events, which were queued before the start
+		 */
+		if(mProcessor != null){
+			mProcessor.explicitCheckingQueues();
+		}
 	}
 	
 	/**
@@ -6650,12 +6519,12 @@ public void exit()
 		}
 		
 		Logging.log(this, "     ..destroying processor-thread");
-		if(mProcessorThread != null){
+		if(mProcessor != null){
 			// "kill" the processor
-			mProcessorThread.exit();
+			mProcessor.exit();
 			// wait until "kill" was successful
 			int tCounter = 0;
-			while(mProcessorThread.isRunning()){
+			while(mProcessor.isRunning()){
 				try {
 					Thread.sleep(25);							
 				} catch (InterruptedException e) {
@@ -6663,11 +6532,11 @@ public void exit()
 				}
 				tCounter++;
 				if(tCounter > 400){
-					Logging.err(this, "Failed to stop processor: " + mProcessorThread);
+					Logging.err(this, "Failed to stop processor: " + mProcessor);
 					break;
 				}
 			}
-			mProcessorThread = null;
+			mProcessor = null;
 		}
 
 		Logging.log(this, "     ..destroying all clusters/coordinators");
@@ -6686,9 +6555,7 @@ public void exit()
 		
 		// register in the global HRMController database
 		Logging.log(this, "     ..removing from the global HRMController database");
-		synchronized (sRegisteredHRMControllers) {
-			sRegisteredHRMControllers.remove(this);
-		}
+		sRegisteredHRMControllers.remove(this);
 		
 		// unregister the HRMController as app from the local node
 		terminated(null);
@@ -6713,16 +6580,9 @@ public boolean isRunning()
 	 *  
 	 * @return the list of HRMController references
 	 */
-	@SuppressWarnings("unchecked")
 	public static LinkedList<HRMController> getALLHRMControllers()
 	{
-		LinkedList<HRMController> tResult = null;
-		
-		synchronized (sRegisteredHRMControllers) {
-			tResult = (LinkedList<HRMController>) sRegisteredHRMControllers.clone();
-		}
-		
-		return tResult;
+		return new LinkedList<HRMController>(sRegisteredHRMControllers);
 	}
 	
 	/**
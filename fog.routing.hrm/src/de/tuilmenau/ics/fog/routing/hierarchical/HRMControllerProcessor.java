@@ -10,6 +10,11 @@
 package de.tuilmenau.ics.fog.routing.hierarchical;
 
 import java.util.LinkedList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import de.tuilmenau.ics.fog.routing.hierarchical.management.Cluster;
 import de.tuilmenau.ics.fog.routing.hierarchical.management.ComChannel;
@@ -22,10 +27,43 @@
 import de.tuilmenau.ics.fog.ui.Logging;
 
 /**
- * This class is implemented as thread. It is responsible for clustering tasks and packet processing of an HRMController.
+ * This class is responsible for clustering tasks and packet processing of an HRMController.
+ * 
+ * The processors of all HRMController instances share a pool of threads. The queues of a processor
+ * are its mailbox. If an event is added to the mailbox, the processor is scheduled on the pool. 
+ * A processor is scheduled at most once at the same time. Therefore, the events of one HRMController
+ * are still processed sequentially by one thread at a time, like with the former dedicated thread
+ * per HRMController. The queues are protected by the same locks as before, and the scheduling state is
+ * protected by the monitor of the processor. Thus, the existing synchronization stays sufficient.
+ * The number of threads does not depend on the number of nodes anymore.
+ * 
+ * Clustering might block for a long time, because it connects to the cluster members and waits for
+ * the connections. Therefore, the shared pool is used for non-blocking mailbox work only. If a clustering
+ * request is due, the processor is scheduled on a separate pool without a thread limit instead. It is still
+ * scheduled at most once at the same time, so the events of one HRMController stay sequential.
  */
-public class HRMControllerProcessor extends Thread
+public class HRMControllerProcessor implements Runnable
 {
+	/**
+	 * Defines how often the queues are checked during one scheduling before the processor gives the thread to other processors
+	 */
+	private static final int MAX_ROUNDS_PER_SCHEDULING = 16;
+	
+	/**
+	 * Stores the thread pool, which is shared by all processors
+	 */
+	private static ThreadPoolExecutor sExecutor = null;
+	
+	/**
+	 * Stores the thread pool for processing steps, which might block (e.g., clustering)
+	 */
+	private static ThreadPoolExecutor sBlockingExecutor = null;
+	
+	/**
+	 * Stores the number of created pool threads
+	 */
+	private static int sCreatedThreads = 0;
+	
 	/**
 	 * Stores the HRMController reference
 	 */
@@ -72,14 +110,40 @@ public class HRMControllerProcessor extends Thread
 	private int mNumberUpdateRequests = 0;
 	
 	/**
-	 * Allow to exit the processor thread
+	 * Allow to exit the processor
 	 */
-	private boolean mProcessorNeeded = true;
+	private volatile boolean mProcessorNeeded = true;
 	
 	/**
-	 * Stores if the main process loop is still running
+	 * Stores if the processor was started and hasn't finished its last processing yet
 	 */
-	private boolean mProcessLoopIsRunning = false;
+	private volatile boolean mProcessLoopIsRunning = false;
+	
+	/**
+	 * Stores if the processor is scheduled on the thread pool or is currently processing events
+	 */
+	private boolean mScheduled = false;
+	
+	/**
+	 * Stores if the processor was woken up during its processing
+	 */
+	private boolean mWokenUpDuringProcessing = false;
+	
+	/**
+	 * Stores if a blocking processing step is due, which has to be done by a thread of the blocking pool
+	 */
+	private boolean mBlockingWorkPending = false;
+	
+	/**
+	 * Processes the pending events including blocking steps, called by a thread of the blocking pool
+	 */
+	private final Runnable mBlockingProcessing = new Runnable() {
+		@Override
+		public void run()
+		{
+			process(true);
+		}
+	};
 
 	private boolean DEBUG_NOTIFICATION = false;
 	
@@ -91,7 +155,7 @@ public class HRMControllerProcessor extends Thread
 	HRMControllerProcessor(HRMController pHRMController)
 	{
 		mHRMController = pHRMController;
-		Logging.log(this, "##### Created clusterer thread for: " + mHRMController);
+		Logging.log(this, "##### Created clusterer for: " + mHRMController);
 	}
 	
 	/**
@@ -176,7 +240,7 @@ public synchronized void eventUpdateCluster(ControlEntity pCause, HierarchyLevel
 				if(DEBUG_NOTIFICATION){
 					Logging.log(this, "Notify - [" + mEventUpdateCluster + "] - eventUpdateCluster(" + pCause + ", " + pHierarchyLevel + ")");
 				}
-				notify();
+				wakeUp();
 			}
 		}
 	}
@@ -199,7 +263,7 @@ public synchronized void eventReceivedPacket(ComChannel pComChannel)
 		if(DEBUG_NOTIFICATION){
 			Logging.log(this, "Notify - [" + mEventReceivedPacket + "] - eventReceivedPacket(" + pComChannel + ")");
 		}
-		notify();
+		wakeUp();
 	}
 
 	/**
@@ -220,7 +284,7 @@ public synchronized void eventNewHierarchyPriority(HierarchyLevel pHierarchyLeve
 		if(DEBUG_NOTIFICATION){
 			Logging.log(this, "Notify - [" + mEventNewHierarchyPriority + "] - eventNewHierarchyPriority(" + pHierarchyLevel + ")");
 		}
-		notify();
+		wakeUp();
 	}
 
 	/**
@@ -241,7 +305,7 @@ public synchronized void eventNewConnectivity(NetworkInterface pCausingNetworkIn
 		if(DEBUG_NOTIFICATION){
 			Logging.log(this, "Notify - [" + mEventNewConnectivityPriority + "] - mEventNewConnectivityPriority(" + pCausingNetworkInterface + ")");
 		}
-		notify();
+		wakeUp();
 	}
 
 	/**
@@ -262,7 +326,7 @@ public synchronized void eventUpdateCoordinatorsAboutLostRemoteCoordinator(Coord
 		if(DEBUG_NOTIFICATION){
 			Logging.log(this, "Notify - [" + mEventUpdateCoordinators + "] - mEventUpdateCoordinators(" + pCausingCoordinatorProxy + ")");
 		}
-		notify();
+		wakeUp();
 	}
 	
 	/**
@@ -285,24 +349,104 @@ public synchronized void eventCloseSession(ComSession pComSession)
 		if(DEBUG_NOTIFICATION){
 			Logging.log(this, "Notify - [" + mEventClosedSessions + "] - mEventNewCloseSession(" + pComSession + ")");
 		}
-		notify();
+		wakeUp();
 	}
 	
 	/**
 	 * Checks explicitly all queues for pending events
-	 * @return 
 	 */
 	public synchronized void explicitCheckingQueues()
 	{
-		notify();
+		wakeUp();
+	}
+	
+	/**
+	 * Schedules the processor on the thread pool, if it isn't scheduled yet.
+	 * The caller has to hold the monitor of this processor. 
+	 */
+	private void wakeUp()
+	{
+		if((mProcessorNeeded) && (mProcessLoopIsRunning)){
+			if(!mScheduled){
+				mScheduled = true;
+				if(mBlockingWorkPending){
+					getBlockingExecutor().execute(mBlockingProcessing);
+				}else{
+					getExecutor().execute(this);
+				}
+			}else{
+				// the processor has to check the queues again after the current processing
+				mWokenUpDuringProcessing = true;
+			}
+		}
+	}
+	
+	/**
+	 * Returns the thread pool, which is shared by all processors
+	 * 
+	 * @return the thread pool
+	 */
+	private static synchronized ThreadPoolExecutor getExecutor()
+	{
+		if(sExecutor == null){
+			int tThreads = HRMConfig.Hierarchy.PROCESSOR_THREADS;
+			if(tThreads <= 0){
+				tThreads = 2 * Runtime.getRuntime().availableProcessors();
+			}
+			
+			sExecutor = new ThreadPoolExecutor(tThreads, tThreads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable pRunnable)
+				{
+					Thread tThread = new Thread(pRunnable, "HRMControllerProcessor-" + nextThreadNumber());
+					tThread.setDaemon(true);
+					
+					return tThread;
+				}
+			});
+			sExecutor.allowCoreThreadTimeOut(true);
+		}
+		
+		return sExecutor;
+	}
+	
+	/**
+	 * Returns the thread pool for blocking processing steps. It creates threads on demand, since
+	 * each processor might block one of them. Idle threads terminate after some time.
+	 * 
+	 * @return the thread pool
+	 */
+	private static synchronized ThreadPoolExecutor getBlockingExecutor()
+	{
+		if(sBlockingExecutor == null){
+			sBlockingExecutor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(), new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable pRunnable)
+				{
+					Thread tThread = new Thread(pRunnable, "HRMControllerProcessorBlocking-" + nextThreadNumber());
+					tThread.setDaemon(true);
+					
+					return tThread;
+				}
+			});
+		}
+		
+		return sBlockingExecutor;
+	}
+	
+	private static synchronized int nextThreadNumber()
+	{
+		return ++sCreatedThreads;
 	}
 	
 	/**
 	 * Returns the next "cluster event" (uses passive waiting)
+	 * If the caller must not block, a due event is not returned but marked for the blocking pool.
 	 * 
+	 * @param pMayBlock true if the caller runs in the blocking pool
 	 * @return the next cluster event (a hierarchy level)
 	 */
-	private synchronized int getNextClusterEvent()
+	private synchronized int getNextClusterEvent(boolean pMayBlock)
 	{
 		/******************************************************************************************************************************
 		 ** IMPORTANT: We wait for the activity (announcements) of remote nodes before we trigger a new clustering.                  **
@@ -311,6 +455,11 @@ private synchronized int getNextClusterEvent()
 		if (mHRMController.getTimeWithStableHierarchy() > HRMConfig.Hierarchy.COORDINATOR_ANNOUNCEMENTS_INTERVAL){
 			for(int i = 0; i < HRMConfig.Hierarchy.DEPTH; i++){
 				if(mPendingClusterRequests[i] > 0){
+					if(!pMayBlock){
+						// clustering connects to the cluster members and might block
+						mBlockingWorkPending = true;
+						return -1;
+					}
 					mPendingClusterRequests[i]--;
 					return i;
 				}
@@ -450,198 +599,241 @@ private void cluster(int pHierarchyLevel)
 		}
 	}
 	
-	private synchronized void waitForNextEvent()
+	/**
+	 * Starts the processing of events. The processor is scheduled each time a new event is queued.
+	 */
+	public synchronized void start()
 	{
-		// suspend until next trigger
-		try {
-			wait();
-			//Logging.log(this, "WakeUp");
-		} catch (InterruptedException tExc) {
-			Logging.warn(this, "waitForNextEvent() got an interrupt", tExc);
-		}
+		mProcessLoopIsRunning = true;
+		
+		// check for events, which were queued before
+		wakeUp();
 	}
-
+	
 	/**
-	 * main function
+	 * Processes the pending events, called by a thread of the shared thread pool
 	 */
 	public void run()
 	{
-		Thread.currentThread().setName("Sim" + Simulation.sStartedSimulations + "@Processor@" + mHRMController);
-
-		mProcessLoopIsRunning = true;
+		process(false);
+	}
+	
+	/**
+	 * Processes the pending events
+	 * 
+	 * @param pMayBlock true if called by a thread of the blocking pool
+	 */
+	private void process(boolean pMayBlock)
+	{
+		Thread tThread = Thread.currentThread();
+		String tThreadName = tThread.getName();
+		tThread.setName("Sim" + Simulation.sStartedSimulations + "@Processor@" + mHRMController);
 
-		/**
-		 * wait until HRMController was started completely
-		 */
-		while((mProcessorNeeded) && (!mHRMController.isRunning())){
-			try {
-				Thread.sleep(50);
-			} catch (InterruptedException e) {
-				e.printStackTrace();
-			}
+		synchronized (this) {
+			mWokenUpDuringProcessing = false;
+			mBlockingWorkPending = false;
 		}
 		
-		/**
-		 * main loop
-		 */
-		while((mProcessorNeeded) && (mHRMController.isRunning())){
-			boolean tFoundEvent = false;
-			
-			/***********************
-			 * auto-remove old CoordinatorProxies
-			 ***********************/
-			mHRMController.autoRemoveObsoleteCoordinatorProxies();
-
-			/***********************
-			 * Auto-remove old ComChannels
-			 ***********************/
-			mHRMController.autoRemoveObsoleteComChannels();
-
-			/***********************
-			 * Auto-remove old ComSessions
-			 ***********************/
-			mHRMController.autoRemoveObsoleteComSessions();
+		boolean tFoundEvent = false;
+		try{
+			/**
+			 * the HRMController wakes up the processor again after it was started completely
+			 */
+			if(mHRMController.isRunning()){
+				int tRounds = 0;
+				do{
+					tFoundEvent = processEvents(pMayBlock);
+					tRounds++;
+				}while((tFoundEvent) && (tRounds < MAX_ROUNDS_PER_SCHEDULING) && (mProcessorNeeded) && (mHRMController.isRunning()) && (!isBlockingWorkPending()));
+			}
+		}catch(RuntimeException tExc){
+			Logging.err(this, "Got an exception during event processing", tExc);
+		}finally{
+			tThread.setName(tThreadName);
 			
-			/************************
-			 * Session closing
-			 ***********************/
-			ComSession tComSession = getNextComSessionClosing();
-			while(tComSession != null){
-				tFoundEvent = true;
-
-				double tBefore = HRMController.getRealTime();
-
-				Logging.log(this, "\n\n################ CLOSING COM. SESSION: " + tComSession);
-				tComSession.eventSessionInvalidated();
+			synchronized (this) {
+				mScheduled = false;
 				
-				double tSpentTime = HRMController.getRealTime() - tBefore;
-
-				if(tSpentTime > 100){
-					Logging.log(this, "Processing a com. session closing request for " + tComSession + " took " + tSpentTime + " ms");
+				if((mProcessorNeeded) && ((tFoundEvent) || (mWokenUpDuringProcessing) || (mBlockingWorkPending))){
+					// more events might be pending: schedule again after other processors
+					// (in the blocking pool if clustering is due)
+					wakeUp();
 				}
 				
-				// get the next request
-				tComSession = getNextComSessionClosing();
+				if(!mProcessorNeeded){
+					mProcessLoopIsRunning = false;
+				}
 			}
+		}
+	}
+	
+	/**
+	 * Returns if a blocking processing step is due
+	 * 
+	 * @return true or false
+	 */
+	private synchronized boolean isBlockingWorkPending()
+	{
+		return mBlockingWorkPending;
+	}
+	
+	/**
+	 * Processes all events, which are pending in the queues
+	 * 
+	 * @param pMayBlock true if blocking steps (clustering) may be processed
+	 * @return true if an event was found
+	 */
+	private boolean processEvents(boolean pMayBlock)
+	{
+		boolean tFoundEvent = false;
+		
+		/***********************
+		 * auto-remove old CoordinatorProxies
+		 ***********************/
+		mHRMController.autoRemoveObsoleteCoordinatorProxies();
+		
+		/***********************
+		 * Auto-remove old ComChannels
+		 ***********************/
+		mHRMController.autoRemoveObsoleteComChannels();
+		
+		/***********************
+		 * Auto-remove old ComSessions
+		 ***********************/
+		mHRMController.autoRemoveObsoleteComSessions();
+		
+		/************************
+		 * Session closing
+		 ***********************/
+		ComSession tComSession = getNextComSessionClosing();
+		while(tComSession != null){
+			tFoundEvent = true;
 
-			/************************
-			 * Packet processing
-			 ***********************/
-			ComChannel tNextCommChannel = getNextComChannel();
-			while ((!HRMController.isGlobalExit()) && (tNextCommChannel != null)){
-				tFoundEvent = true;
-
-				double tBefore = HRMController.getRealTime();
-				
-				// process the next comm. channel data
-				tNextCommChannel.processOnePacket();
+			double tBefore = HRMController.getRealTime();
 
-				double tSpentTime = HRMController.getRealTime() - tBefore;
+			Logging.log(this, "\n\n################ CLOSING COM. SESSION: " + tComSession);
+			tComSession.eventSessionInvalidated();
+			
+			double tSpentTime = HRMController.getRealTime() - tBefore;
 
-				if(tSpentTime > 250){
-					Logging.log(this, "Processing a packet took " + tSpentTime + " ms for " + tNextCommChannel);
-				}
-				
-				// get the next waiting comm. channel
-				tNextCommChannel = getNextComChannel();
-			}	
-
-			/************************
-			 * Hierarchy priority processing
-			 ***********************/
-			HierarchyLevel tNextHierarchyLevel = getNextHierarchyLevelForPriorityUpdate();
-			while(tNextHierarchyLevel != null){
-				tFoundEvent = true;
-				
-				double tBefore = HRMController.getRealTime();
+			if(tSpentTime > 100){
+				Logging.log(this, "Processing a com. session closing request for " + tComSession + " took " + tSpentTime + " ms");
+			}
+			
+			// get the next request
+			tComSession = getNextComSessionClosing();
+		}
 
-				// process the next hierarchy priority update
-				mHRMController.distributeHierarchyNodePriorityUpdate(tNextHierarchyLevel);
+		/************************
+		 * Packet processing
+		 ***********************/
+		ComChannel tNextCommChannel = getNextComChannel();
+		while ((!HRMController.isGlobalExit()) && (tNextCommChannel != null)){
+			tFoundEvent = true;
 
-				double tSpentTime = HRMController.getRealTime() - tBefore;
+			double tBefore = HRMController.getRealTime();
+			
+			// process the next comm. channel data
+			tNextCommChannel.processOnePacket();
 
-				if(tSpentTime > 100){
-					Logging.log(this, "Processing an hierarchy priority update for hier. level " + tNextHierarchyLevel + " took " + tSpentTime + " ms");
-				}
+			double tSpentTime = HRMController.getRealTime() - tBefore;
 
-				// get the next hierarchy priority update
-				tNextHierarchyLevel = getNextHierarchyLevelForPriorityUpdate();
-			}	
+			if(tSpentTime > 250){
+				Logging.log(this, "Processing a packet took " + tSpentTime + " ms for " + tNextCommChannel);
+			}
+			
+			// get the next waiting comm. channel
+			tNextCommChannel = getNextComChannel();
+		}	
+		
+		/************************
+		 * Hierarchy priority processing
+		 ***********************/
+		HierarchyLevel tNextHierarchyLevel = getNextHierarchyLevelForPriorityUpdate();
+		while(tNextHierarchyLevel != null){
+			tFoundEvent = true;
+			
+			double tBefore = HRMController.getRealTime();
 
-			/************************
-			 * Connectivity priority processing
-			 ***********************/
-			NetworkInterface tNextNetworkInterfaceWithConnectivity = getNextConnectivityPriorityUpdate();
-			while(tNextNetworkInterfaceWithConnectivity != null){
-				tFoundEvent = true;
-				
-				double tBefore = HRMController.getRealTime();
+			// process the next hierarchy priority update
+			mHRMController.distributeHierarchyNodePriorityUpdate(tNextHierarchyLevel);
 
-				// process the next hierarchy priority update
-				mHRMController.distributeConnectivityNodePriorityUpdate(tNextNetworkInterfaceWithConnectivity);
+			double tSpentTime = HRMController.getRealTime() - tBefore;
 
-				double tSpentTime = HRMController.getRealTime() - tBefore;
+			if(tSpentTime > 100){
+				Logging.log(this, "Processing an hierarchy priority update for hier. level " + tNextHierarchyLevel + " took " + tSpentTime + " ms");
+			}
 
-				if(tSpentTime > 100){
-					Logging.log(this, "Processing a connectivity priority update took " + tSpentTime + " ms");
-				}
+			// get the next hierarchy priority update
+			tNextHierarchyLevel = getNextHierarchyLevelForPriorityUpdate();
+		}	
 
-				// get the next connectivity priority update
-				tNextNetworkInterfaceWithConnectivity = getNextConnectivityPriorityUpdate();
-			}	
+		/************************
+		 * Connectivity priority processing
+		 ***********************/
+		NetworkInterface tNextNetworkInterfaceWithConnectivity = getNextConnectivityPriorityUpdate();
+		while(tNextNetworkInterfaceWithConnectivity != null){
+			tFoundEvent = true;
 			
-			/************************
-			 * Coordinator update
-			 ***********************/
-			CoordinatorProxy tNextLostCoordinatorProxy = getNextCoordinatorUpdateEvent();
-			while(tNextLostCoordinatorProxy != null){
-				tFoundEvent = true;
-
-				double tBefore = HRMController.getRealTime();
-				
-				// process the next CoordinatorProxy lost request
-				//Logging.warn(this, "\n\n################ Updating coordinators because of: " + tNextLostCoordinatorProxy);
-				mHRMController.detectAndInformInferiorCoordinatorsAboutLostCoordinatorProxy(tNextLostCoordinatorProxy);
+			double tBefore = HRMController.getRealTime();
 
-				double tSpentTime = HRMController.getRealTime() - tBefore;
+			// process the next hierarchy priority update
+			mHRMController.distributeConnectivityNodePriorityUpdate(tNextNetworkInterfaceWithConnectivity);
 
-				if(tSpentTime > 250){
-					Logging.log(this, "Processing a Coordinator update took " + tSpentTime + " ms for " + tNextLostCoordinatorProxy);
-				}
-				
-				// get the next waiting comm. channel
-				tNextLostCoordinatorProxy = getNextCoordinatorUpdateEvent();
-			}	
-			
-			/***********************
-			 * Clustering
-			 ***********************/
-			int tNextClusterEvent = getNextClusterEvent();
-			if(tNextClusterEvent >= 0){
-				tFoundEvent = true;
+			double tSpentTime = HRMController.getRealTime() - tBefore;
 
-				double tBefore = HRMController.getRealTime();
+			if(tSpentTime > 100){
+				Logging.log(this, "Processing a connectivity priority update took " + tSpentTime + " ms");
+			}
 
-				cluster(tNextClusterEvent);
+			// get the next connectivity priority update
+			tNextNetworkInterfaceWithConnectivity = getNextConnectivityPriorityUpdate();
+		}	
+		
+		/************************
+		 * Coordinator update
+		 ***********************/
+		CoordinatorProxy tNextLostCoordinatorProxy = getNextCoordinatorUpdateEvent();
+		while(tNextLostCoordinatorProxy != null){
+			tFoundEvent = true;
+			
+			double tBefore = HRMController.getRealTime();
+			
+			// process the next CoordinatorProxy lost request
+			//Logging.warn(this, "\n\n################ Updating coordinators because of: " + tNextLostCoordinatorProxy);
+			mHRMController.detectAndInformInferiorCoordinatorsAboutLostCoordinatorProxy(tNextLostCoordinatorProxy);
 
-				double tSpentTime = HRMController.getRealTime() - tBefore;
+			double tSpentTime = HRMController.getRealTime() - tBefore;
 
-				if(tSpentTime > 100){
-					Logging.log(this, "Processing a clustering request for hier. level " + tNextClusterEvent + " took " + tSpentTime + " ms");
-				}
+			if(tSpentTime > 250){
+				Logging.log(this, "Processing a Coordinator update took " + tSpentTime + " ms for " + tNextLostCoordinatorProxy);
 			}
 			
-			/**
-			 * Wait for next event
-			 */
-			if(!tFoundEvent){
-				waitForNextEvent();
+			// get the next waiting comm. channel
+			tNextLostCoordinatorProxy = getNextCoordinatorUpdateEvent();
+		}	
+		
+		/***********************
+		 * Clustering
+		 ***********************/
+		int tNextClusterEvent = getNextClusterEvent(pMayBlock);
+		if(tNextClusterEvent >= 0){
+			tFoundEvent = true;
+			
+			double tBefore = HRMController.getRealTime();
+			
+			cluster(tNextClusterEvent);
+			
+			double tSpentTime = HRMController.getRealTime() - tBefore;
+			
+			if(tSpentTime > 100){
+				Logging.log(this, "Processing a clustering request for hier. level " + tNextClusterEvent + " took " + tSpentTime + " ms");
 			}
 		}
 		
-		mProcessLoopIsRunning = false;
+		return tFoundEvent;
 	}
-
+	
 	/**
 	 * Returns if this processor is valid
 	 * 
@@ -660,7 +852,10 @@ public synchronized void exit()
 		Logging.log(this, "Exiting this processor");
 		if(isValid()){
 			mProcessorNeeded = false;
-			notify();
+			if(!mScheduled){
+				// no processing is pending, which might still use the HRMController
+				mProcessLoopIsRunning = false;
+			}
 		}else{
 			Logging.log(this, "  ..was already killed");
 		}
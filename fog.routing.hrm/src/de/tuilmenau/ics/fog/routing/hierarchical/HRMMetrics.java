@@ -0,0 +1,645 @@
+/*******************************************************************************
+ * Forwarding on Gates Simulator/Emulator - Hierarchical Routing Management
+ * Copyright (c) 2015, Integrated Communication Systems Group, TU Ilmenau.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html.
+ ******************************************************************************/
+package de.tuilmenau.ics.fog.routing.hierarchical;
+
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.tuilmenau.ics.fog.IEvent;
+import de.tuilmenau.ics.fog.bus.Bus;
+import de.tuilmenau.ics.fog.topology.Simulation;
+import de.tuilmenau.ics.fog.ui.Logging;
+import de.tuilmenau.ics.fog.ui.Statistic;
+
+/**
+ * This class collects the global HRM measurement values of one simulation run, e.g., the packet overhead per link and packet type.
+ * The HRMController instances of all nodes update the values concurrently from their own threads. Therefore, each (link, packet type)
+ * pair has its own counters, which are updated without any lock.
+ * 
+ * An instance exists per simulation and is dropped if the simulation is restarted. Hence, no references to links of previous
+ * simulation runs are kept. If HRMConfig.Measurement.METRICS_SNAPSHOT_INTERVAL is set, the current values are periodically
+ * written to the statistics output.
+ * 
+ * The values are not part of the HRM concept. They are only used for debugging purposes and comparison measurements.
+ */
+public class HRMMetrics implements IEvent
+{
+	/**
+	 * Stores the instances per simulation
+	 */
+	private static ConcurrentHashMap<Simulation, HRMMetrics> sInstances = new ConcurrentHashMap<Simulation, HRMMetrics>();
+	
+	/**
+	 * Stores the simulation
+	 */
+	private Simulation mSimulation = null;
+	
+	/**
+	 * Stores the packet counters per link and packet type
+	 */
+	private ConcurrentHashMap<Bus, ConcurrentHashMap<Class<?>, PacketCounter>> mPacketCounters = new ConcurrentHashMap<Bus, ConcurrentHashMap<Class<?>, PacketCounter>>();
+	
+	/**
+	 * Stores the simulation time when the packet overhead measurement started
+	 */
+	private volatile double mPacketOverheadMeasurementStart = 0;
+	
+	/**
+	 * Stores the number of finished election processes
+	 */
+	private AtomicLong mFinishedElections = new AtomicLong(0);
+	
+	/**
+	 * Stores the sum of the convergence times of all finished election processes in [us]
+	 */
+	private AtomicLong mSumConvergenceTime = new AtomicLong(0);
+	
+	/**
+	 * Stores the maximum convergence time of all finished election processes in [us]
+	 */
+	private AtomicLong mMaxConvergenceTime = new AtomicLong(0);
+	
+	/**
+	 * Stores the number of election messages which were sent within a bundle
+	 */
+	private AtomicLong mBundledElectionMessages = new AtomicLong(0);
+	
+	/**
+	 * Stores the number of election messages which were replaced by a newer one before they were sent
+	 */
+	private AtomicLong mSuppressedElectionMessages = new AtomicLong(0);
+	
+	/**
+	 * Stores the number of announcements which were sent within a bundle
+	 */
+	private AtomicLong mBundledAnnouncements = new AtomicLong(0);
+	
+	/**
+	 * Stores the number of announcements which were replaced by a newer one before they were sent
+	 */
+	private AtomicLong mSuppressedAnnouncements = new AtomicLong(0);
+	
+	/**
+	 * Stores the number of forwarding cache hits of all nodes
+	 */
+	private AtomicLong mForwardingCacheHits = new AtomicLong(0);
+	
+	/**
+	 * Stores the number of forwarding cache misses of all nodes
+	 */
+	private AtomicLong mForwardingCacheMisses = new AtomicLong(0);
+	
+	/**
+	 * Stores the number of forwarding cache invalidations of all nodes
+	 */
+	private AtomicLong mForwardingCacheInvalidations = new AtomicLong(0);
+	
+	/**
+	 * Stores if the periodic snapshots were already started
+	 */
+	private AtomicBoolean mSnapshotsStarted = new AtomicBoolean(false);
+	
+	/**
+	 * Stores if the header of the snapshot table was already written
+	 */
+	private boolean mSnapshotHeaderWritten = false;
+	
+	/**
+	 * Stores if this instance was released
+	 */
+	private volatile boolean mReleased = false;
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param pSimulation the simulation
+	 */
+	private HRMMetrics(Simulation pSimulation)
+	{
+		mSimulation = pSimulation;
+	}
+	
+	/**
+	 * Returns the instance for a simulation, it is created if needed
+	 * 
+	 * @param pSimulation the simulation
+	 * 
+	 * @return the instance
+	 */
+	public static HRMMetrics getInstance(Simulation pSimulation)
+	{
+		HRMMetrics tResult = sInstances.get(pSimulation);
+		
+		if(tResult == null){
+			HRMMetrics tNewInstance = new HRMMetrics(pSimulation);
+			tResult = sInstances.putIfAbsent(pSimulation, tNewInstance);
+			if(tResult == null){
+				tResult = tNewInstance;
+			}
+		}
+		
+		return tResult;
+	}
+	
+	/**
+	 * Drops the instances of all simulations, e.g., because a new simulation run starts
+	 */
+	public static void releaseAll()
+	{
+		for(HRMMetrics tMetrics : sInstances.values()){
+			tMetrics.mReleased = true;
+		}
+		sInstances.clear();
+	}
+	
+	/**
+	 * Accounts a packet for a given link
+	 * 
+	 * @param pLink the link
+	 * @param pPacketClass the packet type
+	 * @param pBytes the size of the packet
+	 * @param pBytesForIP the size of the packet including the additional IP overhead
+	 */
+	public void accountPacket(Bus pLink, Class<?> pPacketClass, long pBytes, long pBytesForIP)
+	{
+		ConcurrentHashMap<Class<?>, PacketCounter> tCountersForLink = mPacketCounters.get(pLink);
+		if(tCountersForLink == null){
+			ConcurrentHashMap<Class<?>, PacketCounter> tNewCountersForLink = new ConcurrentHashMap<Class<?>, PacketCounter>();
+			tCountersForLink = mPacketCounters.putIfAbsent(pLink, tNewCountersForLink);
+			if(tCountersForLink == null){
+				tCountersForLink = tNewCountersForLink;
+			}
+		}
+		
+		PacketCounter tCounter = tCountersForLink.get(pPacketClass);
+		if(tCounter == null){
+			PacketCounter tNewCounter = new PacketCounter();
+			tCounter = tCountersForLink.putIfAbsent(pPacketClass, tNewCounter);
+			if(tCounter == null){
+				tCounter = tNewCounter;
+			}
+		}
+		
+		tCounter.mPackets.incrementAndGet();
+		tCounter.mBytes.addAndGet(pBytes);
+		tCounter.mBytesForIP.addAndGet(pBytesForIP);
+	}
+	
+	/**
+	 * Restarts the packet overhead measurement: the byte counters are reset, the packet counters are kept
+	 * 
+	 * @param pNow the current simulation time
+	 */
+	public void resetPacketOverhead(double pNow)
+	{
+		for(ConcurrentHashMap<Class<?>, PacketCounter> tCountersForLink : mPacketCounters.values()){
+			for(PacketCounter tCounter : tCountersForLink.values()){
+				tCounter.mBytes.set(0);
+				tCounter.mBytesForIP.set(0);
+			}
+		}
+		mPacketOverheadMeasurementStart = pNow;
+	}
+	
+	/**
+	 * Returns the simulation time when the packet overhead measurement started
+	 * 
+	 * @return the simulation time
+	 */
+	public double getPacketOverheadMeasurementStart()
+	{
+		return mPacketOverheadMeasurementStart;
+	}
+	
+	/**
+	 * Returns all links for which packets were accounted
+	 * 
+	 * @return the links
+	 */
+	public Set<Bus> getLinks()
+	{
+		return mPacketCounters.keySet();
+	}
+	
+	/**
+	 * Returns all packet types which were accounted for a link
+	 * 
+	 * @param pLink the link
+	 * 
+	 * @return the packet types
+	 */
+	public Set<Class<?>> getPacketClasses(Bus pLink)
+	{
+		ConcurrentHashMap<Class<?>, PacketCounter> tCountersForLink = mPacketCounters.get(pLink);
+		
+		return (tCountersForLink != null ? tCountersForLink.keySet() : new HashSet<Class<?>>());
+	}
+	
+	/**
+	 * Returns the number of packets of a given type, which were accounted for a link
+	 * 
+	 * @param pLink the link
+	 * @param pPacketClass the packet type
+	 * 
+	 * @return the number of packets
+	 */
+	public long getPackets(Bus pLink, Class<?> pPacketClass)
+	{
+		PacketCounter tCounter = getCounter(pLink, pPacketClass);
+		
+		return (tCounter != null ? tCounter.mPackets.get() : 0);
+	}
+	
+	/**
+	 * Returns the number of bytes of a given packet type, which were accounted for a link since the packet overhead measurement started
+	 * 
+	 * @param pLink the link
+	 * @param pPacketClass the packet type
+	 * 
+	 * @return the number of bytes
+	 */
+	public long getBytes(Bus pLink, Class<?> pPacketClass)
+	{
+		PacketCounter tCounter = getCounter(pLink, pPacketClass);
+		
+		return (tCounter != null ? tCounter.mBytes.get() : 0);
+	}
+	
+	/**
+	 * Returns the number of bytes (including the additional IP overhead) of a given packet type, which were accounted for a link since the packet overhead measurement started
+	 * 
+	 * @param pLink the link
+	 * @param pPacketClass the packet type
+	 * 
+	 * @return the number of bytes
+	 */
+	public long getBytesForIP(Bus pLink, Class<?> pPacketClass)
+	{
+		PacketCounter tCounter = getCounter(pLink, pPacketClass);
+		
+		return (tCounter != null ? tCounter.mBytesForIP.get() : 0);
+	}
+	
+	/**
+	 * Returns the counters for a given link and packet type
+	 * 
+	 * @param pLink the link
+	 * @param pPacketClass the packet type
+	 * 
+	 * @return the counters or null
+	 */
+	private PacketCounter getCounter(Bus pLink, Class<?> pPacketClass)
+	{
+		ConcurrentHashMap<Class<?>, PacketCounter> tCountersForLink = mPacketCounters.get(pLink);
+		
+		return (tCountersForLink != null ? tCountersForLink.get(pPacketClass) : null);
+	}
+	
+	/**
+	 * Accounts the convergence time of a finished election process
+	 * 
+	 * @param pConvergenceTime the time between start and end of the election process in [s]
+	 */
+	public void accountElectionConvergence(double pConvergenceTime)
+	{
+		long tConvergenceTime = Math.round(pConvergenceTime * 1000 * 1000);
+		
+		mFinishedElections.incrementAndGet();
+		mSumConvergenceTime.addAndGet(tConvergenceTime);
+		
+		long tMax = mMaxConvergenceTime.get();
+		while((tConvergenceTime > tMax) && (!mMaxConvergenceTime.compareAndSet(tMax, tConvergenceTime))){
+			tMax = mMaxConvergenceTime.get();
+		}
+	}
+	
+	/**
+	 * Returns the number of finished election processes
+	 * 
+	 * @return the number of elections
+	 */
+	public long getFinishedElections()
+	{
+		return mFinishedElections.get();
+	}
+	
+	/**
+	 * Returns the average convergence time of all finished election processes
+	 * 
+	 * @return the average convergence time in [s]
+	 */
+	public double getAvgConvergenceTime()
+	{
+		long tFinishedElections = mFinishedElections.get();
+		
+		return (tFinishedElections > 0 ? (double)mSumConvergenceTime.get() / tFinishedElections / 1000 / 1000 : 0);
+	}
+	
+	/**
+	 * Returns the maximum convergence time of all finished election processes
+	 * 
+	 * @return the maximum convergence time in [s]
+	 */
+	public double getMaxConvergenceTime()
+	{
+		return (double)mMaxConvergenceTime.get() / 1000 / 1000;
+	}
+	
+	/**
+	 * Accounts election messages which were sent within a bundle
+	 * 
+	 * @param pNumberMessages the number of bundled messages
+	 */
+	public void accountBundledElectionMessages(int pNumberMessages)
+	{
+		mBundledElectionMessages.addAndGet(pNumberMessages);
+	}
+	
+	/**
+	 * Accounts an election message which was replaced by a newer one before it was sent
+	 */
+	public void accountSuppressedElectionMessage()
+	{
+		mSuppressedElectionMessages.incrementAndGet();
+	}
+	
+	/**
+	 * Returns the number of election messages which were sent within a bundle
+	 * 
+	 * @return the number of messages
+	 */
+	public long getBundledElectionMessages()
+	{
+		return mBundledElectionMessages.get();
+	}
+	
+	/**
+	 * Returns the number of election messages which were replaced by a newer one before they were sent
+	 * 
+	 * @return the number of messages
+	 */
+	public long getSuppressedElectionMessages()
+	{
+		return mSuppressedElectionMessages.get();
+	}
+	
+	/**
+	 * Accounts announcements which were sent within a bundle
+	 * 
+	 * @param pNumberMessages the number of bundled messages
+	 */
+	public void accountBundledAnnouncements(int pNumberMessages)
+	{
+		mBundledAnnouncements.addAndGet(pNumberMessages);
+	}
+	
+	/**
+	 * Accounts an announcement which was replaced by a newer one before it was sent
+	 */
+	public void accountSuppressedAnnouncement()
+	{
+		mSuppressedAnnouncements.incrementAndGet();
+	}
+	
+	/**
+	 * Returns the number of announcements which were sent within a bundle
+	 * 
+	 * @return the number of messages
+	 */
+	public long getBundledAnnouncements()
+	{
+		return mBundledAnnouncements.get();
+	}
+	
+	/**
+	 * Returns the number of announcements which were replaced by a newer one before they were sent
+	 * 
+	 * @return the number of messages
+	 */
+	public long getSuppressedAnnouncements()
+	{
+		return mSuppressedAnnouncements.get();
+	}
+	
+	/**
+	 * Accounts a lookup in a forwarding cache
+	 * 
+	 * @param pHit true if a cached entry was found, otherwise false
+	 */
+	public void accountForwardingCacheLookup(boolean pHit)
+	{
+		if(pHit){
+			mForwardingCacheHits.incrementAndGet();
+		}else{
+			mForwardingCacheMisses.incrementAndGet();
+		}
+	}
+	
+	/**
+	 * Accounts the invalidation of a forwarding cache
+	 */
+	public void accountForwardingCacheInvalidation()
+	{
+		mForwardingCacheInvalidations.incrementAndGet();
+	}
+	
+	/**
+	 * Returns the number of forwarding cache hits of all nodes
+	 * 
+	 * @return the number of hits
+	 */
+	public long getForwardingCacheHits()
+	{
+		return mForwardingCacheHits.get();
+	}
+	
+	/**
+	 * Returns the number of forwarding cache misses of all nodes
+	 * 
+	 * @return the number of misses
+	 */
+	public long getForwardingCacheMisses()
+	{
+		return mForwardingCacheMisses.get();
+	}
+	
+	/**
+	 * Returns the number of forwarding cache invalidations of all nodes
+	 * 
+	 * @return the number of invalidations
+	 */
+	public long getForwardingCacheInvalidations()
+	{
+		return mForwardingCacheInvalidations.get();
+	}
+	
+	/**
+	 * Returns the forwarding cache hit rate of all nodes
+	 * 
+	 * @return the hit rate in [%]
+	 */
+	public double getForwardingCacheHitRate()
+	{
+		long tHits = mForwardingCacheHits.get();
+		long tLookups = tHits + mForwardingCacheMisses.get();
+		
+		return (tLookups > 0 ? 100.0 * tHits / tLookups : 0);
+	}
+	
+	/**
+	 * Resets the statistic about election processes, message aggregation, and forwarding caches
+	 */
+	public void resetStatistic()
+	{
+		mFinishedElections.set(0);
+		mSumConvergenceTime.set(0);
+		mMaxConvergenceTime.set(0);
+		mBundledElectionMessages.set(0);
+		mSuppressedElectionMessages.set(0);
+		mBundledAnnouncements.set(0);
+		mSuppressedAnnouncements.set(0);
+		mForwardingCacheHits.set(0);
+		mForwardingCacheMisses.set(0);
+		mForwardingCacheInvalidations.set(0);
+	}
+	
+	/**
+	 * Resets all measurement values
+	 */
+	public void reset()
+	{
+		mPacketCounters.clear();
+		mPacketOverheadMeasurementStart = mSimulation.getTimeBase().now();
+		resetStatistic();
+	}
+	
+	/**
+	 * Starts the periodic snapshots of the measurement values, further calls have no effect
+	 */
+	public void startSnapshots()
+	{
+		if(HRMConfig.Measurement.METRICS_SNAPSHOT_INTERVAL > 0){
+			if(mSnapshotsStarted.compareAndSet(false, true)){
+				mSimulation.getTimeBase().scheduleIn(HRMConfig.Measurement.METRICS_SNAPSHOT_INTERVAL, this);
+			}
+		}
+	}
+	
+	/**
+	 * Writes the current measurement values to the statistics output
+	 */
+	private void writeSnapshot()
+	{
+		Statistic tStatistic = null;
+		
+		try {
+			tStatistic = Statistic.getInstance(mSimulation, HRMMetrics.class, ";", true);
+		} catch (Exception tExc) {
+			Logging.err(this, "Can not write metrics snapshot to statistic log file", tExc);
+		}
+		
+		if(tStatistic != null){
+			if(!mSnapshotHeaderWritten){
+				LinkedList<String> tTableHeader = new LinkedList<String>();
+				tTableHeader.add("Time");
+				tTableHeader.add("Link");
+				tTableHeader.add("PacketType");
+				tTableHeader.add("Packets");
+				tTableHeader.add("Bytes");
+				tTableHeader.add("BytesForIP");
+				tStatistic.log(tTableHeader);
+				mSnapshotHeaderWritten = true;
+			}
+			
+			String tNow = Double.toString(mSimulation.getTimeBase().now());
+			for(Bus tLink : mPacketCounters.keySet()){
+				ConcurrentHashMap<Class<?>, PacketCounter> tCountersForLink = mPacketCounters.get(tLink);
+				for(Class<?> tPacketClass : tCountersForLink.keySet()){
+					PacketCounter tCounter = tCountersForLink.get(tPacketClass);
+					
+					LinkedList<String> tTableRow = new LinkedList<String>();
+					tTableRow.add(tNow);
+					tTableRow.add(tLink.getName());
+					tTableRow.add(tPacketClass.getSimpleName());
+					tTableRow.add(Long.toString(tCounter.mPackets.get()));
+					tTableRow.add(Long.toString(tCounter.mBytes.get()));
+					tTableRow.add(Long.toString(tCounter.mBytesForIP.get()));
+					tStatistic.log(tTableRow);
+				}
+			}
+			logSnapshotCounter(tStatistic, tNow, "ElectionMessagesBundled", getBundledElectionMessages());
+			logSnapshotCounter(tStatistic, tNow, "ElectionMessagesSuppressed", getSuppressedElectionMessages());
+			logSnapshotCounter(tStatistic, tNow, "ElectionsFinished", getFinishedElections());
+			logSnapshotCounter(tStatistic, tNow, "AnnouncementsBundled", getBundledAnnouncements());
+			logSnapshotCounter(tStatistic, tNow, "AnnouncementsSuppressed", getSuppressedAnnouncements());
+			logSnapshotCounter(tStatistic, tNow, "ForwardingCacheHits", getForwardingCacheHits());
+			logSnapshotCounter(tStatistic, tNow, "ForwardingCacheMisses", getForwardingCacheMisses());
+			logSnapshotCounter(tStatistic, tNow, "ForwardingCacheInvalidations", getForwardingCacheInvalidations());
+			tStatistic.flush();
+		}
+	}
+	
+	/**
+	 * Writes a node-independent counter as a row of the snapshot table, the link column is "-" and the value is given in the packets column
+	 * 
+	 * @param pStatistic the statistics output
+	 * @param pNow the current simulation time
+	 * @param pName the name of the counter
+	 * @param pValue the value of the counter
+	 */
+	private void logSnapshotCounter(Statistic pStatistic, String pNow, String pName, long pValue)
+	{
+		LinkedList<String> tTableRow = new LinkedList<String>();
+		tTableRow.add(pNow);
+		tTableRow.add("-");
+		tTableRow.add(pName);
+		tTableRow.add(Long.toString(pValue));
+		tTableRow.add("-");
+		tTableRow.add("-");
+		pStatistic.log(tTableRow);
+	}
+	
+	/**
+	 * Implementation for IEvent::fire(): writes a snapshot and schedules the next one
+	 */
+	@Override
+	public void fire()
+	{
+		if(!mReleased){
+			writeSnapshot();
+			mSimulation.getTimeBase().scheduleIn(HRMConfig.Measurement.METRICS_SNAPSHOT_INTERVAL, this);
+		}
+	}
+	
+	/**
+	 * Returns a descriptive string about this object
+	 * 
+	 * @return the descriptive string
+	 */
+	@Override
+	public String toString()
+	{
+		return getClass().getSimpleName() + "@" + mSimulation;
+	}
+	
+	/**
+	 * The counters for one link and packet type
+	 */
+	private static class PacketCounter
+	{
+		private final AtomicLong mPackets = new AtomicLong(0);
+		private final AtomicLong mBytes = new AtomicLong(0);
+		private final AtomicLong mBytesForIP = new AtomicLong(0);
+	}
+}
@@ -112,6 +112,11 @@ public class HRMRoutingService implements RoutingService, Localization
 	 */
 	private RoutingTable mRoutingTable = new RoutingTable();
 	
+	/**
+	 * Stores the results of previous routing decisions (forwarding information base)
+	 */
+	private ForwardingCache mForwardingCache = null;
+	
 	/**
 	 * Stores the local L2 addresses based neighbor routing graph (consisting of FNs and Gates from local node and links to direct physical neighbors)
 	 */
@@ -139,7 +144,10 @@ public HRMRoutingService(Node pNode)
 		mNode = pNode;
 		
 		// create name mapping instance to map FoG names to L2 addresses
-		mFoGNamesToL2AddressesMapping = new HierarchicalNameMappingService<L2Address>(HierarchicalNameMappingService.getGlobalNameMappingService(mNode.getAS().getSimulation()), null);
+		mFoGNamesToL2AddressesMapping = new HierarchicalNameMappingService<L2Address>(HierarchicalNameMappingService.getGlobalNameMappingService(mNode.getAS().getSimulation()), null, mNode.getTimeBase());
+		
+		// create the forwarding cache, it accounts its hits and misses in the measurement values of the simulation
+		mForwardingCache = new ForwardingCache(HRMMetrics.getInstance(mNode.getAS().getSimulation()));
 	}
 
 	/**
@@ -459,6 +467,7 @@ private void autoCleanNRG()
 														Logging.warn(this, ">>>>>>>>>>>>>>> Found deprecated L2 route: " + tKnownL2Route);
 														
 														mNeighborRoutingGraph.unlink(tKnownFoGRouteToNeighbor);
+														mForwardingCache.invalidate();
 														tDeletedOne = true;
 														break;
 													}
@@ -490,6 +499,7 @@ public boolean unregisterNRG(L2Address pToL2Address)
 		synchronized(mNeighborRoutingGraph){
 			if(pToL2Address != null){
 				tFound = mNeighborRoutingGraph.remove(pToL2Address);
+				mForwardingCache.invalidate();
 			}
 		}
 		
@@ -579,6 +589,7 @@ public boolean registerNRG(L2Address pToL2Address, Route pRoute)
 										Route tKnownL2Route = tKnownL2RouteLink.getRoute();
 										if(!tNewRoute.isLonger(tKnownL2Route)){
 											mNeighborRoutingGraph.unlink(tKnownL2Link);
+											mForwardingCache.invalidate();
 										}
 									}
 								}
@@ -633,6 +644,7 @@ public boolean registerNRG(L2Address pToL2Address, Route pRoute)
 								for(RoutingServiceLink tKnownL2Link : tAllL2Routes) {
 									if(tKnownL2Link instanceof LogicalLinkToNeighbor){
 										mNeighborRoutingGraph.unlink(tKnownL2Link);
+										mForwardingCache.invalidate();
 									}
 								}
 								
@@ -653,6 +665,7 @@ public boolean registerNRG(L2Address pToL2Address, Route pRoute)
 									if(tKnownL2Route.size() > 2){
 										Logging.err(this, "      ..found unexpected the too-long ROUTE \"" + tNewRoute + "\" to neighbor node: " + pToL2Address + " with size: " + pRoute.size() + "(" + (pRoute.size() / 2) + " nodes)");
 										mNeighborRoutingGraph.unlink(tKnownL2Link);
+										mForwardingCache.invalidate();
 									}
 								}
 							}
@@ -826,6 +839,7 @@ private boolean storeNRG(L2Address pFromL2Address, L2Address pToL2Address, Routi
 
 			tAdded = mNeighborRoutingGraph.link(tFrom, tTo, pRoutingServiceLink);
 			if(tAdded){
+				mForwardingCache.invalidate();
 				Logging.log(this, "  ..stored L2 link " + pRoutingServiceLink + " from " + tFrom + " to " + tTo);
 			}
 		}
@@ -916,6 +930,7 @@ public void mapHRMID(HRMID pHRMID, L2Address pL2Address, Route pL2Route)
 						Logging.log(this, "mapHRMID() - adding HRMID2L2Address mapping for: " + pHRMID + " and " + pL2Address);
 					}
 					mHRMIDToL2AddressMapping.put(pHRMID, pL2Address);
+					mForwardingCache.invalidate();
 				}else{
 					// HRMID is already known, mapping already exists
 				}
@@ -947,6 +962,7 @@ public void mapHRMID(HRMID pHRMID, L2Address pL2Address, Route pL2Route)
 							Logging.warn(this, "mapHRMID() - got new L2 route towards: " + pHRMID + " as: " + pL2Route);
 						}
 						mHRMIDToL2RouteMapping.put(pHRMID, pL2Route);
+						mForwardingCache.invalidate();
 					}
 				}					
 			}else{
@@ -968,6 +984,7 @@ public void unmapHRMID(HRMID pHRMID)
 			for (HRMID tHRMID: mHRMIDToL2AddressMapping.keySet()){
 				if (tHRMID.equals(pHRMID)){
 					mHRMIDToL2AddressMapping.remove(pHRMID);
+					mForwardingCache.invalidate();
 					break;
 				}
 			}
@@ -977,6 +994,7 @@ public void unmapHRMID(HRMID pHRMID)
 				if (tHRMID.equals(pHRMID)){
 					//Logging.warn(this, "Dropping L2 route towards: " + pHRMID + " as: " + mHRMIDToL2RouteMapping.get(pHRMID));
 					mHRMIDToL2RouteMapping.remove(pHRMID);
+					mForwardingCache.invalidate();
 					break;
 				}
 			}
@@ -1238,6 +1256,7 @@ public boolean unregisterNode(ForwardingNode pElement)
 			synchronized (mNeighborRoutingGraph) {
 				if(mNeighborRoutingGraph.contains(tNodeL2Address)) {
 					mNeighborRoutingGraph.remove(tNodeL2Address);
+					mForwardingCache.invalidate();
 				}
 			}
 		}
@@ -1536,6 +1555,7 @@ public boolean unregisterLink(ForwardingElement pFrom, AbstractGate pGate)
 					if(tOutgoingLink.equals(pGate)) {
 						// remove the link from the L2 specific routing graph
 						mNeighborRoutingGraph.unlink(tOutgoingLink);
+						mForwardingCache.invalidate();
 						break;
 					}
 				}
@@ -1976,7 +1996,26 @@ public Route getRoute(ForwardingNode pSource, Name pDestination, Description pRe
 				tLastHopL2Address = tHRMRoutingProp.getLastHopL2Address();
 			}
 			boolean tDestHRMIDIsLocalHRMID = false;
-			RoutingEntry tRoutingEntryNextHop = getRoutingDecision(tDestHRMID, tDesiredDataRate, tDesiredDelay, tLastHopHRMID, tLastHopL2Address);
+			
+			/**
+			 * Check the forwarding cache for a previous decision for this destination and QoS class
+			 */
+			ForwardingCache.Entry tForwardingCacheEntry = null;
+			long tForwardingCacheGeneration = 0;
+			if(HRMConfig.Routing.FORWARDING_CACHE){
+				tForwardingCacheGeneration = mForwardingCache.validate(mRoutingTable.getRevision());
+				tForwardingCacheEntry = mForwardingCache.get(tDestHRMID, tDesiredDataRate, tDesiredDelay, tLastHopHRMID, tLastHopL2Address);
+				if((DEBUG) && (tForwardingCacheEntry != null)){
+					Logging.log(this, "      ..using cached forwarding entry for " + tDestHRMID);
+				}
+			}
+			
+			RoutingEntry tRoutingEntryNextHop = null;
+			if(tForwardingCacheEntry != null){
+				tRoutingEntryNextHop = tForwardingCacheEntry.getRoutingEntry();
+			}else{
+				tRoutingEntryNextHop = getRoutingDecision(tDestHRMID, tDesiredDataRate, tDesiredDelay, tLastHopHRMID, tLastHopL2Address);
+			}
 			if(tRoutingEntryNextHop != null){
 				if(!tRoutingEntryNextHop.isLocalLoop()){
 					// derive the next hop HRMID
@@ -2023,7 +2062,11 @@ public Route getRoute(ForwardingNode pSource, Name pDestination, Description pRe
 			 *************************************/
 			L2Address tNextHopL2Address = null;
 			if (tNextHopHRMID != null){
-				tNextHopL2Address = getL2AddressFor(tNextHopHRMID);
+				if(tForwardingCacheEntry != null){
+					tNextHopL2Address = tForwardingCacheEntry.getNextHopL2Address();
+				}else{
+					tNextHopL2Address = getL2AddressFor(tNextHopHRMID);
+				}
 			}else{
 				if(!tDestHRMIDIsLocalHRMID){
 					Logging.log(this, "getRoute() wasn't able to determine the HRMID of the next hop in order to route towards " + tDestHRMID.toString());
@@ -2040,7 +2083,12 @@ public Route getRoute(ForwardingNode pSource, Name pDestination, Description pRe
 					Logging.log(this, "      ..NEXT HOP(L2ADDRESS): " + tNextHopL2Address);
 				}
 				
-				if (tNextHopL2Address != null){
+				if(tForwardingCacheEntry != null){
+					/**
+					 * Use the cached L2 route to the next hop
+					 */
+					tRouteToNeighborNode = tForwardingCacheEntry.getRouteToNextHop();
+				}else if (tNextHopL2Address != null){
 					/**
 					 * Get the stored explicit L2 route to the determined next HRMID
 					 */
@@ -2056,6 +2104,13 @@ public Route getRoute(ForwardingNode pSource, Name pDestination, Description pRe
 						// get BE route to the neighbor node
 						tRouteToNeighborNode = getNRGRoute(getCentralFNL2Address(), tNextHopL2Address);
 					}
+					
+					/**
+					 * Store the result in the forwarding cache
+					 */
+					if((HRMConfig.Routing.FORWARDING_CACHE) && (tRouteToNeighborNode != null)){
+						mForwardingCache.put(tForwardingCacheGeneration, tDestHRMID, tDesiredDataRate, tDesiredDelay, tLastHopHRMID, tLastHopL2Address, tRoutingEntryNextHop, tNextHopL2Address, tRouteToNeighborNode);
+					}
 				}
 				
 				if (DEBUG){
@@ -9,6 +9,11 @@
  ******************************************************************************/
 package de.tuilmenau.ics.fog.routing.hierarchical;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
 
 import de.tuilmenau.ics.fog.routing.naming.hierarchical.HRMID;
@@ -17,18 +22,79 @@
 
 /**
  * This class represents an HRM routing table
+ * 
+ * The entries are indexed by their destination. A lookup for a destination
+ * checks only the entries for the destination itself and for its cluster
+ * prefixes, e.g., "1.4.3", "1.4.0", "1.0.0" and "0.0.0". Thus, a lookup
+ * depends on the hierarchy depth and not on the size of the table.
+ * The index is transient and rebuilt after the list was modified without
+ * using the methods of this class, e.g., after deserialization.
  */
 public class RoutingTable extends LinkedList<RoutingEntry>
 {
 
 	private static final long serialVersionUID = -9166625971164847894L;
 
+	/**
+	 * Mask for the part of an address, which is used for the hierarchy levels
+	 */
+	private static final long LEVELS_ADDRESS_MASK = getLowerLevelsMask(HRMConfig.Hierarchy.DEPTH);
+	
+	/**
+	 * Index key for destinations with address bits outside of the hierarchy levels
+	 */
+	private static final Long IRREGULAR_DESTINATIONS = Long.valueOf(-1);
+	
+	/**
+	 * Orders indexed entries according to their position in the list
+	 */
+	private static final Comparator<IndexedEntry> LIST_ORDER = new Comparator<IndexedEntry>() {
+		@Override
+		public int compare(IndexedEntry pEntry1, IndexedEntry pEntry2)
+		{
+			return (pEntry1.mPosition < pEntry2.mPosition ? -1 : (pEntry1.mPosition == pEntry2.mPosition ? 0 : 1));
+		}
+	};
+	
+	/**
+	 * Index of all entries by the address of their destination
+	 */
+	private transient HashMap<Long, LinkedList<IndexedEntry>> mIndex = null;
+	
+	/**
+	 * Modification count of the list, which is described by the index
+	 */
+	private transient int mIndexModCount = 0;
+	
+	/**
+	 * Positions for the next entries added at the beginning/end of the list
+	 */
+	private transient long mNextFirstPosition = 0;
+	private transient long mNextLastPosition = 0;
+	
+	/**
+	 * Counts the updates of known entries, which might change a routing decision (next hop L2 address, delay, data rates, utilization)
+	 */
+	private transient long mDecisionRelevantUpdates = 0;
+	
 	/**
 	 * REPORT/SHARE:
 	 * Stores if the transmitted routing table describes only a diff to the last update
 	 */
 	private boolean mIsARoutingTableDiff = false;
 
+	/**
+	 * REPORT/SHARE:
+	 * Stores the sequence number of the transmitted routing table within the stream of updates towards a peer. Allowed values are between 0 and 65535.
+	 */
+	private int mSequenceNumber = 0;
+	
+	/**
+	 * REPORT/SHARE:
+	 * Stores the entries which were removed since the last update (only used for a diff)
+	 */
+	private RoutingTable mRemovedEntries = null;
+	
 	/**
 	 * Defines the validity duration of this routing table in [s]. Allowed values are between 0 and 255.
 	 */
@@ -52,6 +118,50 @@ public boolean isOnlyDiff()
 		return mIsARoutingTableDiff;
 	}
 	
+	/**
+	 * Sets the sequence number of this update
+	 * 
+	 * @param pSequenceNumber the new sequence number
+	 */
+	public void setSequenceNumber(int pSequenceNumber)
+	{
+		mSequenceNumber = pSequenceNumber;
+	}
+	
+	/**
+	 * Returns the sequence number of this update
+	 * 
+	 * @return the sequence number
+	 */
+	public int getSequenceNumber()
+	{
+		return mSequenceNumber;
+	}
+	
+	/**
+	 * Sets the entries which were removed since the last update
+	 * 
+	 * @param pRemovedEntries the removed entries
+	 */
+	public void setRemovedEntries(RoutingTable pRemovedEntries)
+	{
+		mRemovedEntries = pRemovedEntries;
+	}
+	
+	/**
+	 * Returns the entries which were removed since the last update
+	 * 
+	 * @return the removed entries (never null)
+	 */
+	public RoutingTable getRemovedEntries()
+	{
+		if(mRemovedEntries == null){
+			return new RoutingTable();
+		}
+		
+		return (RoutingTable) mRemovedEntries.clone();
+	}
+	
 	/**
 	 * Sets the life time for all routing table entries
 	 * 
@@ -137,7 +247,7 @@ public synchronized boolean addEntry(RoutingEntry pRoutingTableEntry)
 		 */
 		RoutingEntry tFoundDuplicate = null;
 		if (HRMConfig.RoutingData.AVOID_DUPLICATES_IN_ROUTING_TABLES){
-			for (RoutingEntry tEntry: this){
+			for (RoutingEntry tEntry: getEntriesFor(pRoutingTableEntry.getDest())){
 				/**
 				 * Search for a SHORTER or LONGER ROUTE DESCRIPTION
 				 */
@@ -179,14 +289,23 @@ public synchronized boolean addEntry(RoutingEntry pRoutingTableEntry)
 				// add the route to the routing table
 				if(pRoutingTableEntry.isLocalLoop()){
 					//Logging.log(null, "Adding as first: " + pRoutingTableEntry + ", cause=" + pRoutingTableEntry.getCause());
-					addFirst(pRoutingTableEntry.clone());
+					insert(pRoutingTableEntry.clone(), true);
 				}else{
 					//Logging.log(null, "Adding as last: " + pRoutingTableEntry + ", cause=" + pRoutingTableEntry.getCause());
-					add(pRoutingTableEntry.clone());
+					insert(pRoutingTableEntry.clone(), false);
 				}
 				
 				tResult = true;
 			}else{
+				/**
+				 * Remember the values which are relevant for routing decisions
+				 */
+				L2Address tFormerNextHopL2Address = tFoundDuplicate.getNextHopL2Address();
+				long tFormerMinDelay = tFoundDuplicate.getMinDelay();
+				long tFormerMaxAvailableDataRate = tFoundDuplicate.getMaxAvailableDataRate();
+				long tFormerNextHopMaxAvailableDataRate = tFoundDuplicate.getNextHopMaxAvailableDataRate();
+				double tFormerUtilization = tFoundDuplicate.getUtilization();
+				
 				/**
 				 * Update L2Address
 				 */
@@ -264,6 +383,17 @@ public synchronized boolean addEntry(RoutingEntry pRoutingTableEntry)
 				}else{
 					// known route is from higher authority
 				}
+				
+				/**
+				 * Count the update if the routing decisions might be affected
+				 */
+				if(((tFormerNextHopL2Address == null) ? (tFoundDuplicate.getNextHopL2Address() != null) : (!tFormerNextHopL2Address.equals(tFoundDuplicate.getNextHopL2Address()))) ||
+				   (tFormerMinDelay != tFoundDuplicate.getMinDelay()) ||
+				   (tFormerMaxAvailableDataRate != tFoundDuplicate.getMaxAvailableDataRate()) ||
+				   (tFormerNextHopMaxAvailableDataRate != tFoundDuplicate.getNextHopMaxAvailableDataRate()) ||
+				   (tFormerUtilization != tFoundDuplicate.getUtilization())){
+					mDecisionRelevantUpdates++;
+				}
 			}
 			
 			/**
@@ -297,7 +427,7 @@ public synchronized boolean delEntry(RoutingEntry pRoutingTableEntry)
 		/**
 		 * Go over the RIB database and search for matching entries, mark them for deletion
 		 */
-		for(RoutingEntry tEntry: this){
+		for(RoutingEntry tEntry: getEntriesFor(pRoutingTableEntry.getDest())){
 			if(tEntry.equals(pRoutingTableEntry)){
 				tRemoveThese.add(tEntry);
 			}
@@ -309,7 +439,7 @@ public synchronized boolean delEntry(RoutingEntry pRoutingTableEntry)
 		if (tRemoveThese.size() > 0){
 			for(RoutingEntry tEntry: tRemoveThese){
 				//Logging.log(null, "Removing: " + tEntry + ", cause=" + tEntry.getCause());
-				remove(tEntry);
+				removeInstance(tEntry);
 				
 				tResult = true;
 			}
@@ -375,7 +505,7 @@ public synchronized RoutingEntry getDirectNeighborEntry(HRMID pNeighborHRMID)
 	{
 		RoutingEntry tResult = null;
 		
-		for (RoutingEntry tEntry: this){
+		for (RoutingEntry tEntry: getEntries(getIndex().get(getIndexKey(pNeighborHRMID)))){
 			if(tEntry.isRouteToDirectNeighbor()){
 				if(tEntry.getDest().equals(pNeighborHRMID)){
 					tResult = tEntry.clone();
@@ -422,10 +552,10 @@ public synchronized RoutingEntry getRoutingDecision(HRMID pDestination, long pDe
 		 */
 			
 		/**
-		 * Iterate over all routing entries and search for the best entry
+		 * Iterate over all routing entries for the destination and its clusters and search for the best entry
 		 */
 		if(size() > 0){
-			for(RoutingEntry tEntry : this){
+			for(RoutingEntry tEntry : getMatchingEntries(pDestination)){
 				/**
 				 * Check for a matching (route directs packets towards destination) entry
 				 */ 
@@ -464,7 +594,7 @@ public synchronized RoutingEntry getRoutingDecision(HRMID pDestination, long pDe
 									Logging.log(this, "      ..found better (BE) entry: " + tEntry);
 								}
 
-								tRouteWSPF = tEntry.clone();
+								tRouteWSPF = tEntry;
 							}else{
 								if (DEBUG){
 									Logging.log(this, "      ..found uninteresting (BE) entry: " + tEntry);
@@ -475,7 +605,7 @@ public synchronized RoutingEntry getRoutingDecision(HRMID pDestination, long pDe
 								Logging.log(this, "      ..found first matching (BE) entry: " + tEntry);
 							}
 	
-							tRouteWSPF = tEntry.clone();
+							tRouteWSPF = tEntry;
 						}
 						
 						/******************************************************************************************************************
@@ -533,7 +663,7 @@ public synchronized RoutingEntry getRoutingDecision(HRMID pDestination, long pDe
 											Logging.log(this, "      ..found better (QoS match) entry: " + tEntry);
 										}
 			
-										tRouteSWPF = tEntry.clone();
+										tRouteSWPF = tEntry;
 									}else{
 										if (DEBUG){
 											Logging.log(this, "      ..found uninteresting (QoS match) entry: " + tEntry);
@@ -544,7 +674,7 @@ public synchronized RoutingEntry getRoutingDecision(HRMID pDestination, long pDe
 										Logging.log(this, "      ..found first matching (QoS match) entry: " + tEntry);
 									}
 			
-									tRouteSWPF = tEntry.clone();
+									tRouteSWPF = tEntry;
 								}
 							}							
 								
@@ -575,7 +705,7 @@ public synchronized RoutingEntry getRoutingDecision(HRMID pDestination, long pDe
 										Logging.log(this, "      ..found better (QoS) entry: " + tEntry);
 									}
 		
-									tRouteSWPFFallback = tEntry.clone();
+									tRouteSWPFFallback = tEntry;
 								}else{
 									if (DEBUG){
 										Logging.log(this, "      ..found uninteresting (QoS) entry: " + tEntry);
@@ -586,7 +716,7 @@ public synchronized RoutingEntry getRoutingDecision(HRMID pDestination, long pDe
 									Logging.log(this, "      ..found first matching (QoS) entry: " + tEntry);
 								}
 		
-								tRouteSWPFFallback = tEntry.clone();
+								tRouteSWPFFallback = tEntry;
 							}
 						}
 					}else{
@@ -659,6 +789,312 @@ public synchronized RoutingEntry getRoutingDecision(HRMID pDestination, long pDe
 			Logging.log(this, "### BEST ROUTE is: " + tResult);
 		}
 		
+		// the caller gets a copy of the entry
+		if(tResult != null){
+			tResult = tResult.clone();
+		}
+		
+		return tResult;
+	}
+	
+	/**
+	 * Adds an entry to the list and to the index
+	 * 
+	 * @param pEntry the new entry
+	 * @param pAsFirst true if the entry should be added at the beginning of the list, otherwise it is added at the end
+	 */
+	private void insert(RoutingEntry pEntry, boolean pAsFirst)
+	{
+		HashMap<Long, LinkedList<IndexedEntry>> tIndex = getIndex();
+		
+		if(pAsFirst){
+			addFirst(pEntry);
+			addToIndex(tIndex, pEntry, mNextFirstPosition--);
+		}else{
+			add(pEntry);
+			addToIndex(tIndex, pEntry, mNextLastPosition++);
+		}
+		
+		mIndexModCount = modCount;
+	}
+	
+	/**
+	 * Removes an entry instance from the list and from the index
+	 * 
+	 * @param pEntry the entry instance
+	 */
+	private void removeInstance(RoutingEntry pEntry)
+	{
+		HashMap<Long, LinkedList<IndexedEntry>> tIndex = getIndex();
+		
+		Iterator<RoutingEntry> tIter = iterator();
+		while(tIter.hasNext()){
+			if(tIter.next() == pEntry){
+				tIter.remove();
+				break;
+			}
+		}
+		
+		Long tKey = getIndexKey(pEntry.getDest());
+		LinkedList<IndexedEntry> tBucket = tIndex.get(tKey);
+		if(tBucket != null){
+			Iterator<IndexedEntry> tBucketIter = tBucket.iterator();
+			while(tBucketIter.hasNext()){
+				if(tBucketIter.next().mEntry == pEntry){
+					tBucketIter.remove();
+					break;
+				}
+			}
+			if(tBucket.isEmpty()){
+				tIndex.remove(tKey);
+			}
+		}
+		
+		mIndexModCount = modCount;
+	}
+	
+	/**
+	 * Returns the index of the entries. The index is rebuilt if the list was modified without updating the index.
+	 * 
+	 * @return the index
+	 */
+	private HashMap<Long, LinkedList<IndexedEntry>> getIndex()
+	{
+		if((mIndex == null) || (mIndexModCount != modCount)){
+			mIndex = new HashMap<Long, LinkedList<IndexedEntry>>();
+			mNextFirstPosition = -1;
+			mNextLastPosition = 0;
+			
+			for(RoutingEntry tEntry : this){
+				addToIndex(mIndex, tEntry, mNextLastPosition++);
+			}
+			
+			mIndexModCount = modCount;
+		}
+		
+		return mIndex;
+	}
+	
+	private static void addToIndex(HashMap<Long, LinkedList<IndexedEntry>> pIndex, RoutingEntry pEntry, long pPosition)
+	{
+		Long tKey = getIndexKey(pEntry.getDest());
+		LinkedList<IndexedEntry> tBucket = pIndex.get(tKey);
+		
+		if(tBucket == null){
+			tBucket = new LinkedList<IndexedEntry>();
+			pIndex.put(tKey, tBucket);
+		}
+		
+		// keep the order of the list within a bucket
+		IndexedEntry tIndexedEntry = new IndexedEntry(pEntry, pPosition);
+		if((!tBucket.isEmpty()) && (tBucket.getFirst().mPosition > pPosition)){
+			tBucket.addFirst(tIndexedEntry);
+		}else{
+			tBucket.addLast(tIndexedEntry);
+		}
+	}
+	
+	/**
+	 * Returns the key of a destination for the index
+	 * 
+	 * @param pDestination the destination
+	 * 
+	 * @return the key
+	 */
+	private static Long getIndexKey(HRMID pDestination)
+	{
+		if(pDestination == null){
+			return null;
+		}
+		
+		long tAddress = pDestination.getAddress();
+		if((tAddress & ~LEVELS_ADDRESS_MASK) != 0){
+			return IRREGULAR_DESTINATIONS;
+		}
+		
+		return Long.valueOf(tAddress);
+	}
+	
+	/**
+	 * Returns the mask for the address parts of the lowest hierarchy levels
+	 * 
+	 * @param pLevels the number of levels
+	 * 
+	 * @return the mask
+	 */
+	private static long getLowerLevelsMask(int pLevels)
+	{
+		int tBits = pLevels * HRMConfig.Addressing.BITS_PER_HIERARCHY_LEVEL;
+		
+		if(tBits >= Long.SIZE){
+			return -1L;
+		}
+		
+		return (1L << tBits) - 1;
+	}
+	
+	/**
+	 * Returns all entries, which might be equal to an entry with the given destination
+	 * 
+	 * @param pDestination the destination, null matches all entries
+	 * 
+	 * @return the entries in the order of the list
+	 */
+	private Iterable<RoutingEntry> getEntriesFor(HRMID pDestination)
+	{
+		if(pDestination == null){
+			// a routing entry without destination is equal to routing entries with any destination
+			return new ArrayList<RoutingEntry>(this);
+		}
+		
+		HashMap<Long, LinkedList<IndexedEntry>> tIndex = getIndex();
+		
+		// entries without a destination are equal to entries with any destination
+		return getEntries(tIndex.get(getIndexKey(pDestination)), tIndex.get(null));
+	}
+	
+	/**
+	 * Returns all entries, which describe a route towards the given destination or one of its clusters
+	 * 
+	 * @param pDestination the destination
+	 * 
+	 * @return the entries in the order of the list
+	 */
+	private Iterable<RoutingEntry> getMatchingEntries(HRMID pDestination)
+	{
+		HashMap<Long, LinkedList<IndexedEntry>> tIndex = getIndex();
+		ArrayList<IndexedEntry> tResult = new ArrayList<IndexedEntry>();
+		int tBuckets = 0;
+		
+		/**
+		 * Check the destination and all cluster prefixes of it, e.g., "1.4.3", "1.4.0", "1.0.0", "0.0.0"
+		 */
+		long tAddress = pDestination.getAddress() & LEVELS_ADDRESS_MASK;
+		long tLastKey = ~tAddress;
+		for(int tLevels = 0; tLevels <= HRMConfig.Hierarchy.DEPTH; tLevels++){
+			long tKey = tAddress & ~getLowerLevelsMask(tLevels);
+			
+			if(tKey != tLastKey){
+				LinkedList<IndexedEntry> tBucket = tIndex.get(Long.valueOf(tKey));
+				if(tBucket != null){
+					tResult.addAll(tBucket);
+					tBuckets++;
+				}
+				tLastKey = tKey;
+			}
+		}
+		
+		LinkedList<IndexedEntry> tIrregularBucket = tIndex.get(IRREGULAR_DESTINATIONS);
+		if(tIrregularBucket != null){
+			tResult.addAll(tIrregularBucket);
+			tBuckets++;
+		}
+		
+		if(tBuckets > 1){
+			Collections.sort(tResult, LIST_ORDER);
+		}
+		
+		return toEntries(tResult);
+	}
+	
+	private static Iterable<RoutingEntry> getEntries(LinkedList<IndexedEntry> pBucket)
+	{
+		return getEntries(pBucket, null);
+	}
+	
+	private static Iterable<RoutingEntry> getEntries(LinkedList<IndexedEntry> pBucket1, LinkedList<IndexedEntry> pBucket2)
+	{
+		ArrayList<IndexedEntry> tResult = new ArrayList<IndexedEntry>();
+		
+		if(pBucket1 != null){
+			tResult.addAll(pBucket1);
+		}
+		if((pBucket2 != null) && (pBucket2 != pBucket1)){
+			tResult.addAll(pBucket2);
+			Collections.sort(tResult, LIST_ORDER);
+		}
+		
+		return toEntries(tResult);
+	}
+	
+	private static Iterable<RoutingEntry> toEntries(ArrayList<IndexedEntry> pIndexedEntries)
+	{
+		ArrayList<RoutingEntry> tResult = new ArrayList<RoutingEntry>(pIndexedEntries.size());
+		
+		for(IndexedEntry tIndexedEntry : pIndexedEntries){
+			tResult.add(tIndexedEntry.mEntry);
+		}
+		
+		return tResult;
+	}
+	
+	/**
+	 * Returns the revision of this table. The revision is increased by each modification of the list and
+	 * by each update of a known entry, which might change a routing decision. These are updates of the fields,
+	 * which are used by getRoutingDecision(): next hop L2 address, delay, data rates and utilization.
+	 * A timeout refresh doesn't change the revision.
+	 * 
+	 * @return the revision
+	 */
+	public synchronized long getRevision()
+	{
+		return modCount + mDecisionRelevantUpdates;
+	}
+	
+	/**
+	 * Checks if the table contains an entry, which is equal to the given one.
+	 * Only the entries with a matching destination are compared (uses the index).
+	 * 
+	 * @param pObj the entry
+	 * 
+	 * @return true or false
+	 */
+	@Override
+	public boolean contains(Object pObj)
+	{
+		if(pObj instanceof RoutingEntry){
+			for(RoutingEntry tEntry : getEntriesFor(((RoutingEntry)pObj).getDest())){
+				if(pObj.equals(tEntry)){
+					return true;
+				}
+			}
+			return false;
+		}
+		
+		return super.contains(pObj);
+	}
+	
+	/**
+	 * Checks if the table contains an entry, which is equal to the given one and has the same QoS values.
+	 * Only the entries with a matching destination are compared (uses the index).
+	 * 
+	 * @param pEntry the entry
+	 * 
+	 * @return true or false
+	 */
+	public boolean containsWithSameQoS(RoutingEntry pEntry)
+	{
+		for(RoutingEntry tEntry : getEntriesFor(pEntry.getDest())){
+			if((tEntry.equals(pEntry)) && (tEntry.equalsQoS(pEntry))){
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Creates a copy of this table. The copy uses its own index.
+	 * 
+	 * @return the copy
+	 */
+	@Override
+	public Object clone()
+	{
+		RoutingTable tResult = (RoutingTable) super.clone();
+		
+		tResult.mIndex = null;
+		
 		return tResult;
 	}
 	
@@ -673,20 +1109,32 @@ public int getSerializedSize()
 		 * Size of serialized elements in [bytes]:
 		 * 
 		 * 		Flags					 = 1 (is a diff?)
+		 * 		Sequence number			 = 2
 		 * 		Validity duration		 = 1 
 		 * 		Routing table length	 = 2
 		 * 		Routing table			 = dynamic
+		 * 		[Removed entries length	 = 2] (only for a diff)
+		 * 		[Removed entries		 = dynamic] (only for a diff)
 		 * 
 		 *************************************************************/
 
 		int tResult = 0;
 		
 		tResult += 1;
+		tResult += 2; // sequence number of the update
 		tResult += 1; // validity duration of all reported/shared routes - in the range of 2-255 seconds
 		tResult += 2; // size of the following list
 		for(RoutingEntry tEntry: this){
 			tResult += tEntry.getSerialisedSize();
 		}
+		if(mIsARoutingTableDiff){
+			tResult += 2; // size of the following list
+			if(mRemovedEntries != null){
+				for(RoutingEntry tEntry: mRemovedEntries){
+					tResult += tEntry.getSerialisedSize();
+				}
+			}
+		}
 		
 		return tResult;
 	}
@@ -729,4 +1177,19 @@ public String toString()
 	{
 		return "[" + getClass().getSimpleName() + " with " + size() + " entries]"; 
 	}
+	
+	/**
+	 * Entry of the index, which stores the position of a routing entry within the list
+	 */
+	private static class IndexedEntry
+	{
+		public IndexedEntry(RoutingEntry pEntry, long pPosition)
+		{
+			mEntry = pEntry;
+			mPosition = pPosition;
+		}
+		
+		private final RoutingEntry mEntry;
+		private final long mPosition;
+	}
 }
@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Forwarding on Gates Simulator/Emulator - Hierarchical Routing Management
+ * Copyright (c) 2015, Integrated Communication Systems Group, TU Ilmenau.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html.
+ ******************************************************************************/
+package de.tuilmenau.ics.fog.routing.hierarchical.election;
+
+import java.util.LinkedList;
+
+import de.tuilmenau.ics.fog.packets.hierarchical.SignalingMessageHrm;
+import de.tuilmenau.ics.fog.packets.hierarchical.election.ElectionAlive;
+import de.tuilmenau.ics.fog.packets.hierarchical.election.ElectionBundle;
+import de.tuilmenau.ics.fog.packets.hierarchical.election.ElectionPriorityUpdate;
+import de.tuilmenau.ics.fog.packets.hierarchical.election.SignalingMessageElection;
+import de.tuilmenau.ics.fog.routing.hierarchical.HRMConfig;
+import de.tuilmenau.ics.fog.routing.hierarchical.HRMController;
+import de.tuilmenau.ics.fog.routing.hierarchical.management.ComSession;
+import de.tuilmenau.ics.fog.routing.hierarchical.management.SignalingMessageAggregator;
+
+/**
+ * This class collects the election messages of all comm. channels of one comm. session.
+ * The messages are sent together within one ElectionBundle packet after HRMConfig.Election.MESSAGE_AGGREGATION_WINDOW.
+ * A queued priority update (or alive message) of a comm. channel is replaced by a newer one because the peer only needs the latest priority.
+ * The order of the remaining messages is kept.
+ */
+public class ElectionMessageAggregator extends SignalingMessageAggregator<SignalingMessageElection>
+{
+	/**
+	 * Constructor
+	 * 
+	 * @param pHRMController the HRMController instance
+	 * @param pParentComSession the parent comm. session
+	 */
+	public ElectionMessageAggregator(HRMController pHRMController, ComSession pParentComSession)
+	{
+		super(pHRMController, pParentComSession);
+	}
+	
+	/**
+	 * Checks if a queued election message is obsolete: only the latest priority update (or alive message) of a comm. channel is needed
+	 * 
+	 * @param pQueuedPacket the queued election message
+	 * @param pNewPacket the new election message
+	 * 
+	 * @return true or false
+	 */
+	@Override
+	protected boolean isOutdatedBy(SignalingMessageElection pQueuedPacket, SignalingMessageElection pNewPacket)
+	{
+		if((pNewPacket instanceof ElectionPriorityUpdate) || (pNewPacket instanceof ElectionAlive)){
+			return (pQueuedPacket.getClass().equals(pNewPacket.getClass())) && (isSameChannel(pQueuedPacket, pNewPacket));
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Creates an ElectionBundle packet
+	 * 
+	 * @param pMessages the election messages
+	 * 
+	 * @return the bundle packet
+	 */
+	@Override
+	protected SignalingMessageHrm createBundle(LinkedList<SignalingMessageElection> pMessages)
+	{
+		return new ElectionBundle(mHRMController.getNodeL2Address(), mParentComSession.getPeerL2Address(), pMessages);
+	}
+	
+	/**
+	 * Returns the aggregation window for election messages
+	 * 
+	 * @return the time period in [s]
+	 */
+	@Override
+	protected double getAggregationWindow()
+	{
+		return HRMConfig.Election.MESSAGE_AGGREGATION_WINDOW;
+	}
+	
+	/**
+	 * Returns if debug output about suppressed and bundled messages should be shown
+	 * 
+	 * @return true or false
+	 */
+	@Override
+	protected boolean isDebugOutputEnabled()
+	{
+		return HRMConfig.DebugOutput.GUI_SHOW_SIGNALING_ELECTIONS;
+	}
+	
+	/**
+	 * EVENT: election messages were sent within a bundle
+	 * 
+	 * @param pNumberMessages the number of bundled messages
+	 */
+	@Override
+	protected void eventMessagesBundled(int pNumberMessages)
+	{
+		mHRMController.getMetrics().accountBundledElectionMessages(pNumberMessages);
+	}
+	
+	/**
+	 * EVENT: a queued election message was dropped
+	 */
+	@Override
+	protected void eventMessageSuppressed()
+	{
+		mHRMController.getMetrics().accountSuppressedElectionMessage();
+	}
+}
@@ -70,6 +70,11 @@ private enum ElectorState {
 	 */
 	private LinkedList<String> mResultChangeCauses = new LinkedList<String>();
 
+	/**
+	 * Stores the simulation time when the current election process was started
+	 */
+	private double mTimeElectionStarted = 0;
+	
 	private static final boolean SEND_ALL_ELECTION_PARTICIPANTS = false;
 	private static final boolean IGNORE_LINK_STATE = true;
 	private static final boolean CHECK_LINK_STATE = false;
@@ -139,6 +144,16 @@ private void setElectorState(ElectorState pNewState)
 					Logging.log(this, "STATE TRANSITION from " + mState + " to " + pNewState);
 				}
 	
+				/**
+				 * measure the convergence time of the election
+				 */
+				if(pNewState == ElectorState.ELECTING){
+					mTimeElectionStarted = mHRMController.getSimulationTime();
+				}
+				if((mState == ElectorState.ELECTING) && (pNewState == ElectorState.ELECTED)){
+					mHRMController.getMetrics().accountElectionConvergence(mHRMController.getSimulationTime() - mTimeElectionStarted);
+				}
+				
 				// set new state
 				mState = pNewState;
 			}
@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Forwarding on Gates Simulator/Emulator - Hierarchical Routing Management
+ * Copyright (c) 2015, Integrated Communication Systems Group, TU Ilmenau.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html.
+ ******************************************************************************/
+package de.tuilmenau.ics.fog.routing.hierarchical.management;
+
+import java.util.LinkedList;
+
+import de.tuilmenau.ics.fog.packets.hierarchical.SignalingMessageHrm;
+import de.tuilmenau.ics.fog.packets.hierarchical.addressing.RevokeHRMIDs;
+import de.tuilmenau.ics.fog.packets.hierarchical.routingdata.AnnounceHRMIDs;
+import de.tuilmenau.ics.fog.packets.hierarchical.topology.AnnounceCoordinator;
+import de.tuilmenau.ics.fog.packets.hierarchical.topology.AnnouncementBundle;
+import de.tuilmenau.ics.fog.packets.hierarchical.topology.InvalidCoordinator;
+import de.tuilmenau.ics.fog.packets.hierarchical.topology.SignalingMessageHierarchyUpdate;
+import de.tuilmenau.ics.fog.routing.hierarchical.HRMConfig;
+import de.tuilmenau.ics.fog.routing.hierarchical.HRMController;
+
+/**
+ * This class collects the announcements of all comm. channels and hierarchy levels of one comm. session.
+ * The announcements are sent together within one AnnouncementBundle packet after HRMConfig.Hierarchy.ANNOUNCEMENTS_AGGREGATION_WINDOW.
+ * Each announcement keeps its own TTL and route, the bundle only shares the packet overhead.
+ * A queued announcement is dropped if a newer one of the same origin is queued for the same comm. channel:
+ * 		- an AnnounceCoordinator is replaced by a newer AnnounceCoordinator with a route which isn't longer
+ * 		- an AnnounceCoordinator/InvalidCoordinator is replaced by a newer InvalidCoordinator
+ * 		- an AnnounceHRMIDs is replaced by a newer AnnounceHRMIDs because it describes all local HRMIDs
+ */
+public class AnnouncementAggregator extends SignalingMessageAggregator<SignalingMessageHrm>
+{
+	/**
+	 * Constructor
+	 * 
+	 * @param pHRMController the HRMController instance
+	 * @param pParentComSession the parent comm. session
+	 */
+	public AnnouncementAggregator(HRMController pHRMController, ComSession pParentComSession)
+	{
+		super(pHRMController, pParentComSession);
+	}
+	
+	/**
+	 * Returns if a packet type can be aggregated by this class
+	 * 
+	 * @param pPacket the packet
+	 * 
+	 * @return true or false
+	 */
+	public static boolean isAnnouncement(SignalingMessageHrm pPacket)
+	{
+		return (pPacket instanceof AnnounceCoordinator) || (pPacket instanceof InvalidCoordinator) || (pPacket instanceof AnnounceHRMIDs) || (pPacket instanceof RevokeHRMIDs);
+	}
+	
+	/**
+	 * Checks if a queued announcement is obsolete because of a newer one
+	 * 
+	 * @param pQueuedPacket the queued announcement
+	 * @param pNewPacket the new announcement
+	 * 
+	 * @return true or false
+	 */
+	@Override
+	protected boolean isOutdatedBy(SignalingMessageHrm pQueuedPacket, SignalingMessageHrm pNewPacket)
+	{
+		if(!isSameChannel(pQueuedPacket, pNewPacket)){
+			return false;
+		}
+		
+		if(pNewPacket instanceof AnnounceHRMIDs){
+			return (pQueuedPacket instanceof AnnounceHRMIDs);
+		}
+		
+		if((pNewPacket instanceof InvalidCoordinator) && (pQueuedPacket instanceof SignalingMessageHierarchyUpdate)){
+			return isSameOrigin((SignalingMessageHierarchyUpdate)pQueuedPacket, (SignalingMessageHierarchyUpdate)pNewPacket);
+		}
+		
+		if((pNewPacket instanceof AnnounceCoordinator) && (pQueuedPacket instanceof AnnounceCoordinator)){
+			AnnounceCoordinator tQueuedAnnouncement = (AnnounceCoordinator)pQueuedPacket;
+			AnnounceCoordinator tNewAnnouncement = (AnnounceCoordinator)pNewPacket;
+			
+			// a tracked announcement is never dropped
+			if(tQueuedAnnouncement.isPacketTracking()){
+				return false;
+			}
+			
+			return (isSameOrigin(tQueuedAnnouncement, tNewAnnouncement)) && (tNewAnnouncement.getPhysHopCount() <= tQueuedAnnouncement.getPhysHopCount());
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Checks if two hierarchy updates describe the same coordinator
+	 * 
+	 * @param pPacket1 the first hierarchy update
+	 * @param pPacket2 the second hierarchy update
+	 * 
+	 * @return true or false
+	 */
+	private boolean isSameOrigin(SignalingMessageHierarchyUpdate pPacket1, SignalingMessageHierarchyUpdate pPacket2)
+	{
+		ClusterName tEntity1 = pPacket1.getSenderEntityName();
+		ClusterName tEntity2 = pPacket2.getSenderEntityName();
+		
+		if((tEntity1 == null) || (tEntity2 == null) || (!tEntity1.equals(tEntity2))){
+			return false;
+		}
+		
+		if(tEntity1.getCoordinatorID() != tEntity2.getCoordinatorID()){
+			return false;
+		}
+		
+		return (pPacket1.getSenderEntityNodeL2Address() != null) && (pPacket1.getSenderEntityNodeL2Address().equals(pPacket2.getSenderEntityNodeL2Address()));
+	}
+	
+	/**
+	 * Creates an AnnouncementBundle packet
+	 * 
+	 * @param pMessages the announcements
+	 * 
+	 * @return the bundle packet
+	 */
+	@Override
+	protected SignalingMessageHrm createBundle(LinkedList<SignalingMessageHrm> pMessages)
+	{
+		return new AnnouncementBundle(mHRMController.getNodeL2Address(), mParentComSession.getPeerL2Address(), pMessages);
+	}
+	
+	/**
+	 * Returns the aggregation window for announcements
+	 * 
+	 * @return the time period in [s]
+	 */
+	@Override
+	protected double getAggregationWindow()
+	{
+		return HRMConfig.Hierarchy.ANNOUNCEMENTS_AGGREGATION_WINDOW;
+	}
+	
+	/**
+	 * Returns if debug output about suppressed and bundled messages should be shown
+	 * 
+	 * @return true or false
+	 */
+	@Override
+	protected boolean isDebugOutputEnabled()
+	{
+		return HRMConfig.DebugOutput.SHOW_DEBUG_COORDINATOR_ANNOUNCEMENT_PACKETS;
+	}
+	
+	/**
+	 * EVENT: announcements were sent within a bundle
+	 * 
+	 * @param pNumberMessages the number of bundled messages
+	 */
+	@Override
+	protected void eventMessagesBundled(int pNumberMessages)
+	{
+		mHRMController.getMetrics().accountBundledAnnouncements(pNumberMessages);
+	}
+	
+	/**
+	 * EVENT: a queued announcement was dropped
+	 */
+	@Override
+	protected void eventMessageSuppressed()
+	{
+		mHRMController.getMetrics().accountSuppressedAnnouncement();
+	}
+}
@@ -78,21 +78,6 @@ public class ClusterMember extends ControlEntity
 	 * Stores for an L0 cluster if the network should be split towards the peers
 	 */
 	private boolean mEnforceL0AsSplit = false;
-			
-	/**
-	 * only for simple L0 ClusterMember: stores the time when the last full routing table was reported to the superior L0 coordinator
-	 */
-	private double mL0TimeLastCompleteReportedRoutingTable = 0;
-	
-	/**
-	 * only for simple L0 ClusterMember: stores always the last reported routing table, which was sent towards the superior L0 coordinator
-	 */
-	private RoutingTable mL0LastSentReportedRoutingTable = new RoutingTable();
-
-	/**
-	 * only for simple L0 ClusterMember: stores if the last reported routing table was sent during an unstable hierarchy
-	 */
-	private boolean mL0LastReportedRoutingTableWasDuringUnstableHierarchy = true;
 
 	/**
 	 * Constructor
@@ -1211,78 +1196,12 @@ public void reportPhaseL0ClusterMember()
 										}
 										
 										/**
-										 * Set the timeout for each entry depending on the state of the known HRM hierarchy
-										 */
-										boolean tReportOnlyADiff = false;
-										
-										if(mHRMController.hasLongTermStableHierarchy()){
-											/**
-											 * should we report only a diff.? 
-											 */
-											if((HRMConfig.RoutingData.REPORT_ROUTE_RATE_REDUCTION_FOR_STABLE_HIERARCHY) && (mL0TimeLastCompleteReportedRoutingTable > 0) && (mHRMController.getSimulationTime() < mL0TimeLastCompleteReportedRoutingTable + HRMConfig.RoutingData.LIFE_TIME_STABLE_HIERARCHY) && (!mL0LastReportedRoutingTableWasDuringUnstableHierarchy)){
-												/**
-												 * we actually provide only a diff to the last diff/complete reported routing table
-												 */
-												tReportOnlyADiff = true;
-												
-												RoutingTable tDiffReportRoutingTable = new RoutingTable();
-												for(RoutingEntry tNewEntry : tReportRoutingTable){
-													boolean tEntryHasChanges = true;
-													for(RoutingEntry tOldEntry : mL0LastSentReportedRoutingTable){
-														/**
-														 * is the new entry rather an old one?
-														 */
-														if ((tOldEntry.equals(tNewEntry)) && (tOldEntry.equalsQoS(tNewEntry))){
-															tEntryHasChanges = false;
-															break;
-														}
-													}
-													
-													/**
-													 * add the entry with changes to the "diff" table
-													 */
-													if(tEntryHasChanges){
-														tDiffReportRoutingTable.add(tNewEntry);
-													}
-												}
-												
-												// store the complete routing table as last report but send only the diff
-												mL0LastSentReportedRoutingTable = (RoutingTable) tReportRoutingTable.clone();
-												// the "diff" table
-												tReportRoutingTable = tDiffReportRoutingTable;
-												tReportRoutingTable.markAsDiff();
-														
-												if (DEBUG){
-													Logging.log(this, "   ..reporting the DIFF TABLE via " + tChannelToHead + ":");
-													int j = 0;
-													for(RoutingEntry tEntry : tReportRoutingTable){
-														Logging.log(this, "     ..[" + j +"]: " + tEntry);
-														j++;
-													}
-												}
-											}
-											
-											mL0LastReportedRoutingTableWasDuringUnstableHierarchy = false;
-										}else{
-											mL0LastReportedRoutingTableWasDuringUnstableHierarchy = true;
-										}
-										
-										/**
-										 * Remember the time of the last reported complete routing table -> report every x seconds a complete table
-										 */
-										if(!tReportOnlyADiff){
-											// report a complete routing table
-											mL0LastSentReportedRoutingTable = (RoutingTable) tReportRoutingTable.clone();
-											// store the time
-											mL0TimeLastCompleteReportedRoutingTable = mHRMController.getSimulationTime();
-										}
-										
-										/**
-										 * SEND REPORT
+										 * SEND REPORT: a complete routing table (checkpoint) or only a diff to the last reported routing table
 										 */
-										if((tChannelToHead != null) && (tReportRoutingTable.size() > 0)){
+										RoutingTable tReportRoutingTableUpdate = (tChannelToHead != null ? tChannelToHead.createRouteReportUpdate(tReportRoutingTable) : null);
+										if(tReportRoutingTableUpdate != null){
 											// create new RouteReport packet for the superior coordinator, constructor also sets the timeout for each routing table entry
-											RouteReport tRouteReportPacket = new RouteReport(tLocalHRMID, tClusterHeadHRMID, mHRMController, tReportRoutingTable);
+											RouteReport tRouteReportPacket = new RouteReport(tLocalHRMID, tClusterHeadHRMID, mHRMController, tReportRoutingTableUpdate);
 											// send the packet to the superior coordinator
 											tChannelToHead.sendPacket(tRouteReportPacket);
 										}
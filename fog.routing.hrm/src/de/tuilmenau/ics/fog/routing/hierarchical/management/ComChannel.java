@@ -26,6 +26,7 @@
 import de.tuilmenau.ics.fog.packets.hierarchical.topology.InvalidCoordinator;
 import de.tuilmenau.ics.fog.packets.hierarchical.topology.SignalingMessageHierarchyUpdate;
 import de.tuilmenau.ics.fog.packets.hierarchical.routingdata.AnnounceHRMIDs;
+import de.tuilmenau.ics.fog.packets.hierarchical.routingdata.RequestRoutingTable;
 import de.tuilmenau.ics.fog.packets.hierarchical.routingdata.RouteReport;
 import de.tuilmenau.ics.fog.packets.hierarchical.routingdata.RouteShare;
 import de.tuilmenau.ics.fog.routing.Route;
@@ -299,19 +300,14 @@
 	private RoutingTable mLastReceivedSharedRoutingTable = new RoutingTable();
 
 	/**
-	 * Stores the last sent shared routing table, which was shared with inferior coordinator/cluster member
+	 * Stores the state of the reported routing tables (checkpoints and diffs), which are sent to/received from the peer
 	 */
-	private RoutingTable mLastSentSharedRoutingTable = new RoutingTable();
-	
-	/**
-	 * Stores the time when the last full routing table was shared with the inferior control entity
-	 */
-	private double mTimeLastCompleteSharedRoutingTable = 0;
+	private RoutingTableStream mRouteReportStream = new RoutingTableStream();
 
 	/**
-	 * Stores if the last shared routing table was sent during an unstable hierarchy
+	 * Stores the state of the shared routing tables (checkpoints and diffs), which are sent to/received from the peer
 	 */
-	private boolean mLastSharedRoutingTableWasDuringUnstableHierarchy = true;
+	private RoutingTableStream mRouteShareStream = new RoutingTableStream();
 
 	/**
 	 * Stores the last Election priority which was signaled to the peer
@@ -967,11 +963,22 @@ private void eventReceivedRouteReport(RouteReport pRouteReportPacket)
 		synchronized (mLastReceivedReportedRoutingTable) {
 			/**
 			 * have we received a full update? -> check for deprecated entries
+			 * have we received a diff? -> use the removed entries as deprecated entries
 			 */
 			tNewReceivedReportedRoutingTable = pRouteReportPacket.getRoutes();
 			if(!tNewReceivedReportedRoutingTable.isOnlyDiff()){
 				tDeprecatedReportedRoutingTable = (RoutingTable) mLastReceivedReportedRoutingTable.clone();
 				tDeprecatedReportedRoutingTable.delEntries(tNewReceivedReportedRoutingTable);
+			}else{
+				tDeprecatedReportedRoutingTable = tNewReceivedReportedRoutingTable.getRemovedEntries();
+			}
+			
+			/**
+			 * have we lost updates? -> request a complete routing table, the received diff is applied nevertheless
+			 */
+			if(mRouteReportStream.eventReceivedUpdate(tNewReceivedReportedRoutingTable)){
+				Logging.warn(this, "Detected lost reported routing data, requesting a complete routing table from: " + getPeerHRMID());
+				requestRoutingTable(false);
 			}
 				
 			/**
@@ -1040,6 +1047,16 @@ private void eventReceivedRouteShare(RouteShare pRouteSharePacket)
 			if(!tNewReceivedSharedRoutingTable.isOnlyDiff()){
 				tDeprecatedSharedRoutingTable = (RoutingTable) mLastReceivedSharedRoutingTable.clone();
 				tDeprecatedSharedRoutingTable.delEntries(tNewReceivedSharedRoutingTable);
+			}else{
+				tDeprecatedSharedRoutingTable = tNewReceivedSharedRoutingTable.getRemovedEntries();
+			}
+			
+			/**
+			 * have we lost updates? -> request a complete routing table, the received diff is applied nevertheless
+			 */
+			if(mRouteShareStream.eventReceivedUpdate(tNewReceivedSharedRoutingTable)){
+				Logging.warn(this, "Detected lost shared routing data, requesting a complete routing table from: " + getPeerHRMID());
+				requestRoutingTable(true);
 			}
 			
 			/**
@@ -1475,7 +1492,13 @@ public boolean sendPacket(SignalingMessageHrm pPacket, boolean pTrackPacket)
 					}					
 				}
 				
-				// send the final packet (including multiplex-header)
+				// send the final packet (including multiplex-header), election messages and announcements might be bundled with other ones towards the same peer
+				if((pPacket instanceof SignalingMessageElection) && (!pTrackPacket)){
+					return getParentComSession().writeElectionMessage((SignalingMessageElection)pPacket);
+				}
+				if((AnnouncementAggregator.isAnnouncement(pPacket)) && (!pTrackPacket) && (!pPacket.isPacketTracking())){
+					return getParentComSession().writeAnnouncement(pPacket);
+				}
 				return getParentComSession().write(pPacket, pTrackPacket);
 			}else{
 				Logging.warn(this, "Destination is still undefined, skipping packet payload " + pPacket);
@@ -2092,6 +2115,27 @@ private synchronized boolean handlePacket(SignalingMessageHrm pPacket)
 			return true;
 		}
 		
+		/**
+		 * RequestRoutingTable:
+		 * 			ClusterMember ==> Cluster (head) for the share phase
+		 * 			Cluster (head) ==> ClusterMember for the report phase
+		 */
+		if (pPacket instanceof RequestRoutingTable){
+			RequestRoutingTable tRequestRoutingTablePacket = (RequestRoutingTable)pPacket;
+			
+			if (HRMConfig.DebugOutput.SHOW_RECEIVED_CHANNEL_PACKETS)
+				Logging.log(this, "REQUEST_ROUTING_TABLE-received from \"" + getPeerHRMID() + "\": " + tRequestRoutingTablePacket);
+			
+			// the next report/share phase sends a complete routing table
+			if(tRequestRoutingTablePacket.isForRouteShare()){
+				mRouteShareStream.requestCheckpoint();
+			}else{
+				mRouteReportStream.requestCheckpoint();
+			}
+			
+			return true;
+		}
+		
 		/**
 		 * PingPeer:
 		 * 			CoordinatorAsClusterMember ==> Cluster (head)
@@ -2365,8 +2409,8 @@ private synchronized boolean handlePacket(SignalingMessageHrm pPacket)
 	 */
 	public RoutingTable getLastSentSharedRoutingTable()
 	{
-		synchronized (mLastSentSharedRoutingTable) {
-			return (RoutingTable) mLastSentSharedRoutingTable.clone();
+		synchronized (mRouteShareStream) {
+			return (RoutingTable) mRouteShareStream.getLastSentRoutingTable().clone();
 		}	
 	}
 	
@@ -2396,13 +2440,10 @@ public void distributeRouteShare(RoutingTable pRoutingTable)
 			return;
 		}
 		
-		/**
-		 * Set the timeout for each entry depending on the state of the known HRM hierarchy
-		 */
-		boolean tShareOnlyADiff = false;
+		RoutingTable tLastSentSharedRoutingTable = mRouteShareStream.getLastSentRoutingTable();
 		
 		if(DEBUG){
-			Logging.log(this, "   ..got " + pRoutingTable.size() + " routes to share with " + getPeerL2Address() + ": (stored last shared routing table with " + mLastSentSharedRoutingTable.size() + " entries)");
+			Logging.log(this, "   ..got " + pRoutingTable.size() + " routes to share with " + getPeerL2Address() + ": (stored last shared routing table with " + tLastSentSharedRoutingTable.size() + " entries)");
 			int j = 0;
 			for(RoutingEntry tEntry : pRoutingTable){
 				Logging.log(this, "     ..[" + j +"] (TO: " + pRoutingTable.getValidityDuration() + "): " + tEntry);
@@ -2414,7 +2455,7 @@ public void distributeRouteShare(RoutingTable pRoutingTable)
 		 * count the number of constant shared routing tables
 		 */
 		if(HRMConfig.Measurement.MEASURING_WITH_STATIC_QOS_ATTRIBUTES){
-			if(mLastSentSharedRoutingTable.equals(pRoutingTable)){
+			if(tLastSentSharedRoutingTable.equals(pRoutingTable)){
 				mConstantSharePhases++;
 				if(DEBUG){
 					Logging.warn(this, "Constant shared routing tabel with " + pRoutingTable.size() + " entries");
@@ -2426,84 +2467,23 @@ public void distributeRouteShare(RoutingTable pRoutingTable)
 			mConstantSharePhases = 0;
 		}
 		
-		if(mHRMController.hasLongTermStableHierarchy()){
-			/**
-			 * should we report only a diff.? 
-			 */
-			if((HRMConfig.RoutingData.SHARE_ROUTE_RATE_REDUCTION_FOR_STABLE_HIERARCHY) && (mTimeLastCompleteSharedRoutingTable > 0) && (mHRMController.getSimulationTime() < mTimeLastCompleteSharedRoutingTable + HRMConfig.RoutingData.LIFE_TIME_STABLE_HIERARCHY) && (!mLastSharedRoutingTableWasDuringUnstableHierarchy)){
-				/**
-				 * we actually provide only a diff to the last diff/complete reported routing table
-				 */
-				tShareOnlyADiff = true;
-				
-				RoutingTable tDiffReportRoutingTable = new RoutingTable();
-				for(RoutingEntry tNewEntry : pRoutingTable){
-					boolean tEntryHasChanges = true;
-					for(RoutingEntry tOldEntry : mLastSentSharedRoutingTable){
-						/**
-						 * is the new entry rather an old one?
-						 */
-						if ((tOldEntry.equals(tNewEntry)) && (tOldEntry.equalsQoS(tNewEntry))){
-							tEntryHasChanges = false;
-							break;
-						}
-					}
-					
-					/**
-					 * add the entry with changes to the "diff" table
-					 */
-					if(tEntryHasChanges){
-						tDiffReportRoutingTable.add(tNewEntry);
-					}
-				}
-				
-				// store the complete routing table as last report but send only the diff
-				mLastSentSharedRoutingTable = (RoutingTable) pRoutingTable.clone();
-				// the "diff" table
-				pRoutingTable = tDiffReportRoutingTable;
-				pRoutingTable.markAsDiff();
-						
-				if (DEBUG){
-					if(pRoutingTable.size() > 0)
-					{
-						Logging.err(this, "   ..sharing the DIFF TABLE with " + getPeerL2Address() + ":");
-						int j = 0;
-						for(RoutingEntry tEntry : pRoutingTable){
-							Logging.err(this, "     ..[" + j +"] (TO: " + pRoutingTable.getValidityDuration() + "): " + tEntry);
-							j++;
-						}
-					}
-				}
-			}
-			
-			mLastSharedRoutingTableWasDuringUnstableHierarchy = false;
-		}else{
-			mLastSharedRoutingTableWasDuringUnstableHierarchy = true;
-		}
-		
 		/**
-		 * Remember the time of the last reported complete routing table -> report every x seconds a complete table
+		 * Create the next update: a complete routing table (checkpoint) or only a diff to the last shared routing table
 		 */
-		if(!tShareOnlyADiff){
-			// report a complete routing table
-			mLastSentSharedRoutingTable = (RoutingTable) pRoutingTable.clone();
-			// store the time
-			mTimeLastCompleteSharedRoutingTable = mHRMController.getSimulationTime();
-			
+		RoutingTable tSharedRoutingTable = mRouteShareStream.createUpdate(pRoutingTable, mHRMController.hasLongTermStableHierarchy(), HRMConfig.RoutingData.SHARE_ROUTE_RATE_REDUCTION_FOR_STABLE_HIERARCHY, mHRMController.getSimulationTime());
+		
+		if(tSharedRoutingTable != null){
 			if (DEBUG){
-				Logging.log(this, "   ..sharing the COMPLETE TABLE with " + getPeerL2Address() + ":");
+				Logging.log(this, "   ..sharing the " + (tSharedRoutingTable.isOnlyDiff() ? "DIFF" : "COMPLETE") + " TABLE [" + tSharedRoutingTable.getSequenceNumber() + "] with " + getPeerL2Address() + ":");
 				int j = 0;
-				for(RoutingEntry tEntry : pRoutingTable){
-					Logging.log(this, "     ..[" + j +"] (TO: " + pRoutingTable.getValidityDuration() + "): " + tEntry);
+				for(RoutingEntry tEntry : tSharedRoutingTable){
+					Logging.log(this, "     ..[" + j +"] (TO: " + tSharedRoutingTable.getValidityDuration() + "): " + tEntry);
 					j++;
 				}
 			}
-		}
 
-		
-		if(pRoutingTable.size() > 0){
 			// create new RouteShare packet for the cluster member
-			RouteShare tRouteSharePacket = new RouteShare(mHRMController.getNodeL2Address(), getPeerHRMID(), mHRMController, pRoutingTable);
+			RouteShare tRouteSharePacket = new RouteShare(mHRMController.getNodeL2Address(), getPeerHRMID(), mHRMController, tSharedRoutingTable);
 			
 			// send the packet
 			sendPacket(tRouteSharePacket);
@@ -2514,6 +2494,38 @@ public void distributeRouteShare(RoutingTable pRoutingTable)
 		}
 	}
 
+	/**
+	 * Creates the next update of the reported routing table for the peer: a complete routing table (checkpoint) or only a diff to the last reported routing table 
+	 * 
+	 * @param pRoutingTable the complete routing table which should be reported
+	 * 
+	 * @return the routing table which should be reported, null if nothing has to be reported
+	 */
+	public RoutingTable createRouteReportUpdate(RoutingTable pRoutingTable)
+	{
+		return mRouteReportStream.createUpdate(pRoutingTable, mHRMController.hasLongTermStableHierarchy(), HRMConfig.RoutingData.REPORT_ROUTE_RATE_REDUCTION_FOR_STABLE_HIERARCHY, mHRMController.getSimulationTime());
+	}
+	
+	/**
+	 * Resets the reported routing tables, the next report will include the complete routing table 
+	 */
+	public void resetRouteReports()
+	{
+		mRouteReportStream.reset();
+	}
+	
+	/**
+	 * SEND: RequestRoutingTable to the peer, which has to send a complete routing table within the next report/share phase
+	 * 
+	 * @param pForRouteShare true if a complete shared routing table is requested, false if a complete reported routing table is requested
+	 */
+	private void requestRoutingTable(boolean pForRouteShare)
+	{
+		RequestRoutingTable tRequestRoutingTablePacket = new RequestRoutingTable(mHRMController.getNodeL2Address(), getPeerHRMID(), pForRouteShare);
+		
+		sendPacket(tRequestRoutingTablePacket);
+	}
+	
 	public void distributeAnnounceHRMIDs(LinkedList<HRMID> pLocalL0HRMIDs)
 	{
 		if(!mLastSentLocalHRMIDs.equals(pLocalL0HRMIDs)){
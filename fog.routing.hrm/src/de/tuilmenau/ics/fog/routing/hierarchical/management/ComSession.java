@@ -21,7 +21,10 @@
 import de.tuilmenau.ics.fog.packets.hierarchical.clustering.InformClusterLeft;
 import de.tuilmenau.ics.fog.packets.hierarchical.clustering.RequestClusterMembership;
 import de.tuilmenau.ics.fog.packets.hierarchical.clustering.RequestClusterMembershipAck;
+import de.tuilmenau.ics.fog.packets.hierarchical.election.ElectionBundle;
+import de.tuilmenau.ics.fog.packets.hierarchical.election.SignalingMessageElection;
 import de.tuilmenau.ics.fog.packets.hierarchical.topology.AnnounceNeighborNode;
+import de.tuilmenau.ics.fog.packets.hierarchical.topology.AnnouncementBundle;
 import de.tuilmenau.ics.fog.packets.hierarchical.PingPeer;
 import de.tuilmenau.ics.fog.packets.hierarchical.SignalingMessageHrm;
 import de.tuilmenau.ics.fog.routing.Route;
@@ -29,6 +32,7 @@
 import de.tuilmenau.ics.fog.routing.RouteSegmentAddress;
 import de.tuilmenau.ics.fog.routing.hierarchical.HRMConfig;
 import de.tuilmenau.ics.fog.routing.hierarchical.HRMController;
+import de.tuilmenau.ics.fog.routing.hierarchical.election.ElectionMessageAggregator;
 import de.tuilmenau.ics.fog.routing.naming.hierarchical.L2Address;
 import de.tuilmenau.ics.fog.topology.NetworkInterface;
 import de.tuilmenau.ics.fog.transfer.forwardingNodes.ConnectionEndPoint;
@@ -55,6 +59,13 @@ public class ComSession extends Session
 	 */
 	private LinkedList<L2Address> mPeerDescriptions = new LinkedList<L2Address>();
 	
+	/**
+	 * Stores the former peer L2Addresses of peer changes, which weren't reported to the HRMController yet.
+	 * The HRMController is informed after the monitor of this session was released, because it locks its
+	 * list of sessions, and it calls synchronized methods of sessions while holding this lock.
+	 */
+	private LinkedList<L2Address> mUnreportedPeerChanges = new LinkedList<L2Address>();
+	
 	/**
 	 * Stores a reference to the HRMController application.
 	 */
@@ -120,6 +131,22 @@ public class ComSession extends Session
 	 */
 	private double mTimeoutStart = 0;
 
+	/**
+	 * Stores the election messages of the comm. channels until they are sent within one packet
+	 */
+	private ElectionMessageAggregator mElectionMessageAggregator = null;
+	
+	/**
+	 * Stores the announcements of the comm. channels until they are sent within one packet
+	 */
+	private AnnouncementAggregator mAnnouncementAggregator = null;
+	
+	/**
+	 * Lock for writing packets: it is held while a packet is written and while queued messages are flushed.
+	 * Thus, a packet cannot overtake the queued messages, which were taken from an aggregator but not sent yet.
+	 */
+	private Object mWriteLock = new Object();
+	
 	/**
 	 * Constructor
 	 *  
@@ -140,6 +167,9 @@ public ComSession(HRMController pHRMController, String pCreationCause)
 		// store a reference to the HRMController application
 		mHRMController = pHRMController;
 		
+		mElectionMessageAggregator = new ElectionMessageAggregator(mHRMController, this);
+		mAnnouncementAggregator = new AnnouncementAggregator(mHRMController, this);
+		
 		// register at the HRMController
 	    mHRMController.registerSession(this);
 			
@@ -374,6 +404,37 @@ public long getGUISessionID()
 	 * @return true if success, otherwise false
 	 */
 	public boolean write(Serializable pData, boolean pTrackPacket)
+	{
+		if(mLocalLoopback){
+			// the packet is processed directly under the monitor of this session, nothing is queued for a loopback
+			return writeLocked(pData, pTrackPacket);
+		}
+		
+		synchronized (mWriteLock) {
+			return writeLocked(pData, pTrackPacket);
+		}
+	}
+	
+	/**
+	 * Returns the lock for writing packets to this session. Messages, which are sent in order, have to be taken
+	 * from a queue and written while holding this lock.
+	 * 
+	 * @return the write lock
+	 */
+	public Object getWriteLock()
+	{
+		return mWriteLock;
+	}
+	
+	/**
+	 * Implements write() while holding the write lock
+	 * 
+	 * @param pData is the data that should be sent
+	 * @param pTrackPacket packet tracking active?
+	 * 
+	 * @return true if success, otherwise false
+	 */
+	private boolean writeLocked(Serializable pData, boolean pTrackPacket)
 	{
 		boolean tResult = false;
 		ConnectionEndPoint tConnectionEndPoint = null;
@@ -384,6 +445,13 @@ public boolean write(Serializable pData, boolean pTrackPacket)
 		}
 		
 		if(!HRMController.isGlobalExit()){
+			/**
+			 * send queued election messages first in order to keep the packet order
+			 */
+			if(!(pData instanceof SignalingMessageElection) && !(pData instanceof ElectionBundle)){
+				mElectionMessageAggregator.flush();
+			}
+			
 			/**
 			 * packet tracking
 			 */
@@ -506,6 +574,45 @@ public boolean write(Serializable pData)
 		return write(pData, false);
 	}
 
+	/**
+	 * Sends an election message of a comm. channel to the peer.
+	 * The message is queued and sent together with other election messages towards the peer if HRMConfig.Election.AGGREGATE_MESSAGES is set.
+	 * 
+	 * @param pPacket the election message, the multiplex header has to be already set
+	 * 
+	 * @return true if success, otherwise false
+	 */
+	public boolean writeElectionMessage(SignalingMessageElection pPacket)
+	{
+		if((!HRMConfig.Election.AGGREGATE_MESSAGES) || (mLocalLoopback)){
+			return write(pPacket);
+		}
+		
+		mElectionMessageAggregator.queue(pPacket);
+		
+		return true;
+	}
+	
+	/**
+	 * Sends an announcement (AnnounceCoordinator, InvalidCoordinator, AnnounceHRMIDs, RevokeHRMIDs) of a comm. channel to the peer.
+	 * The announcement is queued and sent together with other announcements towards the peer if HRMConfig.Hierarchy.AGGREGATE_ANNOUNCEMENTS is set.
+	 * Other packets don't flush the queued announcements because announcements are soft state, which is refreshed periodically. 
+	 * 
+	 * @param pPacket the announcement, the multiplex header has to be already set
+	 * 
+	 * @return true if success, otherwise false
+	 */
+	public boolean writeAnnouncement(SignalingMessageHrm pPacket)
+	{
+		if((!HRMConfig.Hierarchy.AGGREGATE_ANNOUNCEMENTS) || (mLocalLoopback)){
+			return write(pPacket);
+		}
+		
+		mAnnouncementAggregator.queue(pPacket);
+		
+		return true;
+	}
+	
 	/**
 	 * Determines the route to the peer (its central FN)
 	 *  
@@ -573,15 +680,42 @@ private void setPeerL2Address(L2Address pPeerL2Address)
 				}
 			}
 		}
+		L2Address tFormerPeerL2Address = mPeerL2Address;
 		mPeerL2Address = pPeerL2Address;
 		
-		/**
-		 * The following is FoGSiEm specific for an easy detection of the network interface of each L0 cluster
-		 */
-		LinkedList<ClusterMember> tMembers = mHRMController.getAllClusterMembers(0);
-		for(ClusterMember tMember : tMembers){
-			if(!(tMember instanceof Cluster)){
-				tMember.detectNetworkInterface();
+		// the HRMController is informed by reportPeerChanges()
+		synchronized (mUnreportedPeerChanges) {
+			mUnreportedPeerChanges.add(tFormerPeerL2Address);
+		}
+	}
+	
+	/**
+	 * Informs the HRMController about peer changes. The caller must not hold the monitor of this session.
+	 */
+	private void reportPeerChanges()
+	{
+		LinkedList<L2Address> tFormerPeerL2Addresses = null;
+		synchronized (mUnreportedPeerChanges) {
+			if(!mUnreportedPeerChanges.isEmpty()){
+				tFormerPeerL2Addresses = new LinkedList<L2Address>(mUnreportedPeerChanges);
+				mUnreportedPeerChanges.clear();
+			}
+		}
+		
+		if(tFormerPeerL2Addresses != null){
+			// update the session index of the HRMController
+			for(L2Address tFormerPeerL2Address : tFormerPeerL2Addresses){
+				mHRMController.eventSessionPeerChanged(this, tFormerPeerL2Address);
+			}
+			
+			/**
+			 * The following is FoGSiEm specific for an easy detection of the network interface of each L0 cluster
+			 */
+			LinkedList<ClusterMember> tMembers = mHRMController.getAllClusterMembers(0);
+			for(ClusterMember tMember : tMembers){
+				if(!(tMember instanceof Cluster)){
+					tMember.detectNetworkInterface();
+				}
 			}
 		}
 	}
@@ -1225,7 +1359,22 @@ public void fixStuckedPackets()
 	 * @param pData the packet payload
 	 */	
 	@Override
-	public synchronized boolean receiveData(Object pData)
+	public boolean receiveData(Object pData)
+	{
+		boolean tResult = processData(pData);
+		
+		// a received AnnounceNeighborNode might have changed the peer
+		reportPeerChanges();
+		
+		return tResult;
+	}
+	
+	/**
+	 * Processes incoming packet data and forward it to the right ComChannel
+	 * 
+	 * @param pData the packet payload
+	 */	
+	private synchronized boolean processData(Object pData)
 	{
 		if(pData == null){
 			Logging.err(this, "Received invalid data");
@@ -1280,6 +1429,42 @@ public synchronized boolean receiveData(Object pData)
 			return true;
 		}
 
+		/**
+		 * ElectionBundle:
+		 * 			ComSession ==> ComSession
+		 */
+		if(pData instanceof ElectionBundle) {
+			ElectionBundle tElectionBundle = (ElectionBundle)pData;
+			
+			if (HRMConfig.DebugOutput.GUI_SHOW_MULTIPLEX_PACKETS){
+				Logging.log(this, "ELECTION_BUNDLE received: " + tElectionBundle);
+			}
+			
+			for(SignalingMessageElection tElectionPacket : tElectionBundle.getMessages()){
+				processData(tElectionPacket);
+			}
+			
+			return true;
+		}
+
+		/**
+		 * AnnouncementBundle:
+		 * 			ComSession ==> ComSession
+		 */
+		if(pData instanceof AnnouncementBundle) {
+			AnnouncementBundle tAnnouncementBundle = (AnnouncementBundle)pData;
+			
+			if (HRMConfig.DebugOutput.GUI_SHOW_MULTIPLEX_PACKETS){
+				Logging.log(this, "ANNOUNCEMENT_BUNDLE received: " + tAnnouncementBundle);
+			}
+			
+			for(SignalingMessageHrm tAnnouncementPacket : tAnnouncementBundle.getMessages()){
+				processData(tAnnouncementPacket);
+			}
+			
+			return true;
+		}
+		
 		/**
 		 * MultiplexHeader:
 		 * 			ComChannel ==> ComChannel 
@@ -1328,7 +1513,20 @@ public synchronized boolean receiveData(Object pData)
 	 * @param pTargetL2Address the L2Address of the target, which should be used as routing target
 	 * @param pConnection the superior connection
 	 */
-	public synchronized void startConnection(L2Address pTargetL2Address, Connection pConnection, boolean pIsConnectionOriginator)
+	public void startConnection(L2Address pTargetL2Address, Connection pConnection, boolean pIsConnectionOriginator)
+	{
+		initConnection(pTargetL2Address, pConnection, pIsConnectionOriginator);
+		
+		reportPeerChanges();
+	}
+	
+	/**
+	 * Implements startConnection() while holding the monitor of this session
+	 * 
+	 * @param pTargetL2Address the L2Address of the target, which should be used as routing target
+	 * @param pConnection the superior connection
+	 */
+	private synchronized void initConnection(L2Address pTargetL2Address, Connection pConnection, boolean pIsConnectionOriginator)
 	{
 		Logging.log(this, "\n\n###### STARTING connection for target: " + pTargetL2Address);
 		
@@ -0,0 +1,227 @@
+/*******************************************************************************
+ * Forwarding on Gates Simulator/Emulator - Hierarchical Routing Management
+ * Copyright (c) 2015, Integrated Communication Systems Group, TU Ilmenau.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html.
+ ******************************************************************************/
+package de.tuilmenau.ics.fog.routing.hierarchical.management;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * This class stores the registered control entities (e.g., coordinators, clusters) of an HRMController.
+ * The entities are indexed by their hierarchy level and their cluster ID.
+ * Changes replace the entire index (copy-on-write). Because control entities are registered rarely but searched very often,
+ * read accesses don't need any lock and lookups for a hierarchy level or a cluster ID don't have to iterate over all entities.
+ * Write accesses are synchronized on the registry object. Hence, a "synchronized" block on the registry still blocks registrations.
+ */
+public class ControlEntityRegistry<T extends ControlEntity> implements Iterable<T>
+{
+	/**
+	 * Stores the current index, it is never modified but replaced by a new one
+	 */
+	private volatile Index<T> mIndex = new Index<T>(new ArrayList<T>());
+	
+	/**
+	 * Adds an entity to the registry
+	 * 
+	 * @param pEntity the new entity
+	 */
+	public synchronized void add(T pEntity)
+	{
+		ArrayList<T> tEntities = new ArrayList<T>(mIndex.mEntities);
+		tEntities.add(pEntity);
+		
+		mIndex = new Index<T>(tEntities);
+	}
+	
+	/**
+	 * Removes the first entity which is equal to the given object (same semantic like LinkedList::remove())
+	 * 
+	 * @param pObject the object which should be removed
+	 * 
+	 * @return true if an entity was removed, otherwise false
+	 */
+	public synchronized boolean remove(Object pObject)
+	{
+		ArrayList<T> tEntities = new ArrayList<T>(mIndex.mEntities);
+		int tPosition = indexOf(tEntities, pObject);
+		if(tPosition < 0){
+			return false;
+		}
+		tEntities.remove(tPosition);
+		
+		mIndex = new Index<T>(tEntities);
+		
+		return true;
+	}
+	
+	/**
+	 * Checks if an entity is equal to the given object (same semantic like LinkedList::contains())
+	 * 
+	 * @param pObject the object
+	 * 
+	 * @return true or false
+	 */
+	public boolean contains(Object pObject)
+	{
+		return (indexOf(mIndex.mEntities, pObject) >= 0);
+	}
+	
+	/**
+	 * Returns the number of registered entities
+	 * 
+	 * @return the number of entities
+	 */
+	public int size()
+	{
+		return mIndex.mEntities.size();
+	}
+	
+	/**
+	 * Returns a copy of the list of all registered entities
+	 * 
+	 * @return the list of entities
+	 */
+	public LinkedList<T> getAll()
+	{
+		return new LinkedList<T>(mIndex.mEntities);
+	}
+	
+	/**
+	 * Returns a copy of the list of all registered entities for a given hierarchy level
+	 * 
+	 * @param pHierarchyLevel the hierarchy level
+	 * 
+	 * @return the list of entities
+	 */
+	public LinkedList<T> getAll(int pHierarchyLevel)
+	{
+		List<T> tEntities = mIndex.mEntitiesPerLevel.get(pHierarchyLevel);
+		
+		if(tEntities == null){
+			return new LinkedList<T>();
+		}
+		
+		return new LinkedList<T>(tEntities);
+	}
+	
+	/**
+	 * Returns the first registered entity for a given hierarchy level
+	 * 
+	 * @param pHierarchyLevel the hierarchy level
+	 * 
+	 * @return the found entity or null
+	 */
+	public T getFirst(int pHierarchyLevel)
+	{
+		List<T> tEntities = mIndex.mEntitiesPerLevel.get(pHierarchyLevel);
+		
+		if(tEntities == null){
+			return null;
+		}
+		
+		return tEntities.get(0);
+	}
+	
+	/**
+	 * Returns all registered entities with a given cluster ID
+	 * 
+	 * @param pClusterID the cluster ID
+	 * 
+	 * @return the unmodifiable list of entities (in the order of their registration)
+	 */
+	public List<T> getAllByClusterID(Long pClusterID)
+	{
+		List<T> tEntities = mIndex.mEntitiesPerClusterID.get(pClusterID);
+		
+		if(tEntities == null){
+			return Collections.emptyList();
+		}
+		
+		return Collections.unmodifiableList(tEntities);
+	}
+	
+	/**
+	 * Returns an iterator for the registered entities. The iterator works on the entities which were registered when this function was called.
+	 * 
+	 * @return the iterator
+	 */
+	@Override
+	public Iterator<T> iterator()
+	{
+		return mIndex.mEntities.iterator();
+	}
+	
+	/**
+	 * Determines the position of the first entity which is equal to the given object
+	 * 
+	 * @param pEntities the list of entities
+	 * @param pObject the object
+	 * 
+	 * @return the position or -1
+	 */
+	private static int indexOf(List<? extends ControlEntity> pEntities, Object pObject)
+	{
+		int i = 0;
+		for(ControlEntity tEntity : pEntities){
+			if(pObject == null ? tEntity == null : pObject.equals(tEntity)){
+				return i;
+			}
+			i++;
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * Returns a descriptive string about this object
+	 * 
+	 * @return the descriptive string
+	 */
+	@Override
+	public String toString()
+	{
+		return mIndex.mEntities.toString();
+	}
+	
+	/**
+	 * The index for one set of registered entities
+	 */
+	private static class Index<T extends ControlEntity>
+	{
+		public Index(ArrayList<T> pEntities)
+		{
+			mEntities = Collections.unmodifiableList(pEntities);
+			
+			for(T tEntity : pEntities){
+				add(mEntitiesPerLevel, tEntity.getHierarchyLevel().getValue(), tEntity);
+				if(tEntity.getClusterID() != null){
+					add(mEntitiesPerClusterID, tEntity.getClusterID(), tEntity);
+				}
+			}
+		}
+		
+		private static <K, E> void add(HashMap<K, List<E>> pIndex, K pKey, E pEntity)
+		{
+			List<E> tEntities = pIndex.get(pKey);
+			if(tEntities == null){
+				tEntities = new ArrayList<E>();
+				pIndex.put(pKey, tEntities);
+			}
+			tEntities.add(pEntity);
+		}
+		
+		public final List<T> mEntities;
+		public final HashMap<Integer, List<T>> mEntitiesPerLevel = new HashMap<Integer, List<T>>();
+		public final HashMap<Long, List<T>> mEntitiesPerClusterID = new HashMap<Long, List<T>>();
+	}
+}
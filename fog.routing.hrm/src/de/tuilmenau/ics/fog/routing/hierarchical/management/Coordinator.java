@@ -67,6 +67,11 @@ public class Coordinator extends ControlEntity implements Localization, IEvent
 	 */
 	private boolean mUsingCOORDINATOR_ANNOUNCEMENTS_INTERVAL_STABLE_HIERARCHY = false;	
 	
+	/**
+	 * Stores the current time period for AnnounceCoordinator broadcasts, it backs off from COORDINATOR_ANNOUNCEMENTS_INTERVAL to COORDINATOR_ANNOUNCEMENTS_INTERVAL_LT_EXISTENCE during a stable hierarchy
+	 */
+	private double mAnnouncementInterval = HRMConfig.Hierarchy.COORDINATOR_ANNOUNCEMENTS_INTERVAL;
+	
 	/**
 	 * Stores how many invalidations were already sent
 	 */
@@ -77,21 +82,6 @@ public class Coordinator extends ControlEntity implements Localization, IEvent
 	 */
 	private RoutingTable mLastReceivedSharedRoutingTable = new RoutingTable();
 
-	/**
-	 * Stores always the last reported routing table, which was sent towards the superior coordinator
-	 */
-	private RoutingTable mLastSentReportedRoutingTable = new RoutingTable();
-	
-	/**
-	 * Stores the time when the last full routing table was reported to the superior coordinator
-	 */
-	private double mTimeLastCompleteReportedRoutingTable = 0;
-	
-	/**
-	 * Stores if the last reported routing table was sent during an unstable hierarchy
-	 */
-	private boolean mLastReportedRoutingTableWasDuringUnstableHierarchy = true;
-	
 	/**
 	 * Stores if the last AnnounceCoordinator was sent during an unstable hierarchy
 	 */
@@ -1066,81 +1056,16 @@ public void reportPhase()
 								}
 								
 								/**
-								 * Set the timeout for each entry depending on the state of the known HRM hierarchy
-								 */
-								boolean tReportOnlyADiff = false;
-								
-								if(mHRMController.hasLongTermStableHierarchy()){
-									/**
-									 * should we report only a diff.? 
-									 */
-									if((HRMConfig.RoutingData.REPORT_ROUTE_RATE_REDUCTION_FOR_STABLE_HIERARCHY) && (mTimeLastCompleteReportedRoutingTable > 0) && (mHRMController.getSimulationTime() < mTimeLastCompleteReportedRoutingTable + HRMConfig.RoutingData.LIFE_TIME_STABLE_HIERARCHY) && (!mLastReportedRoutingTableWasDuringUnstableHierarchy)){
-										/**
-										 * we actually provide only a diff to the last diff/complete reported routing table
-										 */
-										tReportOnlyADiff = true;
-										
-										RoutingTable tDiffReportRoutingTable = new RoutingTable();
-										for(RoutingEntry tNewEntry : tReportRoutingTable){
-											boolean tEntryHasChanges = true;
-											for(RoutingEntry tOldEntry : mLastSentReportedRoutingTable){
-												/**
-												 * is the new entry rather an old one?
-												 */
-												if ((tOldEntry.equals(tNewEntry)) && (tOldEntry.equalsQoS(tNewEntry))){
-													tEntryHasChanges = false;
-													break;
-												}
-											}
-											
-											/**
-											 * add the entry with changes to the "diff" table
-											 */
-											if(tEntryHasChanges){
-												tDiffReportRoutingTable.add(tNewEntry);
-											}
-										}
-										
-										// store the complete routing table as last report but send only the diff
-										mLastSentReportedRoutingTable = (RoutingTable) tReportRoutingTable.clone();
-										// the "diff" table
-										tReportRoutingTable = tDiffReportRoutingTable;
-										tReportRoutingTable.markAsDiff();
-												
-										if (DEBUG){
-											Logging.log(this, "   ..reporting the DIFF TABLE via " + superiorCoordinatorComChannel() + ":");
-											int j = 0;
-											for(RoutingEntry tEntry : tReportRoutingTable){
-												Logging.log(this, "     ..[" + j +"]: " + tEntry);
-												j++;
-											}
-										}
-									}
-									
-									mLastReportedRoutingTableWasDuringUnstableHierarchy = false;
-								}else{
-									mLastReportedRoutingTableWasDuringUnstableHierarchy = true;
-								}
-								
-								/**
-								 * Remember the time of the last reported complete routing table -> report every x seconds a complete table
+								 * SEND REPORT: a complete routing table (checkpoint) or only a diff to the last reported routing table
 								 */
-								if(!tReportOnlyADiff){
-									// report a complete routing table
-									mLastSentReportedRoutingTable = (RoutingTable) tReportRoutingTable.clone();
-									// store the time
-									mTimeLastCompleteReportedRoutingTable = mHRMController.getSimulationTime();
-								}
-								
-								/**
-								 * SEND REPORT
-								 */
-								if((superiorCoordinatorComChannel() != null) && (tReportRoutingTable.size() > 0)){
+								ComChannel tSuperiorCoordinatorComChannel = superiorCoordinatorComChannel();
+								RoutingTable tReportRoutingTableUpdate = (tSuperiorCoordinatorComChannel != null ? tSuperiorCoordinatorComChannel.createRouteReportUpdate(tReportRoutingTable) : null);
+								if(tReportRoutingTableUpdate != null){
 									if(DEBUG){
-										Logging.log(this, "..sending RouteReport with " + tReportRoutingTable.size() + " entries towards upper coordinator");
+										Logging.log(this, "..sending RouteReport with " + tReportRoutingTableUpdate.size() + " entries (" + (tReportRoutingTableUpdate.isOnlyDiff() ? "diff" : "complete") + ") towards upper coordinator");
 									}
 									// create new RouteReport packet for the superior coordinator, constructor also sets the timeout for each routing table entry
-									RouteReport tRouteReportPacket = new RouteReport(getHRMID(), superiorCoordinatorComChannel().getPeerHRMID(), mHRMController, tReportRoutingTable);
+									RouteReport tRouteReportPacket = new RouteReport(getHRMID(), tSuperiorCoordinatorComChannel.getPeerHRMID(), mHRMController, tReportRoutingTableUpdate);
 									// send the packet to the superior coordinator
 									sendSuperiorCoordinator(tRouteReportPacket);
 								}else{
@@ -1748,6 +1673,32 @@ public synchronized void fire()
 			 * COORDINATOR ANNOUNCEMENTS
 			 */
 			if(HRMConfig.Hierarchy.COORDINATOR_ANNOUNCEMENTS){
+				/**
+				 * determine the time period until the next AnnounceCoordinator broadcast, this is also used for the validity of the current announcement
+				 */
+				if((hasLongTermExistence()) && (!mLastCoordinatorAnnounceWasDuringUnstableHierarchy)){
+					if(!mUsingCOORDINATOR_ANNOUNCEMENTS_INTERVAL_STABLE_HIERARCHY){
+						mUsingCOORDINATOR_ANNOUNCEMENTS_INTERVAL_STABLE_HIERARCHY = true;
+						//Logging.warn(this, "Announcements - backing off towards COORDINATOR_ANNOUNCEMENTS_INTERVAL_LT_EXISTENCE");
+						
+						// reset the packet overhead measurement
+						HRMController.resetPacketOverheadCounting();
+					}
+					
+					// back off
+					if(HRMConfig.Hierarchy.COORDINATOR_ANNOUNCEMENTS_INTERVAL_BACKOFF_FACTOR > 1.0){
+						mAnnouncementInterval = Math.min(mAnnouncementInterval * HRMConfig.Hierarchy.COORDINATOR_ANNOUNCEMENTS_INTERVAL_BACKOFF_FACTOR, HRMConfig.Hierarchy.COORDINATOR_ANNOUNCEMENTS_INTERVAL_LT_EXISTENCE);
+					}else{
+						mAnnouncementInterval = HRMConfig.Hierarchy.COORDINATOR_ANNOUNCEMENTS_INTERVAL_LT_EXISTENCE;
+					}
+				}else{
+					if(mUsingCOORDINATOR_ANNOUNCEMENTS_INTERVAL_STABLE_HIERARCHY){
+						mUsingCOORDINATOR_ANNOUNCEMENTS_INTERVAL_STABLE_HIERARCHY = false;
+						//Logging.warn(this, "Announcements - switching back to COORDINATOR_ANNOUNCEMENTS_INTERVAL");
+					}
+					mAnnouncementInterval = HRMConfig.Hierarchy.COORDINATOR_ANNOUNCEMENTS_INTERVAL;
+				}
+				
 				if(HRMController.GUI_USER_CTRL_COORDINATOR_ANNOUNCEMENTS){
 					if(HRMConfig.DebugOutput.SHOW_DEBUG_COORDINATOR_ANNOUNCEMENT_PACKETS){
 						Logging.log(this, "###########################");
@@ -1765,25 +1716,18 @@ public synchronized void fire()
 				 * set the time for the next AnnounceCoordinator broadcast
 				 */
 				if(HRMConfig.Hierarchy.PERIODIC_COORDINATOR_ANNOUNCEMENTS){
-					if((hasLongTermExistence()) && (!mLastCoordinatorAnnounceWasDuringUnstableHierarchy)){
-						if(!mUsingCOORDINATOR_ANNOUNCEMENTS_INTERVAL_STABLE_HIERARCHY){
-							mUsingCOORDINATOR_ANNOUNCEMENTS_INTERVAL_STABLE_HIERARCHY = true;
-							//Logging.warn(this, "Announcements - switching to COORDINATOR_ANNOUNCEMENTS_INTERVAL_LT_EXISTENCE");
-	
-							// reset the packet overhead measurement
-							HRMController.resetPacketOverheadCounting();
-						}
-						
-						// register next trigger for 
-						mHRMController.getAS().getTimeBase().scheduleIn(HRMConfig.Hierarchy.COORDINATOR_ANNOUNCEMENTS_INTERVAL_LT_EXISTENCE, this);
-					}else{
-						if(mUsingCOORDINATOR_ANNOUNCEMENTS_INTERVAL_STABLE_HIERARCHY){
-							mUsingCOORDINATOR_ANNOUNCEMENTS_INTERVAL_STABLE_HIERARCHY = false;
-							//Logging.warn(this, "Announcements - switching back to COORDINATOR_ANNOUNCEMENTS_INTERVAL");
-						}
-						// register next trigger for 
-						mHRMController.getAS().getTimeBase().scheduleIn(HRMConfig.Hierarchy.COORDINATOR_ANNOUNCEMENTS_INTERVAL, this);
+					double tNow = mHRMController.getSimulationTime();
+					double tNextAnnouncement = tNow + mAnnouncementInterval;
+					
+					/**
+					 * align the next broadcast to the time grid of the announcement aggregation -> the coordinators of all hierarchy levels of this node announce within the same aggregation window
+					 */
+					if(HRMConfig.Hierarchy.AGGREGATE_ANNOUNCEMENTS){
+						tNextAnnouncement = Math.ceil(tNextAnnouncement / HRMConfig.Hierarchy.ANNOUNCEMENTS_AGGREGATION_WINDOW) * HRMConfig.Hierarchy.ANNOUNCEMENTS_AGGREGATION_WINDOW;
 					}
+					
+					// register next trigger
+					mHRMController.getAS().getTimeBase().scheduleIn(tNextAnnouncement - tNow, this);
 				}
 
 				/**
@@ -1802,6 +1746,16 @@ public synchronized void fire()
 		}
 	}
 
+	/**
+	 * Returns the current time period for AnnounceCoordinator broadcasts
+	 * 
+	 * @return the time period in [s]
+	 */
+	public double getAnnouncementInterval()
+	{
+		return mAnnouncementInterval;
+	}
+	
 	/**
 	 * EVENT: "announced", triggered by Elector if the election was won and this coordinator was announced to all cluster members 	 
 	 */
@@ -2024,8 +1978,7 @@ public void updateSuperiorCoordinator(CoordinatorAsClusterMember pNewMembership)
 			/**
 			 * reset the diff-mechanism for reportPhase()
 			 */
-			mTimeLastCompleteReportedRoutingTable = 0;
-			mLastSentReportedRoutingTable = new RoutingTable();
+			tNewBestClusterMembershipChannel.resetRouteReports();
 
 			/**
 			 * Select new superior coordinator instance
@@ -0,0 +1,228 @@
+/*******************************************************************************
+ * Forwarding on Gates Simulator/Emulator - Hierarchical Routing Management
+ * Copyright (c) 2015, Integrated Communication Systems Group, TU Ilmenau.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html.
+ ******************************************************************************/
+package de.tuilmenau.ics.fog.routing.hierarchical.management;
+
+import de.tuilmenau.ics.fog.routing.hierarchical.HRMConfig;
+import de.tuilmenau.ics.fog.routing.hierarchical.RoutingEntry;
+import de.tuilmenau.ics.fog.routing.hierarchical.RoutingTable;
+
+/**
+ * This class stores the state of a stream of routing tables (report or share phase) via one comm. channel.
+ * The sender transmits a complete routing table as checkpoint and afterwards only sequence-numbered diffs to the last transmitted table.
+ * The receiver uses the sequence numbers in order to detect lost updates. In this case, it requests a new checkpoint from the sender.
+ * A comm. channel uses either the sender part or the receiver part of a stream.
+ */
+public class RoutingTableStream
+{
+	/**
+	 * Defines the range of the sequence numbers (2 bytes on the wire)
+	 */
+	private static final int SEQUENCE_NUMBERS = 65536;
+	
+	/**
+	 * SENDER: stores the last transmitted complete routing table, diffs are based on this table
+	 */
+	private RoutingTable mLastSentRoutingTable = new RoutingTable();
+	
+	/**
+	 * SENDER: stores the sequence number of the last transmitted update, -1 if none was sent so far
+	 */
+	private int mLastSentSequenceNumber = -1;
+	
+	/**
+	 * SENDER: stores the time when the last checkpoint (complete routing table) was sent
+	 */
+	private double mTimeLastCheckpoint = 0;
+	
+	/**
+	 * SENDER: stores if the last routing table was sent during an unstable hierarchy
+	 */
+	private boolean mLastSentDuringUnstableHierarchy = true;
+	
+	/**
+	 * SENDER: stores if the peer has requested a checkpoint
+	 */
+	private boolean mCheckpointRequested = false;
+	
+	/**
+	 * RECEIVER: stores the sequence number of the last received update, -1 if none was received so far
+	 */
+	private int mLastReceivedSequenceNumber = -1;
+	
+	/**
+	 * RECEIVER: stores if a checkpoint was already requested from the sender
+	 */
+	private boolean mCheckpointPending = false;
+	
+	/**
+	 * RECEIVER: stores the number of detected gaps in the stream
+	 * This value is only used for debugging. It is not part of the HRM concept.
+	 */
+	private long mDetectedGaps = 0;
+	
+	/**
+	 * SENDER: creates the next update for a routing table. This is either a checkpoint with the complete table or a diff to the last transmitted table.
+	 * A checkpoint is created for the first update, during an unstable hierarchy, after LIFE_TIME_STABLE_HIERARCHY or if the peer has requested it.
+	 * 
+	 * @param pRoutingTable the current complete routing table
+	 * @param pStableHierarchy true if the hierarchy is long-term stable
+	 * @param pDiffsAllowed true if diffs may be sent
+	 * @param pTime the current simulation time
+	 * 
+	 * @return the routing table which should be sent, null if nothing has to be sent
+	 */
+	public synchronized RoutingTable createUpdate(RoutingTable pRoutingTable, boolean pStableHierarchy, boolean pDiffsAllowed, double pTime)
+	{
+		RoutingTable tResult = null;
+		boolean tSendDiff = false;
+		
+		if(pStableHierarchy){
+			/**
+			 * should we send only a diff.?
+			 */
+			if((pDiffsAllowed) && (mLastSentSequenceNumber >= 0) && (!mCheckpointRequested) && (pTime < mTimeLastCheckpoint + HRMConfig.RoutingData.LIFE_TIME_STABLE_HIERARCHY) && (!mLastSentDuringUnstableHierarchy)){
+				tSendDiff = true;
+			}
+			mLastSentDuringUnstableHierarchy = false;
+		}else{
+			mLastSentDuringUnstableHierarchy = true;
+		}
+		
+		if(tSendDiff){
+			/**
+			 * new and changed entries
+			 * HINT: the lookups use the destination index of the tables, which is built once per table.
+			 * 		 Thus, the diff takes linear time instead of comparing each new entry with each old one.
+			 */
+			RoutingTable tDiff = new RoutingTable();
+			for(RoutingEntry tNewEntry : pRoutingTable){
+				/**
+				 * is the new entry rather an old one?
+				 */
+				if(!mLastSentRoutingTable.containsWithSameQoS(tNewEntry)){
+					tDiff.add(tNewEntry);
+				}
+			}
+			
+			/**
+			 * removed entries
+			 */
+			RoutingTable tRemovedEntries = new RoutingTable();
+			for(RoutingEntry tOldEntry : mLastSentRoutingTable){
+				if(!pRoutingTable.contains(tOldEntry)){
+					tRemovedEntries.add(tOldEntry);
+				}
+			}
+			
+			if((tDiff.size() > 0) || (tRemovedEntries.size() > 0)){
+				tDiff.markAsDiff();
+				tDiff.setRemovedEntries(tRemovedEntries);
+				tResult = tDiff;
+			}
+		}else{
+			/**
+			 * checkpoint
+			 */
+			if(pRoutingTable.size() > 0){
+				tResult = (RoutingTable) pRoutingTable.clone();
+				mTimeLastCheckpoint = pTime;
+				mCheckpointRequested = false;
+			}
+		}
+		
+		if(tResult != null){
+			mLastSentSequenceNumber = (mLastSentSequenceNumber + 1) % SEQUENCE_NUMBERS;
+			tResult.setSequenceNumber(mLastSentSequenceNumber);
+			
+			// diffs are always based on the last complete routing table
+			mLastSentRoutingTable = (RoutingTable) pRoutingTable.clone();
+		}
+		
+		return tResult;
+	}
+	
+	/**
+	 * SENDER: returns the last transmitted complete routing table
+	 * 
+	 * @return the routing table
+	 */
+	public synchronized RoutingTable getLastSentRoutingTable()
+	{
+		return mLastSentRoutingTable;
+	}
+	
+	/**
+	 * SENDER: enforces a checkpoint for the next update
+	 */
+	public synchronized void requestCheckpoint()
+	{
+		mCheckpointRequested = true;
+	}
+	
+	/**
+	 * SENDER: resets the stream, the next update will be a checkpoint
+	 */
+	public synchronized void reset()
+	{
+		mLastSentRoutingTable = new RoutingTable();
+		mLastSentSequenceNumber = -1;
+		mTimeLastCheckpoint = 0;
+		mCheckpointRequested = false;
+	}
+	
+	/**
+	 * RECEIVER: checks the sequence number of a received update.
+	 * A diff, which does not directly follow the last received update, reveals lost updates.
+	 * In this case, a checkpoint has to be requested from the sender unless this was already done.
+	 * 
+	 * @param pUpdate the received routing table
+	 * 
+	 * @return true if a checkpoint has to be requested, otherwise false
+	 */
+	public synchronized boolean eventReceivedUpdate(RoutingTable pUpdate)
+	{
+		boolean tResult = false;
+		
+		if(pUpdate.isOnlyDiff()){
+			if((mLastReceivedSequenceNumber < 0) || (pUpdate.getSequenceNumber() != (mLastReceivedSequenceNumber + 1) % SEQUENCE_NUMBERS)){
+				mDetectedGaps++;
+				if(!mCheckpointPending){
+					mCheckpointPending = true;
+					tResult = true;
+				}
+			}
+		}else{
+			mCheckpointPending = false;
+		}
+		mLastReceivedSequenceNumber = pUpdate.getSequenceNumber();
+		
+		return tResult;
+	}
+	
+	/**
+	 * RECEIVER: returns the number of detected gaps in the stream
+	 * 
+	 * @return the number of gaps
+	 */
+	public synchronized long getDetectedGaps()
+	{
+		return mDetectedGaps;
+	}
+	
+	/**
+	 * Returns a descriptive string about this object
+	 * 
+	 * @return the descriptive string
+	 */
+	public String toString()
+	{
+		return getClass().getSimpleName() + "(LastSent=" + mLastSentSequenceNumber + ", LastReceived=" + mLastReceivedSequenceNumber + ", Gaps=" + mDetectedGaps + ")";
+	}
+}
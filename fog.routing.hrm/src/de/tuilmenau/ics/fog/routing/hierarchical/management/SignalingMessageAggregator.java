@@ -0,0 +1,199 @@
+/*******************************************************************************
+ * Forwarding on Gates Simulator/Emulator - Hierarchical Routing Management
+ * Copyright (c) 2015, Integrated Communication Systems Group, TU Ilmenau.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html.
+ ******************************************************************************/
+package de.tuilmenau.ics.fog.routing.hierarchical.management;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+
+import de.tuilmenau.ics.fog.IEvent;
+import de.tuilmenau.ics.fog.packets.hierarchical.SignalingMessageHrm;
+import de.tuilmenau.ics.fog.routing.hierarchical.HRMController;
+import de.tuilmenau.ics.fog.ui.Logging;
+
+/**
+ * This class collects signaling messages of all comm. channels of one comm. session.
+ * The messages are sent together within one bundle packet after an aggregation window.
+ * A queued message is dropped if a newer message makes it obsolete. The order of the remaining messages is kept.
+ * 
+ * @param <T> the type of the collected signaling messages
+ */
+public abstract class SignalingMessageAggregator<T extends SignalingMessageHrm> implements IEvent
+{
+	/**
+	 * Stores the queued messages
+	 */
+	private LinkedList<T> mQueuedMessages = new LinkedList<T>();
+	
+	/**
+	 * Stores the parent comm. session
+	 */
+	protected ComSession mParentComSession = null;
+	
+	/**
+	 * Stores a reference to the HRMController instance
+	 */
+	protected HRMController mHRMController = null;
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param pHRMController the HRMController instance
+	 * @param pParentComSession the parent comm. session
+	 */
+	protected SignalingMessageAggregator(HRMController pHRMController, ComSession pParentComSession)
+	{
+		mHRMController = pHRMController;
+		mParentComSession = pParentComSession;
+	}
+	
+	/**
+	 * Queues a message. The first message in an empty queue starts the aggregation window.
+	 * 
+	 * @param pPacket the message, the multiplex header has to be already set
+	 */
+	public void queue(T pPacket)
+	{
+		boolean tStartWindow = false;
+		
+		synchronized (mQueuedMessages) {
+			/**
+			 * drop queued messages which are obsolete now
+			 */
+			Iterator<T> tIterator = mQueuedMessages.iterator();
+			while(tIterator.hasNext()){
+				T tQueuedPacket = tIterator.next();
+				if(isOutdatedBy(tQueuedPacket, pPacket)){
+					if(isDebugOutputEnabled()){
+						Logging.log(this, "Suppressing " + tQueuedPacket + " in favor of " + pPacket);
+					}
+					tIterator.remove();
+					eventMessageSuppressed();
+				}
+			}
+			
+			tStartWindow = mQueuedMessages.isEmpty();
+			mQueuedMessages.add(pPacket);
+		}
+		
+		if(tStartWindow){
+			mHRMController.getAS().getTimeBase().scheduleIn(getAggregationWindow(), this);
+		}
+	}
+	
+	/**
+	 * Sends all queued messages. A single message is sent without a bundle.
+	 * The messages are taken from the queue and sent while holding the write lock of the comm. session.
+	 * Otherwise, a concurrently written packet could overtake them.
+	 */
+	public void flush()
+	{
+		synchronized (mParentComSession.getWriteLock()) {
+			LinkedList<T> tMessages = null;
+			
+			synchronized (mQueuedMessages) {
+				if(mQueuedMessages.isEmpty()){
+					return;
+				}
+				tMessages = mQueuedMessages;
+				mQueuedMessages = new LinkedList<T>();
+			}
+			
+			if(tMessages.size() == 1){
+				mParentComSession.write(tMessages.getFirst());
+			}else{
+				SignalingMessageHrm tBundle = createBundle(tMessages);
+				if(isDebugOutputEnabled()){
+					Logging.log(this, "Sending bundle: " + tBundle);
+				}
+				if(mParentComSession.write(tBundle)){
+					eventMessagesBundled(tMessages.size());
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Checks if two messages belong to the same comm. channel
+	 * 
+	 * @param pPacket1 the first message
+	 * @param pPacket2 the second message
+	 * 
+	 * @return true or false
+	 */
+	protected boolean isSameChannel(T pPacket1, T pPacket2)
+	{
+		return (pPacket1.getSenderClusterName().equals(pPacket2.getSenderClusterName())) && (pPacket1.getReceiverClusterName().equals(pPacket2.getReceiverClusterName()));
+	}
+	
+	/**
+	 * Checks if a queued message is obsolete because of a newer message
+	 * 
+	 * @param pQueuedPacket the queued message
+	 * @param pNewPacket the new message
+	 * 
+	 * @return true if the queued message can be dropped, otherwise false
+	 */
+	protected abstract boolean isOutdatedBy(T pQueuedPacket, T pNewPacket);
+	
+	/**
+	 * Creates the bundle packet for several messages
+	 * 
+	 * @param pMessages the messages
+	 * 
+	 * @return the bundle packet
+	 */
+	protected abstract SignalingMessageHrm createBundle(LinkedList<T> pMessages);
+	
+	/**
+	 * Returns the aggregation window
+	 * 
+	 * @return the time period in [s]
+	 */
+	protected abstract double getAggregationWindow();
+	
+	/**
+	 * Returns if debug output about suppressed and bundled messages should be shown
+	 * 
+	 * @return true or false
+	 */
+	protected abstract boolean isDebugOutputEnabled();
+	
+	/**
+	 * EVENT: messages were sent within a bundle
+	 * 
+	 * @param pNumberMessages the number of bundled messages
+	 */
+	protected abstract void eventMessagesBundled(int pNumberMessages);
+	
+	/**
+	 * EVENT: a queued message was dropped
+	 */
+	protected abstract void eventMessageSuppressed();
+	
+	/**
+	 * Implementation for IEvent::fire(): the aggregation window has ended
+	 */
+	@Override
+	public void fire()
+	{
+		flush();
+	}
+	
+	/**
+	 * Returns a descriptive string about this object
+	 * 
+	 * @return the descriptive string
+	 */
+	@Override
+	public String toString()
+	{
+		return getClass().getSimpleName() + "@" + mParentComSession;
+	}
+}
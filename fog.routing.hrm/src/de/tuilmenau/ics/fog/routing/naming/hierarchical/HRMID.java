@@ -10,6 +10,8 @@
 package de.tuilmenau.ics.fog.routing.naming.hierarchical;
 
 import java.awt.Color;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.math.BigInteger;
 
 import de.tuilmenau.ics.fog.routing.hierarchical.HRMConfig;
@@ -22,6 +24,11 @@
  * An HRMID can identify:
  * 	1.) a physical node, e.g., "1.1.5"
  *  2.) a coordinator or a cluster as a whole, e.g., "1.1.0"
+ *  
+ * The address is stored as BigInteger in the base class, which is also used for the serialized
+ * representation. Additionally, a long copy of the address is stored. It is used for all
+ * operations on the address parts of the hierarchy levels, which are done with pre-computed masks.
+ * Only addresses which do not fit into a long value are handled via the BigInteger value.
  */
 public class HRMID extends HRMName
 {
@@ -34,6 +41,22 @@ public class HRMID extends HRMName
 	 */
 	private final static int SERIALIZED_SIZE = 4; // according to IPv6, e.g., "2001:0db8:85a3:08d3:1319:8a2e:0370:7344", we use the last two segments of the address space  
 
+	/**
+	 * Mask for the address part of one hierarchy level
+	 */
+	private final static long LEVEL_MASK = (1L << HRMConfig.Addressing.BITS_PER_HIERARCHY_LEVEL) - 1;
+	
+	/**
+	 * Masks for the address parts of the lowest hierarchy levels: entry i selects the levels 0 to (i - 1)
+	 */
+	private final static long[] LOWER_LEVELS_MASKS = new long[HRMConfig.Hierarchy.DEPTH + 1];
+	static {
+		for(int i = 0; i < LOWER_LEVELS_MASKS.length; i++){
+			int tBits = HRMConfig.Addressing.BITS_PER_HIERARCHY_LEVEL * i;
+			LOWER_LEVELS_MASKS[i] = (tBits >= Long.SIZE ? -1L : (1L << tBits) - 1);
+		}
+	}
+	
 	/**
 	 * Create an HRMID instance with an invalid value.
 	 */ 
@@ -50,6 +73,7 @@ public HRMID()
 	private HRMID(BigInteger pAddress)
 	{
 		super(pAddress);
+		updateLongAddress();
 	}
 	
 	/**
@@ -60,6 +84,38 @@ private HRMID(BigInteger pAddress)
 	public HRMID(long pAddress)
 	{
 		super(BigInteger.valueOf(pAddress));
+		mLongAddress = pAddress;
+		mIsLongAddress = true;
+	}
+	
+	/**
+	 * Create an HRMID instance as copy of another one.
+	 * 
+	 * @param pOther the HRMID which should be copied
+	 */
+	private HRMID(HRMID pOther)
+	{
+		super(pOther.mAddress);
+		mLongAddress = pOther.mLongAddress;
+		mIsLongAddress = pOther.mIsLongAddress;
+	}
+	
+	/**
+	 * Updates the long copy of the address after the BigInteger value was changed
+	 */
+	private void updateLongAddress()
+	{
+		mLongAddress = mAddress.longValue();
+		mIsLongAddress = (mAddress.bitLength() < Long.SIZE);
+	}
+	
+	/**
+	 * Restores the long copy of the address after deserialization
+	 */
+	private void readObject(ObjectInputStream pInput) throws IOException, ClassNotFoundException
+	{
+		pInput.defaultReadObject();
+		updateLongAddress();
 	}
 	
 	
@@ -94,11 +150,14 @@ private BigInteger getLevelAddressBigInteger(int pHierarchyLevel)
 	 */
 	private int getLevelAddress(int pHierarchyLevel)
 	{
-		BigInteger tAdr = getLevelAddressBigInteger(pHierarchyLevel);
+		if(!mIsLongAddress){
+			return getLevelAddressBigInteger(pHierarchyLevel).intValue();
+		}
 		
-		int tResult = tAdr.intValue();
+		// the arithmetic shift continues the sign like the BigInteger representation does
+		int tShift = Math.min(HRMConfig.Addressing.BITS_PER_HIERARCHY_LEVEL * pHierarchyLevel, Long.SIZE - 1);
 		
-		return tResult;
+		return (int)((mLongAddress >> tShift) & LEVEL_MASK);
 	}
 
 	/**
@@ -121,7 +180,7 @@ public int getLevelAddress(HierarchyLevel pHierarchyLevel)
 	 */
 	public void setLevelAddress(int pHierarchyLevel, int pAddress)
 	{
-		setLevelAddress(new HierarchyLevel(this, pHierarchyLevel), BigInteger.valueOf(pAddress));
+		setLevelAddress(pHierarchyLevel, BigInteger.valueOf(pAddress));
 	}
 
 	/**
@@ -132,6 +191,23 @@ public void setLevelAddress(int pHierarchyLevel, int pAddress)
 	 */
 	private void setLevelAddress(int pHierarchyLevel, BigInteger pAddress)
 	{
+		int tShift = HRMConfig.Addressing.BITS_PER_HIERARCHY_LEVEL * pHierarchyLevel;
+		
+		if((mIsLongAddress) && (tShift + HRMConfig.Addressing.BITS_PER_HIERARCHY_LEVEL < Long.SIZE - 1) && (pAddress.bitLength() < Long.SIZE - 1 - tShift)){
+			long tDelta = (pAddress.longValue() - getLevelAddress(pHierarchyLevel)) << tShift;
+			long tNewAddress = mLongAddress + tDelta;
+			
+			/**
+			 * Use the long value only if the address does not overflow
+			 */
+			if(((mLongAddress ^ tNewAddress) & (tDelta ^ tNewAddress)) >= 0){
+				mLongAddress = tNewAddress;
+				mAddress = BigInteger.valueOf(tNewAddress);
+				
+				return;
+			}
+		}
+		
 		BigInteger tLevelAddr = getLevelAddressBigInteger(pHierarchyLevel);
 		
 		/**
@@ -147,6 +223,8 @@ private void setLevelAddress(int pHierarchyLevel, BigInteger pAddress)
 		if(!pAddress.equals(BigInteger.valueOf(0))){
 			mAddress = mAddress.add(pAddress.shiftLeft(pHierarchyLevel * HRMConfig.Addressing.BITS_PER_HIERARCHY_LEVEL));
 		}
+		
+		updateLongAddress();
 	}
 
 	/**
@@ -168,7 +246,7 @@ public void setLevelAddress(HierarchyLevel pHierarchyLevel, BigInteger pAddress)
 	public HRMID clone()
 	{
 		// create new instance with the same address
-		HRMID tID = new HRMID(mAddress);
+		HRMID tID = new HRMID(this);
 
 		return tID;
 	}
@@ -182,6 +260,21 @@ public int getHierarchyLevel()
 	{
 		int tResult = -1;
 		
+		if(mIsLongAddress){
+			/**
+			 * Search for the lowest hierarchy level with a value unequal to 0
+			 */
+			for(int i = 0; i < HRMConfig.Hierarchy.DEPTH; i++){
+				if((mLongAddress & LOWER_LEVELS_MASKS[i + 1]) == 0){
+					tResult = i;
+				}else{
+					break;
+				}
+			}
+			
+			return tResult;
+		}
+		
 		for(int i = 0; i < HRMConfig.Hierarchy.DEPTH; i++){
 			int tLevelValue = getLevelAddress(i);
 			// are we still searching for the cluster prefix?
@@ -265,6 +358,12 @@ public boolean isCluster(HRMID pClusterAddress)
 		/**
 		 * Compare the prefix of the cluster address with this address
 		 */
+		if((mIsLongAddress) && (pClusterAddress.mIsLongAddress)){
+			long tPrefixMask = LOWER_LEVELS_MASKS[HRMConfig.Hierarchy.DEPTH] & ~LOWER_LEVELS_MASKS[tCheckLevel + 1];
+			
+			return (((mLongAddress ^ pClusterAddress.mLongAddress) & tPrefixMask) == 0);
+		}
+		
 		for(int i = tCheckLevel + 1; i < HRMConfig.Hierarchy.DEPTH; i++){
 			int tClusterAddressLevelValue = pClusterAddress.getLevelAddress(i);
 			int tLevelValue = getLevelAddress(i);
@@ -296,6 +395,12 @@ public boolean isCluster(HRMID pClusterAddress)
 	 */
 	public HRMID getClusterAddress(int pHierarchyLevel)
 	{
+		if((mIsLongAddress) && (pHierarchyLevel >= 0)){
+			int tLevels = Math.min(pHierarchyLevel + 1, HRMConfig.Hierarchy.DEPTH);
+			
+			return new HRMID(mLongAddress & ~LOWER_LEVELS_MASKS[tLevels]);
+		}
+		
 		HRMID tResult = clone();
 		
 		for (int i = 0; (i < HRMConfig.Hierarchy.DEPTH) && (i <= pHierarchyLevel); i++){
@@ -338,7 +443,7 @@ public HRMID getForeignCluster(HRMID pForeignAddress)
 			int tLevelValue = getLevelAddress(i);
 			
 			//add the digit to the result address
-			tResult.setLevelAddress(i, BigInteger.valueOf(tForeignClusterAddressLevelValue));
+			tResult.setLevelAddress(i, tForeignClusterAddressLevelValue);
 
 			// have we found a difference between both values?
 			if(tForeignClusterAddressLevelValue != tLevelValue){
@@ -369,6 +474,17 @@ public Color getColor()
 		return Color.PINK;
 	}
 
+	/**
+	 * Returns the address as long value
+	 * 
+	 * @return the address
+	 */
+	@Override
+	public long getAddress()
+	{
+		return mLongAddress;
+	}
+	
 	/**
 	 * Compares the address value of both class instances and return true if they are equal to each other.
 	 * 
@@ -381,7 +497,7 @@ public boolean equals(Object pObj)
 			HRMID tOther = (HRMID)pObj;
 			
 			// compare the addresses
-			return getAddress() == tOther.getAddress();
+			return mLongAddress == tOther.mLongAddress;
 		}
 		return false;
 	}
@@ -393,7 +509,7 @@ public boolean equals(Object pObj)
 	 */
 	public boolean isZero()
 	{
-		return (getAddress() == 0);
+		return (mLongAddress == 0);
 	}
 	
 	/**
@@ -404,7 +520,7 @@ public boolean isZero()
 	public boolean isRelativeAddress()
 	{
 		// true if the first character is a leading zero
-		return toString().startsWith("0");
+		return (getLevelAddress(HRMConfig.Hierarchy.DEPTH - 1) == 0);
 	}
 	
 	/**
@@ -414,8 +530,8 @@ public boolean isRelativeAddress()
 	 */
 	public boolean isClusterAddress()
 	{
-		// true if the first character is a leading zero
-		return toString().endsWith(".0");
+		// true if the last character is a zero
+		return ((HRMConfig.Hierarchy.DEPTH > 1) && (getLevelAddress(0) == 0));
 	}
 
 	/**
@@ -471,15 +587,25 @@ public String toIPv6String()
 	@Override
 	public String toString()
 	{
-		String tOutput = new String();
+		StringBuilder tOutput = new StringBuilder();
 		
 		for(int i = HRMConfig.Hierarchy.DEPTH - 1; i > 0; i--){
-			tOutput += (mAddress.mod((BigInteger.valueOf(2)).pow(HRMConfig.Addressing.BITS_PER_HIERARCHY_LEVEL * (i + 1))).shiftRight((HRMConfig.Addressing.BITS_PER_HIERARCHY_LEVEL * i))).toString();
-			tOutput += ".";
+			tOutput.append(getLevelAddress(i));
+			tOutput.append(".");
 		}
 		
-		tOutput += (mAddress.mod((BigInteger.valueOf(2)).pow(HRMConfig.Addressing.BITS_PER_HIERARCHY_LEVEL * 1)).shiftRight((HRMConfig.Addressing.BITS_PER_HIERARCHY_LEVEL * 0))).toString();
+		tOutput.append(getLevelAddress(0));
 		
-		return tOutput;
+		return tOutput.toString();
 	}
+	
+	/**
+	 * The address as long value, which is a copy of the BigInteger value of the base class
+	 */
+	private transient long mLongAddress;
+	
+	/**
+	 * Stores if the address fits into the long value
+	 */
+	private transient boolean mIsLongAddress;
 }
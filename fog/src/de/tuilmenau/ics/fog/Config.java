@@ -367,10 +367,70 @@ public enum COST_METRIC {DELAY, BANDWIDTH, HOP_COUNT};
 		 * the property "VariableMediaQuality" is found in the description of the rerouting gate.
 		 */
 		public static final boolean REROUTE_USE_AUTO_VIDEO_TRANSCODER = false;
+		
+		/**
+		 * Enables the constrained route calculation in the simulated routing service.
+		 * If a route request contains a minimal data rate and/or a maximal delay,
+		 * only routes fulfilling both are returned. Moreover, the data rate is
+		 * reserved at the links of the route until the gates are created.
+		 * If disabled, the requirements are not checked during route calculation.
+		 */
+		public static final boolean ENABLE_CONSTRAINED_ROUTING = true;
+		
+		/**
+		 * Maximum number of alternative partial routes stored per node during
+		 * constrained route calculation. Limits run time and memory consumption.
+		 * If the limit is reached, the partial route using the largest share of
+		 * the constraints is dropped. A too small value might cause the
+		 * calculation to miss a route fulfilling the constraints.
+		 */
+		public static final int CONSTRAINED_ROUTING_MAX_LABELS_PER_NODE = 32;
+		
+		/**
+		 * Time after which a data rate reservation of a calculated route is
+		 * released, if the lower layer did not report the usage of the
+		 * data rate in the meantime.
+		 */
+		public static final double CONSTRAINED_ROUTING_RESERVATION_TIMEOUT_SEC = PROCESS_STD_TIMEOUT_SEC;
+		
+		/**
+		 * Time a name lookup result from a parent name mapping service is cached
+		 * by a child name mapping service. Lookups without a result are cached
+		 * for a shorter time in order to see new registrations fast.
+		 * A value of zero disables the cache.
+		 */
+		public static final double NAME_LOOKUP_CACHE_TTL_SEC = 5.0d;
+		public static final double NAME_LOOKUP_NEGATIVE_CACHE_TTL_SEC = 1.0d;
+		
+		/**
+		 * Maximum number of names stored in the lookup cache of a name mapping service.
+		 */
+		public static final int NAME_LOOKUP_CACHE_MAX_ENTRIES = 4096;
 	}
 	public Routing routing = new Routing();
 	
 	
+	/**
+	 * Config parameters for the execution of applications.
+	 */
+	public static class Application
+	{
+		/**
+		 * Maximum number of threads executing thread based applications.
+		 * Applications started while all threads are busy, wait until one
+		 * of the running applications terminates. A non-positive value
+		 * does not limit the number of threads. In both cases, threads of
+		 * terminated applications are re-used for new applications.
+		 */
+		public static final int MAX_THREADS = 0;
+		
+		/**
+		 * Time an idle thread waits for a new application before it terminates.
+		 */
+		public static final int THREAD_KEEP_ALIVE_SEC = 60;
+	}
+	
+	
 	/**
 	 * Config parameters for the connection related activities.
 	 */
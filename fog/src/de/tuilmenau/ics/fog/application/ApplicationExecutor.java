@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Forwarding on Gates Simulator/Emulator
+ * Copyright (C) 2012, Integrated Communication Systems Group, TU Ilmenau.
+ * 
+ * This program and the accompanying materials are dual-licensed under either
+ * the terms of the Eclipse Public License v1.0 as published by the Eclipse
+ * Foundation
+ *  
+ *   or (per the licensee's choosing)
+ *  
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ ******************************************************************************/
+package de.tuilmenau.ics.fog.application;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.tuilmenau.ics.fog.Config;
+
+
+/**
+ * Pool of threads executing the thread based applications of the JVM.
+ * Threads of terminated applications are re-used for new applications.
+ * If {@link Config.Application#MAX_THREADS} is set, the number of
+ * threads is limited and further applications wait for a free thread.
+ * 
+ * Applications may block their thread (e.g. by sleeping or waiting for
+ * data). Thus, a limit should only be used if the applications terminate
+ * after some time.
+ */
+public class ApplicationExecutor implements ThreadFactory
+{
+	public static synchronized ApplicationExecutor getInstance()
+	{
+		if(sInstance == null) {
+			sInstance = new ApplicationExecutor();
+		}
+		
+		return sInstance;
+	}
+	
+	private ApplicationExecutor()
+	{
+		if(Config.Application.MAX_THREADS > 0) {
+			// threads are created up to the limit; further applications are queued
+			mExecutor = new ThreadPoolExecutor(Config.Application.MAX_THREADS, Config.Application.MAX_THREADS, Config.Application.THREAD_KEEP_ALIVE_SEC, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), this);
+			mExecutor.allowCoreThreadTimeOut(true);
+		} else {
+			// applications are handed over to idle threads or to new ones
+			mExecutor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, Config.Application.THREAD_KEEP_ALIVE_SEC, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(), this);
+		}
+		
+		ThreadMXBean tThreadMXBean = ManagementFactory.getThreadMXBean();
+		if((tThreadMXBean != null) && tThreadMXBean.isThreadCpuTimeSupported()) {
+			if(!tThreadMXBean.isThreadCpuTimeEnabled()) {
+				tThreadMXBean.setThreadCpuTimeEnabled(true);
+			}
+			mThreadMXBean = tThreadMXBean;
+		} else {
+			mThreadMXBean = null;
+		}
+	}
+	
+	/**
+	 * Executes an application in a thread of the pool.
+	 */
+	public void execute(Runnable pApplication)
+	{
+		mExecutor.execute(pApplication);
+	}
+	
+	/**
+	 * Creates daemon threads, since applications running forever must not
+	 * prevent the JVM from exiting at the end of a simulation.
+	 */
+	@Override
+	public Thread newThread(Runnable pRunnable)
+	{
+		Thread tThread = new Thread(pRunnable, "Application-" +mThreadNumber.incrementAndGet());
+		tThread.setDaemon(true);
+		return tThread;
+	}
+	
+	/**
+	 * @return CPU time used by a thread in nanoseconds or -1 if not supported
+	 */
+	public long getThreadCPUTime(Thread pThread)
+	{
+		if((mThreadMXBean != null) && (pThread != null)) {
+			return mThreadMXBean.getThreadCpuTime(pThread.getId());
+		} else {
+			return -1;
+		}
+	}
+	
+	/**
+	 * @return Number of threads in the pool
+	 */
+	public int getNumberThreads()
+	{
+		return mExecutor.getPoolSize();
+	}
+	
+	/**
+	 * @return Number of applications currently executed
+	 */
+	public int getNumberRunningApplications()
+	{
+		return mExecutor.getActiveCount();
+	}
+	
+	/**
+	 * @return Number of applications waiting for a thread
+	 */
+	public int getNumberWaitingApplications()
+	{
+		return mExecutor.getQueue().size();
+	}
+	
+	@Override
+	public String toString()
+	{
+		return getClass().getSimpleName();
+	}
+	
+	
+	private final ThreadPoolExecutor mExecutor;
+	private final ThreadMXBean mThreadMXBean;
+	private final AtomicInteger mThreadNumber = new AtomicInteger(0);
+	
+	private static ApplicationExecutor sInstance = null;
+}
@@ -193,6 +193,7 @@ public void removeIpListener(SimpleName pServerName)
  		for(ConnectionEndPointTCPProxy tTCPProxy : mTCPListeners) {
  			if (tTCPProxy.getFoGServerName() == pServerName.getName())
  			{
+ 				tTCPProxy.stop();
  				mTCPListeners.remove(tTCPProxy); 				
  				return;
  			}
@@ -202,6 +203,7 @@ public void removeIpListener(SimpleName pServerName)
  		for(ConnectionEndPointUDPProxy tUDPProxy : mUDPListeners) {
  			if (tUDPProxy.getFoGServerName() == pServerName.getName())
  			{
+ 				tUDPProxy.stop();
  				mUDPListeners.remove(tUDPProxy); 				
  				return;
  			}
@@ -34,8 +34,8 @@ protected ThreadApplication(Host pHost, Logger pParentLogger, Identity pIdentity
 	public void started()
 	{
 		mExit = false;
-		mAppThread = new Thread(this);
-		mAppThread.start();
+		mRunning = true;
+		ApplicationExecutor.getInstance().execute(this);
 	}
 	
 	public void exit()
@@ -45,12 +45,41 @@ public void exit()
 	
 	public boolean isRunning()
 	{
-		return (mAppThread != null);
+		return mRunning;
+	}
+	
+	/**
+	 * @return CPU time used by the application in milliseconds or -1 if not supported by the JVM
+	 */
+	public long getCPUTimeMSec()
+	{
+		long tCPUTime = mCPUTime;
+		Thread tThread = mAppThread;
+		
+		if(tThread != null) {
+			// application is running; add time since last start
+			long tNow = ApplicationExecutor.getInstance().getThreadCPUTime(tThread);
+			if((tNow >= 0) && (mAppThread == tThread)) {
+				tCPUTime += tNow -mCPUTimeStart;
+			}
+		}
+		
+		if(tCPUTime >= 0) {
+			return tCPUTime / 1000000;
+		} else {
+			return -1;
+		}
 	}
 	
 	public final void run()
 	{
 		Exception tError = null;
+		Thread tThread = Thread.currentThread();
+		String tThreadName = tThread.getName();
+		ApplicationExecutor tExecutor = ApplicationExecutor.getInstance();
+		
+		mCPUTimeStart = tExecutor.getThreadCPUTime(tThread);
+		mAppThread = tThread;
 		
 		try {
 			execute();
@@ -58,8 +87,23 @@ public final void run()
 		catch(Exception tExc) {
 			tError = tExc;
 		}
+		finally {
+			mAppThread = null;
+			
+			long tCPUTimeEnd = tExecutor.getThreadCPUTime(tThread);
+			if((mCPUTimeStart >= 0) && (tCPUTimeEnd >= 0)) {
+				mCPUTime += tCPUTimeEnd -mCPUTimeStart;
+			} else {
+				mCPUTime = -1;
+			}
+			
+			// applications might rename the thread of the pool
+			tThread.setName(tThreadName);
+		}
+		
+		mLogger.log(this, "Application finished with " +getCPUTimeMSec() +" msec CPU time.");
 		
-		mAppThread = null;
+		mRunning = false;
 		terminated(tError);
 	}
 	
@@ -67,6 +111,7 @@ public final void run()
 	 * Implements task of the application.
 	 * <code>run</code> is not used directly because it is doing some
 	 * additional error handling.
+	 * The method is executed by a thread of the {@link ApplicationExecutor}.
 	 */
 	protected abstract void execute() throws Exception;
 
@@ -76,5 +121,12 @@ public final void run()
 	@Viewable("Exit")
 	protected volatile boolean mExit = false;
 	
-	private Thread mAppThread;
+	private volatile boolean mRunning = false;
+	private volatile Thread mAppThread;
+	
+	/**
+	 * CPU time of the application in nanoseconds
+	 */
+	private volatile long mCPUTime = 0;
+	private volatile long mCPUTimeStart = 0;
 }
@@ -33,7 +33,7 @@ public class ConnectionEndPointInterOpIP extends Session
 	public final static String INTEROP_PROTOCOL_ID = "InterOpIP";
 	public final static String INTEROP_PROTOCOL_ADD = "add";
 	public final static String INTEROP_PROTOCOL_REMOVE = "remove";
-
+	
 	public ConnectionEndPointInterOpIP(InterOpIP pInterOpApp)
 	{
 		super(false, pInterOpApp.getLogger(), null);
@@ -44,7 +44,7 @@ public ConnectionEndPointInterOpIP(InterOpIP pInterOpApp)
 	public boolean receiveData(Object pData)
 	{
 		getLogger().trace(this, "Got packet at CEP of InterOpIP application with payload: " + pData);
-
+		
 		if(pData instanceof String[]) {
 			String[] tTokenList = (String[])pData;
 			getLogger().trace(this, "Got packet at CEP of InterOpIP application with string list of size " + tTokenList.length);
@@ -78,7 +78,7 @@ public boolean receiveData(Object pData)
 						getLogger().err(this, "Failed to parse given server name", tExc);
 						return false;
 					}
-
+					
 					// parse transport type
 					if ("tcp".equals(tTokenList[3]))
 						tTransport = Transport.TCP;
@@ -119,6 +119,6 @@ else if ("udp".equals(tTokenList[3]))
 		
 		return true;
 	}
-
+	
 	private InterOpIP mInterOpApp;
 }
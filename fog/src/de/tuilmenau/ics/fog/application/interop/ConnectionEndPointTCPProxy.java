@@ -14,21 +14,23 @@
 package de.tuilmenau.ics.fog.application.interop;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.net.ServerSocket;
-import java.net.Socket;
+import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.net.UnknownHostException;
-import java.util.Arrays;
-import java.util.HashMap;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.LinkedList;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import de.tuilmenau.ics.fog.application.util.ReceiveCallback;
 import de.tuilmenau.ics.fog.application.util.Session;
 import de.tuilmenau.ics.fog.facade.Connection;
 import de.tuilmenau.ics.fog.facade.Description;
 import de.tuilmenau.ics.fog.facade.Host;
 import de.tuilmenau.ics.fog.facade.NetworkException;
+import de.tuilmenau.ics.fog.facade.events.DataAvailableEvent;
+import de.tuilmenau.ics.fog.facade.events.Event;
 import de.tuilmenau.ics.fog.util.Logger;
 import de.tuilmenau.ics.fog.util.SimpleName;
 
@@ -38,13 +40,36 @@
  * 
  * This proxy supports both the FoG2IP bridging and the IP2FoG bridging
  * The two operation modes are explicitly selected by a call to the corresponding constructor.
+ * 
+ * The TCP sockets are non-blocking and handled by the {@link InterOpSelector}.
+ * Data from FoG is read from the receive buffer of the FoG connection only as long
+ * as the TCP socket accepts it. Data from IP is read only if the FoG connection is
+ * connected and as long as the data written to FoG does not pile up. Thus, a slow
+ * side does not lead to unbounded buffers in the proxy.
  */
 public class ConnectionEndPointTCPProxy extends Session
 {
 	private static final boolean RECEIVE_IN_EXTRA_THREAD = false;
 	
+	/**
+	 * Size of the direct buffer for writing to a TCP socket per bridge
+	 */
+	private static final int TCP_WRITE_BUFFER_SIZE = 1024 *64;
+	
+	/**
+	 * Maximum number of bytes buffered for a TCP socket before the proxy
+	 * stops reading from the FoG connection. The same limit applies to the
+	 * data from the TCP socket, which is not yet written to FoG.
+	 */
+	private static final int TCP_MAX_PENDING_BYTES = 1024 *256;
+	
+	/**
+	 * Maximum number of bridged connections of an IP2FoG proxy. Further
+	 * TCP clients are not accepted until a bridged connection is closed.
+	 */
+	public static final int MAX_CONNECTIONS = 128;
+	
 	//### general
-	private final int TCP_READ_BUFFER_SIZE = 1024 *64;
 	private SimpleName mFogServerApplication = null;
 	private Description mFogServerConnectionRequirements = null;
 	private Host mHost = null;
@@ -54,12 +79,11 @@ public class ConnectionEndPointTCPProxy extends Session
 	private FogIpBridge mFog2IpBridge = null;
 	
 	//### IP side
-	private Thread mIpListenerThread = null;
-	private Socket mIpClientSocket;
-	private ServerSocket mIpServerSocket;
-	private HashMap<String, SocketAddress> mSeenIpPeerAddresses = null;
+	private ServerSocketChannel mIpServerSocket;
+	private LinkedList<FogIpBridge> mIp2FogBridges = null;
+	private boolean mAcceptPaused = false;
 	private SocketAddress mIpPeerAddress;
-
+	
 	//#####################################################################################################################
 	//########################################  FoG to IP  ################################################################
 	//#####################################################################################################################
@@ -75,12 +99,22 @@ public ConnectionEndPointTCPProxy(Logger logger, String destName, int port) thro
 		long tTime;
 		tTime = System.currentTimeMillis();
 		
+		InetSocketAddress tDestination = new InetSocketAddress(destName, port);
+		if(tDestination.isUnresolved()) {
+			throw new UnknownHostException(destName);
+		}
+		
 		// rescue some important data
-		mIpClientSocket = new Socket(destName, port);
-		mIpPeerAddress = mIpClientSocket.getRemoteSocketAddress();
+		SocketChannel tIpClientSocket = SocketChannel.open(tDestination);
+		tIpClientSocket.configureBlocking(false);
+		mIpPeerAddress = tIpClientSocket.socket().getRemoteSocketAddress();
 		
 		mLogger = logger;
-		mLogger.log(this, "Binding TCP socket " + mIpClientSocket + " took " +(System.currentTimeMillis() - tTime) + " msec");
+		mLogger.log(this, "Binding TCP socket " + tIpClientSocket + " took " +(System.currentTimeMillis() - tTime) + " msec");
+		
+		// register already for FoG applications writing without starting the proxy
+		mFog2IpBridge = new FogIpBridge(tIpClientSocket);
+		InterOpSelector.getInstance().register(tIpClientSocket, 0, mFog2IpBridge);
 		
 		//HINT: start of Ip listener is done when a FoG application tries to connect 
 	}
@@ -90,14 +124,25 @@ public void start(Connection pSocket)
 	{
 		mLogger.log(this, "Got call to start from FoG side");
 		
-		// create new FoG-to-IP bridge
-		mLogger.info(this, "Creating new FoGIpBridge for new IP remote address " + mIpPeerAddress);
-		mFog2IpBridge = new FogIpBridge(pSocket); 
-		mFog2IpBridge.setIpPeer(mIpClientSocket, mIpPeerAddress);
-		
 		super.start(pSocket);
+		
+		if(mFog2IpBridge != null) {
+			mLogger.info(this, "Starting FoGIpBridge for IP remote address " + mIpPeerAddress);
+			mFog2IpBridge.setConnection(pSocket);
+		}
 	}
-
+	
+	@Override
+	protected void handleEvent(Event pEvent) throws Exception
+	{
+		// forward events of FoG socket to FoG2IP bridge
+		if(mFog2IpBridge != null) {
+			mFog2IpBridge.handleEvent(pEvent);
+		} else {
+			super.handleEvent(pEvent);
+		}
+	}
+	
 	@Override
 	public boolean receiveData(Object pData)
 	{
@@ -109,20 +154,10 @@ public boolean receiveData(Object pData)
 			return false;
 		}
 	}
-
+	
 	@Override
 	public void closed()
 	{
-		// close TCP client socket
-		if(mIpClientSocket != null) {
-			try {
-				mIpClientSocket.close();
-			}
-			catch(IOException tExc) {
-				mLogger.err(this, "Exception while closing socket " +mIpClientSocket +" because of \"" + tExc.getMessage() + "\"", tExc);
-			}
-		}
-		
 		// forward call to FoG2IP bridge
 		if (mFog2IpBridge != null) {
 			mFog2IpBridge.closed();
@@ -132,7 +167,7 @@ public void closed()
 		
 		super.closed();
 	}
-
+	
 	//#####################################################################################################################
 	//########################################  IP to FoG  ################################################################
 	//#####################################################################################################################
@@ -146,78 +181,190 @@ public void closed()
 	public ConnectionEndPointTCPProxy(Logger pLogger, Host pHost, SimpleName pFogServerApplication, Description pDescription, int pTcpLocalPort)
 	{
 		super(RECEIVE_IN_EXTRA_THREAD, pLogger, null);
+		mLogger = pLogger;
 		mLogger.log(this, "Creating for the FoG application " + pFogServerApplication.toString() + " an TCP listener at port " + pTcpLocalPort);
 		
 		mFogServerApplication = pFogServerApplication;
 		mFogServerConnectionRequirements = pDescription;
 		mHost = pHost;
-		// init. hash map with seen IP peer addresses
-		mSeenIpPeerAddresses = new HashMap<String, SocketAddress>();
+		mIp2FogBridges = new LinkedList<FogIpBridge>();
 		
 		// create IP socket
 		try {
-			mIpServerSocket = new ServerSocket(pTcpLocalPort);
+			mIpServerSocket = ServerSocketChannel.open();
+			mIpServerSocket.socket().setReuseAddress(true);
+			mIpServerSocket.socket().bind(new InetSocketAddress(pTcpLocalPort));
+			mIpServerSocket.configureBlocking(false);
 		} catch (IOException tExc) {
 			mLogger.err(this, "Creation of TCP listener at localhost:" + pTcpLocalPort + " failed", tExc);
+			mIpServerSocket = null;
 		}
-
+		
 		// start IP listener
 		startIpListener();
 	}
-
+	
 	public String getFoGServerName()
 	{
 		return mFogServerApplication.getName();
 	}
-
+	
+	/**
+	 * Returns the local TCP listener port number.
+	 * 
+	 * @return The local TCP port number or -1 if the proxy does not listen
+	 */
+	public int getLocalPort()
+	{
+		if(mIpServerSocket != null) {
+			return mIpServerSocket.socket().getLocalPort();
+		} else {
+			return -1;
+		}
+	}
+	
+	/**
+	 * @return Number of currently bridged connections of an IP2FoG proxy
+	 */
+	public int getNumberConnections()
+	{
+		if(mIp2FogBridges != null) {
+			synchronized (mIp2FogBridges) {
+				return mIp2FogBridges.size();
+			}
+		} else {
+			return 0;
+		}
+	}
+	
 	private void startIpListener()
 	{
-		if(mIpListenerThread == null) {
-			mIpListenerThread = new Thread() {
-				public void run()
+		if (mIpServerSocket == null) {
+			mLogger.err(this, "TCP server socket ist unavailable");
+			return;
+		}
+		
+		mLogger.info(this, "IP/TCP listener started for localhost:" + getLocalPort());
+		
+		InterOpSelector.getInstance().register(mIpServerSocket, SelectionKey.OP_ACCEPT, new InterOpSelector.Handler() {
+			@Override
+			public void ready(SelectionKey pKey)
+			{
+				acceptIpClients();
+			}
+			
+			@Override
+			public String toString()
+			{
+				return ConnectionEndPointTCPProxy.this.toString();
+			}
+		});
+	}
+	
+	/**
+	 * Accepts all pending TCP clients up to the connection limit.
+	 * Called by the selector thread only.
+	 */
+	private void acceptIpClients()
+	{
+		while(true) {
+			synchronized (mIp2FogBridges) {
+				if(mIp2FogBridges.size() >= MAX_CONNECTIONS) {
+					// let further clients wait in the backlog of the server socket
+					mLogger.warn(this, "Reached limit of " + MAX_CONNECTIONS + " connections. Pausing TCP listener.");
+					mAcceptPaused = true;
+					InterOpSelector.getInstance().setInterest(mIpServerSocket, SelectionKey.OP_ACCEPT, false);
+					return;
+				}
+			}
+			
+			SocketChannel tIpClientSocket = null;
+			try {
+				tIpClientSocket = mIpServerSocket.accept();
+				if(tIpClientSocket == null) {
+					// no more pending clients
+					return;
+				}
+				tIpClientSocket.configureBlocking(false);
+				
+				mIpPeerAddress = tIpClientSocket.socket().getRemoteSocketAddress();
+				if (mHost != null)
 				{
-					if (mIpServerSocket == null) {
-						mLogger.err(this, "TCP server socket ist unavailable");
-						return;
-					}					
-
-					mLogger.info(this, "IP/TCP listener started for localhost:" + mIpServerSocket.getLocalPort());
-
-					do {
-						try {
+					mLogger.info(this, "Creating new FoGIpBridge for new IP remote address " + mIpPeerAddress);
+					FogIpBridge tFoGIpBridge = new FogIpBridge(tIpClientSocket);
+					
+					synchronized (mIp2FogBridges) {
+						mIp2FogBridges.add(tFoGIpBridge);
+					}
+					
+					Connection tConn = mHost.getLayer(null).connect(mFogServerApplication, mFogServerConnectionRequirements, null);
+					tFoGIpBridge.start(tConn);
+				}else {
+					mLogger.err(this, "Host is unknown");
+					tIpClientSocket.close();
+				}
+			} catch (Exception tExc) {
+				mLogger.err(this, "Can not accept new TCP client due to exception: " + tExc.getMessage(), tExc);
+				if(tIpClientSocket != null) {
+					try {
+						tIpClientSocket.close();
+					} catch (IOException tCloseExc) {
+						// ignore it
+					}
+				}
+				return;
+			}
+		}
+	}
 	
-							Socket tIpClientSocket = mIpServerSocket.accept();
+	/**
+	 * Called by bridges of an IP2FoG proxy after closing.
+	 */
+	private void bridgeClosed(FogIpBridge pBridge)
+	{
+		synchronized (mIp2FogBridges) {
+			mIp2FogBridges.remove(pBridge);
+			
+			if(mAcceptPaused && (mIp2FogBridges.size() < MAX_CONNECTIONS) && (mIpServerSocket != null)) {
+				mLogger.info(this, "Resuming TCP listener with " + mIp2FogBridges.size() + " connections.");
+				mAcceptPaused = false;
+				InterOpSelector.getInstance().setInterest(mIpServerSocket, SelectionKey.OP_ACCEPT, true);
+			}
+		}
+	}
 	
-							mIpPeerAddress = tIpClientSocket.getRemoteSocketAddress();
-							SocketAddress tIpPeerAddress = mSeenIpPeerAddresses.get(mIpPeerAddress.toString()); 
-							if (tIpPeerAddress == null)
-							{
-								if (mHost != null)
-								{
-									mLogger.info(this, "Creating new FoGIpBridge for new IP remote address " + mIpPeerAddress);
-									Connection tConn = mHost.getLayer(null).connect(mFogServerApplication, mFogServerConnectionRequirements, null);
-									
-									FogIpBridge tFoGIpBridge = new FogIpBridge(tConn); 
-									tFoGIpBridge.setIpPeer(tIpClientSocket, mIpPeerAddress);
-									mSeenIpPeerAddresses.put(mIpPeerAddress.toString(), mIpPeerAddress);
-								}else
-									mLogger.err(this, "Host is unknown");
-							}
-						} catch (Exception tExc) {
-							mLogger.err(this, "Can not accept new TCP client due to exception: " + tExc.getMessage(), tExc);
-						}
-					}
-					while(true);
-				}				
-			};
-			mIpListenerThread.start();
+	/**
+	 * Closes the TCP listener and all bridged connections of an IP2FoG proxy.
+	 */
+	@Override
+	public void stop()
+	{
+		if (mIpServerSocket != null) {
+			try {
+				mIpServerSocket.close();
+			} catch (IOException tExc) {
+				mLogger.err(this, "Exception while closing TCP listener", tExc);
+			}
+			mIpServerSocket = null;
 		}
+		
+		if(mIp2FogBridges != null) {
+			LinkedList<FogIpBridge> tBridges;
+			synchronized (mIp2FogBridges) {
+				tBridges = new LinkedList<FogIpBridge>(mIp2FogBridges);
+			}
+			for(FogIpBridge tBridge : tBridges) {
+				tBridge.close();
+			}
+		}
+		
+		super.stop();
 	}
 	
 	public void finalize() throws Throwable
 	{
 		if (mIpServerSocket != null)
-			if (!mIpServerSocket.isClosed())
+			if (mIpServerSocket.isOpen())
 				mIpServerSocket.close();
 		super.finalize();		
 	}
@@ -229,140 +376,418 @@ public void finalize() throws Throwable
 	 * Helper class which implements an FoG/IP bridge (not only FoG listener!).
 	 * 
 	 * One instance is created either per incoming TCP client or per connection towards IP destination.
-	 * HINT: FoG socket has to be allocated by outside classes and afterwards set by a call to setSocket.
-	 * HINT: IP socket has to be allocated by outside classes and afterwards set by a call to setTcpStreams.
+	 * The FoG side is handled by the threads delivering the FoG events. The IP side is handled by
+	 * the selector thread. Data for the TCP socket is written directly if possible. The remaining
+	 * data is buffered and written as soon as the socket is writable again. If too much data is
+	 * buffered, the bridge stops reading from the FoG connection. The data remains in the receive
+	 * buffer of the FoG connection until the TCP socket accepts data again.
+	 * 
+	 * In the other direction, data read from the TCP socket is written to FoG by a FoG
+	 * writer thread of the {@link InterOpSelector}. At most one writer task per bridge is
+	 * active in order to keep the order of the data. If too much data is waiting for it, the
+	 * bridge stops reading from the TCP socket until half of the data was written.
 	 */
-	private class FogIpBridge extends Thread implements ReceiveCallback
+	private class FogIpBridge extends Session implements InterOpSelector.Handler
 	{
-		private Connection mSocket = null;
-		private Socket mIpClientSocket = null;
-		private OutputStream mIpSocketOutputStream = null;
-		private InputStream mIpSocketInputStream = null;
-		private SocketAddress mIpRemoteAddress = null;
+		public FogIpBridge(SocketChannel pIpClientSocket)
+		{
+			super(RECEIVE_IN_EXTRA_THREAD, mLogger, null);
+			
+			mIpClientSocket = pIpClientSocket;
+			mIpRemoteAddress = pIpClientSocket.socket().getRemoteSocketAddress();
+		}
 		
-		public FogIpBridge(Connection pSocket)
+		/**
+		 * Sets the FoG socket for a bridge, which is not started itself.
+		 * The events of the FoG socket are forwarded to the bridge by its owner.
+		 */
+		public void setConnection(Connection pSocket)
 		{
 			mSocket = pSocket;
+			register();
 		}
-
-		public void setIpPeer(Socket pIpClientSocket, SocketAddress pIpRemoteAddress)
+		
+		@Override
+		public void start(Connection pSocket)
 		{
-			mIpClientSocket = pIpClientSocket;
-			try {
-				mIpSocketOutputStream = pIpClientSocket.getOutputStream();
-				mIpSocketInputStream = pIpClientSocket.getInputStream();
-			} catch (IOException tExc) {
-				mLogger.err(this, "Can not get the in/out streams for the TCP client connection due to exception: " +tExc.getMessage(), tExc);
+			mSocket = pSocket;
+			super.start(pSocket);
+			register();
+		}
+		
+		private void register()
+		{
+			// read from IP socket only if FoG socket is able to send the data
+			int tOps = 0;
+			if(mSocket.isConnected()) {
+				tOps = SelectionKey.OP_READ;
 			}
-			mIpRemoteAddress = pIpRemoteAddress;
+			
+			InterOpSelector.getInstance().register(mIpClientSocket, tOps, this);
+			
+			// maybe FoG data was received before registration
+			receiveFromFoG();
 		}
 		
 		//----------------------------
 		//--- interface towards FoG
 		//----------------------------
+		@Override
+		protected void handleEvent(Event pEvent) throws Exception
+		{
+			if(pEvent instanceof DataAvailableEvent) {
+				// do not read all data from FoG socket, since the TCP socket might be blocked
+				receiveFromFoG();
+			} else {
+				super.handleEvent(pEvent);
+			}
+		}
+		
 		@Override
 		public void connected()
 		{
-			// start thread handling the IP socket
-			start();
+			// start reading from IP socket
+			InterOpSelector.getInstance().setInterest(mIpClientSocket, SelectionKey.OP_READ, true);
 		}
-
+		
+		/**
+		 * Reads data from the FoG socket as long as the TCP socket is not blocked.
+		 * Calls from different threads are serialized without holding a lock
+		 * during the read, since the FoG socket informs about new data while
+		 * holding its own lock.
+		 */
+		private void receiveFromFoG()
+		{
+			if(mFogReaders.getAndIncrement() != 0) {
+				// other thread is reading; it will repeat the reading
+				return;
+			}
+			
+			int tMissed = 1;
+			do {
+				try {
+					while(!isBlocked() && (mSocket != null) && (mSocket.available() > 0)) {
+						Object tData = mSocket.read();
+						if(tData != null) {
+							receiveData(tData);
+						}
+					}
+				} catch (NetworkException tExc) {
+					mLogger.err(this, "Can not read from FoG application " + mFogServerApplication, tExc);
+				}
+				
+				tMissed = mFogReaders.addAndGet(-tMissed);
+			}
+			while(tMissed != 0);
+		}
+		
+		private synchronized boolean isBlocked()
+		{
+			return mPendingBytes >= TCP_MAX_PENDING_BYTES;
+		}
+		
 		@Override
 		public boolean receiveData(Object pData)
 		{
-			boolean tRes = false;
+			byte[] tReceivedBytes = null;
 			
-			try {
-				byte[] tReceivedBytes = null;
+			if(pData instanceof byte[]) {
+				tReceivedBytes = (byte[]) pData;
+			} else {
+				tReceivedBytes = pData.toString().getBytes();
+			}
+	 		// forward FoG socket data to IP socket
+			mLogger.trace(this, "Got " + tReceivedBytes.length + " bytes from FoG application " + mFogServerApplication + " and forward them via TCP socket to " + mIpRemoteAddress);
+			
+			synchronized (this) {
+				if(mClosing) {
+					mLogger.warn(this, "Dropping " + tReceivedBytes.length + " bytes for closed TCP socket to " + mIpRemoteAddress);
+					return false;
+				}
 				
-				if(pData instanceof byte[]) {
-					tReceivedBytes = (byte[]) pData;
-				} else {
-					tReceivedBytes = pData.toString().getBytes();
+				mPendingData.addLast(ByteBuffer.wrap(tReceivedBytes));
+				mPendingBytes += tReceivedBytes.length;
+			}
+			
+			try {
+				if(!flush()) {
+					// wait until TCP socket is writable again
+					InterOpSelector.getInstance().setInterest(mIpClientSocket, SelectionKey.OP_WRITE, true);
 				}
-		 		// forward FoG socket data to IP socket
-				mLogger.log(this, "Got " + tReceivedBytes.length + " bytes from FoG application " + mFogServerApplication + " and forward them via TCP socket to " + mIpRemoteAddress);
-				mIpSocketOutputStream.write(tReceivedBytes);
 			} catch (IOException tExc) {
 				mLogger.err(this, "Can not send TCP packet due to exception: " +tExc.getMessage(), tExc);
+				close();
+				return false;
 			}
 			
-			return tRes;
+			return true;
 		}
-
+		
+		/**
+		 * Writes as much buffered data as possible to the TCP socket without blocking.
+		 * 
+		 * @return true, if all data was written; false, if the socket is blocked
+		 */
+		private synchronized boolean flush() throws IOException
+		{
+			while(true) {
+				// copy buffered data into direct buffer
+				while(!mPendingData.isEmpty() && mWriteBuffer.hasRemaining()) {
+					ByteBuffer tData = mPendingData.getFirst();
+					int tSize = Math.min(tData.remaining(), mWriteBuffer.remaining());
+					
+					ByteBuffer tPart = tData.duplicate();
+					tPart.limit(tPart.position() + tSize);
+					mWriteBuffer.put(tPart);
+					tData.position(tData.position() + tSize);
+					
+					if(!tData.hasRemaining()) {
+						mPendingData.removeFirst();
+					}
+				}
+				
+				mWriteBuffer.flip();
+				mPendingBytes -= mIpClientSocket.write(mWriteBuffer);
+				boolean tBlocked = mWriteBuffer.hasRemaining();
+				mWriteBuffer.compact();
+				
+				if(tBlocked) {
+					return false;
+				}
+				if(mPendingData.isEmpty()) {
+					return true;
+				}
+			}
+		}
+		
 		@Override
 		public void closed()
 		{
 			mLogger.log(this, "FoG application closed connection. Closing also.");
 			
-			if(mSocket.isConnected()) {
-				// close FoG socket
-				mSocket.close();
-				// close output stream of IP socket
-				try {
-					mIpSocketOutputStream.close();
-				} catch (IOException tExc) {
-					mLogger.err(this, "Could not close TCP socket output stream for FoG application " + mFogServerApplication + " and remote IP peer " + mIpRemoteAddress, tExc);
-				}
+			boolean tFlushed;
+			synchronized (this) {
+				mClosing = true;
+				tFlushed = (mPendingBytes == 0);
+			}
+			
+			// close TCP socket after writing the buffered data
+			if(tFlushed) {
+				close();
 			}
 		}
 		
 		@Override
 		public void error(Exception pExc)
 		{
-
+			mLogger.err(this, "Error for FoG application " + mFogServerApplication + ". Closing.", pExc);
+			close();
+		}
+		
+		/**
+		 * Closes the FoG and the IP side of the bridge.
+		 */
+		public void close()
+		{
+			synchronized (this) {
+				if(mClosed) {
+					return;
+				}
+				mClosed = true;
+				mClosing = true;
+				mPendingData.clear();
+			}
+			synchronized (mToFoG) {
+				mToFoG.clear();
+				mToFoGBytes = 0;
+			}
+			
+			try {
+				mIpClientSocket.close();
+			} catch (IOException tExc) {
+				mLogger.err(this, "Exception while closing socket " + mIpClientSocket + " because of \"" + tExc.getMessage() + "\"", tExc);
+			}
+			
+			// close FoG socket
+			stop();
+			if((mSocket != null) && mSocket.isConnected()) {
+				mSocket.close();
+			}
+			
+			if(mIp2FogBridges != null) {
+				bridgeClosed(this);
+			}
+			mLogger.info(this, "Stopped");
 		}
 		
 		//----------------------------
 		//--- interface towards IP
 		//----------------------------
 		@Override
-		public final void run()
+		public void ready(SelectionKey pKey) throws IOException
+		{
+			if(pKey.isWritable()) {
+				writeToIp();
+			}
+			if(pKey.isValid() && pKey.isReadable()) {
+				readFromIp();
+			}
+		}
+		
+		private void writeToIp()
 		{
-			mLogger.info(this, "IP/TCP client listener started");
-			byte[] tPacketBuffer = new byte[TCP_READ_BUFFER_SIZE];
-			int tPacketSize = 0;
-			long tTime = 0;
-			// show only first error
-			boolean tFirstError = true;
+			boolean tFlushed;
+			boolean tClosing;
 			
-			do {
-				tTime = System.currentTimeMillis();
-				try {
-					tPacketSize = mIpSocketInputStream.read(tPacketBuffer);
-				} catch (IOException tExc) {
-					if (tFirstError)
-						mLogger.err(this, "Could not read from TCP listener, maybe this error is repeating", tExc);
-					tFirstError = false;					
+			try {
+				tFlushed = flush();
+			} catch (IOException tExc) {
+				mLogger.err(this, "Could not write to TCP socket for " + mIpRemoteAddress, tExc);
+				close();
+				return;
+			}
+			
+			if(tFlushed) {
+				InterOpSelector.getInstance().setInterest(mIpClientSocket, SelectionKey.OP_WRITE, false);
+				
+				synchronized (this) {
+					tClosing = mClosing;
 				}
-
-				if (tPacketSize >= 0)
-				{
-					mLogger.log(this, "Got " + tPacketSize +" bytes from " + mIpRemoteAddress + " at TCP listener localhost:" + mIpClientSocket.getLocalPort());
+				
+				if(tClosing) {
+					close();
+				} else {
+					// continue reading data, which remained in FoG socket
+					receiveFromFoG();
+				}
+			}
+		}
+		
+		private void readFromIp()
+		{
+			ByteBuffer tBuffer = InterOpSelector.getInstance().getReadBuffer();
+			int tPacketSize;
+			
+			try {
+				tPacketSize = mIpClientSocket.read(tBuffer);
+			} catch (IOException tExc) {
+				mLogger.err(this, "Could not read from TCP socket for " + mIpRemoteAddress, tExc);
+				close();
+				return;
+			}
+			
+			if (tPacketSize > 0)
+			{
+				mLogger.trace(this, "Got " + tPacketSize +" bytes from " + mIpRemoteAddress + " at TCP listener localhost:" + mIpClientSocket.socket().getLocalPort());
+				
+				byte[] tSendBuffer = new byte[tPacketSize];
+				tBuffer.flip();
+				tBuffer.get(tSendBuffer);
+				
+				writeToFoG(tSendBuffer);
+			}
+			else if (tPacketSize < 0)
+			{// EOT was received
+				mLogger.log(this, "TCP peer " + mIpRemoteAddress + " closed connection. Closing also.");
+				close();
+			}
+		}
+		
+		/**
+		 * Queues data for the FoG writer threads. Stops reading from the TCP socket,
+		 * if the FoG side does not keep up. Called by the selector thread only.
+		 */
+		private void writeToFoG(byte[] pData)
+		{
+			boolean tStartWriter;
+			
+			synchronized (mToFoG) {
+				if(mClosed) {
+					return;
+				}
+				
+				mToFoG.addLast(pData);
+				mToFoGBytes += pData.length;
+				
+				if(!mIpReadPaused && (mToFoGBytes >= TCP_MAX_PENDING_BYTES)) {
+					mLogger.trace(this, "FoG side congested with " + mToFoGBytes + " bytes. Pausing TCP socket for " + mIpRemoteAddress);
+					mIpReadPaused = true;
+					InterOpSelector.getInstance().setInterest(mIpClientSocket, SelectionKey.OP_READ, false);
+				}
+				
+				tStartWriter = !mFoGWriterActive;
+				mFoGWriterActive = true;
+			}
+			
+			if(tStartWriter) {
+				InterOpSelector.getInstance().executeFoGWrite(mFoGWriter);
+			}
+		}
+		
+		/**
+		 * Writes the queued data to FoG. Runs in a FoG writer thread of the
+		 * {@link InterOpSelector} and resumes reading from the TCP socket.
+		 */
+		private final Runnable mFoGWriter = new Runnable() {
+			@Override
+			public void run()
+			{
+				while(true) {
+					byte[] tData;
 					
-					byte[] tSendBuffer = Arrays.copyOf(tPacketBuffer, tPacketSize);
+					synchronized (mToFoG) {
+						if(mToFoG.isEmpty()) {
+							mFoGWriterActive = false;
+							return;
+						}
+						tData = mToFoG.removeFirst();
+					}
 					
-					if(mSocket.isConnected())
-					{
-						mLogger.log(this, "Forward " +tPacketSize +" bytes of TCP socket for " + mIpRemoteAddress + " to " + mFogServerApplication + "  (msec=" +(System.currentTimeMillis() -tTime) +")");
+					if(mSocket.isConnected()) {
 						try {
-							mSocket.write(tSendBuffer);
+							mSocket.write(tData);
 						} catch (NetworkException tExc) {
-							mLogger.err(this, "Could not forward data to FoG application", tExc);
+							mLogger.err(FogIpBridge.this, "Could not forward data to FoG application", tExc);
+						}
+					} else {
+						mLogger.warn(FogIpBridge.this, "FoG socket is not connected");
+					}
+					
+					synchronized (mToFoG) {
+						mToFoGBytes -= tData.length;
+						
+						if(mIpReadPaused && !mClosed && (mToFoGBytes <= TCP_MAX_PENDING_BYTES / 2)) {
+							mIpReadPaused = false;
+							InterOpSelector.getInstance().setInterest(mIpClientSocket, SelectionKey.OP_READ, true);
 						}
-					}else
-						mLogger.warn(this, "FoG socket is not connected");
-				}else
-				{// if tPacketSize == -1 then EOT was received
-					try {
-						mIpSocketInputStream.close();
-					} catch (IOException tExc) {
-						mLogger.err(this, "Could not close TCP socket input stream for FoG application " + mFogServerApplication + " and remote IP peer " + mIpRemoteAddress, tExc);
 					}
 				}
 			}
-			while(tPacketSize >= 0);
-			mLogger.info(this, "Stopped");
+		};
+		
+		@Override
+		public String toString()
+		{
+			return ConnectionEndPointTCPProxy.this.toString() + "-Bridge(" + mIpRemoteAddress + ")";
 		}
+		
+		private Connection mSocket = null;
+		private SocketChannel mIpClientSocket = null;
+		private SocketAddress mIpRemoteAddress = null;
+		
+		private ByteBuffer mWriteBuffer = ByteBuffer.allocateDirect(TCP_WRITE_BUFFER_SIZE);
+		private LinkedList<ByteBuffer> mPendingData = new LinkedList<ByteBuffer>();
+		private int mPendingBytes = 0;
+		private AtomicInteger mFogReaders = new AtomicInteger(0);
+		private boolean mClosing = false;
+		private volatile boolean mClosed = false;
+		
+		/**
+		 * Data from the TCP socket waiting for the FoG writer threads; guarded by itself
+		 */
+		private LinkedList<byte[]> mToFoG = new LinkedList<byte[]>();
+		private int mToFoGBytes = 0;
+		private boolean mIpReadPaused = false;
+		private boolean mFoGWriterActive = false;
 	}
 }
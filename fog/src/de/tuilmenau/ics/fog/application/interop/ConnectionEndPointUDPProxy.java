@@ -14,16 +14,16 @@
 package de.tuilmenau.ics.fog.application.interop;
 
 import java.io.IOException;
-import java.net.DatagramPacket;
-import java.net.DatagramSocket;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
-import java.net.SocketException;
 import java.net.UnknownHostException;
-import java.util.Arrays;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.concurrent.atomic.AtomicLong;
 
 import de.tuilmenau.ics.fog.application.util.ReceiveCallback;
 import de.tuilmenau.ics.fog.application.util.Session;
@@ -39,14 +39,36 @@
  * 
  * This proxy supports both the FoG2IP bridging and the IP2FoG bridging
  * The two operating modes are explicitly selected by a call to the corresponding constructor.
+ * 
+ * The UDP socket is non-blocking and handled by the {@link InterOpSelector}. Datagrams,
+ * which do not fit into the socket send buffer, are dropped like on a congested link.
+ * Datagrams from IP are written to FoG by a FoG writer thread of the selector in the
+ * order of their reception. If the FoG side does not keep up, further datagrams are
+ * dropped as well.
  */
-public class ConnectionEndPointUDPProxy extends Session
+public class ConnectionEndPointUDPProxy extends Session implements InterOpSelector.Handler
 {
 	private static final boolean RECEIVE_IN_EXTRA_THREAD = false;
 	
+	/**
+	 * Maximum number of datagrams read from the socket per wake up
+	 */
+	private static final int UDP_RECEIVE_BATCH_SIZE = 32;
+	
+	/**
+	 * Maximum number of datagrams waiting for being written to FoG
+	 */
+	private static final int UDP_MAX_PENDING_DATAGRAMS = 256;
+	
+	/**
+	 * Maximum number of IP peers of an IP2FoG proxy. Datagrams from further
+	 * peers are dropped. A peer is removed if its FoG connection is closed.
+	 */
+	public static final int MAX_CONNECTIONS = 128;
+	
 	//### general
 	public boolean DEBUG_CEP_UDP_PROXY = false;
-	private final int UDP_READ_BUFFER_SIZE = 1024 *64;
+	private final int UDP_WRITE_BUFFER_SIZE = 1024 *64;
 	private final int UDP_SOCKET_RECEIVE_BUFFER = 2 * 1024 * 1024;
 	private SimpleName mFogServerApplication = null;
 	private Description mFogServerConnectionRequirements = null;
@@ -56,16 +78,24 @@ public class ConnectionEndPointUDPProxy extends Session
 	//### proxy mode
 	private enum ProxyMode {UNKNOWN, FOG2IP, IP2FOG};
 	ProxyMode mProxyMode = ProxyMode.UNKNOWN;	
-
+	
 	//### IP side
-	private Thread mIpListenerThread = null;
-	private DatagramSocket mIpSocket;
+	private boolean mIpListenerStarted = false;
+	private DatagramChannel mIpSocket;
 	private HashMap<String, SocketAddress> mSeenIpPeerAddresses = new HashMap<String, SocketAddress>();
 	private SocketAddress mIpPeerAddress;
-
+	private ByteBuffer mWriteBuffer = ByteBuffer.allocateDirect(UDP_WRITE_BUFFER_SIZE);
+	private AtomicLong mDroppedPackets = new AtomicLong(0);
+	
 	//### FoG side
 	private LinkedList<Connection> mFoGSockets = new LinkedList<Connection>();
 	
+	/**
+	 * Datagrams from the UDP socket waiting for the FoG writer threads; guarded by itself
+	 */
+	private LinkedList<byte[]> mToFoG = new LinkedList<byte[]>();
+	private boolean mFoGWriterActive = false;
+	
 	//#####################################################################################################################
 	//########################################  FoG to IP  ################################################################
 	//#####################################################################################################################
@@ -81,14 +111,15 @@ public ConnectionEndPointUDPProxy(Logger pLogger, String pIpRemoteName, int pUdp
 		super(RECEIVE_IN_EXTRA_THREAD, pLogger, null);
 		long tTime;
 		tTime = System.currentTimeMillis();
-
+		
 		mIpPeerAddress = new InetSocketAddress(pIpRemoteName, pUdpRemotePort);
-		mIpSocket = new DatagramSocket(pUdpLocalPort);
+		if(((InetSocketAddress) mIpPeerAddress).isUnresolved()) {
+			throw new UnknownHostException(pIpRemoteName);
+		}
+		mIpSocket = openSocket(pUdpLocalPort);
 		
 		mLogger = pLogger;
-		mLogger.info(this, "Binding UDP socket " + mIpSocket + " at port " + pUdpLocalPort + " with " + mIpSocket.getReceiveBufferSize() + " bytes receive buffer, took " + (System.currentTimeMillis() - tTime) + " msec");
-		mLogger.info(this, "Setting receive buffer at port " + pUdpLocalPort + " to " + UDP_SOCKET_RECEIVE_BUFFER + " bytes");
-		mIpSocket.setReceiveBufferSize(UDP_SOCKET_RECEIVE_BUFFER);
+		mLogger.info(this, "Binding UDP socket " + mIpSocket + " at port " + pUdpLocalPort + " with " + mIpSocket.socket().getReceiveBufferSize() + " bytes receive buffer, took " + (System.currentTimeMillis() - tTime) + " msec");
 		
 		//HINT: start of Ip listener is done when a FoG application tries to connect 
 		
@@ -105,7 +136,7 @@ public void start(Connection pSocket)
 		synchronized (mFoGSockets) {
 			mFoGSockets.add(pSocket);
 		}
-
+		
 		// Socket in FoG is now ready and connected
 		//  => Start reading data from UDP socket
 		startIpListener();
@@ -116,33 +147,56 @@ public void start(Connection pSocket)
 	@Override
 	public boolean receiveData(Object pData)
 	{
-		boolean tRes = false;
+		// forward FoG socket data to IP socket
+		if (mIpPeerAddress != null) {
+			send(pData, mIpPeerAddress);
+		}else {
+			mLogger.err(this, "Peer address is invalid, sending skipped");
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Sends data from FoG via the UDP socket without blocking.
+	 * If the socket send buffer is full, the data is dropped.
+	 */
+	private synchronized void send(Object pData, SocketAddress pIpRemoteAddress)
+	{
+		byte[] tReceivedBytes = null;
+		
+		if(pData instanceof byte[]) {
+			tReceivedBytes = (byte[]) pData;
+		} else {
+			tReceivedBytes = pData.toString().getBytes();
+		}
+		
+		if (DEBUG_CEP_UDP_PROXY)
+			mLogger.log(this, "Got " + tReceivedBytes.length + " bytes from FoG and forward them via UDP socket to " + pIpRemoteAddress);
+		
+		if (tReceivedBytes.length > mWriteBuffer.capacity()) {
+			mLogger.err(this, "Dropping " + tReceivedBytes.length + " bytes exceeding the maximum UDP datagram size");
+			mDroppedPackets.incrementAndGet();
+			return;
+		}
 		
 		try {
-			byte[] tReceivedBytes = null;
-			
-			if(pData instanceof byte[]) {
-				tReceivedBytes = (byte[]) pData;
-			} else {
-				tReceivedBytes = pData.toString().getBytes();
-			}
-	 		// forward FoG socket data to IP socket
-			if (DEBUG_CEP_UDP_PROXY)
-				mLogger.log(this, "Got " + tReceivedBytes.length + " bytes from FoG client and forward them via UDP socket to " + mIpPeerAddress);
-			if (!mIpSocket.isClosed()) {
-				if (mIpPeerAddress != null) {
-					mIpSocket.send(new DatagramPacket(tReceivedBytes, tReceivedBytes.length, mIpPeerAddress));
-				}else {
-					mLogger.err(this, "Peer address is invalid, sending skipped");
+			if (mIpSocket.isOpen()) {
+				mWriteBuffer.clear();
+				mWriteBuffer.put(tReceivedBytes);
+				mWriteBuffer.flip();
+				
+				if (mIpSocket.send(mWriteBuffer, pIpRemoteAddress) == 0) {
+					// socket buffer is full; datagram is lost like on a congested link
+					long tDropped = mDroppedPackets.incrementAndGet();
+					mLogger.warn(this, "Socket buffer full. Dropping UDP packet to " + pIpRemoteAddress + " (" + tDropped + " packets dropped)");
 				}
 			}
 		} catch (IOException tExc) {
 			mLogger.err(this, "Can not send UDP packet due to exception: " +tExc.getMessage(), tExc);
 		}
-		
-		return tRes;
 	}
-
+	
 	@Override
 	public void closed()
 	{
@@ -163,9 +217,7 @@ public void closed()
 				}
 				if (!tFoundRunningSocket)
 				{
-					if(mIpSocket != null) {
-						mIpSocket.close();
-					}
+					closeSocket();
 					// don't execute "super.closed()" here because this would close all connections
 				}else
 					mLogger.log(this, "Peer closed connection. Socket has other peers connected.");
@@ -175,7 +227,7 @@ public void closed()
 				break;
 		}
 	}
-
+	
 	//#####################################################################################################################
 	//########################################  IP to FoG  ################################################################
 	//#####################################################################################################################
@@ -198,121 +250,205 @@ public ConnectionEndPointUDPProxy(Logger pLogger, Host pHost, SimpleName pFogSer
 		mFogServerConnectionRequirements = pDescription;
 		mHost = pHost;
 		
+		// set proxy mode
+		mProxyMode = ProxyMode.IP2FOG;
+		
 		// create IP socket
 		try {
-			mIpSocket = new DatagramSocket(pUdpLocalPort);
-		} catch (SocketException tExc) {
+			mIpSocket = openSocket(pUdpLocalPort);
+		} catch (IOException tExc) {
 			mLogger.err(this, "Creation of UDP listener at localhost:" + pUdpLocalPort + " failed", tExc);
 		}
-
+		
 		// start IP listener
 		startIpListener();
-		
-		// set proxy mode
-		mProxyMode = ProxyMode.IP2FOG;
 	}
-
+	
 	public String getFoGServerName()
 	{
 		return mFogServerApplication.getName();
 	}
-
-	private void startIpListener()
+	
+	private DatagramChannel openSocket(int pUdpLocalPort) throws IOException
+	{
+		DatagramChannel tSocket = DatagramChannel.open();
+		
+		try {
+			tSocket.socket().setReceiveBufferSize(UDP_SOCKET_RECEIVE_BUFFER);
+			tSocket.socket().bind(new InetSocketAddress(pUdpLocalPort));
+			tSocket.configureBlocking(false);
+		} catch (IOException tExc) {
+			tSocket.close();
+			throw tExc;
+		}
+		
+		return tSocket;
+	}
+	
+	private synchronized void startIpListener()
 	{
-		if(mIpListenerThread == null) {
-			mIpListenerThread = new Thread() {
-				public void run()
+		if(!mIpListenerStarted) {
+			if (mIpSocket == null) {
+				mLogger.err(this, "UDP server socket ist unavailable");
+				return;
+			}
+			
+			mLogger.info(this, "IP/UDP listener started for localhost:" + getLocalPort());
+			
+			InterOpSelector.getInstance().register(mIpSocket, SelectionKey.OP_READ, this);
+			mIpListenerStarted = true;
+		}
+	}
+	
+	/**
+	 * Reads all pending datagrams (up to {@link #UDP_RECEIVE_BATCH_SIZE}) from the UDP
+	 * socket and queues them for the FoG sockets. Called by the selector thread only.
+	 */
+	@Override
+	public void ready(SelectionKey pKey) throws IOException
+	{
+		ByteBuffer tReceiveBuffer = InterOpSelector.getInstance().getReadBuffer();
+		
+		for(int i = 0; i < UDP_RECEIVE_BATCH_SIZE; i++) {
+			long time = System.currentTimeMillis();
+			
+			tReceiveBuffer.clear();
+			SocketAddress tSender = mIpSocket.receive(tReceiveBuffer);
+			if(tSender == null) {
+				// no more datagrams pending
+				return;
+			}
+			
+			int tPacketSize = tReceiveBuffer.position();
+			byte[] tSendBufffer = new byte[tPacketSize];
+			tReceiveBuffer.flip();
+			tReceiveBuffer.get(tSendBufffer);
+			
+			SocketAddress tIpPeerAddress;
+			int tNumberPeers;
+			synchronized (mSeenIpPeerAddresses) {
+				tIpPeerAddress = mSeenIpPeerAddresses.get(tSender.toString());
+				tNumberPeers = mSeenIpPeerAddresses.size();
+			}
+			if (tIpPeerAddress == null)
+			{
+				// is proxy in "IP to FoG" mode?
+				if (mProxyMode == ProxyMode.IP2FOG)
 				{
-					if (mIpSocket == null) {
-						mLogger.err(this, "UDP server socket ist unavailable");
-						return;
-					}					
-
-					mLogger.info(this, "IP/UDP listener started for localhost:" + mIpSocket.getLocalPort());
-
-					byte[] tReceiveBuffer = new byte[UDP_READ_BUFFER_SIZE];
-					DatagramPacket tUdpPacket = new DatagramPacket(tReceiveBuffer, tReceiveBuffer.length);
+					if (tNumberPeers >= MAX_CONNECTIONS) {
+						mDroppedPackets.incrementAndGet();
+						mLogger.warn(this, "Reached limit of " + MAX_CONNECTIONS + " peers. Dropping UDP packet from " + tSender);
+						continue;
+					}
 					
-					try {
-						int tPacketSize = 0;
-						do {
-							long time = System.currentTimeMillis();
-							boolean tCleanupForFogSocketsNeeded = false;
-							
-							try{
-								mIpSocket.receive(tUdpPacket);
-							}catch(Exception tExc)
-							{
-								mLogger.trace(this, "Socket was closed");
-								return;
-							}
-							tPacketSize = tUdpPacket.getLength();
-							
-							byte[] tSendBufffer = Arrays.copyOf(tReceiveBuffer, tPacketSize);
-							
-							mIpPeerAddress = tUdpPacket.getSocketAddress();
-							SocketAddress tIpPeerAddress = mSeenIpPeerAddresses.get(mIpPeerAddress.toString()); 
-							if (tIpPeerAddress == null)
-							{
-								// store the IP peer in the hash map of already known IP peers
-								mLogger.log(this, "Adding peer address " + mIpPeerAddress + " to internal database");
-								mSeenIpPeerAddresses.put(mIpPeerAddress.toString(), mIpPeerAddress);
-
-								// is proxy in "IP to FoG" mode?
-								if (mProxyMode == ProxyMode.IP2FOG)
-								{
-									if (mHost != null)
-									{
-										mLogger.info(this, "Creating new FoG2Ip listener for new IP remote address " + mIpPeerAddress);
-										// create connection to the FoG server
-										Connection tSocket = mHost.getLayer(null).connect(mFogServerApplication, mFogServerConnectionRequirements, null);
-										// create and initialize new FoG2IP listener
-										Fog2IpListener tFoGListener = new Fog2IpListener(tSocket); 
-										tFoGListener.setIpPeer(mIpSocket, mIpPeerAddress);
-										synchronized (mFoGSockets) {
-											// add this new socket to the internal list
-											mFoGSockets.add(tSocket);
-										}
-									}else
-										mLogger.err(this, "Host is unknown");
-								}
-							}
-							int tConnectedFoGSockets = 0;
-							synchronized (mFoGSockets) {
-								tConnectedFoGSockets = mFoGSockets.size();
-						 		// forward UDP socket data to the connected FoG sockets
-						 		for(Connection tSocket : mFoGSockets) {
-									if(tSocket.isConnected()) {
-										tSocket.write(tSendBufffer);
-									} else {
-										tCleanupForFogSocketsNeeded = true;
-										mLogger.log(this, "Cleanup for list of connected FoG sockets needed");
-									}
-								}
-							}
-							
-							if (DEBUG_CEP_UDP_PROXY)
-								mLogger.log(this, "Forwarded " +tPacketSize +" bytes to " + tConnectedFoGSockets + " FoG sockets, packets were received via UDP at localhost:" + mIpSocket.getLocalPort() + " from " + mIpPeerAddress + " (msec=" +(System.currentTimeMillis() -time) +")");
-							
-							// remove disconnected socket from list
-							//   if there are more of them, the next will be deleted in the next round.
-							if(tCleanupForFogSocketsNeeded) {
-								cleanupFoGSocketList();
-							}
+					if (mHost != null)
+					{
+						mLogger.info(this, "Creating new FoG2Ip listener for new IP remote address " + tSender);
+						// create connection to the FoG server
+						Connection tSocket = mHost.getLayer(null).connect(mFogServerApplication, mFogServerConnectionRequirements, null);
+						// create and initialize new FoG2IP listener
+						Fog2IpListener tFoGListener = new Fog2IpListener(tSocket); 
+						tFoGListener.setIpPeer(tSender);
+						new Session(RECEIVE_IN_EXTRA_THREAD, mLogger, tFoGListener).start(tSocket);
+						synchronized (mFoGSockets) {
+							// add this new socket to the internal list
+							mFoGSockets.add(tSocket);
 						}
-						while(tPacketSize >= 0);
+					}else
+						mLogger.err(this, "Host is unknown");
+				}
+				
+				// store the IP peer in the hash map of already known IP peers
+				mLogger.log(this, "Adding peer address " + tSender + " to internal database");
+				synchronized (mSeenIpPeerAddresses) {
+					mSeenIpPeerAddresses.put(tSender.toString(), tSender);
+				}
+			}
+			mIpPeerAddress = tSender;
+			
+			writeToFoG(tSendBufffer);
+			
+			if (DEBUG_CEP_UDP_PROXY)
+				mLogger.log(this, "Queued " +tPacketSize +" bytes for FoG, packets were received via UDP at localhost:" + getLocalPort() + " from " + tSender + " (msec=" +(System.currentTimeMillis() -time) +")");
+		}
+	}
+	
+	/**
+	 * Queues a datagram for the FoG writer threads. Drops it, if the FoG
+	 * side does not keep up. Called by the selector thread only.
+	 */
+	private void writeToFoG(byte[] pData)
+	{
+		boolean tStartWriter;
+		
+		synchronized (mToFoG) {
+			if(mToFoG.size() >= UDP_MAX_PENDING_DATAGRAMS) {
+				long tDropped = mDroppedPackets.incrementAndGet();
+				mLogger.warn(this, "FoG side congested. Dropping UDP packet (" + tDropped + " packets dropped)");
+				return;
+			}
+			
+			mToFoG.addLast(pData);
+			
+			tStartWriter = !mFoGWriterActive;
+			mFoGWriterActive = true;
+		}
+		
+		if(tStartWriter) {
+			InterOpSelector.getInstance().executeFoGWrite(mFoGWriter);
+		}
+	}
+	
+	/**
+	 * Writes the queued datagrams to the connected FoG sockets. Runs in a FoG
+	 * writer thread of the {@link InterOpSelector}. Only one instance runs at
+	 * a time in order to keep the order of the datagrams.
+	 */
+	private final Runnable mFoGWriter = new Runnable() {
+		@Override
+		public void run()
+		{
+			while(true) {
+				byte[] tData;
+				Connection[] tSockets;
+				boolean tCleanupForFogSocketsNeeded = false;
+				
+				synchronized (mToFoG) {
+					if(mToFoG.isEmpty()) {
+						mFoGWriterActive = false;
+						return;
 					}
-					catch(Exception tExc) {
-						mLogger.err(this, "Failure occurred in listener", tExc);
+					tData = mToFoG.removeFirst();
+				}
+				
+				// do not block the list during the writes
+				synchronized (mFoGSockets) {
+					tSockets = mFoGSockets.toArray(new Connection[mFoGSockets.size()]);
+				}
+				
+				// forward UDP socket data to the connected FoG sockets
+				for(Connection tSocket : tSockets) {
+					if(tSocket.isConnected()) {
+						try {
+							tSocket.write(tData);
+						} catch (Exception tExc) {
+							mLogger.err(ConnectionEndPointUDPProxy.this, "Could not forward data to FoG socket " + tSocket, tExc);
+						}
+					} else {
+						tCleanupForFogSocketsNeeded = true;
+						mLogger.log(ConnectionEndPointUDPProxy.this, "Cleanup for list of connected FoG sockets needed");
 					}
-					
-					mLogger.log(this, "UDP proxy closed");
 				}
-			};			
-			mIpListenerThread.start();
+				
+				// remove disconnected socket from list
+				//   if there are more of them, the next will be deleted in the next round.
+				if(tCleanupForFogSocketsNeeded) {
+					cleanupFoGSocketList();
+				}
+			}
 		}
-	}
-
+	};
+	
 	/**
 	 * Returns the local UDP listener port number. 
 	 * 
@@ -320,7 +456,15 @@ public void run()
 	 */
 	public int getLocalPort()
 	{
-		return mIpSocket.getLocalPort();		
+		return mIpSocket.socket().getLocalPort();		
+	}
+	
+	/**
+	 * @return Number of datagrams dropped due to full socket buffers or the peer limit
+	 */
+	public long getNumberDroppedPackets()
+	{
+		return mDroppedPackets.get();
 	}
 	
 	/**
@@ -330,7 +474,10 @@ public int getLocalPort()
 	 */
 	public String[] getSeenIpPeerAddresses()
 	{
-		Object[] tObjResult = mSeenIpPeerAddresses.values().toArray();
+		Object[] tObjResult;
+		synchronized (mSeenIpPeerAddresses) {
+			tObjResult = mSeenIpPeerAddresses.values().toArray();
+		}
 		if (tObjResult.length < 1) {
 			//mLogger.warn(this, "No peer IP address known yet");
 			return null;
@@ -368,14 +515,45 @@ private void cleanupFoGSocketList()
 		}
 	}
 	
+	private void closeSocket()
+	{
+		if (mIpSocket != null) {
+			try {
+				mIpSocket.close();
+			} catch (IOException tExc) {
+				mLogger.err(this, "Exception while closing UDP socket", tExc);
+			}
+		}
+	}
+	
+	/**
+	 * Closes the UDP socket and the FoG sockets of the proxy.
+	 */
+	@Override
+	public void stop()
+	{
+		closeSocket();
+		
+		if (mProxyMode == ProxyMode.IP2FOG) {
+			synchronized (mFoGSockets) {
+				for(Connection tSocket : mFoGSockets) {
+					tSocket.close();
+				}
+				mFoGSockets.clear();
+			}
+		}
+		
+		super.stop();
+	}
+	
 	public void finalize() throws Throwable
 	{
 		if (mIpSocket != null)
-			if (!mIpSocket.isClosed())
+			if (mIpSocket.isOpen())
 				mIpSocket.close();
 		super.finalize();		
 	}
-
+	
 	/**
 	 * Helper class which implements an FoG listener.
 	 * 
@@ -384,7 +562,6 @@ public void finalize() throws Throwable
 	private class Fog2IpListener implements ReceiveCallback
 	{
 		private Connection mSocket = null;
-		private DatagramSocket mIpSocket = null;
 		private SocketAddress mIpRemoteAddress = null;
 		
 		public Fog2IpListener(Connection pSocket)
@@ -392,9 +569,8 @@ public Fog2IpListener(Connection pSocket)
 			mSocket = pSocket;
 		}
 		
-		public void setIpPeer(DatagramSocket pIpSocket, SocketAddress pIpRemoteAddress)
+		public void setIpPeer(SocketAddress pIpRemoteAddress)
 		{
-			mIpSocket = pIpSocket;
 			mIpRemoteAddress = pIpRemoteAddress;
 		}
 		
@@ -402,41 +578,37 @@ public void setIpPeer(DatagramSocket pIpSocket, SocketAddress pIpRemoteAddress)
 		public void connected()
 		{
 		}
-
+		
 		@Override
 		public boolean receiveData(Object pData)
 		{
-			boolean tRes = false;
-			
-			try {
-				byte[] tReceivedBytes = null;
-				
-				if(pData instanceof byte[]) {
-					tReceivedBytes = (byte[]) pData;
-				} else {
-					tReceivedBytes = pData.toString().getBytes();
-				}
-		 		// forward FoG socket data to IP socket
-				if (DEBUG_CEP_UDP_PROXY)
-					mLogger.log(this, "Got " + tReceivedBytes.length + " bytes as answer from FoG application server and forward them via UDP socket to " + mIpRemoteAddress);
-				mIpSocket.send(new DatagramPacket(tReceivedBytes, tReceivedBytes.length, mIpRemoteAddress));
-			} catch (IOException tExc) {
-				mLogger.err(this, "Can not send UDP packet due to exception: " +tExc.getMessage(), tExc);
-			}
+			// forward FoG socket data as answer from FoG application server via UDP socket
+			send(pData, mIpRemoteAddress);
 			
-			return tRes;
+			return false;
 		}
-
+		
 		@Override
 		public void closed()
 		{
 			mLogger.log(this, "FoG application closed connection. Closing also.");
 			
+			// forget IP peer; new datagrams from it lead to a new FoG connection
+			if(mIpRemoteAddress != null) {
+				synchronized (mSeenIpPeerAddresses) {
+					mSeenIpPeerAddresses.remove(mIpRemoteAddress.toString());
+				}
+			}
+			
 			if(mSocket != null) {
 				mSocket.close();
+				
+				synchronized (mFoGSockets) {
+					mFoGSockets.remove(mSocket);
+				}
 			}
 		}
-
+		
 		@Override
 		public void error(Exception pExc)
 		{
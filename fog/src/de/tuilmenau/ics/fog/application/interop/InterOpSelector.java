@@ -0,0 +1,293 @@
+/*******************************************************************************
+ * Forwarding on Gates Simulator/Emulator
+ * Copyright (C) 2012, Integrated Communication Systems Group, TU Ilmenau.
+ * 
+ * This program and the accompanying materials are dual-licensed under either
+ * the terms of the Eclipse Public License v1.0 as published by the Eclipse
+ * Foundation
+ *  
+ *   or (per the licensee's choosing)
+ *  
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ ******************************************************************************/
+package de.tuilmenau.ics.fog.application.interop;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.tuilmenau.ics.fog.ui.Logging;
+
+
+/**
+ * Single thread handling the IP sockets of all interoperability proxies
+ * of the JVM. The sockets are non-blocking and registered at one selector.
+ * Thus, the number of threads does not depend on the number of proxies
+ * and bridged connections.
+ * 
+ * Handlers are called by the loop thread only. Other threads change the
+ * registrations via tasks, which are executed by the loop thread before
+ * the next select.
+ * 
+ * Data from IP is written to the FoG connections by a small pool of writer
+ * threads, since these writes might block. Thus, a slow FoG side does not
+ * stall the IP sockets or the FoG writes of other proxies. The pool does not
+ * order the tasks. Proxies keep the order of their data by submitting at
+ * most one writer task at a time, which writes all data queued for them.
+ */
+public class InterOpSelector implements Runnable
+{
+	/**
+	 * Size of the direct buffer used for reading from the IP sockets
+	 */
+	public static final int READ_BUFFER_SIZE = 64 * 1024;
+	
+	/**
+	 * Number of threads writing to FoG connections
+	 */
+	public static final int FOG_WRITER_THREADS = 4;
+	
+	
+	/**
+	 * Handler for events of a channel registered at the loop.
+	 */
+	public interface Handler
+	{
+		/**
+		 * Called by the loop thread if the channel is ready for at least
+		 * one of the operations it is registered for.
+		 * Exceptions lead to the deregistration of the channel.
+		 * 
+		 * @param pKey Selection key of the channel
+		 */
+		public void ready(SelectionKey pKey) throws Exception;
+	}
+	
+	public static synchronized InterOpSelector getInstance()
+	{
+		if(sInstance == null) {
+			sInstance = new InterOpSelector();
+		}
+		
+		return sInstance;
+	}
+	
+	private InterOpSelector()
+	{
+		try {
+			mSelector = Selector.open();
+		}
+		catch(IOException tExc) {
+			throw new RuntimeException(this +" - Can not open selector.", tExc);
+		}
+		
+		mThread = new Thread(this, "InterOpSelector");
+		mThread.setDaemon(true);
+		mThread.start();
+		
+		mFoGWriter = Executors.newFixedThreadPool(FOG_WRITER_THREADS, new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable pRunnable)
+			{
+				Thread tThread = new Thread(pRunnable, "InterOpFoGWriter-" +mFoGWriterThreads.incrementAndGet());
+				tThread.setDaemon(true);
+				return tThread;
+			}
+		});
+	}
+	
+	/**
+	 * Registers a non-blocking channel at the loop. If the channel is
+	 * already registered, the operations are added to its interest set.
+	 * 
+	 * @param pChannel Channel in non-blocking mode
+	 * @param pOps Operations of interest
+	 * @param pHandler Handler called if the channel is ready
+	 */
+	public void register(final SelectableChannel pChannel, final int pOps, final Handler pHandler)
+	{
+		execute(new Runnable() {
+			@Override
+			public void run()
+			{
+				try {
+					SelectionKey tKey = pChannel.keyFor(mSelector);
+					
+					if((tKey != null) && tKey.isValid()) {
+						tKey.interestOps(tKey.interestOps() | pOps);
+						tKey.attach(pHandler);
+					} else {
+						pChannel.register(mSelector, pOps, pHandler);
+					}
+				}
+				catch(ClosedChannelException tExc) {
+					Logging.warn(InterOpSelector.this, "Channel of " +pHandler +" closed before registration.");
+				}
+			}
+		});
+	}
+	
+	/**
+	 * Enables or disables operations in the interest set of a channel.
+	 * Changes for channels, which are not registered (anymore), are ignored.
+	 * 
+	 * @param pChannel Registered channel
+	 * @param pOps Operations to change
+	 * @param pEnable true for adding the operations; false for removing them
+	 */
+	public void setInterest(final SelectableChannel pChannel, final int pOps, final boolean pEnable)
+	{
+		Runnable tTask = new Runnable() {
+			@Override
+			public void run()
+			{
+				SelectionKey tKey = pChannel.keyFor(mSelector);
+				
+				if((tKey != null) && tKey.isValid()) {
+					if(pEnable) {
+						tKey.interestOps(tKey.interestOps() | pOps);
+					} else {
+						tKey.interestOps(tKey.interestOps() & ~pOps);
+					}
+				}
+			}
+		};
+		
+		if(Thread.currentThread() == mThread) {
+			tTask.run();
+		} else {
+			execute(tTask);
+		}
+	}
+	
+	/**
+	 * Executes a task writing to FoG connections in one of the FoG writer
+	 * threads. Tasks might be executed in parallel and in any order. Callers
+	 * requiring ordered writes must not submit a further task before the
+	 * previous one has finished.
+	 */
+	public void executeFoGWrite(Runnable pTask)
+	{
+		mFoGWriter.execute(pTask);
+	}
+	
+	/**
+	 * Executes a task in the loop thread before the next select.
+	 */
+	private void execute(Runnable pTask)
+	{
+		boolean tWakeup;
+		
+		synchronized(mTasks) {
+			tWakeup = mTasks.isEmpty();
+			mTasks.addLast(pTask);
+		}
+		
+		if(tWakeup) {
+			mSelector.wakeup();
+		}
+	}
+	
+	/**
+	 * Buffer for reading from a channel. It is a direct buffer in order
+	 * to avoid an additional copy by the channel implementation. It may
+	 * be used by handlers only, since it is shared among all of them.
+	 * 
+	 * @return Cleared direct buffer with {@link #READ_BUFFER_SIZE} bytes
+	 */
+	public ByteBuffer getReadBuffer()
+	{
+		if(Thread.currentThread() != mThread) {
+			throw new IllegalStateException(this +" - Read buffer used outside of the loop thread.");
+		}
+		
+		mReadBuffer.clear();
+		return mReadBuffer;
+	}
+	
+	@Override
+	public void run()
+	{
+		LinkedList<Runnable> tTasks = new LinkedList<Runnable>();
+		
+		while(true) {
+			try {
+				synchronized(mTasks) {
+					tTasks.addAll(mTasks);
+					mTasks.clear();
+				}
+				
+				for(Runnable tTask : tTasks) {
+					tTask.run();
+				}
+				tTasks.clear();
+				
+				mSelector.select();
+				
+				Iterator<SelectionKey> tKeys = mSelector.selectedKeys().iterator();
+				while(tKeys.hasNext()) {
+					SelectionKey tKey = tKeys.next();
+					tKeys.remove();
+					
+					if(tKey.isValid()) {
+						handle(tKey);
+					}
+				}
+			}
+			catch(Exception tExc) {
+				Logging.err(this, "Exception in selector loop. Continuing.", tExc);
+				tTasks.clear();
+			}
+		}
+	}
+	
+	private void handle(SelectionKey pKey)
+	{
+		Handler tHandler = (Handler) pKey.attachment();
+		
+		try {
+			tHandler.ready(pKey);
+		}
+		catch(Exception tExc) {
+			Logging.err(this, "Handler " +tHandler +" failed. Closing its channel.", tExc);
+			
+			pKey.cancel();
+			try {
+				pKey.channel().close();
+			}
+			catch(IOException tCloseExc) {
+				// ignore it; channel is not used anymore
+			}
+		}
+	}
+	
+	@Override
+	public String toString()
+	{
+		return getClass().getSimpleName();
+	}
+	
+	
+	private final Selector mSelector;
+	private final Thread mThread;
+	private final ExecutorService mFoGWriter;
+	private final AtomicInteger mFoGWriterThreads = new AtomicInteger(0);
+	private final ByteBuffer mReadBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+	
+	/**
+	 * Registration changes, which have to be executed by the loop thread
+	 */
+	private final LinkedList<Runnable> mTasks = new LinkedList<Runnable>();
+	
+	private static InterOpSelector sInstance = null;
+}
@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Forwarding on Gates Simulator/Emulator
+ * Copyright (C) 2012, Integrated Communication Systems Group, TU Ilmenau.
+ * 
+ * This program and the accompanying materials are dual-licensed under either
+ * the terms of the Eclipse Public License v1.0 as published by the Eclipse
+ * Foundation
+ *  
+ *   or (per the licensee's choosing)
+ *  
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ ******************************************************************************/
+package de.tuilmenau.ics.fog.authentication;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+
+import de.tuilmenau.ics.fog.packets.codec.WireOutput;
+
+
+/**
+ * Calculates checksums for signatures. The message digest objects are
+ * expensive to create and not thread safe. Therefore, they are created
+ * once per thread and algorithm and reused for all signatures.
+ * 
+ * The data is encoded in a binary form, which is identical on all systems.
+ * Byte arrays and strings are used as they are; other objects are encoded
+ * with the binary wire codec in its canonical mode. The Java serialization
+ * is not used, since its output is not canonical. Objects without a
+ * registered codec are covered by their string representation.
+ */
+class Checksums
+{
+	/**
+	 * Type tags preceding the encoded data
+	 */
+	private static final byte TYPE_NULL = 0;
+	private static final byte TYPE_BYTES = 1;
+	private static final byte TYPE_STRING = 2;
+	private static final byte TYPE_WIRE = 3;
+	private static final byte TYPE_TO_STRING = 4;
+	
+	/**
+	 * Buffers larger than this are not kept for the next checksum
+	 */
+	private static final int MAX_POOLED_BUFFER_SIZE = 64 * 1024;
+	
+	private static final ThreadLocal<WireOutput> sBuffers = new ThreadLocal<WireOutput>() {
+		@Override
+		protected WireOutput initialValue()
+		{
+			WireOutput out = new WireOutput();
+			
+			out.setCanonical(true);
+			return out;
+		}
+	};
+	
+	private static final ThreadLocal<HashMap<String, MessageDigest>> sDigests = new ThreadLocal<HashMap<String, MessageDigest>>() {
+		@Override
+		protected HashMap<String, MessageDigest> initialValue()
+		{
+			return new HashMap<String, MessageDigest>();
+		}
+	};
+	
+	/**
+	 * @return Message digest for the algorithm, which is reset and can be used by the calling thread only
+	 * @throws NoSuchAlgorithmException If the algorithm is not supported by the VM
+	 */
+	public static MessageDigest getDigest(String algorithm) throws NoSuchAlgorithmException
+	{
+		HashMap<String, MessageDigest> digests = sDigests.get();
+		MessageDigest digest = digests.get(algorithm);
+		
+		if(digest == null) {
+			digest = MessageDigest.getInstance(algorithm);
+			digests.put(algorithm, digest);
+		} else {
+			digest.reset();
+		}
+		
+		return digest;
+	}
+	
+	/**
+	 * Calculates the checksum of some data.
+	 * 
+	 * @param algorithm Name of the digest algorithm (e.g. "MD5")
+	 * @param data Data to calculate the checksum for
+	 * @return Checksum (!= null)
+	 */
+	public static byte[] calculate(String algorithm, Serializable data) throws NoSuchAlgorithmException
+	{
+		MessageDigest checksum = getDigest(algorithm);
+		
+		if(data == null) {
+			checksum.update(TYPE_NULL);
+		}
+		else if(data instanceof byte[]) {
+			checksum.update(TYPE_BYTES);
+			checksum.update((byte[]) data);
+		}
+		else if(data instanceof String) {
+			checksum.update(TYPE_STRING);
+			update(checksum, (String) data);
+		}
+		else {
+			WireOutput out = sBuffers.get();
+			
+			try {
+				out.reset();
+				out.writeObject(data);
+				
+				checksum.update(TYPE_WIRE);
+				checksum.update(out.getBuffer(), 0, out.getLength());
+			}
+			catch(IOException exc) {
+				// no canonical wire form (e.g. signalling message without codec)
+				checksum.update(TYPE_TO_STRING);
+				update(checksum, data.toString());
+			}
+			finally {
+				// do not keep large buffers for the next checksums
+				if(out.getBuffer().length > MAX_POOLED_BUFFER_SIZE) {
+					sBuffers.remove();
+				}
+			}
+		}
+		
+		return checksum.digest();
+	}
+	
+	private static void update(MessageDigest checksum, String str)
+	{
+		for(int i = 0; i < str.length(); i++) {
+			char c = str.charAt(i);
+			
+			checksum.update((byte) (c >>> 8));
+			checksum.update((byte) c);
+		}
+	}
+}
@@ -14,8 +14,13 @@
 package de.tuilmenau.ics.fog.authentication;
 
 import java.io.Serializable;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.ListIterator;
+import java.util.Map;
 
 import de.tuilmenau.ics.fog.exceptions.AuthenticationException;
 import de.tuilmenau.ics.fog.facade.Host;
@@ -51,11 +56,27 @@
 	 */
 	private static final boolean AUTHENTICATION_SERVICE_ENTITY_PER_NODE = false;
 	
+	/**
+	 * Defines if signatures of a packet, which were already checked at a
+	 * previous hop within the same VM, are skipped if the data did not
+	 * change. That keeps the effort per hop constant and independent from
+	 * the number of signatures of a packet.
+	 */
+	private static final boolean INCREMENTAL_CHECK = true;
+	
+	/**
+	 * Maximum number of successful verifications stored in the cache.
+	 * If 0, no cache is used.
+	 */
+	private static final int VERIFICATION_CACHE_SIZE = 4096;
+	
 	public enum IdentityType {
 		Off,     // no entities (more exact: one entity for everything)
 		Simple,  // no signatures; just matching entity names
 		MD5,     // MD5 check sum and entity names (not encrypted; detects only bit errors)
-		PPK      // encrypted MD5 check sum and entity names (performance intense)
+		SHA256,  // SHA-256 check sum and entity names (not encrypted; detects only bit errors)
+		PPK,     // encrypted MD5 check sum and entity names (performance intense)
+		PPK_SHA256 // encrypted SHA-256 check sum and entity names (performance intense)
 	};
 	
 	/**
@@ -113,7 +134,9 @@ public Identity createIdentity(String name)
 			switch(type) {
 				case Off: cred = offCredential; break;// Identities deactivated
 				case MD5: cred = new MD5Credential(name); break;
+				case SHA256: cred = new SHA256Credential(name); break;
 				case PPK: cred = new PPKCredential(name); break;
+				case PPK_SHA256: cred = new PPKCredential(name, SHA256Signature.ALGORITHM); break;
 				default:  cred = new SimpleCredential(name);
 			}
 		}
@@ -155,6 +178,19 @@ public Signature createSignature(Serializable data, Identity identity) throws Au
 	 * @return true, if the signature fits to the data and the entity of the signature is known; false otherwise
 	 */
 	public boolean checkSignature(Signature signature, Serializable data)
+	{
+		return checkSignature(signature, data, null, null);
+	}
+	
+	/**
+	 * Checks a signature with an optional checksum of the data calculated
+	 * in advance. Successful verifications are cached per signer, checksum
+	 * and signature value.
+	 * 
+	 * @param algorithm Algorithm used for the checksum; null if no checksum available
+	 * @param checksum Checksum of the data; null if not available
+	 */
+	private boolean checkSignature(Signature signature, Serializable data, String algorithm, byte[] checksum)
 	{
 		if((signature != null) && (data != null)) {
 			Credential cred = mIdentities.get(signature.getIdentity());
@@ -165,6 +201,31 @@ public boolean checkSignature(Signature signature, Serializable data)
 					logger.debug(this, "Accept unknown identity " +signature.getIdentity());
 				}
 				
+				if((checksum != null) && (signature instanceof SimpleSignature)) {
+					SimpleSignature sign = (SimpleSignature) signature;
+					
+					if(algorithm.equals(sign.getChecksumAlgorithm())) {
+						VerifiedSignature entry = new VerifiedSignature(sign.getIdentity(), checksum, sign.getValue());
+						
+						synchronized (mVerified) {
+							if(mVerified.get(entry) != null) {
+								return true;
+							}
+						}
+						
+						if(sign.checkChecksum(checksum)) {
+							if(VERIFICATION_CACHE_SIZE > 0) {
+								synchronized (mVerified) {
+									mVerified.put(entry, Boolean.TRUE);
+								}
+							}
+							return true;
+						} else {
+							return false;
+						}
+					}
+				}
+				
 				return signature.check(data);
 			}
 		}
@@ -201,16 +262,58 @@ public boolean check(Packet packet)
 			LinkedList<Signature> signatures = packet.getAuthentications();
 			
 			if(signatures != null) {
-				for(Signature sign : signatures) {
-					if(!checkSignature(sign, packet.getData())) {
+				Serializable data = packet.getData();
+				String algorithm = getChecksumAlgorithm(signatures);
+				byte[] checksum = null;
+				int start = 0;
+				
+				// calculate checksum only once for all signatures
+				if((algorithm != null) && (data != null)) {
+					try {
+						checksum = Checksums.calculate(algorithm, data);
+					}
+					catch(NoSuchAlgorithmException exc) {
+						logger.err(this, "Can not calculate checksum for " +packet, exc);
 						return false;
 					}
 				}
+				
+				// skip signatures checked at a previous hop, if data did not change
+				if(INCREMENTAL_CHECK && Arrays.equals(checksum, packet.getVerifiedChecksum())) {
+					start = Math.min(packet.getNumberVerifiedAuthentications(), signatures.size());
+				}
+				
+				ListIterator<Signature> iter = signatures.listIterator(start);
+				while(iter.hasNext()) {
+					if(!checkSignature(iter.next(), data, algorithm, checksum)) {
+						return false;
+					}
+				}
+				
+				packet.setVerifiedAuthentications(signatures.size(), checksum);
 			}
 		}
 		
 		return true;
 	}
+	
+	/**
+	 * @return Checksum algorithm of the first signature depending on the data; null if there is none
+	 */
+	private static String getChecksumAlgorithm(LinkedList<Signature> signatures)
+	{
+		for(Signature sign : signatures) {
+			if(sign instanceof SimpleSignature) {
+				String algorithm = ((SimpleSignature) sign).getChecksumAlgorithm();
+				
+				if(algorithm != null) {
+					return algorithm;
+				}
+			}
+		}
+		
+		return null;
+	}
 
 	/**
 	 * @return The credential for the entity name or null, if no entity found
@@ -226,9 +329,56 @@ private Credential getCredential(String name)
 		return null;
 	}
 	
+	/**
+	 * Key for the cache of successful verifications
+	 */
+	private static class VerifiedSignature
+	{
+		public VerifiedSignature(Identity signer, byte[] checksum, byte[] value)
+		{
+			this.signer = signer;
+			this.checksum = checksum;
+			this.value = value;
+		}
+		
+		@Override
+		public boolean equals(Object obj)
+		{
+			if(obj == this) return true;
+			
+			if(obj instanceof VerifiedSignature) {
+				VerifiedSignature other = (VerifiedSignature) obj;
+				
+				return signer.equals(other.signer) && Arrays.equals(checksum, other.checksum) && Arrays.equals(value, other.value);
+			}
+			
+			return false;
+		}
+		
+		@Override
+		public int hashCode()
+		{
+			return signer.hashCode() ^ Arrays.hashCode(checksum) ^ Arrays.hashCode(value);
+		}
+		
+		private Identity signer;
+		private byte[] checksum;
+		private byte[] value;
+	}
+	
 	private Logger logger;
 	private IdentityType type;
 	private HashMap<Identity, Credential> mIdentities = new HashMap<Identity, Credential>();
 	
+	private LinkedHashMap<VerifiedSignature, Boolean> mVerified = new LinkedHashMap<VerifiedSignature, Boolean>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+		
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<VerifiedSignature, Boolean> eldest)
+		{
+			return size() > VERIFICATION_CACHE_SIZE;
+		}
+	};
+	
 	private static final SimpleCredential offCredential = new SimpleCredential("off");
 }
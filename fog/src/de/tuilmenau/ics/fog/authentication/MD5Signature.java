@@ -13,12 +13,15 @@
  ******************************************************************************/
 package de.tuilmenau.ics.fog.authentication;
 
+import java.io.IOException;
 import java.io.Serializable;
-import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
 
 import de.tuilmenau.ics.fog.facade.Identity;
+import de.tuilmenau.ics.fog.packets.codec.Codec;
+import de.tuilmenau.ics.fog.packets.codec.WireInput;
+import de.tuilmenau.ics.fog.packets.codec.WireOutput;
 
 
 /**
@@ -28,45 +31,91 @@ public class MD5Signature extends SimpleSignature
 {
 	private static final long serialVersionUID = 6546990138319999153L;
 	
+	static final String ALGORITHM = "MD5";
+	
 
 	public MD5Signature(Identity identity, Serializable data)
 	{
 		super(identity);
 		
 		try {
-			// 1. generate checksum
-			MessageDigest checksum = MessageDigest.getInstance("MD5");
-			checksum.update(data.toString().getBytes());
-
+			// 1. generate checksum and
 			// 2. store result
-			signature = checksum.digest();
+			signature = Checksums.calculate(getChecksumAlgorithm(), data);
 		}
 		catch(NoSuchAlgorithmException exc) {
 			throw new RuntimeException(this.toString(), exc);
 		}
 	}
 
+	/**
+	 * Creates signature with an already calculated value (e.g. received from another VM).
+	 * The order of the parameters differs from the other constructor in order to avoid
+	 * ambiguity, since byte arrays are serializable, too.
+	 */
+	protected MD5Signature(byte[] signature, Identity identity)
+	{
+		super(identity);
+		
+		this.signature = signature;
+	}
+	
 	@Override
 	public boolean check(Serializable data)
 	{
 		try {
 			// 1. generate data checksum
-			MessageDigest checksum = MessageDigest.getInstance("MD5");
-			checksum.update(data.toString().getBytes());
-			
 			// 2. compare original checksum with generated one
-			return Arrays.equals(signature, checksum.digest());
+			return checkChecksum(Checksums.calculate(getChecksumAlgorithm(), data));
 		}
 		catch(Exception exc) {
 			throw new RuntimeException(this.toString(), exc);
 		}
 	}
 	
+	@Override
+	public String getChecksumAlgorithm()
+	{
+		return ALGORITHM;
+	}
+	
+	@Override
+	public boolean checkChecksum(byte[] checksum)
+	{
+		return Arrays.equals(signature, checksum);
+	}
+	
+	@Override
+	public byte[] getValue()
+	{
+		return signature;
+	}
+	
 	@Override
 	public String toString()
 	{
 		return getIdentity() +"={MD5}";
 	}
 	
+	/**
+	 * Binary wire format of MD5 signatures
+	 */
+	public static final Codec<MD5Signature> CODEC = new Codec<MD5Signature>() {
+		@Override
+		public void encode(MD5Signature signature, WireOutput out) throws IOException
+		{
+			out.writeObject(signature.getIdentity());
+			out.writeBytes(signature.signature);
+		}
+		
+		@Override
+		public MD5Signature decode(WireInput in) throws IOException
+		{
+			Identity identity = readIdentity(in);
+			
+			return new MD5Signature(in.readBytes(), identity);
+		}
+	};
+	
 	private byte[] signature;
 }
@@ -16,7 +16,6 @@
 import java.io.Serializable;
 import java.security.KeyPair;
 import java.security.KeyPairGenerator;
-import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 
 import javax.crypto.BadPaddingException;
@@ -36,6 +35,16 @@ public class PPKCredential implements Credential
 	
 	public PPKCredential(String name)
 	{
+		this(name, MD5Signature.ALGORITHM);
+	}
+	
+	/**
+	 * @param algorithm Checksum algorithm used for signatures (e.g. "MD5" or "SHA-256")
+	 */
+	public PPKCredential(String name, String algorithm)
+	{
+		this.algorithm = algorithm;
+		
 		try {
 			if(sKPG == null) {
 				sKPG = KeyPairGenerator.getInstance("RSA");
@@ -67,15 +76,17 @@ public Signature createSignature(Serializable data)
 	{
 		try {
 			// 1. generate checksum
-			MessageDigest tChecksum = MessageDigest.getInstance("MD5");
-			tChecksum.update(data.toString().getBytes());
+			byte[] tChecksum = Checksums.calculate(algorithm, data);
 			
 			// 2. encript checksum
-			byte[] tSig = mEncCipher.doFinal(tChecksum.digest());
+			byte[] tSig;
+			synchronized (mEncCipher) {
+				tSig = mEncCipher.doFinal(tChecksum);
+			}
 
 			// 3. store result
 			if(tSig != null)
-				return new PPKSignature(identity, tSig);
+				return new PPKSignature(identity, tSig, algorithm);
 			else
 				return null;
 		}
@@ -93,5 +104,6 @@ public Signature createSignature(Serializable data)
 	private KeyPair mKeys;
 	private Cipher mEncCipher;
 	private PPKIdentity identity;
+	private String algorithm;
 }
 
@@ -27,6 +27,8 @@ public class PPKIdentity extends SimpleIdentity
 	public PPKIdentity(String name, Cipher publicKey)
 	{
 		super(name);
+		
+		this.publicKey = publicKey;
 	}
 	
 	public Cipher getPublicKey()
@@ -39,6 +41,9 @@ public String toString()
 		return getName() +"(" +publicKey +")";
 	}
 
-	private Cipher publicKey;
+	/**
+	 * Cipher objects are not serializable; simulation only
+	 */
+	private transient Cipher publicKey;
 }
 
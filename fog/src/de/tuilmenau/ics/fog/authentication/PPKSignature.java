@@ -13,10 +13,17 @@
  ******************************************************************************/
 package de.tuilmenau.ics.fog.authentication;
 
+import java.io.IOException;
 import java.io.Serializable;
-import java.security.MessageDigest;
 import java.util.Arrays;
 
+import javax.crypto.Cipher;
+
+import de.tuilmenau.ics.fog.facade.Identity;
+import de.tuilmenau.ics.fog.packets.codec.Codec;
+import de.tuilmenau.ics.fog.packets.codec.WireInput;
+import de.tuilmenau.ics.fog.packets.codec.WireOutput;
+
 
 public class PPKSignature extends SimpleSignature
 {
@@ -24,10 +31,19 @@ public class PPKSignature extends SimpleSignature
 	
 
 	public PPKSignature(PPKIdentity identity, byte[] signature)
+	{
+		this(identity, signature, MD5Signature.ALGORITHM);
+	}
+	
+	/**
+	 * @param algorithm Checksum algorithm used for the encrypted checksum
+	 */
+	public PPKSignature(PPKIdentity identity, byte[] signature, String algorithm)
 	{
 		super(identity);
 		
 		this.signature = signature;
+		this.algorithm = algorithm;
 	}
 	
 	@Override
@@ -35,28 +51,79 @@ public boolean check(Serializable data)
 	{
 		try {
 			// 1. generate data checksum
-			MessageDigest tChecksum = MessageDigest.getInstance("MD5");
-			tChecksum.update(data.toString().getBytes());
+			return checkChecksum(Checksums.calculate(algorithm, data));
+		}
+		catch(Exception tExc) {
+			throw new RuntimeException(this.toString(), tExc);
+		}
+	}
+	
+	@Override
+	public String getChecksumAlgorithm()
+	{
+		return algorithm;
+	}
+	
+	@Override
+	public boolean checkChecksum(byte[] checksum)
+	{
+		try {
+			// 2. decrypt original checksum
+			// (cipher objects are not thread safe and shared by all signatures of an identity)
+			Cipher tPublicKey = ((PPKIdentity)getIdentity()).getPublicKey();
+			byte[] tData;
 			
-			// 2. decrypt original checksum 
-			byte[] tData = ((PPKIdentity)getIdentity()).getPublicKey().doFinal(signature);
+			synchronized (tPublicKey) {
+				tData = tPublicKey.doFinal(signature);
+			}
 			
 			// 3. compare original checksum stored in the packet with generated one
-			return Arrays.equals(tData, tChecksum.digest());
+			return Arrays.equals(tData, checksum);
 		}
 		catch(Exception tExc) {
 			throw new RuntimeException(this.toString(), tExc);
 		}
 	}
 	
+	@Override
+	public byte[] getValue()
+	{
+		return signature;
+	}
+	
 	public String toString()
 	{
 		int size = 0;
 		if(signature != null) size = signature.length;
 		
-		return getIdentity() +"={PPK(" +size +")}";
+		return getIdentity() +"={PPK(" +algorithm +"," +size +")}";
 	}
 	
+	/**
+	 * Binary wire format of PPK signatures
+	 */
+	public static final Codec<PPKSignature> CODEC = new Codec<PPKSignature>() {
+		@Override
+		public void encode(PPKSignature signature, WireOutput out) throws IOException
+		{
+			out.writeObject(signature.getIdentity());
+			out.writeBytes(signature.signature);
+			out.writeString(signature.algorithm);
+		}
+		
+		@Override
+		public PPKSignature decode(WireInput in) throws IOException
+		{
+			Identity identity = readIdentity(in);
+			
+			if((identity != null) && !(identity instanceof PPKIdentity)) {
+				throw new IOException("Invalid identity " +identity +" for PPK signature in wire data.");
+			}
+			return new PPKSignature((PPKIdentity) identity, in.readBytes(), in.readString());
+		}
+	};
+	
 	private byte[] signature;
+	private String algorithm;
 }
 
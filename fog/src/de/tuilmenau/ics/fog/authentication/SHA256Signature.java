@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Forwarding on Gates Simulator/Emulator
+ * Copyright (C) 2012, Integrated Communication Systems Group, TU Ilmenau.
+ * 
+ * This program and the accompanying materials are dual-licensed under either
+ * the terms of the Eclipse Public License v1.0 as published by the Eclipse
+ * Foundation
+ *  
+ *   or (per the licensee's choosing)
+ *  
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ ******************************************************************************/
+package de.tuilmenau.ics.fog.authentication;
+
+import java.io.IOException;
+import java.io.Serializable;
+
+import de.tuilmenau.ics.fog.facade.Identity;
+import de.tuilmenau.ics.fog.packets.codec.Codec;
+import de.tuilmenau.ics.fog.packets.codec.WireInput;
+import de.tuilmenau.ics.fog.packets.codec.WireOutput;
+
+
+/**
+ * Signature created by a plain SHA-256 checksum over some data.
+ */
+public class SHA256Signature extends MD5Signature
+{
+	private static final long serialVersionUID = -4176226437652410367L;
+	
+	static final String ALGORITHM = "SHA-256";
+	
+	
+	public SHA256Signature(Identity identity, Serializable data)
+	{
+		super(identity, data);
+	}
+	
+	/**
+	 * Creates signature with an already calculated value.
+	 */
+	protected SHA256Signature(byte[] signature, Identity identity)
+	{
+		super(signature, identity);
+	}
+	
+	@Override
+	public String getChecksumAlgorithm()
+	{
+		return ALGORITHM;
+	}
+	
+	@Override
+	public String toString()
+	{
+		return getIdentity() +"={SHA-256}";
+	}
+	
+	/**
+	 * Binary wire format of SHA-256 signatures
+	 */
+	public static final Codec<SHA256Signature> CODEC = new Codec<SHA256Signature>() {
+		@Override
+		public void encode(SHA256Signature signature, WireOutput out) throws IOException
+		{
+			out.writeObject(signature.getIdentity());
+			out.writeBytes(signature.getValue());
+		}
+		
+		@Override
+		public SHA256Signature decode(WireInput in) throws IOException
+		{
+			Identity identity = readIdentity(in);
+			
+			return new SHA256Signature(in.readBytes(), identity);
+		}
+	};
+}
@@ -13,7 +13,12 @@
  ******************************************************************************/
 package de.tuilmenau.ics.fog.authentication;
 
+import java.io.IOException;
+
 import de.tuilmenau.ics.fog.facade.Identity;
+import de.tuilmenau.ics.fog.packets.codec.Codec;
+import de.tuilmenau.ics.fog.packets.codec.WireInput;
+import de.tuilmenau.ics.fog.packets.codec.WireOutput;
 
 
 /**
@@ -64,6 +69,23 @@ public int hashCode()
 		return name.hashCode();
 	}
 	
+	/**
+	 * Binary wire format of identities
+	 */
+	public static final Codec<SimpleIdentity> CODEC = new Codec<SimpleIdentity>() {
+		@Override
+		public void encode(SimpleIdentity identity, WireOutput out)
+		{
+			out.writeString(identity.name);
+		}
+		
+		@Override
+		public SimpleIdentity decode(WireInput in) throws IOException
+		{
+			return new SimpleIdentity(in.readString());
+		}
+	};
+	
 	private String name;
 }
 
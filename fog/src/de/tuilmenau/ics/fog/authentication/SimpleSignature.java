@@ -13,10 +13,14 @@
  ******************************************************************************/
 package de.tuilmenau.ics.fog.authentication;
 
+import java.io.IOException;
 import java.io.Serializable;
 
 import de.tuilmenau.ics.fog.facade.Identity;
 import de.tuilmenau.ics.fog.facade.Signature;
+import de.tuilmenau.ics.fog.packets.codec.Codec;
+import de.tuilmenau.ics.fog.packets.codec.WireInput;
+import de.tuilmenau.ics.fog.packets.codec.WireOutput;
 
 
 /**
@@ -45,6 +49,35 @@ public boolean check(Serializable data)
 		return true;
 	}
 	
+	/**
+	 * @return Name of the checksum algorithm the signature is based on; null if the signature does not depend on the data
+	 */
+	public String getChecksumAlgorithm()
+	{
+		return null;
+	}
+	
+	/**
+	 * Checks the signature against an already calculated checksum of the data.
+	 * It enables the authentication service to calculate the checksum only once
+	 * for all signatures of a packet.
+	 * 
+	 * @param checksum Checksum of the data calculated with {@link #getChecksumAlgorithm()}
+	 * @return true, if the signature fits to the checksum; false otherwise
+	 */
+	public boolean checkChecksum(byte[] checksum)
+	{
+		return true;
+	}
+	
+	/**
+	 * @return Value of the signature used for caching verification results; null if there is no value
+	 */
+	public byte[] getValue()
+	{
+		return null;
+	}
+	
 	@Override
 	public String toString()
 	{
@@ -63,5 +96,35 @@ public boolean equals(Object obj)
 		}
 	}
 	
+	/**
+	 * Binary wire format of signatures
+	 */
+	public static final Codec<SimpleSignature> CODEC = new Codec<SimpleSignature>() {
+		@Override
+		public void encode(SimpleSignature signature, WireOutput out) throws IOException
+		{
+			out.writeObject(signature.identity);
+		}
+		
+		@Override
+		public SimpleSignature decode(WireInput in) throws IOException
+		{
+			return new SimpleSignature(readIdentity(in));
+		}
+	};
+	
+	/**
+	 * Reads the identity of a signature from the wire format.
+	 */
+	static Identity readIdentity(WireInput in) throws IOException
+	{
+		Object identity = in.readObject();
+		
+		if((identity != null) && !(identity instanceof Identity)) {
+			throw new IOException("Invalid identity " +identity +" in wire data.");
+		}
+		return (Identity) identity;
+	}
+	
 	private Identity identity;
 }
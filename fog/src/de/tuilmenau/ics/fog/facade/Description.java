@@ -14,8 +14,11 @@
 package de.tuilmenau.ics.fog.facade;
 
 import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.Map;
 
 import de.tuilmenau.ics.fog.application.InterOpIP;
 import de.tuilmenau.ics.fog.facade.properties.DatarateProperty;
@@ -60,7 +63,19 @@ public Description()
 	
 	public Description(Description original)
 	{
-		mProperties = new LinkedList<Property>(original.mProperties);
+		if(original.mProperties != null) {
+			mProperties = new LinkedList<Property>(original.mProperties);
+		} else {
+			mProperties = null;
+		}
+	}
+	
+	/**
+	 * @return true, if the description can not be modified
+	 */
+	public boolean isReadOnly()
+	{
+		return mReadOnly;
 	}
 	
 	/**
@@ -83,6 +98,8 @@ public void append(Description pToAppend) throws PropertyException
 	public void set(Property pProperty)
 	{
 		if(pProperty != null) {
+			checkWriteAccess();
+			
 			if(mProperties == null) {
 				mProperties = new LinkedList<Property>();
 			} else {
@@ -94,6 +111,7 @@ public void set(Property pProperty)
 			}
 			
 			mProperties.add(pProperty);
+			changed(pProperty);
 		}
 	}
 	
@@ -102,6 +120,10 @@ public void add(Property pProperty) throws PropertyException
 		if(pProperty != null) {
 			Property tExisting = null;
 			
+			if(mReadOnly) {
+				throw new PropertyException(this, "Can not add " +pProperty +" to read-only description.");
+			}
+			
 			if(mProperties == null) {
 				mProperties = new LinkedList<Property>();
 			} else {
@@ -110,18 +132,85 @@ public void add(Property pProperty) throws PropertyException
 			
 			if(tExisting == null) {
 				mProperties.add(pProperty);
+				changed(pProperty);
 			} else {
 				tExisting.fuse(pProperty);
+				
+				// class index and hash code are not affected by the values
+				mFunctional = null;
+				mNonFunctional = null;
 			}
 		}
 	}
 	
 	public boolean remove(Property pProperty)
 	{
-		if(mProperties != null)
-			return mProperties.remove(pProperty);
-		else
+		if(mProperties != null) {
+			checkWriteAccess();
+			
+			boolean tRes = mProperties.remove(pProperty);
+			if(tRes) {
+				changed(null);
+			}
+			return tRes;
+		} else {
 			return true;
+		}
+	}
+	
+	private void checkWriteAccess()
+	{
+		if(mReadOnly) {
+			throw new UnsupportedOperationException("Description " +this +" is read-only.");
+		}
+	}
+	
+	/**
+	 * Updates the cached data after a property was added or replaced.
+	 * The index is not modified but replaced by an updated copy, since
+	 * readers might use the old one concurrently.
+	 * 
+	 * @param pAdded Property added to the list or null, if a property was removed
+	 */
+	private void changed(Property pAdded)
+	{
+		Map<Class<?>, Property> tIndex = mIndex;
+		
+		if((pAdded != null) && (tIndex != null)) {
+			tIndex = new HashMap<Class<?>, Property>(tIndex);
+			tIndex.put(pAdded.getClass(), pAdded);
+			mIndex = tIndex;
+		} else {
+			mIndex = null;
+		}
+		
+		mFunctional = null;
+		mNonFunctional = null;
+		mHashCodeValid = false;
+	}
+	
+	/**
+	 * @return Index from property class to the first property of that class (!= null)
+	 */
+	private Map<Class<?>, Property> getIndex()
+	{
+		Map<Class<?>, Property> tIndex = mIndex;
+		
+		if(tIndex == null) {
+			tIndex = new HashMap<Class<?>, Property>();
+			
+			if(mProperties != null) {
+				for(Property tProperty : mProperties) {
+					if((tProperty != null) && !tIndex.containsKey(tProperty.getClass())) {
+						tIndex.put(tProperty.getClass(), tProperty);
+					}
+				}
+			}
+			
+			mIndex = tIndex;
+		}
+		
+		return tIndex;
 	}
 	
 	public boolean isEmpty()
@@ -163,8 +252,13 @@ public int size()
 	@Override
 	public Iterator<Property> iterator()
 	{
-		if(mProperties != null)
-			return mProperties.iterator();
+		if(mProperties != null) {
+			if(mReadOnly) {
+				return Collections.unmodifiableList(mProperties).iterator();
+			} else {
+				return mProperties.iterator();
+			}
+		}
 		else
 			return nullIterator;
 	}
@@ -178,14 +272,8 @@ public Iterator<Property> iterator()
 	 */
 	public Property get(Class<?> pClassFilter)
 	{
-		if(pClassFilter != null) {
-			for(Property tProperty : this) {
-				if(tProperty != null) {
-					if(tProperty.getClass().equals(pClassFilter)) {
-						return tProperty;
-					}
-				}
-			}
+		if((pClassFilter != null) && (mProperties != null)) {
+			return getIndex().get(pClassFilter);
 		}
 		
 		return null;
@@ -260,17 +348,7 @@ public int getDesiredDataRate()
 	 */
 	public Description getNonFunctional()
 	{
-		Description tResDesc = new Description();
-		
-		for(Property tProperty : this) {
-			if(tProperty != null) {
-				if (tProperty instanceof NonFunctionalRequirementsProperty) {				
-					tResDesc.set(tProperty);
-				}
-			}
-		}
-
-		return tResDesc;
+		return new Description(getNonFunctionalView());
 	}
 
 	/**
@@ -280,17 +358,59 @@ public Description getNonFunctional()
 	 */
 	public Description getFunctional()
 	{
-		Description tRequirements = new Description();
+		return new Description(getFunctionalView());
+	}
+	
+	/**
+	 * Read-only variant of {@link #getNonFunctional()}. The view is cached
+	 * until the description is modified.
+	 * 
+	 * @return Read-only description with the references (!= null)
+	 */
+	public Description getNonFunctionalView()
+	{
+		Description tView = mNonFunctional;
+		
+		if(tView == null) {
+			tView = filter(NonFunctionalRequirementsProperty.class);
+			mNonFunctional = tView;
+		}
+		
+		return tView;
+	}
+	
+	/**
+	 * Read-only variant of {@link #getFunctional()}. The view is cached
+	 * until the description is modified.
+	 * 
+	 * @return Read-only description with the references (!= null)
+	 */
+	public Description getFunctionalView()
+	{
+		Description tView = mFunctional;
+		
+		if(tView == null) {
+			tView = filter(FunctionalRequirementProperty.class);
+			mFunctional = tView;
+		}
+		
+		return tView;
+	}
+	
+	private Description filter(Class<?> pSuperClass)
+	{
+		Description tResDesc = new Description();
 		
 		for(Property tProperty : this) {
 			if(tProperty != null) {
-				if(tProperty instanceof FunctionalRequirementProperty) {
-					tRequirements.set(tProperty);
+				if(pSuperClass.isInstance(tProperty)) {
+					tResDesc.set(tProperty);
 				}
 			}
 		}
 		
-		return tRequirements;
+		tResDesc.mReadOnly = true;
+		return tResDesc;
 	}
 
 	
@@ -412,6 +532,12 @@ public boolean equals(Object obj)
 		
 		if(obj instanceof Description) {			
 			Description descr = (Description) obj;
+			
+			// the hash codes depend on the property types, only
+			if(hashCode() != descr.hashCode()) {
+				return false;
+			}
+			
 			Iterator<Property> tIterator = iterator();
 			Iterator<Property> tNewIterator = descr.iterator();
 			
@@ -438,6 +564,28 @@ public boolean equals(Object obj)
 		}
 	}
 
+	/**
+	 * Hash code is derived from the types of the properties in their order,
+	 * since not all properties take their values into account for equals.
+	 * It is cached until the description is modified.
+	 */
+	@Override
+	public int hashCode()
+	{
+		if(!mHashCodeValid) {
+			int tHash = 1;
+			
+			for(Property tProperty : this) {
+				tHash = 31 * tHash + ((tProperty != null) ? tProperty.getClass().getName().hashCode() : 0);
+			}
+			
+			mHashCode = tHash;
+			mHashCodeValid = true;
+		}
+		
+		return mHashCode;
+	}
+	
 	public Description clone()
 	{
 		Description tDescr = new Description();
@@ -610,5 +758,15 @@ public String toString()
 	}
 	
 	private LinkedList<Property> mProperties;
-
+	
+	/**
+	 * Cached data derived from mProperties; not serialized and re-created on demand.
+	 * Maps are published completely and never modified afterwards.
+	 */
+	private transient volatile Map<Class<?>, Property> mIndex = null;
+	private transient volatile Description mFunctional = null;
+	private transient volatile Description mNonFunctional = null;
+	private transient int mHashCode = 0;
+	private transient boolean mHashCodeValid = false;
+	private transient boolean mReadOnly = false;
 }
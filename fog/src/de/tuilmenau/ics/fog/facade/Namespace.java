@@ -13,8 +13,13 @@
  ******************************************************************************/
 package de.tuilmenau.ics.fog.facade;
 
+import java.io.IOException;
 import java.io.Serializable;
 
+import de.tuilmenau.ics.fog.packets.codec.Codec;
+import de.tuilmenau.ics.fog.packets.codec.WireInput;
+import de.tuilmenau.ics.fog.packets.codec.WireOutput;
+
 
 /**
  * Namespaces for application names.
@@ -79,6 +84,29 @@ public boolean isAppNamespace()
 		return mIsAppNamespace;
 	}
 	
+	/**
+	 * Binary wire format of namespaces
+	 */
+	public static final Codec<Namespace> CODEC = new Codec<Namespace>() {
+		@Override
+		public void encode(Namespace pNamespace, WireOutput pOut)
+		{
+			pOut.writeString(pNamespace.mName);
+			pOut.writeBoolean(pNamespace.mIsAppNamespace);
+		}
+		
+		@Override
+		public Namespace decode(WireInput pIn) throws IOException
+		{
+			String tName = pIn.readString();
+			
+			if(tName == null) {
+				throw new IOException("Namespace without name in wire data.");
+			}
+			return new Namespace(tName, pIn.readBoolean());
+		}
+	};
+	
 	private String mName;
 	private boolean mIsAppNamespace;
 }
@@ -13,6 +13,9 @@
  ******************************************************************************/
 package de.tuilmenau.ics.fog.packets;
 
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.rmi.RemoteException;
 import java.util.LinkedList;
@@ -20,6 +23,10 @@
 import de.tuilmenau.ics.fog.Config;
 import de.tuilmenau.ics.fog.facade.Description;
 import de.tuilmenau.ics.fog.facade.Signature;
+import de.tuilmenau.ics.fog.packets.codec.Codec;
+import de.tuilmenau.ics.fog.packets.codec.WireForm;
+import de.tuilmenau.ics.fog.packets.codec.WireInput;
+import de.tuilmenau.ics.fog.packets.codec.WireOutput;
 import de.tuilmenau.ics.fog.packets.statistics.IPacketStatistics;
 import de.tuilmenau.ics.fog.routing.Route;
 import de.tuilmenau.ics.fog.routing.RouteSegment;
@@ -341,6 +348,36 @@ public LinkedList<Signature> getAuthentications()
 		return mAuthentications;
 	}
 	
+	/**
+	 * Stores the result of a successful check of the signatures. Subsequent
+	 * checks within the same VM have to verify the signatures added later, only.
+	 * Simulator specific! The information is not transmitted to other VMs.
+	 * 
+	 * @param pNumber Number of signatures verified
+	 * @param pChecksum Checksum of the data used for the verification (null, if none was needed)
+	 */
+	public void setVerifiedAuthentications(int pNumber, byte[] pChecksum)
+	{
+		mVerifiedAuthentications = pNumber;
+		mVerifiedChecksum = pChecksum;
+	}
+	
+	/**
+	 * @return Number of signatures already verified within this VM
+	 */
+	public int getNumberVerifiedAuthentications()
+	{
+		return mVerifiedAuthentications;
+	}
+	
+	/**
+	 * @return Checksum of the data at the time the signatures were verified; null if not available
+	 */
+	public byte[] getVerifiedChecksum()
+	{
+		return mVerifiedChecksum;
+	}
+	
 	/**
 	 * Not included in FoG specification. Simulator specific!
 	 * Invisible packets are used to handle special GUI related tasks
@@ -708,6 +745,108 @@ public void droppingDetected(Object detector, Simulation simulation)
 		this.logStats(simulation); // log statistics of this packet as it finished its way through the network		
 	}
 	
+	/**
+	 * Packets transmitted with the Java serialization (e.g. via RMI) are
+	 * replaced by their binary wire format.
+	 */
+	private Object writeReplace() throws ObjectStreamException
+	{
+		try {
+			return new WireForm(this);
+		}
+		catch(IOException exc) {
+			InvalidObjectException tExc = new InvalidObjectException("Can not encode packet " +this);
+			
+			tExc.initCause(exc);
+			throw tExc;
+		}
+	}
+	
+	/**
+	 * Binary wire format of packets. It contains the statistic values, too,
+	 * since they had been transmitted with the Java serialization, too.
+	 */
+	public static final Codec<Packet> CODEC = new Codec<Packet>() {
+		@Override
+		public void encode(Packet pPacket, WireOutput pOut) throws IOException
+		{
+			pOut.writeObject(pPacket.mRoute);
+			pOut.writeObject(pPacket.mReturnRoute);
+			pOut.writeInt(pPacket.mChangeCounter);
+			pOut.writeBoolean(pPacket.mTraceRouting);
+			pOut.writeObject(pPacket.mPayload);
+			
+			if(pPacket.mAuthentications != null) {
+				pOut.writeInt(pPacket.mAuthentications.size());
+				for(Signature tSignature : pPacket.mAuthentications) {
+					pOut.writeObject(tSignature);
+				}
+			} else {
+				pOut.writeInt(-1);
+			}
+			
+			if(pPacket.mLowerLayers != null) {
+				pOut.writeInt(pPacket.mLowerLayers.size());
+				for(String tLayer : pPacket.mLowerLayers) {
+					pOut.writeString(tLayer);
+				}
+			} else {
+				pOut.writeInt(-1);
+			}
+			
+			pOut.writeObject(pPacket.mId);
+			pOut.writeObject(pPacket.mPredecessorId);
+			pOut.writeString(pPacket.mSourceNode);
+			pOut.writeString(pPacket.mTargetNode);
+			pOut.writeObject(pPacket.mGatesPassed);
+			pOut.writeObject(pPacket.mInitRouteLength);
+		}
+		
+		@Override
+		public Packet decode(WireInput pIn) throws IOException
+		{
+			try {
+				Route tRoute = (Route) pIn.readObject();
+				Route tReturnRoute = (Route) pIn.readObject();
+				int tChangeCounter = pIn.readInt();
+				boolean tTraceRouting = pIn.readBoolean();
+				Serializable tPayload = (Serializable) pIn.readObject();
+				
+				Packet tPacket = new Packet(tRoute, tReturnRoute, tPayload, (Long) null);
+				tPacket.mChangeCounter = tChangeCounter;
+				tPacket.mTraceRouting = tTraceRouting;
+				
+				int tNumber = pIn.readInt();
+				if(tNumber >= 0) {
+					tPacket.mAuthentications = new LinkedList<Signature>();
+					for(int i = 0; i < tNumber; i++) {
+						tPacket.mAuthentications.add((Signature) pIn.readObject());
+					}
+				}
+				
+				tNumber = pIn.readInt();
+				if(tNumber < 0) {
+					tPacket.mLowerLayers = null;
+				}
+				for(int i = 0; i < tNumber; i++) {
+					tPacket.mLowerLayers.add(pIn.readString());
+				}
+				
+				tPacket.mId = (Long) pIn.readObject();
+				tPacket.mPredecessorId = (Long) pIn.readObject();
+				tPacket.mSourceNode = pIn.readString();
+				tPacket.mTargetNode = pIn.readString();
+				tPacket.mGatesPassed = (Integer) pIn.readObject();
+				tPacket.mInitRouteLength = (Integer) pIn.readObject();
+				
+				return tPacket;
+			}
+			catch(ClassCastException exc) {
+				throw new IOException("Invalid packet in wire data.", exc);
+			}
+		}
+	};
+	
 	private Route mRoute = null;
 	private int mChangeCounter = PACKET_MAX_CHANGE_COUNTER;
 	private Route mReturnRoute;
@@ -720,6 +859,10 @@ public void droppingDetected(Object detector, Simulation simulation)
 	private transient NetworkInterface mReceivingInterface = null;
 	private transient NeighborInformation mFrom = null;
 	private transient Route mDownRoute = null;
+	
+	// for incremental checks of the signatures inside a VM
+	private transient int mVerifiedAuthentications = 0;
+	private transient byte[] mVerifiedChecksum = null;
 
 	//
 	// Statistics:
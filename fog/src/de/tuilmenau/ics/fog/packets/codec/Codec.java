@@ -0,0 +1,44 @@
+/*******************************************************************************
+ * Forwarding on Gates Simulator/Emulator
+ * Copyright (C) 2012, Integrated Communication Systems Group, TU Ilmenau.
+ * 
+ * This program and the accompanying materials are dual-licensed under either
+ * the terms of the Eclipse Public License v1.0 as published by the Eclipse
+ * Foundation
+ *  
+ *   or (per the licensee's choosing)
+ *  
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ ******************************************************************************/
+package de.tuilmenau.ics.fog.packets.codec;
+
+import java.io.IOException;
+
+
+/**
+ * Binary wire format of a class. Codecs are registered at the
+ * {@link PacketCodec} and used instead of the Java serialization.
+ * 
+ * @param <T> Class handled by the codec
+ */
+public interface Codec<T>
+{
+	/**
+	 * Writes the state of an object to the output.
+	 * 
+	 * @param pObject Object to encode (!= null)
+	 * @param pOut Output buffer
+	 * @throws IOException On error
+	 */
+	public void encode(T pObject, WireOutput pOut) throws IOException;
+	
+	/**
+	 * Creates an object from the data written by {@link #encode}.
+	 * 
+	 * @param pIn Input buffer positioned at the data of the object
+	 * @return Decoded object (!= null)
+	 * @throws IOException On invalid data
+	 */
+	public T decode(WireInput pIn) throws IOException;
+}
@@ -0,0 +1,31 @@
+/*******************************************************************************
+ * Forwarding on Gates Simulator/Emulator
+ * Copyright (C) 2012, Integrated Communication Systems Group, TU Ilmenau.
+ * 
+ * This program and the accompanying materials are dual-licensed under either
+ * the terms of the Eclipse Public License v1.0 as published by the Eclipse
+ * Foundation
+ *  
+ *   or (per the licensee's choosing)
+ *  
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ ******************************************************************************/
+package de.tuilmenau.ics.fog.packets.codec;
+
+import java.io.IOException;
+
+
+/**
+ * Thrown by a {@link WireOutput} in canonical mode, if an object does not
+ * have a registered codec.
+ */
+public class NotCanonicalException extends IOException
+{
+	private static final long serialVersionUID = 2829532411795603371L;
+	
+	public NotCanonicalException(Class<?> pClass)
+	{
+		super("No canonical wire form for " +pClass.getName() +".");
+	}
+}
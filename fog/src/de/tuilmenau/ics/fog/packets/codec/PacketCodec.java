@@ -0,0 +1,443 @@
+/*******************************************************************************
+ * Forwarding on Gates Simulator/Emulator
+ * Copyright (C) 2012, Integrated Communication Systems Group, TU Ilmenau.
+ * 
+ * This program and the accompanying materials are dual-licensed under either
+ * the terms of the Eclipse Public License v1.0 as published by the Eclipse
+ * Foundation
+ *  
+ *   or (per the licensee's choosing)
+ *  
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ ******************************************************************************/
+package de.tuilmenau.ics.fog.packets.codec;
+
+import java.io.IOException;
+import java.util.HashMap;
+
+import de.tuilmenau.ics.fog.authentication.MD5Signature;
+import de.tuilmenau.ics.fog.authentication.PPKSignature;
+import de.tuilmenau.ics.fog.authentication.SHA256Signature;
+import de.tuilmenau.ics.fog.authentication.SimpleIdentity;
+import de.tuilmenau.ics.fog.authentication.SimpleSignature;
+import de.tuilmenau.ics.fog.facade.Namespace;
+import de.tuilmenau.ics.fog.packets.Packet;
+import de.tuilmenau.ics.fog.routing.Route;
+import de.tuilmenau.ics.fog.routing.RouteSegmentAddress;
+import de.tuilmenau.ics.fog.routing.RouteSegmentDescription;
+import de.tuilmenau.ics.fog.routing.RouteSegmentPath;
+import de.tuilmenau.ics.fog.transfer.gates.GateID;
+import de.tuilmenau.ics.fog.transfer.gates.headers.NumberingHeader;
+import de.tuilmenau.ics.fog.util.SimpleName;
+import de.tuilmenau.ics.middleware.Serializer;
+
+
+/**
+ * Binary wire format for packets and their content. It replaces the Java
+ * serialization for packets transmitted between VMs (emulator, RMI).
+ * 
+ * Each object is written as type number followed by the data written by
+ * the codec of the class. The types of the FoG core have fixed numbers.
+ * Codecs for other classes (e.g. payload of applications) are registered
+ * with {@link #register(Class, Codec)} and identified by their class name.
+ * Objects without codec are written with the Java serialization.
+ * 
+ * A frame starts with the version of the format. Frames created by the Java
+ * serialization are detected and decoded for compatibility reasons.
+ */
+public class PacketCodec
+{
+	/**
+	 * Version of the wire format; first byte of each frame
+	 */
+	public static final int VERSION = 1;
+	
+	/*
+	 * Type numbers of the built-in types
+	 */
+	private static final int TYPE_NULL = 0;
+	private static final int TYPE_SERIALIZED = 1;
+	private static final int TYPE_REGISTERED = 2;
+	private static final int TYPE_STRING = 3;
+	private static final int TYPE_BYTES = 4;
+	private static final int TYPE_INTEGER = 5;
+	private static final int TYPE_LONG = 6;
+	private static final int TYPE_BOOLEAN = 7;
+	private static final int TYPE_DOUBLE = 8;
+	private static final int TYPE_OBJECT_ARRAY = 9;
+	
+	private static final int TYPE_PACKET = 16;
+	private static final int TYPE_ROUTE = 17;
+	private static final int TYPE_ROUTE_SEGMENT_PATH = 18;
+	private static final int TYPE_ROUTE_SEGMENT_ADDRESS = 19;
+	private static final int TYPE_ROUTE_SEGMENT_DESCRIPTION = 20;
+	private static final int TYPE_GATE_ID = 21;
+	private static final int TYPE_SIMPLE_NAME = 22;
+	private static final int TYPE_NAMESPACE = 23;
+	private static final int TYPE_SIMPLE_IDENTITY = 24;
+	private static final int TYPE_SIMPLE_SIGNATURE = 25;
+	private static final int TYPE_MD5_SIGNATURE = 26;
+	private static final int TYPE_SHA256_SIGNATURE = 27;
+	private static final int TYPE_PPK_SIGNATURE = 28;
+	private static final int TYPE_NUMBERING_HEADER = 29;
+	
+	/**
+	 * First two bytes of streams created by the Java serialization
+	 */
+	private static final int JAVA_SERIALIZATION_MAGIC = 0xACED;
+	
+	private static final PacketCodec sInstance = new PacketCodec();
+	
+	/**
+	 * @return Singleton object (!= null)
+	 */
+	public static PacketCodec getInstance()
+	{
+		return sInstance;
+	}
+	
+	private PacketCodec()
+	{
+		registerType(TYPE_PACKET, Packet.class, Packet.CODEC);
+		registerType(TYPE_ROUTE, Route.class, Route.CODEC);
+		registerType(TYPE_ROUTE_SEGMENT_PATH, RouteSegmentPath.class, RouteSegmentPath.CODEC);
+		registerType(TYPE_ROUTE_SEGMENT_ADDRESS, RouteSegmentAddress.class, RouteSegmentAddress.CODEC);
+		registerType(TYPE_ROUTE_SEGMENT_DESCRIPTION, RouteSegmentDescription.class, RouteSegmentDescription.CODEC);
+		registerType(TYPE_GATE_ID, GateID.class, GateID.CODEC);
+		registerType(TYPE_SIMPLE_NAME, SimpleName.class, SimpleName.CODEC);
+		registerType(TYPE_NAMESPACE, Namespace.class, Namespace.CODEC);
+		registerType(TYPE_SIMPLE_IDENTITY, SimpleIdentity.class, SimpleIdentity.CODEC);
+		registerType(TYPE_SIMPLE_SIGNATURE, SimpleSignature.class, SimpleSignature.CODEC);
+		registerType(TYPE_MD5_SIGNATURE, MD5Signature.class, MD5Signature.CODEC);
+		registerType(TYPE_SHA256_SIGNATURE, SHA256Signature.class, SHA256Signature.CODEC);
+		registerType(TYPE_PPK_SIGNATURE, PPKSignature.class, PPKSignature.CODEC);
+		registerType(TYPE_NUMBERING_HEADER, NumberingHeader.class, NumberingHeader.CODEC);
+	}
+	
+	/**
+	 * Registers a codec for a class. Objects of the class (but not of its
+	 * sub-classes) are encoded with the codec afterwards. The codec has to
+	 * be registered at the receiver, too. Registering it in a static
+	 * initializer of the class ensures that, since the decoder loads the
+	 * class by its name.
+	 * 
+	 * @param pClass Class handled by the codec
+	 * @param pCodec Codec for the class
+	 */
+	public synchronized <T> void register(Class<T> pClass, Codec<T> pCodec)
+	{
+		if(mByClass.containsKey(pClass)) {
+			throw new IllegalArgumentException("Codec for " +pClass +" already registered.");
+		}
+		
+		Entry tEntry = new Entry(TYPE_REGISTERED, pCodec);
+		
+		HashMap<Class<?>, Entry> tByClass = new HashMap<Class<?>, Entry>(mByClass);
+		tByClass.put(pClass, tEntry);
+		
+		HashMap<String, Entry> tByName = new HashMap<String, Entry>(mByName);
+		tByName.put(pClass.getName(), tEntry);
+		
+		mByName = tByName;
+		mByClass = tByClass;
+	}
+	
+	/**
+	 * Encodes an object to a new frame. The frame is created in a buffer of
+	 * the thread and copied to the result. Callers sending the frame
+	 * directly should use {@link #encode(Object, WireOutput)} with their
+	 * own buffer in order to avoid the copy.
+	 * 
+	 * @param pObject Object to encode; null is allowed
+	 * @return Frame in the wire format
+	 * @throws IOException On error
+	 */
+	public byte[] encode(Object pObject) throws IOException
+	{
+		// take buffer of thread; nested calls (e.g. from the Java
+		// serialization of a payload) get a new one
+		WireOutput tOut = sBuffers.get();
+		if(tOut == null) {
+			tOut = new WireOutput();
+		} else {
+			sBuffers.set(null);
+		}
+		
+		try {
+			tOut.reset();
+			encode(pObject, tOut);
+			return tOut.toByteArray();
+		}
+		finally {
+			// do not keep large buffers for the next frames
+			if(tOut.getBuffer().length <= MAX_POOLED_BUFFER_SIZE) {
+				sBuffers.set(tOut);
+			}
+		}
+	}
+	
+	/**
+	 * Encodes an object as frame into a buffer given by the caller.
+	 * 
+	 * @param pObject Object to encode; null is allowed
+	 * @param pOut Output buffer; the frame is appended to the existing content
+	 * @throws IOException On error
+	 */
+	public void encode(Object pObject, WireOutput pOut) throws IOException
+	{
+		pOut.write(VERSION);
+		writeObject(pObject, pOut);
+	}
+	
+	/**
+	 * Decodes a frame created by {@link #encode(Object)} or by the Java serialization.
+	 * 
+	 * @return Decoded object
+	 * @throws IOException On invalid data or on an unknown version
+	 */
+	public Object decode(byte[] pData) throws IOException
+	{
+		return decode(pData, 0, pData.length);
+	}
+	
+	/**
+	 * Decodes a frame created by {@link #encode(Object)} or by the Java serialization.
+	 * 
+	 * @param pData Array containing the frame
+	 * @param pOffset Start of the frame in the array
+	 * @param pLength Length of the frame
+	 * @return Decoded object
+	 * @throws IOException On invalid data or on an unknown version
+	 */
+	public Object decode(byte[] pData, int pOffset, int pLength) throws IOException
+	{
+		// take reader of thread; nested calls (e.g. from the Java
+		// serialization of a payload) get a new one
+		WireInput tIn = sReaders.get();
+		if(tIn == null) {
+			tIn = new WireInput(pData, pOffset, pLength);
+		} else {
+			sReaders.set(null);
+			tIn.reset(pData, pOffset, pLength);
+		}
+		
+		try {
+			if(pLength >= 2) {
+				int tMagic = ((pData[pOffset] & 0xFF) << 8) | (pData[pOffset +1] & 0xFF);
+				
+				if(tMagic == JAVA_SERIALIZATION_MAGIC) {
+					return readSerialized(tIn);
+				}
+			}
+			
+			int tVersion = tIn.readByte();
+			
+			if(tVersion != VERSION) {
+				throw new IOException("Wire format version " +tVersion +" not supported (expected " +VERSION +").");
+			}
+			
+			return readObject(tIn);
+		}
+		finally {
+			// do not keep a reference to the frame
+			tIn.reset(null, 0, 0);
+			sReaders.set(tIn);
+		}
+	}
+	
+	/**
+	 * Writes an object with type information.
+	 */
+	@SuppressWarnings("unchecked")
+	void writeObject(Object pObject, WireOutput pOut) throws IOException
+	{
+		if(pObject == null) {
+			pOut.writeInt(TYPE_NULL);
+			return;
+		}
+		
+		Class<?> tClass = pObject.getClass();
+		Entry tEntry = mByClass.get(tClass);
+		
+		if(tEntry != null) {
+			pOut.writeInt(tEntry.type);
+			if(tEntry.type == TYPE_REGISTERED) {
+				pOut.writeString(tClass.getName());
+			}
+			
+			((Codec<Object>) tEntry.codec).encode(pObject, pOut);
+		}
+		else if(tClass == String.class) {
+			pOut.writeInt(TYPE_STRING);
+			pOut.writeString((String) pObject);
+		}
+		else if(tClass == byte[].class) {
+			pOut.writeInt(TYPE_BYTES);
+			pOut.writeBytes((byte[]) pObject);
+		}
+		else if(tClass == Integer.class) {
+			pOut.writeInt(TYPE_INTEGER);
+			pOut.writeInt((Integer) pObject);
+		}
+		else if(tClass == Long.class) {
+			pOut.writeInt(TYPE_LONG);
+			pOut.writeLong((Long) pObject);
+		}
+		else if(tClass == Boolean.class) {
+			pOut.writeInt(TYPE_BOOLEAN);
+			pOut.writeBoolean((Boolean) pObject);
+		}
+		else if(tClass == Double.class) {
+			pOut.writeInt(TYPE_DOUBLE);
+			pOut.writeDouble((Double) pObject);
+		}
+		else if(tClass == Object[].class) {
+			Object[] tArray = (Object[]) pObject;
+			
+			pOut.writeInt(TYPE_OBJECT_ARRAY);
+			pOut.writeInt(tArray.length);
+			for(Object tElement : tArray) {
+				writeObject(tElement, pOut);
+			}
+		}
+		else {
+			if(pOut.isCanonical()) {
+				throw new NotCanonicalException(tClass);
+			}
+			
+			// fallback: Java serialization with length in front
+			pOut.writeInt(TYPE_SERIALIZED);
+			
+			int tLengthPosition = pOut.getLength();
+			pOut.writeFixedInt(0);
+			Serializer.getInstance().toStream(pObject, pOut);
+			pOut.setFixedInt(tLengthPosition, pOut.getLength() -tLengthPosition -4);
+		}
+	}
+	
+	/**
+	 * Reads an object written by {@link #writeObject(Object, WireOutput)}.
+	 */
+	Object readObject(WireInput pIn) throws IOException
+	{
+		int tType = pIn.readInt();
+		
+		switch(tType) {
+			case TYPE_NULL:
+				return null;
+			case TYPE_SERIALIZED:
+				int tEnd = pIn.limit(pIn.readFixedInt());
+				try {
+					return readSerialized(pIn);
+				}
+				finally {
+					pIn.restoreLimit(tEnd);
+				}
+			case TYPE_REGISTERED:
+				return getEntry(pIn.readString()).codec.decode(pIn);
+			case TYPE_STRING:
+				return pIn.readString();
+			case TYPE_BYTES:
+				return pIn.readBytes();
+			case TYPE_INTEGER:
+				return pIn.readInt();
+			case TYPE_LONG:
+				return pIn.readLong();
+			case TYPE_BOOLEAN:
+				return pIn.readBoolean();
+			case TYPE_DOUBLE:
+				return pIn.readDouble();
+			case TYPE_OBJECT_ARRAY:
+				int tLength = pIn.readLength();
+				if(tLength < 0) return null;
+				
+				Object[] tArray = new Object[tLength];
+				for(int i = 0; i < tLength; i++) {
+					tArray[i] = readObject(pIn);
+				}
+				return tArray;
+			default:
+				Entry tEntry = mByType.get(tType);
+				
+				if(tEntry == null) {
+					throw new IOException("Unknown type " +tType +" in wire data.");
+				}
+				return tEntry.codec.decode(pIn);
+		}
+	}
+	
+	private Object readSerialized(WireInput pIn) throws IOException
+	{
+		try {
+			return Serializer.getInstance().toObject(pIn);
+		}
+		catch(ClassNotFoundException exc) {
+			throw new IOException("Class of serialized object not known.", exc);
+		}
+	}
+	
+	/**
+	 * @return Entry of a registered codec; the class is loaded if the codec is not known so far
+	 */
+	private Entry getEntry(String pClassName) throws IOException
+	{
+		Entry tEntry = mByName.get(pClassName);
+		
+		if(tEntry == null) {
+			// loading the class registers its codec
+			try {
+				Serializer.getInstance().getClassByName(pClassName);
+			}
+			catch(ClassNotFoundException exc) {
+				throw new IOException("Class " +pClassName +" of wire data not known.", exc);
+			}
+			
+			tEntry = mByName.get(pClassName);
+			if(tEntry == null) {
+				throw new IOException("No codec for class " +pClassName +" registered.");
+			}
+		}
+		
+		return tEntry;
+	}
+	
+	private <T> void registerType(int pType, Class<T> pClass, Codec<T> pCodec)
+	{
+		Entry tEntry = new Entry(pType, pCodec);
+		
+		mByClass.put(pClass, tEntry);
+		mByType.put(pType, tEntry);
+	}
+	
+	private static class Entry
+	{
+		public Entry(int pType, Codec<?> pCodec)
+		{
+			type = pType;
+			codec = pCodec;
+		}
+		
+		public final int type;
+		public final Codec<?> codec;
+	}
+	
+	/**
+	 * Buffers of the threads encoding frames; larger buffers are not kept
+	 */
+	private static final int MAX_POOLED_BUFFER_SIZE = 64 * 1024;
+	
+	private static ThreadLocal<WireOutput> sBuffers = new ThreadLocal<WireOutput>();
+	
+	/**
+	 * Readers of the threads decoding frames
+	 */
+	private static ThreadLocal<WireInput> sReaders = new ThreadLocal<WireInput>();
+	
+	/**
+	 * Maps are replaced on registration; readers do not need to lock them.
+	 */
+	private volatile HashMap<Class<?>, Entry> mByClass = new HashMap<Class<?>, Entry>();
+	private volatile HashMap<String, Entry> mByName = new HashMap<String, Entry>();
+	private HashMap<Integer, Entry> mByType = new HashMap<Integer, Entry>();
+}
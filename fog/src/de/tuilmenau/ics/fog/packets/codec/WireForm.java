@@ -0,0 +1,51 @@
+/*******************************************************************************
+ * Forwarding on Gates Simulator/Emulator
+ * Copyright (C) 2012, Integrated Communication Systems Group, TU Ilmenau.
+ * 
+ * This program and the accompanying materials are dual-licensed under either
+ * the terms of the Eclipse Public License v1.0 as published by the Eclipse
+ * Foundation
+ *  
+ *   or (per the licensee's choosing)
+ *  
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ ******************************************************************************/
+package de.tuilmenau.ics.fog.packets.codec;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+
+
+/**
+ * Serializable container for an object in the binary wire format. Classes
+ * return it from their <code>writeReplace</code> method in order to use the
+ * wire format if they are transmitted with the Java serialization (e.g. as
+ * parameter of RMI calls). The receiver replaces it with the decoded object.
+ */
+public class WireForm implements Serializable
+{
+	private static final long serialVersionUID = 3962271848155939185L;
+	
+	public WireForm(Object pObject) throws IOException
+	{
+		mData = PacketCodec.getInstance().encode(pObject);
+	}
+	
+	private Object readResolve() throws ObjectStreamException
+	{
+		try {
+			return PacketCodec.getInstance().decode(mData);
+		}
+		catch(IOException exc) {
+			InvalidObjectException tExc = new InvalidObjectException("Can not decode wire format.");
+			
+			tExc.initCause(exc);
+			throw tExc;
+		}
+	}
+	
+	private byte[] mData;
+}
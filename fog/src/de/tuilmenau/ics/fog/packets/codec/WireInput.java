@@ -0,0 +1,229 @@
+/*******************************************************************************
+ * Forwarding on Gates Simulator/Emulator
+ * Copyright (C) 2012, Integrated Communication Systems Group, TU Ilmenau.
+ * 
+ * This program and the accompanying materials are dual-licensed under either
+ * the terms of the Eclipse Public License v1.0 as published by the Eclipse
+ * Foundation
+ *  
+ *   or (per the licensee's choosing)
+ *  
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ ******************************************************************************/
+package de.tuilmenau.ics.fog.packets.codec;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+
+/**
+ * Read access to data in the binary wire format. The data is read
+ * directly from the array given to the constructor or to
+ * {@link #reset(byte[], int, int)}. Decoded byte arrays and strings are
+ * copies, since the array might be reused for the next frame.
+ */
+public class WireInput extends InputStream
+{
+	public WireInput(byte[] pData, int pOffset, int pLength)
+	{
+		reset(pData, pOffset, pLength);
+	}
+	
+	/**
+	 * Sets the data to read from. The object can be reused for the next
+	 * frame afterwards.
+	 * 
+	 * @param pData Array containing the data; null for releasing the previous data
+	 * @param pOffset Start of the data in the array
+	 * @param pLength Length of the data
+	 */
+	public void reset(byte[] pData, int pOffset, int pLength)
+	{
+		mBuffer = pData;
+		mPosition = pOffset;
+		mEnd = pOffset +pLength;
+	}
+	
+	/**
+	 * @return Number of bytes not read so far
+	 */
+	public int getRemaining()
+	{
+		return mEnd -mPosition;
+	}
+	
+	@Override
+	public int read()
+	{
+		if(mPosition < mEnd) {
+			return mBuffer[mPosition++] & 0xFF;
+		} else {
+			return -1;
+		}
+	}
+	
+	@Override
+	public int read(byte[] pData, int pOffset, int pLength)
+	{
+		if(pLength == 0) return 0;
+		if(mPosition >= mEnd) return -1;
+		
+		int tLength = Math.min(pLength, mEnd -mPosition);
+		System.arraycopy(mBuffer, mPosition, pData, pOffset, tLength);
+		mPosition += tLength;
+		
+		return tLength;
+	}
+	
+	@Override
+	public int available()
+	{
+		return mEnd -mPosition;
+	}
+	
+	public int readByte() throws IOException
+	{
+		require(1);
+		return mBuffer[mPosition++] & 0xFF;
+	}
+	
+	public boolean readBoolean() throws IOException
+	{
+		return readByte() != 0;
+	}
+	
+	public int readFixedInt() throws IOException
+	{
+		require(4);
+		int tValue = ((mBuffer[mPosition] & 0xFF) << 24) | ((mBuffer[mPosition +1] & 0xFF) << 16) | ((mBuffer[mPosition +2] & 0xFF) << 8) | (mBuffer[mPosition +3] & 0xFF);
+		
+		mPosition += 4;
+		return tValue;
+	}
+	
+	public int readInt() throws IOException
+	{
+		long tValue = readLong();
+		
+		if((tValue < Integer.MIN_VALUE) || (tValue > Integer.MAX_VALUE)) {
+			throw new IOException("Integer value " +tValue +" out of range.");
+		}
+		
+		return (int) tValue;
+	}
+	
+	public long readLong() throws IOException
+	{
+		long tValue = 0;
+		
+		for(int tShift = 0; tShift < 64; tShift += 7) {
+			int tByte = readByte();
+			
+			tValue |= (long) (tByte & 0x7F) << tShift;
+			if((tByte & 0x80) == 0) {
+				return (tValue >>> 1) ^ -(tValue & 1);
+			}
+		}
+		
+		throw new IOException("Variable length integer too long.");
+	}
+	
+	public double readDouble() throws IOException
+	{
+		long tHigh = readFixedInt();
+		long tLow = readFixedInt();
+		
+		return Double.longBitsToDouble((tHigh << 32) | (tLow & 0xFFFFFFFFL));
+	}
+	
+	public byte[] readBytes() throws IOException
+	{
+		int tLength = readLength();
+		
+		if(tLength < 0) return null;
+		
+		byte[] tResult = new byte[tLength];
+		System.arraycopy(mBuffer, mPosition, tResult, 0, tLength);
+		mPosition += tLength;
+		
+		return tResult;
+	}
+	
+	public String readString() throws IOException
+	{
+		int tLength = readLength();
+		
+		if(tLength < 0) return null;
+		
+		String tResult = new String(mBuffer, mPosition, tLength, UTF8);
+		mPosition += tLength;
+		
+		return tResult;
+	}
+	
+	/**
+	 * Reads an object written by {@link WireOutput#writeObject(Object)}.
+	 */
+	public Object readObject() throws IOException
+	{
+		return PacketCodec.getInstance().readObject(this);
+	}
+	
+	/**
+	 * Reads a length and checks if the data is available.
+	 * 
+	 * @return Length or -1 for null
+	 */
+	int readLength() throws IOException
+	{
+		int tLength = readInt();
+		
+		if(tLength < -1) {
+			throw new IOException("Invalid length " +tLength +".");
+		}
+		if(tLength > 0) {
+			require(tLength);
+		}
+		
+		return tLength;
+	}
+	
+	/**
+	 * Restricts the input to the next bytes.
+	 * 
+	 * @return Previous end of the input for {@link #restoreLimit(int)}
+	 */
+	int limit(int pLength) throws IOException
+	{
+		require(pLength);
+		
+		int tEnd = mEnd;
+		mEnd = mPosition +pLength;
+		return tEnd;
+	}
+	
+	/**
+	 * Skips the remaining bytes of a limited part and restores the end of the input.
+	 */
+	void restoreLimit(int pEnd)
+	{
+		mPosition = mEnd;
+		mEnd = pEnd;
+	}
+	
+	private void require(int pBytes) throws EOFException
+	{
+		if(mEnd -mPosition < pBytes) {
+			throw new EOFException("Wire data ends unexpectedly (" +pBytes +" bytes required, " +(mEnd -mPosition) +" available).");
+		}
+	}
+	
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	
+	private byte[] mBuffer;
+	private int mPosition;
+	private int mEnd;
+}
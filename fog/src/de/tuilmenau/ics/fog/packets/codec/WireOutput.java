@@ -0,0 +1,254 @@
+/*******************************************************************************
+ * Forwarding on Gates Simulator/Emulator
+ * Copyright (C) 2012, Integrated Communication Systems Group, TU Ilmenau.
+ * 
+ * This program and the accompanying materials are dual-licensed under either
+ * the terms of the Eclipse Public License v1.0 as published by the Eclipse
+ * Foundation
+ *  
+ *   or (per the licensee's choosing)
+ *  
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ ******************************************************************************/
+package de.tuilmenau.ics.fog.packets.codec;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+
+/**
+ * Growing output buffer for the binary wire format. The buffer can be
+ * reset and reused for the next packet. Integer values are written as
+ * variable length integers (zig-zag encoded), which requires one byte
+ * for small values.
+ */
+public class WireOutput extends OutputStream
+{
+	public WireOutput()
+	{
+		this(INITIAL_SIZE);
+	}
+	
+	public WireOutput(int pInitialSize)
+	{
+		mBuffer = new byte[Math.max(16, pInitialSize)];
+	}
+	
+	/**
+	 * Enables the canonical mode. In this mode, objects without a
+	 * registered codec are rejected instead of being encoded with the
+	 * Java serialization, which output differs between VMs. It is used
+	 * for data, which has to be encoded identically on all systems
+	 * (e.g. input for checksums).
+	 */
+	public void setCanonical(boolean pCanonical)
+	{
+		mCanonical = pCanonical;
+	}
+	
+	/**
+	 * @return true, if objects without registered codec are rejected
+	 */
+	public boolean isCanonical()
+	{
+		return mCanonical;
+	}
+	
+	/**
+	 * Discards the content of the buffer without freeing the memory.
+	 */
+	public void reset()
+	{
+		mLength = 0;
+	}
+	
+	/**
+	 * @return Internal buffer; the first {@link #getLength()} bytes are valid
+	 */
+	public byte[] getBuffer()
+	{
+		return mBuffer;
+	}
+	
+	/**
+	 * @return Number of bytes written
+	 */
+	public int getLength()
+	{
+		return mLength;
+	}
+	
+	/**
+	 * @return Copy of the written bytes
+	 */
+	public byte[] toByteArray()
+	{
+		byte[] tResult = new byte[mLength];
+		
+		System.arraycopy(mBuffer, 0, tResult, 0, mLength);
+		return tResult;
+	}
+	
+	@Override
+	public void write(int pByte)
+	{
+		ensureCapacity(1);
+		mBuffer[mLength++] = (byte) pByte;
+	}
+	
+	@Override
+	public void write(byte[] pData, int pOffset, int pLength)
+	{
+		ensureCapacity(pLength);
+		System.arraycopy(pData, pOffset, mBuffer, mLength, pLength);
+		mLength += pLength;
+	}
+	
+	public void writeBoolean(boolean pValue)
+	{
+		write(pValue ? 1 : 0);
+	}
+	
+	/**
+	 * Writes an integer with a fixed length of four bytes.
+	 */
+	public void writeFixedInt(int pValue)
+	{
+		ensureCapacity(4);
+		mBuffer[mLength++] = (byte) (pValue >>> 24);
+		mBuffer[mLength++] = (byte) (pValue >>> 16);
+		mBuffer[mLength++] = (byte) (pValue >>> 8);
+		mBuffer[mLength++] = (byte) pValue;
+	}
+	
+	public void writeInt(int pValue)
+	{
+		writeLong(pValue);
+	}
+	
+	public void writeLong(long pValue)
+	{
+		// zig-zag encoding maps small negative values to small positive ones
+		long tValue = (pValue << 1) ^ (pValue >> 63);
+		
+		ensureCapacity(10);
+		while((tValue & ~0x7FL) != 0) {
+			mBuffer[mLength++] = (byte) ((tValue & 0x7F) | 0x80);
+			tValue >>>= 7;
+		}
+		mBuffer[mLength++] = (byte) tValue;
+	}
+	
+	public void writeDouble(double pValue)
+	{
+		long tBits = Double.doubleToLongBits(pValue);
+		
+		writeFixedInt((int) (tBits >>> 32));
+		writeFixedInt((int) tBits);
+	}
+	
+	/**
+	 * Writes a byte array with its length. null is allowed.
+	 */
+	public void writeBytes(byte[] pData)
+	{
+		if(pData == null) {
+			writeInt(-1);
+		} else {
+			writeInt(pData.length);
+			write(pData, 0, pData.length);
+		}
+	}
+	
+	/**
+	 * Writes a string in UTF-8 with its length. null is allowed.
+	 */
+	public void writeString(String pValue)
+	{
+		if(pValue == null) {
+			writeInt(-1);
+			return;
+		}
+		
+		int tLength = pValue.length();
+		int tBytes = 0;
+		for(int i = 0; i < tLength; i++) {
+			char tChar = pValue.charAt(i);
+			
+			if(tChar < 0x80) tBytes++;
+			else if(tChar < 0x800) tBytes += 2;
+			else if(Character.isHighSurrogate(tChar) && (i +1 < tLength) && Character.isLowSurrogate(pValue.charAt(i +1))) {
+				tBytes += 4;
+				i++;
+			}
+			else tBytes += 3;
+		}
+		
+		writeInt(tBytes);
+		ensureCapacity(tBytes);
+		for(int i = 0; i < tLength; i++) {
+			char tChar = pValue.charAt(i);
+			
+			if(tChar < 0x80) {
+				mBuffer[mLength++] = (byte) tChar;
+			}
+			else if(tChar < 0x800) {
+				mBuffer[mLength++] = (byte) (0xC0 | (tChar >> 6));
+				mBuffer[mLength++] = (byte) (0x80 | (tChar & 0x3F));
+			}
+			else if(Character.isHighSurrogate(tChar) && (i +1 < tLength) && Character.isLowSurrogate(pValue.charAt(i +1))) {
+				int tCodePoint = Character.toCodePoint(tChar, pValue.charAt(i +1));
+				
+				mBuffer[mLength++] = (byte) (0xF0 | (tCodePoint >> 18));
+				mBuffer[mLength++] = (byte) (0x80 | ((tCodePoint >> 12) & 0x3F));
+				mBuffer[mLength++] = (byte) (0x80 | ((tCodePoint >> 6) & 0x3F));
+				mBuffer[mLength++] = (byte) (0x80 | (tCodePoint & 0x3F));
+				i++;
+			}
+			else {
+				mBuffer[mLength++] = (byte) (0xE0 | (tChar >> 12));
+				mBuffer[mLength++] = (byte) (0x80 | ((tChar >> 6) & 0x3F));
+				mBuffer[mLength++] = (byte) (0x80 | (tChar & 0x3F));
+			}
+		}
+	}
+	
+	/**
+	 * Writes an object with the codec registered for its class.
+	 * null is allowed.
+	 */
+	public void writeObject(Object pObject) throws IOException
+	{
+		PacketCodec.getInstance().writeObject(pObject, this);
+	}
+	
+	/**
+	 * Overwrites a fixed length integer written before.
+	 * 
+	 * @param pPosition Position of the integer in the buffer
+	 */
+	void setFixedInt(int pPosition, int pValue)
+	{
+		mBuffer[pPosition] = (byte) (pValue >>> 24);
+		mBuffer[pPosition +1] = (byte) (pValue >>> 16);
+		mBuffer[pPosition +2] = (byte) (pValue >>> 8);
+		mBuffer[pPosition +3] = (byte) pValue;
+	}
+	
+	private void ensureCapacity(int pAdditionalBytes)
+	{
+		if(mLength +pAdditionalBytes > mBuffer.length) {
+			byte[] tNewBuffer = new byte[Math.max(mBuffer.length * 2, mLength +pAdditionalBytes)];
+			
+			System.arraycopy(mBuffer, 0, tNewBuffer, 0, mLength);
+			mBuffer = tNewBuffer;
+		}
+	}
+	
+	private static final int INITIAL_SIZE = 1024;
+	
+	private byte[] mBuffer;
+	private int mLength = 0;
+	private boolean mCanonical = false;
+}
@@ -13,12 +13,16 @@
  ******************************************************************************/
 package de.tuilmenau.ics.fog.routing;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.Iterator;
 import java.util.LinkedList;
 
 import de.tuilmenau.ics.fog.facade.Description;
 import de.tuilmenau.ics.fog.facade.Name;
+import de.tuilmenau.ics.fog.packets.codec.Codec;
+import de.tuilmenau.ics.fog.packets.codec.WireInput;
+import de.tuilmenau.ics.fog.packets.codec.WireOutput;
 import de.tuilmenau.ics.fog.routing.simulated.RoutingServiceAddress;
 import de.tuilmenau.ics.fog.transfer.gates.GateID;
 import de.tuilmenau.ics.fog.util.SimpleName;
@@ -335,6 +339,40 @@ public int getSerialisedSize()
 		return tSize;
 	}
 	
+	/**
+	 * Binary wire format of routes
+	 */
+	public static final Codec<Route> CODEC = new Codec<Route>() {
+		@Override
+		public void encode(Route pRoute, WireOutput pOut) throws IOException
+		{
+			pOut.writeInt(pRoute.size());
+			for(RouteSegment tSegment : pRoute) {
+				pOut.writeObject(tSegment);
+			}
+			pOut.writeInt(pRoute.mRouteLength);
+		}
+		
+		@Override
+		public Route decode(WireInput pIn) throws IOException
+		{
+			Route tRoute = new Route();
+			int tNumber = pIn.readInt();
+			
+			for(int i = 0; i < tNumber; i++) {
+				Object tSegment = pIn.readObject();
+				
+				if(!(tSegment instanceof RouteSegment)) {
+					throw new IOException("Invalid route segment " +tSegment +" in wire data.");
+				}
+				tRoute.add((RouteSegment) tSegment);
+			}
+			tRoute.mRouteLength = pIn.readInt();
+			
+			return tRoute;
+		}
+	};
+	
 	private int mRouteLength = 0;
 
 
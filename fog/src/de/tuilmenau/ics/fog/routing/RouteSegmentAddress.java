@@ -13,7 +13,12 @@
  ******************************************************************************/
 package de.tuilmenau.ics.fog.routing;
 
+import java.io.IOException;
+
 import de.tuilmenau.ics.fog.facade.Name;
+import de.tuilmenau.ics.fog.packets.codec.Codec;
+import de.tuilmenau.ics.fog.packets.codec.WireInput;
+import de.tuilmenau.ics.fog.packets.codec.WireOutput;
 import de.tuilmenau.ics.fog.util.Size;
 
 /**
@@ -59,5 +64,27 @@ public String toString()
 		return address.toString();
 	}
 	
+	/**
+	 * Binary wire format of address segments
+	 */
+	public static final Codec<RouteSegmentAddress> CODEC = new Codec<RouteSegmentAddress>() {
+		@Override
+		public void encode(RouteSegmentAddress pSegment, WireOutput pOut) throws IOException
+		{
+			pOut.writeObject(pSegment.address);
+		}
+		
+		@Override
+		public RouteSegmentAddress decode(WireInput pIn) throws IOException
+		{
+			try {
+				return new RouteSegmentAddress((Name) pIn.readObject());
+			}
+			catch(ClassCastException exc) {
+				throw new IOException("Invalid address in wire data.", exc);
+			}
+		}
+	};
+	
 	private final Name address;
 }
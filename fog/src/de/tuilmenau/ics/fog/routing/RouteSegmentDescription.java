@@ -13,7 +13,12 @@
  ******************************************************************************/
 package de.tuilmenau.ics.fog.routing;
 
+import java.io.IOException;
+
 import de.tuilmenau.ics.fog.facade.Description;
+import de.tuilmenau.ics.fog.packets.codec.Codec;
+import de.tuilmenau.ics.fog.packets.codec.WireInput;
+import de.tuilmenau.ics.fog.packets.codec.WireOutput;
 import de.tuilmenau.ics.fog.util.Size;
 
 
@@ -60,5 +65,27 @@ public String toString()
 		return description.toString();
 	}
 	
+	/**
+	 * Binary wire format of description segments
+	 */
+	public static final Codec<RouteSegmentDescription> CODEC = new Codec<RouteSegmentDescription>() {
+		@Override
+		public void encode(RouteSegmentDescription pSegment, WireOutput pOut) throws IOException
+		{
+			pOut.writeObject(pSegment.description);
+		}
+		
+		@Override
+		public RouteSegmentDescription decode(WireInput pIn) throws IOException
+		{
+			try {
+				return new RouteSegmentDescription((Description) pIn.readObject());
+			}
+			catch(ClassCastException exc) {
+				throw new IOException("Invalid description in wire data.", exc);
+			}
+		}
+	};
+	
 	private Description description;
 }
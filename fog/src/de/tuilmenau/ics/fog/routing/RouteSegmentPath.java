@@ -13,8 +13,12 @@
  ******************************************************************************/
 package de.tuilmenau.ics.fog.routing;
 
+import java.io.IOException;
 import java.util.LinkedList;
 
+import de.tuilmenau.ics.fog.packets.codec.Codec;
+import de.tuilmenau.ics.fog.packets.codec.WireInput;
+import de.tuilmenau.ics.fog.packets.codec.WireOutput;
 import de.tuilmenau.ics.fog.transfer.gates.GateID;
 
 /**
@@ -134,4 +138,36 @@ public String toString()
 
 		return gatelist.toString();
 	}
+	
+	/**
+	 * Binary wire format of path segments
+	 */
+	public static final Codec<RouteSegmentPath> CODEC = new Codec<RouteSegmentPath>() {
+		@Override
+		public void encode(RouteSegmentPath pSegment, WireOutput pOut) throws IOException
+		{
+			pOut.writeInt(pSegment.size());
+			for(GateID tGateID : pSegment) {
+				pOut.writeObject(tGateID);
+			}
+		}
+		
+		@Override
+		public RouteSegmentPath decode(WireInput pIn) throws IOException
+		{
+			RouteSegmentPath tSegment = new RouteSegmentPath();
+			int tNumber = pIn.readInt();
+			
+			for(int i = 0; i < tNumber; i++) {
+				Object tGateID = pIn.readObject();
+				
+				if((tGateID != null) && !(tGateID instanceof GateID)) {
+					throw new IOException("Invalid gate number " +tGateID +" in wire data.");
+				}
+				tSegment.add((GateID) tGateID);
+			}
+			
+			return tSegment;
+		}
+	};
 }
@@ -13,8 +13,13 @@
  ******************************************************************************/
 package de.tuilmenau.ics.fog.routing;
 
+import java.util.Iterator;
+import java.util.LinkedList;
+
 import de.tuilmenau.ics.fog.IEventRef;
 import de.tuilmenau.ics.fog.facade.Description;
+import de.tuilmenau.ics.fog.facade.properties.DatarateProperty;
+import de.tuilmenau.ics.fog.facade.properties.DelayProperty;
 import de.tuilmenau.ics.fog.transfer.gates.AbstractGate;
 import de.tuilmenau.ics.fog.transfer.gates.GateID;
 import de.tuilmenau.ics.fog.ui.Viewable;
@@ -68,13 +73,53 @@ public GateID getID()
 		return mGateID;
 	}
 	
-	public void setDescription(Description newDescr)
+	public synchronized void setDescription(Description newDescr)
 	{
+		int tOldMax = getMaxDataRate(mDescr);
+		
 		if(newDescr != null) {
 			mDescr = newDescr.clone();
 		} else {
 			mDescr = null;
 		}
+		
+		// New description reflects the current state of the lower layer.
+		// A decrease of the data rate is caused by gates created in the
+		// meantime and accounts for (some of) the pending reservations.
+		// Reservations of routes, for which the gates are not yet created,
+		// remain until they are released.
+		int tNewMax = getMaxDataRate(mDescr);
+		if((tOldMax >= 0) && (tNewMax >= 0)) {
+			if(tNewMax < tOldMax) {
+				consumeReservations(tOldMax -tNewMax);
+			}
+		} else {
+			// link is not limited (anymore) -> reservations are obsolete
+			consumeReservations(Integer.MAX_VALUE);
+		}
+	}
+	
+	/**
+	 * Removes data rate from the pending reservations, starting with the
+	 * oldest one. Reservations, which are completely accounted for, can not
+	 * be released anymore.
+	 */
+	private void consumeReservations(int pDataRate)
+	{
+		Iterator<Reservation> tIter = mReservations.iterator();
+		
+		while((pDataRate > 0) && tIter.hasNext()) {
+			Reservation tReservation = tIter.next();
+			int tConsumed = Math.min(pDataRate, tReservation.mRemainingDataRate);
+			
+			tReservation.mRemainingDataRate -= tConsumed;
+			mReservedDataRate -= tConsumed;
+			pDataRate -= tConsumed;
+			
+			if(tReservation.mRemainingDataRate <= 0) {
+				tIter.remove();
+			}
+		}
 	}
 	
 	public Description getDescription()
@@ -92,6 +137,92 @@ public boolean descriptionEqualTo(Description otherDescr)
 		}
 	}
 	
+	/**
+	 * @return Data rate [kbit/s] available for new reservations; negative if the link is not limited
+	 */
+	public synchronized int getAvailableDataRate()
+	{
+		int tMax = getMaxDataRate(mDescr);
+		
+		if(tMax >= 0) {
+			return Math.max(0, tMax -mReservedDataRate);
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * @return Maximum data rate [kbit/s] of a description; negative if not limited
+	 */
+	private static int getMaxDataRate(Description pDescr)
+	{
+		if(pDescr != null) {
+			DatarateProperty tProp = (DatarateProperty) pDescr.get(DatarateProperty.class);
+			
+			if(tProp != null) {
+				return tProp.getMax();
+			}
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * @return Delay [ms] of the link; 0 if not known
+	 */
+	public int getDelay()
+	{
+		if(mDescr != null) {
+			DelayProperty tProp = (DelayProperty) mDescr.get(DelayProperty.class);
+			
+			if(tProp != null) {
+				return Math.max(0, tProp.getMin());
+			}
+		}
+		
+		return 0;
+	}
+	
+	/**
+	 * Books data rate for a route, which was calculated but for which the
+	 * gates are not yet created. The reservation is reduced, if a new
+	 * description from the lower layer reports a decreased data rate,
+	 * and it is removed, if it is released.
+	 * 
+	 * @param pDataRate Data rate [kbit/s]
+	 * @return Reservation for releasing the data rate; null if nothing was reserved
+	 */
+	public synchronized Reservation reserveDataRate(int pDataRate)
+	{
+		if(pDataRate > 0) {
+			Reservation tReservation = new Reservation(pDataRate);
+			
+			mReservations.addLast(tReservation);
+			mReservedDataRate += pDataRate;
+			return tReservation;
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Releases the part of a reservation, which was not accounted for by a
+	 * new description in the meantime. Further calls for the same
+	 * reservation do not have any effect.
+	 */
+	public synchronized void releaseReservation(Reservation pReservation)
+	{
+		if((pReservation != null) && mReservations.remove(pReservation)) {
+			mReservedDataRate -= pReservation.mRemainingDataRate;
+			pReservation.mRemainingDataRate = 0;
+		}
+	}
+	
+	public synchronized int getReservedDataRate()
+	{
+		return mReservedDataRate;
+	}
+	
 	public void setActive(boolean active)
 	{
 		mActive = active;
@@ -112,6 +243,48 @@ public IEventRef getEvent()
 		return mTimer;
 	}
 	
+	/**
+	 * Data rate booked for a single route at a link.
+	 */
+	public class Reservation
+	{
+		private Reservation(int pDataRate)
+		{
+			mRemainingDataRate = pDataRate;
+		}
+		
+		/**
+		 * Releases the reservation at its link. Further calls do not have any effect.
+		 */
+		public void release()
+		{
+			releaseReservation(this);
+		}
+		
+		/**
+		 * @return Data rate [kbit/s], which is still reserved; 0 if released or accounted for by the link
+		 */
+		public int getRemainingDataRate()
+		{
+			synchronized(RoutingServiceLink.this) {
+				return mRemainingDataRate;
+			}
+		}
+		
+		public RoutingServiceLink getLink()
+		{
+			return RoutingServiceLink.this;
+		}
+		
+		@Override
+		public String toString()
+		{
+			return getRemainingDataRate() +"@" +RoutingServiceLink.this;
+		}
+		
+		private int mRemainingDataRate;
+	}
+	
 	public String toString()
 	{
 		if(mGateID != null) {
@@ -130,6 +303,11 @@ public String toString()
 	@Viewable("Description")
 	private Description mDescr;
 	
+	@Viewable("Reserved data rate")
+	private int mReservedDataRate = 0;
+	
+	private LinkedList<Reservation> mReservations = new LinkedList<Reservation>();
+	
 	@Viewable("Link active")
 	private boolean mActive;
 	
@@ -15,9 +15,15 @@
 
 import java.io.Serializable;
 import java.rmi.RemoteException;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.Map;
 
+import de.tuilmenau.ics.fog.Config;
+import de.tuilmenau.ics.fog.EventHandler;
 import de.tuilmenau.ics.fog.facade.Name;
 import de.tuilmenau.ics.fog.topology.Simulation;
 import de.tuilmenau.ics.fog.transfer.TransferPlaneObserver.NamingLevel;
@@ -84,25 +90,40 @@ public static NameMappingService getGlobalNameMappingService(Simulation pSim)
 	 * @param pParentService If != null, this service is informed about all activities, too.
 	 */
 	public HierarchicalNameMappingService(NameMappingService<Address> pParentService, Logger pParentLogger)
+	{
+		this(pParentService, pParentLogger, null);
+	}
+	
+	/**
+	 * Constructor for a service caching the lookup results of its parent.
+	 * 
+	 * @param pParentService If != null, this service is informed about all activities, too.
+	 * @param pTimeBase Time base for the expiration of cached lookup results; null disables the cache
+	 */
+	public HierarchicalNameMappingService(NameMappingService<Address> pParentService, Logger pParentLogger, EventHandler pTimeBase)
 	{
 		mParentNameMappingService = pParentService;
 		mLogger = new Logger(pParentLogger);
+		mTimeBase = pTimeBase;
+		
+		if((mParentNameMappingService != null) && (mTimeBase != null) && (Config.Routing.NAME_LOOKUP_CACHE_TTL_SEC > 0)) {
+			mLookupCache = new LinkedHashMap<Name, CachedLookup>(16, 0.75f, true) {
+				private static final long serialVersionUID = 4312846230118419376L;
+				
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<Name, CachedLookup> pEldest)
+				{
+					return size() > Config.Routing.NAME_LOOKUP_CACHE_MAX_ENTRIES;
+				}
+			};
+		}
 	}
 	
 	@Override
 	public void registerName(Name name, Address address, NamingLevel level)
 	{
 		if((name != null) && (address != null)) {
-			// check, if name already exists
-			LinkedList<NameMappingEntry<Address>> entry = mDNS.get(name);
-			
-			if(entry == null) {
-				entry = new LinkedList<NameMappingEntry<Address>>();
-				mDNS.put(name, entry);
-			}
-			
-			entry.add(new NameMappingEntry<Address>(address, level));
-			mLogger.log(this, address +" registered with name '" +name +"' (" +level +")");
+			addLocal(name, address, level);
 			
 			if(mParentNameMappingService != null) {
 				// do not forward all the helper stuff to the parent
@@ -119,6 +140,70 @@ public void registerName(Name name, Address address, NamingLevel level)
 			}
 		}
 	}
+	
+	/**
+	 * Adds several names to an address. The parent service is informed with
+	 * a single call.
+	 * 
+	 * @param pNames Names to register
+	 * @param pAddress Node, which should be named
+	 * @param pLevel Abstraction level of names
+	 */
+	@Override
+	public void registerNames(Name[] pNames, Address pAddress, NamingLevel pLevel)
+	{
+		if((pNames != null) && (pAddress != null)) {
+			LinkedList<Name> tForParent = null;
+			
+			for(Name tName : pNames) {
+				if(tName != null) {
+					addLocal(tName, pAddress, pLevel);
+					
+					if(tName.getNamespace().isAppNamespace()) {
+						if(tForParent == null) tForParent = new LinkedList<Name>();
+						tForParent.add(tName);
+					}
+				}
+			}
+			
+			if((mParentNameMappingService != null) && (tForParent != null)) {
+				try {
+					mParentNameMappingService.registerNames(tForParent.toArray(new Name[tForParent.size()]), pAddress, pLevel);
+				}
+				catch(Exception exc) {
+					// catch it here, since the parent service is more an optional issue
+					mLogger.err(this, "Can not inform parent name mapping service " +mParentNameMappingService +" about new names " +tForParent, exc);
+				}
+			}
+		}
+	}
+	
+	private void addLocal(Name pName, Address pAddress, NamingLevel pLevel)
+	{
+		synchronized(mDNS) {
+			// check, if name already exists
+			LinkedList<NameMappingEntry<Address>> entry = mDNS.get(pName);
+			
+			if(entry == null) {
+				entry = new LinkedList<NameMappingEntry<Address>>();
+				mDNS.put(pName, entry);
+			}
+			
+			entry.add(new NameMappingEntry<Address>(pAddress, pLevel));
+			
+			// update reverse index
+			HashSet<Name> tNames = mAddressToNames.get(pAddress);
+			if(tNames == null) {
+				tNames = new HashSet<Name>();
+				mAddressToNames.put(pAddress, tNames);
+			}
+			tNames.add(pName);
+			
+			invalidateCache(pName);
+		}
+		
+		mLogger.log(this, pAddress +" registered with name '" +pName +"' (" +pLevel +")");
+	}
 
 	/**
 	 * Clears the internal mappings database
@@ -135,13 +220,16 @@ public void clear()
 //				mLogger.err(this, "Can not inform parent name mapping service " +mParentNameMappingService +" about name deletion " +name, exc);
 //			}
 //		}
-		mDNS.clear();
+		synchronized(mDNS) {
+			mDNS.clear();
+			mAddressToNames.clear();
+			if(mLookupCache != null) mLookupCache.clear();
+		}
 	}
 
 	@Override
 	public boolean unregisterName(Name name, Address address)
 	{
-		LinkedList<NameMappingEntry<Address>> addrList = mDNS.get(name);
 		boolean parentRes = false;
 		
 		if(mParentNameMappingService != null) {
@@ -154,46 +242,47 @@ public boolean unregisterName(Name name, Address address)
 			}
 		}
 
-		if(addrList != null) {
-			boolean res = addrList.remove(new NameMappingEntry<Address>(address));
+		synchronized(mDNS) {
+			invalidateCache(name);
 			
-			// no entries for a name any more?
-			// -> remove empty list for this name
-			if(addrList.size() <= 0) {
-				mDNS.remove(name);
-			}
+			LinkedList<NameMappingEntry<Address>> addrList = mDNS.get(name);
 			
-			return res || parentRes;
-		} else {
-			// not even name was registered; but maybe parent
-			// was able to delete it
-			return parentRes;
+			if(addrList != null) {
+				boolean res = addrList.remove(new NameMappingEntry<Address>(address));
+				
+				// no entries for a name any more?
+				// -> remove empty list for this name
+				if(addrList.size() <= 0) {
+					mDNS.remove(name);
+				}
+				
+				// remove name from reverse index, if the address is not listed any more
+				if(res && !addrList.contains(new NameMappingEntry<Address>(address))) {
+					HashSet<Name> tNames = mAddressToNames.get(address);
+					
+					if(tNames != null) {
+						tNames.remove(name);
+						if(tNames.isEmpty()) {
+							mAddressToNames.remove(address);
+						}
+					}
+				}
+				
+				return res || parentRes;
+			} else {
+				// not even name was registered; but maybe parent
+				// was able to delete it
+				return parentRes;
+			}
 		}
 	}
 	
 	@Override
 	public boolean unregisterNames(Address address)
 	{
-		int del = 0;
+		int del = removeLocal(address);
 		boolean parentRes = false;
 		
-		for(LinkedList<NameMappingEntry<Address>> entryList : mDNS.values()) {
-			LinkedList<NameMappingEntry<Address>> delList = null;
-			
-			for(NameMappingEntry<Address> entry : entryList) {
-				if(entry.equals(address)) {
-					if(delList == null) delList = new LinkedList<NameMappingEntry<Address>>();
-					delList.add(entry);
-				}
-			}
-			
-			if(delList != null) {
-				for(NameMappingEntry<Address> entry : delList) {
-					if(entryList.remove(entry)) del++;
-				}
-			}
-		}
-		
 		if(mParentNameMappingService != null) {
 			try {
 				parentRes = mParentNameMappingService.unregisterNames(address);
@@ -207,53 +296,160 @@ public boolean unregisterNames(Address address)
 		return (del > 0) || parentRes;
 	}
 	
+	/**
+	 * Removes all names for several addresses. The parent service is
+	 * informed with a single call.
+	 * 
+	 * @param pAddresses Addresses, for which all names should be deleted.
+	 * @return true==at least one name was deleted; false otherwise
+	 */
 	@Override
-	public Name[] getNames(Address pAddress)
+	public boolean unregisterAllNames(Collection<Address> pAddresses)
+	{
+		int del = 0;
+		boolean parentRes = false;
+		
+		if(pAddresses != null) {
+			for(Address tAddress : pAddresses) {
+				del += removeLocal(tAddress);
+			}
+			
+			if(mParentNameMappingService != null) {
+				try {
+					parentRes = mParentNameMappingService.unregisterAllNames(pAddresses);
+				}
+				catch(Exception exc) {
+					// catch it here, since the parent service is more an optional issue
+					mLogger.err(this, "Can not inform parent name mapping service " +mParentNameMappingService +" about node deletions " +pAddresses, exc);
+				}
+			}
+		}
+		
+		return (del > 0) || parentRes;
+	}
+	
+	/**
+	 * Removes all local entries for an address by using the reverse index.
+	 * 
+	 * @return Number of deleted entries
+	 */
+	private int removeLocal(Address pAddress)
 	{
-		NameMappingEntry<Address> searchDummy = new NameMappingEntry<Address>(pAddress);
-		LinkedList<Name> result = new LinkedList<Name>();
+		int del = 0;
 		
-		// iterate all names and check, if the address is listed
-		for(Name name : mDNS.keySet()) {
-			LinkedList<NameMappingEntry<Address>> addrList = mDNS.get(name);
+		synchronized(mDNS) {
+			HashSet<Name> tNames = mAddressToNames.remove(pAddress);
 			
-			if(addrList != null) {
-				if(addrList.contains(searchDummy)) {
-					result.add(name);
+			if(tNames != null) {
+				NameMappingEntry<Address> tSearchDummy = new NameMappingEntry<Address>(pAddress);
+				
+				for(Name tName : tNames) {
+					LinkedList<NameMappingEntry<Address>> entryList = mDNS.get(tName);
+					
+					if(entryList != null) {
+						// an address might be registered several times for a name
+						while(entryList.remove(tSearchDummy)) {
+							del++;
+						}
+						
+						if(entryList.isEmpty()) {
+							mDNS.remove(tName);
+						}
+					}
+					
+					invalidateCache(tName);
 				}
 			}
-			// else: should not happen, since we iterate the keys
 		}
-
-		// convert list to suitable output format
-		Name[] retVal = new Name[result.size()];
-		int i = 0;
-		for(Name name : result) {
-			retVal[i] = name;
-			i++;
+		
+		return del;
+	}
+	
+	@Override
+	public Name[] getNames(Address pAddress)
+	{
+		synchronized(mDNS) {
+			HashSet<Name> tNames = mAddressToNames.get(pAddress);
+			
+			if(tNames != null) {
+				return tNames.toArray(new Name[tNames.size()]);
+			} else {
+				return new Name[0];
+			}
 		}
-		return retVal;
 	}
 
 	@Override
 	public NameMappingEntry<Address>[] getAddresses(Name name)
 	{
-		LinkedList<NameMappingEntry<Address>> addrList = mDNS.get(name);
-		
-		if(addrList == null) {
-			if(mParentNameMappingService != null) {
-				try {
-					return mParentNameMappingService.getAddresses(name);
+		synchronized(mDNS) {
+			LinkedList<NameMappingEntry<Address>> addrList = mDNS.get(name);
+			
+			if(addrList != null) {
+				return addrList.toArray(EMPTY_ARRAY);
+			}
+			
+			// result from parent known from previous lookup?
+			if(mLookupCache != null) {
+				CachedLookup tCached = mLookupCache.get(name);
+				
+				if(tCached != null) {
+					if(tCached.mValidUntil >= mTimeBase.now()) {
+						return tCached.mEntries.clone();
+					} else {
+						mLookupCache.remove(name);
+					}
 				}
-				catch(Exception exc) {
-					mLogger.err(this, "Can not get address for " +name +" from " +mParentNameMappingService, exc);
+			}
+		}
+		
+		if(mParentNameMappingService != null) {
+			try {
+				NameMappingEntry<Address>[] tEntries = mParentNameMappingService.getAddresses(name);
+				
+				if(mLookupCache != null) {
+					double tTTL = Config.Routing.NAME_LOOKUP_CACHE_TTL_SEC;
+					if(tEntries.length == 0) tTTL = Config.Routing.NAME_LOOKUP_NEGATIVE_CACHE_TTL_SEC;
+					
+					synchronized(mDNS) {
+						mLookupCache.put(name, new CachedLookup(tEntries.clone(), mTimeBase.now() +tTTL));
+					}
 				}
+				
+				return tEntries;
+			}
+			catch(Exception exc) {
+				mLogger.err(this, "Can not get address for " +name +" from " +mParentNameMappingService, exc);
 			}
-			
-			return EMPTY_ARRAY;
-		} else {
-			return addrList.toArray(EMPTY_ARRAY);
 		}
+		
+		return EMPTY_ARRAY;
+	}
+	
+	/**
+	 * Removes a cached lookup result for a name, since it was changed locally.
+	 * Caller has to hold the lock of mDNS.
+	 */
+	private void invalidateCache(Name pName)
+	{
+		if(mLookupCache != null) {
+			mLookupCache.remove(pName);
+		}
+	}
+	
+	/**
+	 * Lookup result from parent service, which can be used until it expires.
+	 */
+	private class CachedLookup
+	{
+		public CachedLookup(NameMappingEntry<Address>[] pEntries, double pValidUntil)
+		{
+			mEntries = pEntries;
+			mValidUntil = pValidUntil;
+		}
+		
+		public NameMappingEntry<Address>[] mEntries;
+		public double mValidUntil;
 	}
 	
 	public String getASNameByNode(String node) throws RemoteException
@@ -273,6 +469,17 @@ public String toString()
 	}
 	
 	private HashMap<Name, LinkedList<NameMappingEntry<Address>>> mDNS = new HashMap<Name, LinkedList<NameMappingEntry<Address>>>();	
+	
+	/**
+	 * Reverse index of mDNS from addresses to their names.
+	 */
+	private HashMap<Address, HashSet<Name>> mAddressToNames = new HashMap<Address, HashSet<Name>>();
+	
+	/**
+	 * Lookup results from the parent service (LRU; lazy creation; null if caching is disabled).
+	 */
+	private LinkedHashMap<Name, CachedLookup> mLookupCache = null;
+	private EventHandler mTimeBase = null;
 	private HashMap<String, String> mASToNode = new HashMap<String,String>();
 	protected NameMappingService<Address> mParentNameMappingService = null;
 	private Logger mLogger = null;
@@ -16,6 +16,7 @@
 import java.io.Serializable;
 import java.rmi.Remote;
 import java.rmi.RemoteException;
+import java.util.Collection;
 
 import de.tuilmenau.ics.fog.facade.Name;
 import de.tuilmenau.ics.fog.transfer.TransferPlaneObserver.NamingLevel;
@@ -36,6 +37,16 @@
 	 */
 	public void registerName(Name pName, Address pAddress, NamingLevel pLevel) throws RemoteException;
 	
+	/**
+	 * Adds several names to an address with a single call.
+	 * 
+	 * @param pNames Names to register
+	 * @param pAddress Node, which should be named
+	 * @param pLevel Abstraction level of names
+	 * @throws RemoteException On RMI error
+	 */
+	public void registerNames(Name[] pNames, Address pAddress, NamingLevel pLevel) throws RemoteException;
+	
 	/**
 	 * Removes a name for an address.
 	 * 
@@ -55,6 +66,15 @@
 	 */
 	public boolean unregisterNames(Address pAddress) throws RemoteException;
 	
+	/**
+	 * Removes all names for several addresses with a single call.
+	 * 
+	 * @param pAddresses Addresses, for which all names should be deleted.
+	 * @return true==success; false==none of the addresses was known
+	 * @throws RemoteException On RMI error.
+	 */
+	public boolean unregisterAllNames(Collection<Address> pAddresses) throws RemoteException;
+	
 	/**
 	 * Resolves all names for an address.
 	 * 
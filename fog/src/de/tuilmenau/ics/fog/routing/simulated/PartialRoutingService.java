@@ -34,6 +34,7 @@
 import de.tuilmenau.ics.fog.facade.RequirementsException;
 import de.tuilmenau.ics.fog.facade.RoutingException;
 import de.tuilmenau.ics.fog.facade.properties.DatarateProperty;
+import de.tuilmenau.ics.fog.facade.properties.DelayProperty;
 import de.tuilmenau.ics.fog.facade.properties.FunctionalRequirementProperty;
 import de.tuilmenau.ics.fog.facade.properties.Property;
 import de.tuilmenau.ics.fog.routing.Route;
@@ -47,7 +48,9 @@
 import de.tuilmenau.ics.fog.topology.Simulation;
 import de.tuilmenau.ics.fog.transfer.gates.GateID;
 import de.tuilmenau.ics.fog.util.Logger;
+import de.tuilmenau.ics.graph.ConstrainedShortestPath;
 import de.tuilmenau.ics.graph.GraphProvider;
+import de.tuilmenau.ics.graph.LinkFilter;
 import de.tuilmenau.ics.graph.LinkTransformer;
 import de.tuilmenau.ics.graph.RoutableGraph;
 
@@ -145,6 +148,7 @@ public Number transform(RoutingServiceLink input)
 		mCounterGetRouteFound = CounterNode.openAsWriter(getClass().getCanonicalName() +".route.number");
 		mCounterRouteLength = SumNode.openAsWriter(getClass().getCanonicalName() +".route.length");
 		mCounterRouteSegments = SumNode.openAsWriter(getClass().getCanonicalName() +".route.segments");
+		mCounterRouteRejected = CounterNode.openAsWriter(getClass().getCanonicalName() +".route.rejected");
 		
 		// administrative issues
 		RoutingServiceInstanceRegister register = RoutingServiceInstanceRegister.getInstance(sim);
@@ -568,7 +572,21 @@ public Route getRoute(RoutingServiceAddress pSource, RoutingServiceAddress pTarg
 					//
 					// Do path calculation itself
 					//
-					List<RoutingServiceLink> tPath = mMap.getRoute(pSource, pTarget);
+					List<RoutingServiceLink> tPath;
+					ConstrainedShortestPath<RoutingServiceAddress, RoutingServiceLink> tConstraints = createConstraints(pRequirements);
+					
+					if(tConstraints != null) {
+						tPath = mMap.getRoute(pSource, pTarget, tConstraints);
+						
+						// admission control: reject request if no route fulfills the QoS requirements
+						if(tPath.isEmpty()) {
+							mCounterRouteRejected.write(+1.0, mTimeBase.nowStream());
+							throw new RequirementsException("No route from '" +pSource +"' to '" +pTarget +"' fulfills the requirements \"" +pRequirements +"\" (" +tConstraints.getNumberLabels() +" labels checked).", pRequirements.getNonFunctional());
+						}
+					} else {
+						tPath = mMap.getRoute(pSource, pTarget);
+					}
+					LinkedList<RoutingServiceLink> tUsedLinks = new LinkedList<RoutingServiceLink>();
 					
 					// is there a route from source to target?
 					if(!tPath.isEmpty()) {
@@ -588,6 +606,7 @@ public Route getRoute(RoutingServiceAddress pSource, RoutingServiceAddress pTarg
 							if(tLink.getID() != null) {
 								// use gate number in route
 								tRes.addLast(tLink.getID());
+								tUsedLinks.add(tLink);
 								
 								/*
 								 *  If a route to the destination is calculated and there are unfulfilled requirements given 
@@ -630,6 +649,11 @@ public Route getRoute(RoutingServiceAddress pSource, RoutingServiceAddress pTarg
 								}
 							}
 						}
+						
+						// book data rate until the gates along the route are created
+						if((tRes != null) && (tConstraints != null)) {
+							reserveDataRate(tUsedLinks, pRequirements.getDesiredDataRate());
+						}
 					}
 					// else: tRes remains null
 				} else {
@@ -703,6 +727,111 @@ public Route getRoute(RoutingServiceAddress pSource, RoutingServiceAddress pTarg
 		return tRes;
 	}
 
+	/**
+	 * Creates the constraints for a route calculation based on the
+	 * non-functional requirements of a request.
+	 * 
+	 * @param pRequirements Requirements of the route request (!= null)
+	 * @return Constraints or null, if the requirements do not restrict the route calculation
+	 */
+	private ConstrainedShortestPath<RoutingServiceAddress, RoutingServiceLink> createConstraints(Description pRequirements)
+	{
+		if(!Config.Routing.ENABLE_CONSTRAINED_ROUTING) return null;
+		
+		ConstrainedShortestPath<RoutingServiceAddress, RoutingServiceLink> tConstraints = null;
+		
+		DatarateProperty tDataRate = (DatarateProperty) pRequirements.get(DatarateProperty.class);
+		if((tDataRate != null) && !tDataRate.isBE()) {
+			final int tMinDataRate = tDataRate.getMin();
+			
+			tConstraints = new ConstrainedShortestPath<RoutingServiceAddress, RoutingServiceLink>(Config.Routing.CONSTRAINED_ROUTING_MAX_LABELS_PER_NODE);
+			tConstraints.setFilter(new LinkFilter<RoutingServiceLink>() {
+				@Override
+				public boolean accept(RoutingServiceLink input)
+				{
+					int tAvailable = input.getAvailableDataRate();
+					
+					// negative value: data rate not limited
+					return (tAvailable < 0) || (tAvailable >= tMinDataRate);
+				}
+			});
+		}
+		
+		DelayProperty tDelay = (DelayProperty) pRequirements.get(DelayProperty.class);
+		if((tDelay != null) && !tDelay.isBE()) {
+			if(tConstraints == null) {
+				tConstraints = new ConstrainedShortestPath<RoutingServiceAddress, RoutingServiceLink>(Config.Routing.CONSTRAINED_ROUTING_MAX_LABELS_PER_NODE);
+			}
+			tConstraints.addConstraint(new LinkTransformer<RoutingServiceLink>() {
+				@Override
+				public Number transform(RoutingServiceLink input)
+				{
+					return input.getDelay();
+				}
+			}, tDelay.getMax());
+		}
+		
+		return tConstraints;
+	}
+	
+	/**
+	 * Reserves data rate at the links of a calculated route. The reservation
+	 * is released after a timeout, if the lower layer did not report the
+	 * usage of the data rate in the meantime.
+	 * 
+	 * The map is not informed about the reservation, since the link weights
+	 * do not depend on it. The constrained route calculation checks the
+	 * available data rate of a link each time.
+	 */
+	private void reserveDataRate(LinkedList<RoutingServiceLink> pLinks, int pDataRate)
+	{
+		if((pDataRate > 0) && !pLinks.isEmpty()) {
+			LinkedList<RoutingServiceLink.Reservation> tReservations = new LinkedList<RoutingServiceLink.Reservation>();
+			
+			for(RoutingServiceLink tLink : pLinks) {
+				tReservations.add(tLink.reserveDataRate(pDataRate));
+			}
+			
+			mTimeBase.scheduleIn(Config.Routing.CONSTRAINED_ROUTING_RESERVATION_TIMEOUT_SEC, new ReleaseReservationEvent(tReservations));
+		}
+	}
+	
+	/**
+	 * Releases the data rate reservations of a route, if the gates
+	 * were not created in time.
+	 */
+	private class ReleaseReservationEvent implements IEvent
+	{
+		public ReleaseReservationEvent(LinkedList<RoutingServiceLink.Reservation> pReservations)
+		{
+			mReservations = pReservations;
+		}
+		
+		@Override
+		public synchronized void fire()
+		{
+			// each reservation releases only the data rate, which was not
+			// accounted for by a new description of its link; it is done
+			// only once, even if the event is fired again
+			if(!mReleased) {
+				mReleased = true;
+				
+				for(RoutingServiceLink.Reservation tReservation : mReservations) {
+					tReservation.release();
+				}
+			}
+		}
+		
+		@Override
+		public String toString()
+		{
+			return this.getClass().getSimpleName() + ":" +mReservations;
+		}
+		
+		private LinkedList<RoutingServiceLink.Reservation> mReservations;
+		private boolean mReleased = false;
+	}
+	
 	/**
 	 *  Checks if a FN supports a functional requirement. If so, it
 	 *  returns a RouteSegmentMissingPart describing the gates
@@ -886,6 +1015,12 @@ private void unregisterFromParent(RoutingServiceAddress pNode) throws RemoteExce
 	 */
 	private IDoubleWriter mCounterGetRouteFound;
 	
+	/**
+	 * Counter for calls to getRoute, which were rejected since no route fulfills
+	 * the non-functional requirements.
+	 */
+	private IDoubleWriter mCounterRouteRejected;
+	
 	/**
 	 * Counter for length of routes calculated by getRoute in number of gate numbers.
 	 * It is counting only positive results.
@@ -51,6 +51,13 @@ public boolean equals(Object obj)
 		return false;
 	}
 	
+	@Override
+	public int hashCode()
+	{
+		if(mLLName != null) return mLLName.hashCode();
+		else return 0;
+	}
+	
 	@Override
 	public String toString()
 	{
@@ -14,6 +14,7 @@
 package de.tuilmenau.ics.fog.topology;
 
 import java.rmi.RemoteException;
+import java.util.HashMap;
 import java.util.LinkedList;
 
 import de.tuilmenau.ics.fog.Config;
@@ -205,6 +206,7 @@ public void detach()
 						tGate.shutdown();
 					}
 					mDownGates.clear();
+					mDownGatesByPeer.clear();
 				}
 				
 				// Unregister for msg from bus
@@ -372,9 +374,10 @@ public GateID searchForGateTo(NeighborInformation lowerLayerID)
 	{
 		if(lowerLayerID != null) {
 			synchronized (mDownGates) {
-				for(DirectDownGate tGate : mDownGates) {
-					if(lowerLayerID.equals(tGate.getToLowerLayerID()))
-						return tGate.getGateID();
+				DirectDownGate tGate = mDownGatesByPeer.get(lowerLayerID);
+				
+				if(tGate != null) {
+					return tGate.getGateID();
 				}
 			}
 		}
@@ -390,6 +393,16 @@ public void attachDownGate(DirectDownGate gate)
 	{
 		synchronized (mDownGates) {
 			mDownGates.add(gate);
+			
+			// index the first gate per peer; replace it if it was removed in the meantime
+			NeighborInformation tPeer = gate.getToLowerLayerID();
+			if(tPeer != null) {
+				DirectDownGate tExisting = mDownGatesByPeer.get(tPeer);
+				
+				if((tExisting == null) || (tExisting.getGateID() == null)) {
+					mDownGatesByPeer.put(tPeer, gate);
+				}
+			}
 		}
 	}
 	
@@ -431,6 +444,7 @@ public String toString()
 	private LowerLayerReceiveGate mReceiveGate;
 	private Multiplexer mMultiplexer;
 	private LinkedList<DirectDownGate> mDownGates = new LinkedList<DirectDownGate>();
+	private HashMap<NeighborInformation, DirectDownGate> mDownGatesByPeer = new HashMap<NeighborInformation, DirectDownGate>();
 	
 	/**
 	 * Attach is not checked by checking references, because references
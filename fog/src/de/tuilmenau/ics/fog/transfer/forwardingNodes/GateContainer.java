@@ -14,6 +14,7 @@
 package de.tuilmenau.ics.fog.transfer.forwardingNodes;
 
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 
 import de.tuilmenau.ics.CommonSim.datastream.StreamTime;
@@ -30,7 +31,6 @@
 import de.tuilmenau.ics.fog.transfer.gates.GateID;
 import de.tuilmenau.ics.fog.transfer.gates.GateIterator;
 import de.tuilmenau.ics.fog.ui.Logging;
-import de.tuilmenau.ics.fog.util.Helper;
 import de.tuilmenau.ics.fog.util.Logger;
 
 
@@ -41,6 +41,11 @@
 abstract public class GateContainer implements ForwardingNode
 {
 	private HashMap<Integer,AbstractGate> mGates = new HashMap<Integer,AbstractGate>();
+	
+	/**
+	 * Reverse index for {@link #mGates}. Gates are compared by reference.
+	 */
+	private IdentityHashMap<AbstractGate,Integer> mGateNumbers = new IdentityHashMap<AbstractGate,Integer>();
 	protected Name mName;
 	protected NamingLevel mLevel;
 	protected FoGEntity mEntity;
@@ -89,7 +94,7 @@ private GateID registerGate(AbstractGate newgate, GateID gateID)
 		if(newgate != null) {
 			try {
 				newgate.setID(gateID);
-				mGates.put(gateID.GetID(), newgate);
+				putGate(gateID.GetID(), newgate);
 				
 				if(mEntity.getTransferPlane() != null){
 					mEntity.getTransferPlane().registerLink(this, newgate);
@@ -102,7 +107,7 @@ private GateID registerGate(AbstractGate newgate, GateID gateID)
 			}
 			catch (NetworkException exc) {
 				newgate.setID(null);
-				mGates.remove(gateID.GetID());
+				removeGate(newgate);
 				
 				mLogger.err(this, "Error while adding " +newgate, exc);
 			}
@@ -149,7 +154,7 @@ public boolean replaceGate(AbstractGate oldGate, AbstractGate byNewGate)
 	@Override
 	public boolean unregisterGate(AbstractGate oldgate)
 	{
-		Integer tID = Helper.removeValueFromHashMap(mGates, oldgate);
+		Integer tID = removeGate(oldgate);
 		if(tID != null) {
 			if(mEntity.getTransferPlane() != null){
 				mEntity.getTransferPlane().unregisterLink(this, oldgate);
@@ -181,25 +186,21 @@ public boolean unregisterGate(AbstractGate oldgate)
 	 */
 	public int unregisterGatesTo(ForwardingElement destination)
 	{
-		int gates = 0;
-		boolean found = true;
+		LinkedList<AbstractGate> removeList = new LinkedList<AbstractGate>();
 		
-		// while loop is need because the iterator gets invalid
-		// in the for loop.
-		while(found) {
-			found = false;
-			
-			for(AbstractGate tGate : mGates.values()) {		
-				if(tGate.getNextNode() == destination) {
-					gates++;
-					unregisterGate(tGate);
-					found = true;
-					break;
-				}
+		// collect gates first, since the iterator gets invalid
+		// while unregistering gates
+		for(AbstractGate tGate : mGates.values()) {		
+			if(tGate.getNextNode() == destination) {
+				removeList.add(tGate);
 			}
 		}
 		
-		return gates;
+		for(AbstractGate tGate : removeList) {
+			unregisterGate(tGate);
+		}
+		
+		return removeList.size();
 	}
 	
 	/**
@@ -213,7 +214,7 @@ public void close()
 			
 			if(!unregisterGate(tGate)) {
 				mLogger.err(this, "Internal error: Existing gate '" +tGate +"' can not be deleted.");
-				Helper.removeValueFromHashMap(mGates, tGate);
+				removeGate(tGate);
 			}
 			
 			// if next FN is a container gate, we have to delete all gates
@@ -263,15 +264,41 @@ public int getNumberGates()
 	 */
 	protected GateID searchForGate(ForwardingElement gate)
 	{
-		for(AbstractGate tGate : mGates.values()) {		
-			if(gate == tGate) {
-				return tGate.getGateID();
+		if(gate instanceof AbstractGate) {
+			if(mGateNumbers.containsKey(gate)) {
+				return ((AbstractGate) gate).getGateID();
 			}
 		}
 		
 		return null;
 	}
 	
+	private void putGate(Integer pNumber, AbstractGate pGate)
+	{
+		AbstractGate tPrevious = mGates.put(pNumber, pGate);
+		
+		if((tPrevious != null) && (tPrevious != pGate)) {
+			mGateNumbers.remove(tPrevious);
+		}
+		mGateNumbers.put(pGate, pNumber);
+	}
+	
+	/**
+	 * Removes gate from the gate table and its reverse index.
+	 * 
+	 * @return Gate number of the removed gate or null, if gate was not registered
+	 */
+	private Integer removeGate(AbstractGate pGate)
+	{
+		Integer tNumber = mGateNumbers.remove(pGate);
+		
+		if(tNumber != null) {
+			mGates.remove(tNumber);
+		}
+		
+		return tNumber;
+	}
+	
 	@Override
 	public GateIterator getIterator(Class<?> requestedGateClass)
 	{
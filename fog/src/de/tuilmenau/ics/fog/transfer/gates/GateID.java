@@ -13,8 +13,13 @@
  ******************************************************************************/
 package de.tuilmenau.ics.fog.transfer.gates;
 
+import java.io.IOException;
 import java.io.Serializable;
 
+import de.tuilmenau.ics.fog.packets.codec.Codec;
+import de.tuilmenau.ics.fog.packets.codec.WireInput;
+import de.tuilmenau.ics.fog.packets.codec.WireOutput;
+
 /**
  * Elements of class are not changeable. 
  */
@@ -59,4 +64,21 @@ public GateID clone()
 	{
 		return new GateID(id);
 	}
+	
+	/**
+	 * Binary wire format of gate numbers
+	 */
+	public static final Codec<GateID> CODEC = new Codec<GateID>() {
+		@Override
+		public void encode(GateID pGateID, WireOutput pOut)
+		{
+			pOut.writeInt(pGateID.id);
+		}
+		
+		@Override
+		public GateID decode(WireInput pIn) throws IOException
+		{
+			return new GateID(pIn.readInt());
+		}
+	};
 }
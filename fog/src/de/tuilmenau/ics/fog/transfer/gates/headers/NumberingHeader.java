@@ -13,6 +13,11 @@
  ******************************************************************************/
 package de.tuilmenau.ics.fog.transfer.gates.headers;
 
+import java.io.IOException;
+
+import de.tuilmenau.ics.fog.packets.codec.Codec;
+import de.tuilmenau.ics.fog.packets.codec.WireInput;
+import de.tuilmenau.ics.fog.packets.codec.WireOutput;
 import de.tuilmenau.ics.fog.topology.ILowerLayer;
 import de.tuilmenau.ics.fog.ui.Viewable;
 import de.tuilmenau.ics.fog.util.Size;
@@ -127,6 +132,32 @@ public String toString()
 		return "NumberingHeader(no=" +mCounter +", data=" +mData +")";
 	}
 	
+	/**
+	 * Binary wire format of numbering headers
+	 */
+	public static final Codec<NumberingHeader> CODEC = new Codec<NumberingHeader>() {
+		@Override
+		public void encode(NumberingHeader pHeader, WireOutput pOut) throws IOException
+		{
+			pOut.writeInt(pHeader.mCounter);
+			pOut.writeDouble(pHeader.mSendTime);
+			pOut.writeBoolean(pHeader.mCorrupted);
+			pOut.writeObject(pHeader.mData);
+		}
+		
+		@Override
+		public NumberingHeader decode(WireInput pIn) throws IOException
+		{
+			int tCounter = pIn.readInt();
+			double tSendTime = pIn.readDouble();
+			boolean tCorrupted = pIn.readBoolean();
+			NumberingHeader tHeader = new NumberingHeader(tCounter, pIn.readObject(), tSendTime);
+			
+			tHeader.mCorrupted = tCorrupted;
+			return tHeader;
+		}
+	};
+	
 	@Viewable("Number")
 	private int mCounter;
 	
@@ -21,11 +21,13 @@
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Set;
+import java.util.TreeSet;
 
 import de.tuilmenau.ics.fog.Config;
 import de.tuilmenau.ics.fog.FoGEntity;
 import de.tuilmenau.ics.fog.facade.Description;
 import de.tuilmenau.ics.fog.facade.properties.FunctionalRequirementProperty;
+import de.tuilmenau.ics.fog.facade.properties.NonFunctionalRequirementsProperty;
 import de.tuilmenau.ics.fog.facade.properties.Property;
 import de.tuilmenau.ics.fog.ui.Logging;
 import de.tuilmenau.ics.fog.util.Logger;
@@ -114,17 +116,28 @@ public Class getPropertyClass()
 			if(rule == null) return null;
 			if(rule.getRuleName() == null) return null;
 			
-			try {
-				String packageName = PROPERTY_PACKAGE_NAME;
+			synchronized (propertyClasses) {
+				// class already resolved for this rule set?
+				if(propertyClasses.containsKey(rule.getRuleName())) {
+					return propertyClasses.get(rule.getRuleName());
+				}
 				
-				if(rule.getRuleName().startsWith("Video")) {
-					packageName = "de.tuilmenau.ics.fog.video.properties.";
+				Class<?> clazz = null;
+				try {
+					String packageName = PROPERTY_PACKAGE_NAME;
+					
+					if(rule.getRuleName().startsWith("Video")) {
+						packageName = "de.tuilmenau.ics.fog.video.properties.";
+					}
+					clazz = Serializer.getInstance().getClassByName(packageName +rule.getRuleName() +PROPERTY_CLASS_NAME_POST_FIX);
 				}
-				return Serializer.getInstance().getClassByName(packageName +rule.getRuleName() +PROPERTY_CLASS_NAME_POST_FIX);
-			}
-			catch(ClassNotFoundException exc) {
-				logger.warn(this, "No property class available.", exc);
-				return null;
+				catch(ClassNotFoundException exc) {
+					logger.warn(this, "No property class available.", exc);
+				}
+				
+				// store negative results, too, in order to warn only once
+				propertyClasses.put(rule.getRuleName(), clazz);
+				return clazz;
 			}
 		}
 		
@@ -396,8 +409,8 @@ public double satisfies(Description requirements)
 			int nonFunctionalSatisfyCounter = 0;
 			int notFullfilledRequirements = 0;
 			int functionalRequirements = 0;
-			Description FunctionalRequ = requirements.getFunctional();
-			Description nonFunctionalReq = requirements.getNonFunctional();
+			Description FunctionalRequ = requirements.getFunctionalView();
+			Description nonFunctionalReq = requirements.getNonFunctionalView();
 			
 			// check for any not fullfilled requirements
 			for(Property FuncRequ : FunctionalRequ) {
@@ -451,18 +464,39 @@ public double satisfies(Description requirements)
 		
 		private boolean satisfiesRequirement(Property requ)
 		{
-			for(Object obj : word) {
-				if(obj instanceof Rule) {
-					if(requ instanceof FunctionalRequirementProperty) {
-						if(obj.equals(requ)) return true;
-					}
-					
-				}				
+			if(requ instanceof FunctionalRequirementProperty) {
+				// Modify class names in order to match names from language file 
+				String name = requ.getClass().getSimpleName();
+				name = name.replaceAll(PROPERTY_CLASS_NAME_POST_FIX +"$", "");
+				
+				return getNamedRules().contains(name);
 			}
 			
 			return false;
 		}
 		
+		/**
+		 * @return Names of all named rules used to derive the word (computed once per word)
+		 */
+		private Set<String> getNamedRules()
+		{
+			if(namedRules == null) {
+				HashSet<String> names = new HashSet<String>();
+				
+				for(Object obj : word) {
+					if(obj instanceof Rule) {
+						if(((Rule) obj).isNamed()) {
+							names.add(((Rule) obj).getRuleName());
+						}
+					}
+				}
+				
+				namedRules = names;
+			}
+			
+			return namedRules;
+		}
+		
 		private class VariableIterator implements Iterator<Variable>
 		{
 			public VariableIterator(Iterator<Object> iter)
@@ -569,6 +603,7 @@ public boolean getUsed() {
 		
 		private Set<String> OptimisationCriterions = new HashSet<String>();
 		private LinkedList<Object> word = new LinkedList<Object>();
+		private Set<String> namedRules = null;
 		private int size = 0;
 		private int numberNamedRules = 0;
 		private int numberRulesTotal = 0;
@@ -634,7 +669,74 @@ private static boolean addSolution(LinkedList<Word> solutionList, Word solution)
 		}
 	}
 	
+	/**
+	 * Selects the best solution for the requirements. Since the result depends only
+	 * on the types of the requirements and not on their values, the result is
+	 * memorized for the canonical form of the description. The memo table is
+	 * valid for the current rule set, only, and is cleared by {@link #init()}.
+	 * 
+	 * @param requirements Requirements of the connection
+	 * @return Solution or null, if no solution satisfies the requirements
+	 */
 	public Word getSolutionFor(Description requirements)
+	{
+		String key = getCanonicalKey(requirements);
+		int version;
+		
+		synchronized (solutionCache) {
+			version = ruleSetVersion;
+			if(solutionCache.containsKey(key)) {
+				Word res = solutionCache.get(key);
+				
+				cacheHits++;
+				logger.trace(this, "Using memorized solution " +res +" for " +requirements +" (rule set version " +ruleSetVersion +")");
+				return res;
+			}
+		}
+		
+		Word res = deriveSolutionFor(requirements);
+		
+		synchronized (solutionCache) {
+			cacheMisses++;
+			
+			// do not store results derived from an outdated rule set
+			if(version == ruleSetVersion) {
+				solutionCache.put(key, res);
+			}
+		}
+		
+		return res;
+	}
+	
+	/**
+	 * Derives the canonical form of a description regarding the mapping.
+	 * It contains the sorted names of the functional requirements and - if
+	 * optimization criterions are used - the sorted names of the
+	 * non-functional requirements. The values of the requirements are not
+	 * relevant for the mapping.
+	 */
+	private static String getCanonicalKey(Description requirements)
+	{
+		TreeSet<String> functional = new TreeSet<String>();
+		TreeSet<String> nonFunctional = new TreeSet<String>();
+		
+		for(Property requ : requirements) {
+			if(requ instanceof FunctionalRequirementProperty) {
+				functional.add(requ.getClass().getName());
+			}
+			else if(Config.Connection.OPTIMISATION_CRITERIONS_ACTIVATED && (requ instanceof NonFunctionalRequirementsProperty)) {
+				nonFunctional.add(requ.getClass().getName());
+			}
+		}
+		
+		if(nonFunctional.isEmpty()) {
+			return functional.toString();
+		} else {
+			return functional.toString() +nonFunctional.toString();
+		}
+	}
+	
+	private Word deriveSolutionFor(Description requirements)
 	{
 		LinkedList<Word> res = new LinkedList<Word>();
 		
@@ -667,10 +769,27 @@ else if(match > 1.0d) {
 	}
 	
 	
+	/**
+	 * (Re-)Loads the rule set and derives all possible solutions from it.
+	 * Memorized results for the previous rule set are discarded.
+	 */
 	public void init()
 	{
+		synchronized (solutionCache) {
+			if(cacheHits +cacheMisses > 0) {
+				logger.info(this, "Discarding " +solutionCache.size() +" memorized solutions of rule set version " +ruleSetVersion +" (hits=" +cacheHits +", misses=" +cacheMisses +")");
+			}
+			solutionCache.clear();
+			cacheHits = 0;
+			cacheMisses = 0;
+		}
+		synchronized (propertyClasses) {
+			propertyClasses.clear();
+		}
+		
+		LinkedList<Word> newSolutions = new LinkedList<Word>();
+		
 		rules.clear();
-		solutions.clear();
 		warnInfiniteRecursion = true;
 		
 		int importedRules = readLanguage(DEFAULT_FILE_NAME);
@@ -679,8 +798,27 @@ public void init()
 		// create start word containing only the start variable
 		Word word = new Word(DEFAULT_START_VARIABLE, null);
 		
-		createTree(0, word);
-		logger.info(this, "Number possible solutions: " +solutions.size());
+		createTree(0, word, newSolutions);
+		
+		// precompile the solutions for the requirement checks
+		for(Word sol : newSolutions) {
+			sol.getNamedRules();
+		}
+		
+		synchronized (solutionCache) {
+			solutions = newSolutions;
+			solutionCache.clear();
+			ruleSetVersion++;
+		}
+		logger.info(this, "Number possible solutions: " +solutions.size() +" (rule set version " +ruleSetVersion +")");
+	}
+	
+	/**
+	 * @return Version of the rule set; incremented each time the rules are (re-)loaded
+	 */
+	public int getRuleSetVersion()
+	{
+		return ruleSetVersion;
 	}
 	
 	private int readLanguage(String filename)
@@ -788,7 +926,7 @@ private Word doingForcedRules(Word wordOrig)
 		return word;
 	}
 	
-	private int createTree(int recursion, Word word)
+	private int createTree(int recursion, Word word, LinkedList<Word> solutions)
 	{
 		boolean onlyTerminators = true;
 		int numberUsedNamedRules = 0;
@@ -820,7 +958,7 @@ private int createTree(int recursion, Word word)
 						if(useRule) {
 							Word wordNew = word.replace(i, rule, false);
 							
-							int childrenNumberUsedNamedRule = createTree(recursion +1, wordNew);
+							int childrenNumberUsedNamedRule = createTree(recursion +1, wordNew, solutions);
 							sumChildrenNumberUsedNamedRules += childrenNumberUsedNamedRule;
 						}
 					}
@@ -846,4 +984,13 @@ private int createTree(int recursion, Word word)
 	private HashMap<Variable, LinkedList<Rule>> rules = new HashMap<Variable, LinkedList<Rule>>();
 	private LinkedList<Word> solutions = new LinkedList<Word>();
 	private boolean warnInfiniteRecursion = true;
+	
+	/**
+	 * Memo table: canonical form of requirements -> selected solution (null = no solution)
+	 */
+	private HashMap<String, Word> solutionCache = new HashMap<String, Word>();
+	private HashMap<String, Class<?>> propertyClasses = new HashMap<String, Class<?>>();
+	private volatile int ruleSetVersion = 0;
+	private int cacheHits = 0;
+	private int cacheMisses = 0;
 }
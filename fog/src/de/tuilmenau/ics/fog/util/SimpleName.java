@@ -13,12 +13,16 @@
  ******************************************************************************/
 package de.tuilmenau.ics.fog.util;
 
+import java.io.IOException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import de.tuilmenau.ics.fog.exceptions.InvalidParameterException;
 import de.tuilmenau.ics.fog.facade.Name;
 import de.tuilmenau.ics.fog.facade.Namespace;
+import de.tuilmenau.ics.fog.packets.codec.Codec;
+import de.tuilmenau.ics.fog.packets.codec.WireInput;
+import de.tuilmenau.ics.fog.packets.codec.WireOutput;
 
 
 /**
@@ -180,6 +184,29 @@ public String toString()
 		}
 	}
 	
+	/**
+	 * Binary wire format of names
+	 */
+	public static final Codec<SimpleName> CODEC = new Codec<SimpleName>() {
+		@Override
+		public void encode(SimpleName pName, WireOutput pOut) throws IOException
+		{
+			pOut.writeObject(pName.mNamespace);
+			pOut.writeString(pName.mName);
+		}
+		
+		@Override
+		public SimpleName decode(WireInput pIn) throws IOException
+		{
+			Object tNamespace = pIn.readObject();
+			
+			if((tNamespace != null) && !(tNamespace instanceof Namespace)) {
+				throw new IOException("Invalid namespace " +tNamespace +" in wire data.");
+			}
+			return new SimpleName((Namespace) tNamespace, pIn.readString());
+		}
+	};
+	
 	private Namespace mNamespace;
 	private String mName;
 	
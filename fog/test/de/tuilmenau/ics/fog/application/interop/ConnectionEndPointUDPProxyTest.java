@@ -0,0 +1,210 @@
+/*******************************************************************************
+ * Forwarding on Gates Simulator/Emulator
+ * Copyright (C) 2012, Integrated Communication Systems Group, TU Ilmenau.
+ * 
+ * This program and the accompanying materials are dual-licensed under either
+ * the terms of the Eclipse Public License v1.0 as published by the Eclipse
+ * Foundation
+ *  
+ *   or (per the licensee's choosing)
+ *  
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ ******************************************************************************/
+package de.tuilmenau.ics.fog.application.interop;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.util.LinkedList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.tuilmenau.ics.fog.facade.Connection;
+import de.tuilmenau.ics.fog.facade.Description;
+import de.tuilmenau.ics.fog.facade.Name;
+import de.tuilmenau.ics.fog.facade.NetworkException;
+import de.tuilmenau.ics.fog.facade.Signature;
+import de.tuilmenau.ics.fog.util.Logger;
+
+/**
+ * Sends data from a FoG connection through a FoG2IP proxy to an UDP echo
+ * server on the loopback interface and checks the data returned to FoG.
+ */
+public class ConnectionEndPointUDPProxyTest
+{
+	private static final int MESSAGES = 100;
+	private static final long TIMEOUT_MSEC = 10 * 1000;
+	
+	@Before
+	public void setUp() throws Exception
+	{
+		mEchoSocket = new DatagramSocket(0, InetAddress.getByName("127.0.0.1"));
+		mEchoThread = new Thread("UDPEcho") {
+			public void run()
+			{
+				byte[] tBuffer = new byte[64 * 1024];
+				
+				try {
+					while(true) {
+						DatagramPacket tPacket = new DatagramPacket(tBuffer, tBuffer.length);
+						mEchoSocket.receive(tPacket);
+						mEchoSocket.send(tPacket);
+					}
+				}
+				catch(IOException exc) {
+					// socket closed by test
+				}
+			}
+		};
+		mEchoThread.setDaemon(true);
+		mEchoThread.start();
+		
+		mConnection = new RecordingConnection();
+		mProxy = new ConnectionEndPointUDPProxy(new Logger(), "127.0.0.1", mEchoSocket.getLocalPort(), 0);
+		mProxy.start(mConnection);
+	}
+	
+	@After
+	public void tearDown()
+	{
+		mProxy.stop();
+		mEchoSocket.close();
+	}
+	
+	@Test
+	public void testEcho() throws Exception
+	{
+		for(int i = 0; i < MESSAGES; i++) {
+			mProxy.receiveData(("message " +i).getBytes());
+		}
+		
+		LinkedList<Object> tReceived = mConnection.waitFor(MESSAGES);
+		
+		// loopback does not reorder; the proxy has to keep the order
+		assertEquals(MESSAGES, tReceived.size());
+		for(int i = 0; i < MESSAGES; i++) {
+			assertTrue(tReceived.get(i) instanceof byte[]);
+			assertEquals("message " +i, new String((byte[]) tReceived.get(i)));
+		}
+		
+		// writes to FoG must not block the selector thread
+		for(String tThreadName : mConnection.mWriterThreads) {
+			assertTrue(tThreadName, tThreadName.startsWith("InterOpFoGWriter"));
+		}
+		assertEquals(0, mProxy.getNumberDroppedPackets());
+	}
+	
+	/**
+	 * FoG connection recording the data written to it.
+	 */
+	private static class RecordingConnection implements Connection
+	{
+		public synchronized LinkedList<Object> waitFor(int pNumber) throws InterruptedException
+		{
+			long tEnd = System.currentTimeMillis() +TIMEOUT_MSEC;
+			
+			while((mWritten.size() < pNumber) && (System.currentTimeMillis() < tEnd)) {
+				wait(100);
+			}
+			
+			return new LinkedList<Object>(mWritten);
+		}
+		
+		@Override
+		public synchronized void write(Serializable pData) throws NetworkException
+		{
+			mWritten.addLast(pData);
+			mWriterThreads.add(Thread.currentThread().getName());
+			notifyAll();
+		}
+		
+		@Override
+		public void connect()
+		{
+		}
+		
+		@Override
+		public boolean isConnected()
+		{
+			return mConnected;
+		}
+		
+		@Override
+		public Name getBindingName()
+		{
+			return null;
+		}
+		
+		@Override
+		public LinkedList<Signature> getAuthentications()
+		{
+			return null;
+		}
+		
+		@Override
+		public Description getRequirements()
+		{
+			return null;
+		}
+		
+		@Override
+		public Object read() throws NetworkException
+		{
+			return null;
+		}
+		
+		@Override
+		public int available()
+		{
+			return 0;
+		}
+		
+		@Override
+		public OutputStream getOutputStream() throws IOException
+		{
+			throw new IOException("Not supported");
+		}
+		
+		@Override
+		public InputStream getInputStream() throws IOException
+		{
+			throw new IOException("Not supported");
+		}
+		
+		@Override
+		public void close()
+		{
+			mConnected = false;
+		}
+		
+		@Override
+		public void registerListener(EventListener pObserver)
+		{
+		}
+		
+		@Override
+		public boolean unregisterListener(EventListener pObserver)
+		{
+			return true;
+		}
+		
+		private volatile boolean mConnected = true;
+		private LinkedList<Object> mWritten = new LinkedList<Object>();
+		private LinkedList<String> mWriterThreads = new LinkedList<String>();
+	}
+	
+	private DatagramSocket mEchoSocket;
+	private Thread mEchoThread;
+	private RecordingConnection mConnection;
+	private ConnectionEndPointUDPProxy mProxy;
+}
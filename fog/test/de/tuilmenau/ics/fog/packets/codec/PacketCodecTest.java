@@ -0,0 +1,245 @@
+/*******************************************************************************
+ * Forwarding on Gates Simulator/Emulator
+ * Copyright (C) 2012, Integrated Communication Systems Group, TU Ilmenau.
+ * 
+ * This program and the accompanying materials are dual-licensed under either
+ * the terms of the Eclipse Public License v1.0 as published by the Eclipse
+ * Foundation
+ *  
+ *   or (per the licensee's choosing)
+ *  
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ ******************************************************************************/
+package de.tuilmenau.ics.fog.packets.codec;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedList;
+
+import org.junit.Test;
+
+import de.tuilmenau.ics.fog.authentication.MD5Signature;
+import de.tuilmenau.ics.fog.authentication.PPKSignature;
+import de.tuilmenau.ics.fog.authentication.SHA256Signature;
+import de.tuilmenau.ics.fog.authentication.SimpleIdentity;
+import de.tuilmenau.ics.fog.authentication.SimpleSignature;
+import de.tuilmenau.ics.fog.facade.Description;
+import de.tuilmenau.ics.fog.facade.Namespace;
+import de.tuilmenau.ics.fog.facade.Signature;
+import de.tuilmenau.ics.fog.facade.properties.DatarateProperty;
+import de.tuilmenau.ics.fog.packets.Packet;
+import de.tuilmenau.ics.fog.routing.Route;
+import de.tuilmenau.ics.fog.routing.RouteSegmentAddress;
+import de.tuilmenau.ics.fog.routing.RouteSegmentDescription;
+import de.tuilmenau.ics.fog.routing.RouteSegmentPath;
+import de.tuilmenau.ics.fog.transfer.gates.GateID;
+import de.tuilmenau.ics.fog.transfer.gates.headers.NumberingHeader;
+import de.tuilmenau.ics.fog.util.SimpleName;
+import de.tuilmenau.ics.middleware.Serializer;
+
+/**
+ * Round trip tests for the types with a codec in the FoG core. Classes
+ * without equals method are checked by encoding the decoded object again
+ * and comparing the frames.
+ */
+public class PacketCodecTest
+{
+	private static final Namespace NAMESPACE = new Namespace("test", true);
+	private static final SimpleIdentity IDENTITY = new SimpleIdentity("sender");
+	
+	/**
+	 * Encodes and decodes an object and checks that the decoded object
+	 * has the same wire form.
+	 * 
+	 * @return Decoded object
+	 */
+	private static Object roundTrip(Object pObject) throws IOException
+	{
+		byte[] tFrame = PacketCodec.getInstance().encode(pObject);
+		Object tResult = PacketCodec.getInstance().decode(tFrame);
+		
+		assertArrayEquals("Wire form of " +pObject +" changed", tFrame, PacketCodec.getInstance().encode(tResult));
+		return tResult;
+	}
+	
+	private static Route createRoute()
+	{
+		Route tRoute = new Route();
+		
+		tRoute.addLast(new GateID(1));
+		tRoute.addLast(new GateID(2));
+		tRoute.add(new RouteSegmentAddress(new SimpleName(NAMESPACE, "destination")));
+		return tRoute;
+	}
+	
+	@Test
+	public void testBasicTypes() throws IOException
+	{
+		assertNull(roundTrip(null));
+		assertEquals("text with umlaut \u00e4 and \u20ac", roundTrip("text with umlaut \u00e4 and \u20ac"));
+		assertEquals(Integer.valueOf(-4711), roundTrip(-4711));
+		assertEquals(Long.valueOf(Long.MIN_VALUE), roundTrip(Long.MIN_VALUE));
+		assertEquals(Boolean.TRUE, roundTrip(true));
+		assertEquals(Double.valueOf(3.25d), roundTrip(3.25d));
+		assertArrayEquals(new byte[] { 1, 2, 3 }, (byte[]) roundTrip(new byte[] { 1, 2, 3 }));
+		
+		Object[] tArray = (Object[]) roundTrip(new Object[] { "a", 1, null });
+		assertEquals(Arrays.asList("a", 1, null), Arrays.asList(tArray));
+	}
+	
+	@Test
+	public void testNames() throws IOException
+	{
+		assertEquals(new GateID(42), roundTrip(new GateID(42)));
+		assertEquals(NAMESPACE, roundTrip(NAMESPACE));
+		assertEquals(new SimpleName(NAMESPACE, "node"), roundTrip(new SimpleName(NAMESPACE, "node")));
+		assertEquals(IDENTITY, roundTrip(IDENTITY));
+	}
+	
+	@Test
+	public void testRouteSegments() throws IOException
+	{
+		RouteSegmentPath tPath = new RouteSegmentPath();
+		tPath.add(new GateID(3));
+		tPath.add(new GateID(7));
+		assertEquals(tPath, roundTrip(tPath));
+		
+		RouteSegmentAddress tAddress = (RouteSegmentAddress) roundTrip(new RouteSegmentAddress(new SimpleName(NAMESPACE, "node")));
+		assertEquals(new SimpleName(NAMESPACE, "node"), tAddress.getAddress());
+		
+		Description tDescr = new Description();
+		tDescr.set(new DatarateProperty(0, 1000, 0));
+		RouteSegmentDescription tSegment = (RouteSegmentDescription) roundTrip(new RouteSegmentDescription(tDescr));
+		assertEquals(tDescr, tSegment.getDescription());
+		
+		// Route.equals supports routing service addresses, only
+		Route tRoute = createRoute();
+		Route tDecodedRoute = (Route) roundTrip(tRoute);
+		assertEquals(tRoute.size(), tDecodedRoute.size());
+		assertEquals(tRoute.toString(), tDecodedRoute.toString());
+	}
+	
+	@Test
+	public void testSignatures() throws IOException
+	{
+		assertEquals(new SimpleSignature(IDENTITY), roundTrip(new SimpleSignature(IDENTITY)));
+		
+		MD5Signature tMD5 = new MD5Signature(IDENTITY, "data");
+		MD5Signature tDecodedMD5 = (MD5Signature) roundTrip(tMD5);
+		assertEquals(IDENTITY, tDecodedMD5.getIdentity());
+		assertArrayEquals(tMD5.getValue(), tDecodedMD5.getValue());
+		
+		SHA256Signature tSHA = new SHA256Signature(IDENTITY, "data");
+		SHA256Signature tDecodedSHA = (SHA256Signature) roundTrip(tSHA);
+		assertEquals(IDENTITY, tDecodedSHA.getIdentity());
+		assertArrayEquals(tSHA.getValue(), tDecodedSHA.getValue());
+		
+		PPKSignature tPPK = (PPKSignature) roundTrip(new PPKSignature(null, new byte[] { 9, 8, 7 }, "SHA256withRSA"));
+		assertArrayEquals(new byte[] { 9, 8, 7 }, tPPK.getValue());
+		assertEquals("SHA256withRSA", tPPK.getChecksumAlgorithm());
+	}
+	
+	@Test
+	public void testNumberingHeader() throws IOException
+	{
+		NumberingHeader tHeader = (NumberingHeader) roundTrip(new NumberingHeader(5, "payload", 1.5d));
+		
+		assertEquals(5, tHeader.getCounter());
+		assertEquals(1.5d, tHeader.getSendTime(), 0.0d);
+		assertEquals("payload", tHeader.getData());
+	}
+	
+	@Test
+	public void testPacket() throws IOException
+	{
+		Packet tPacket = new Packet(createRoute(), createRoute(), new NumberingHeader(1, new byte[] { 4, 5 }, 0.0d));
+		tPacket.addAuthentication(new SimpleSignature(IDENTITY));
+		
+		Packet tDecoded = (Packet) roundTrip(tPacket);
+		
+		assertEquals(tPacket.getId(), tDecoded.getId());
+		assertEquals(tPacket.getRoute().toString(), tDecoded.getRoute().toString());
+		assertEquals(tPacket.getReturnRoute().toString(), tDecoded.getReturnRoute().toString());
+		assertArrayEquals(new byte[] { 4, 5 }, (byte[]) ((NumberingHeader) tDecoded.getData()).getData());
+		
+		LinkedList<Signature> tAuthentications = tDecoded.getAuthentications();
+		assertEquals(1, tAuthentications.size());
+		assertEquals(IDENTITY, tAuthentications.getFirst().getIdentity());
+	}
+	
+	@Test
+	public void testSerializationFallback() throws IOException
+	{
+		LinkedList<String> tList = new LinkedList<String>();
+		tList.add("no codec");
+		
+		assertEquals(tList, roundTrip(tList));
+	}
+	
+	@Test
+	public void testNestedDecodingWithinSerialization() throws Exception
+	{
+		// Java serialization of the packet uses the wire form, which is
+		// decoded while the outer frame is still decoded
+		LinkedList<Packet> tList = new LinkedList<Packet>();
+		tList.add(new Packet(createRoute(), "inner"));
+		
+		byte[] tFrame = PacketCodec.getInstance().encode(new Object[] { tList, "outer" });
+		Object[] tDecoded = (Object[]) PacketCodec.getInstance().decode(tFrame);
+		
+		Packet tInner = (Packet) ((LinkedList<?>) tDecoded[0]).getFirst();
+		assertEquals("inner", tInner.getData());
+		assertEquals("outer", tDecoded[1]);
+	}
+	
+	@Test
+	public void testJavaSerializedFrame() throws Exception
+	{
+		byte[] tFrame = Serializer.getInstance().toBytes("old peer");
+		
+		assertEquals("old peer", PacketCodec.getInstance().decode(tFrame));
+	}
+	
+	@Test
+	public void testDecodedDataIndependentOfFrame() throws IOException
+	{
+		byte[] tFrame = PacketCodec.getInstance().encode(new byte[] { 1, 2, 3 });
+		byte[] tDecoded = (byte[]) PacketCodec.getInstance().decode(tFrame);
+		
+		// receivers reuse their frame buffers
+		Arrays.fill(tFrame, (byte) 0);
+		assertArrayEquals(new byte[] { 1, 2, 3 }, tDecoded);
+	}
+	
+	@Test
+	public void testEncodeIntoCallerBuffer() throws IOException
+	{
+		WireOutput tOut = new WireOutput(16);
+		
+		tOut.write(0x55);
+		PacketCodec.getInstance().encode(new GateID(7), tOut);
+		
+		assertEquals(0x55, tOut.getBuffer()[0]);
+		assertEquals(new GateID(7), PacketCodec.getInstance().decode(tOut.getBuffer(), 1, tOut.getLength() -1));
+	}
+	
+	@Test(expected = IOException.class)
+	public void testUnknownVersion() throws IOException
+	{
+		PacketCodec.getInstance().decode(new byte[] { (byte) (PacketCodec.VERSION +1), 0 });
+	}
+	
+	@Test(expected = NotCanonicalException.class)
+	public void testCanonicalRejectsSerialization() throws IOException
+	{
+		WireOutput tOut = new WireOutput();
+		tOut.setCanonical(true);
+		
+		PacketCodec.getInstance().encode(new LinkedList<String>(), tOut);
+	}
+}
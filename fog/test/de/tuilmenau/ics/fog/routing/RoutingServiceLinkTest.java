@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Forwarding on Gates Simulator/Emulator
+ * Copyright (C) 2012, Integrated Communication Systems Group, TU Ilmenau.
+ * 
+ * This program and the accompanying materials are dual-licensed under either
+ * the terms of the Eclipse Public License v1.0 as published by the Eclipse
+ * Foundation
+ *  
+ *   or (per the licensee's choosing)
+ *  
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ ******************************************************************************/
+package de.tuilmenau.ics.fog.routing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import de.tuilmenau.ics.fog.facade.Description;
+import de.tuilmenau.ics.fog.facade.properties.DatarateProperty;
+import de.tuilmenau.ics.fog.transfer.gates.GateID;
+
+/**
+ * Checks the data rate reservations of a link.
+ */
+public class RoutingServiceLinkTest
+{
+	private static final int MAX_DATA_RATE = 1000;
+	
+	private static Description createDescription(int pMaxDataRate)
+	{
+		Description tDescr = new Description();
+		
+		tDescr.set(new DatarateProperty(0, pMaxDataRate, 0));
+		return tDescr;
+	}
+	
+	@Test
+	public void testReserveAndRelease()
+	{
+		RoutingServiceLink tLink = new RoutingServiceLink(new GateID(1), createDescription(MAX_DATA_RATE));
+		
+		RoutingServiceLink.Reservation tReservation = tLink.reserveDataRate(300);
+		assertEquals(300, tLink.getReservedDataRate());
+		assertEquals(MAX_DATA_RATE -300, tLink.getAvailableDataRate());
+		
+		tReservation.release();
+		assertEquals(0, tLink.getReservedDataRate());
+		assertEquals(MAX_DATA_RATE, tLink.getAvailableDataRate());
+		
+		assertNull(tLink.reserveDataRate(0));
+	}
+	
+	@Test
+	public void testDoubleReleaseKeepsOtherReservation()
+	{
+		RoutingServiceLink tLink = new RoutingServiceLink(new GateID(1), createDescription(MAX_DATA_RATE));
+		
+		RoutingServiceLink.Reservation tFirst = tLink.reserveDataRate(300);
+		RoutingServiceLink.Reservation tSecond = tLink.reserveDataRate(200);
+		
+		tFirst.release();
+		tFirst.release();
+		tLink.releaseReservation(tFirst);
+		
+		assertEquals(0, tFirst.getRemainingDataRate());
+		assertEquals(200, tSecond.getRemainingDataRate());
+		assertEquals(200, tLink.getReservedDataRate());
+		assertEquals(MAX_DATA_RATE -200, tLink.getAvailableDataRate());
+	}
+	
+	@Test
+	public void testReleaseAfterDescriptionUpdate()
+	{
+		RoutingServiceLink tLink = new RoutingServiceLink(new GateID(1), createDescription(MAX_DATA_RATE));
+		
+		RoutingServiceLink.Reservation tFirst = tLink.reserveDataRate(300);
+		RoutingServiceLink.Reservation tSecond = tLink.reserveDataRate(200);
+		
+		// gates created for 250 kbit/s of the first route
+		tLink.setDescription(createDescription(MAX_DATA_RATE -250));
+		assertEquals(50, tFirst.getRemainingDataRate());
+		assertEquals(250, tLink.getReservedDataRate());
+		
+		tFirst.release();
+		tFirst.release();
+		
+		assertEquals(200, tSecond.getRemainingDataRate());
+		assertEquals(200, tLink.getReservedDataRate());
+		assertEquals(MAX_DATA_RATE -250 -200, tLink.getAvailableDataRate());
+	}
+	
+	@Test
+	public void testUnlimitedDescriptionConsumesReservations()
+	{
+		RoutingServiceLink tLink = new RoutingServiceLink(new GateID(1), createDescription(MAX_DATA_RATE));
+		
+		RoutingServiceLink.Reservation tReservation = tLink.reserveDataRate(300);
+		
+		tLink.setDescription(null);
+		assertEquals(0, tReservation.getRemainingDataRate());
+		assertEquals(0, tLink.getReservedDataRate());
+		assertEquals(-1, tLink.getAvailableDataRate());
+		
+		tLink.setDescription(createDescription(MAX_DATA_RATE));
+		tReservation.release();
+		assertEquals(0, tLink.getReservedDataRate());
+	}
+}
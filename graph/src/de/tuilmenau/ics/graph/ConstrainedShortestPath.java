@@ -0,0 +1,301 @@
+/*******************************************************************************
+ * Graph
+ * Copyright (C) 2012, Integrated Communication Systems Group, TU Ilmenau.
+ * 
+ * This program and the accompanying materials are dual-licensed under either
+ * the terms of the Eclipse Public License v1.0 as published by the Eclipse
+ * Foundation
+ *  
+ *   or (per the licensee's choosing)
+ *  
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ ******************************************************************************/
+package de.tuilmenau.ics.graph;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.apache.commons.collections15.Transformer;
+
+import edu.uci.ics.jung.graph.Graph;
+
+/**
+ * Bounded-label algorithm for the constrained shortest path problem.
+ * 
+ * It minimizes the link weight of the graph (the same one used by
+ * {@link RoutableGraph#getRoute(Object, Object)}) while keeping any
+ * number of additional additive metrics (e.g. delay) below their bounds.
+ * Links, which are not usable at all (e.g. not enough residual data rate),
+ * are removed by a filter before they are considered.
+ * 
+ * Each node stores the non-dominated labels, only. A label dominates
+ * another one if it is not worse in any of the metrics. The number of
+ * labels per node is limited in order to bound the run time for
+ * graphs with a lot of equal-cost alternatives. If a node is full, the
+ * label using the largest share of the bounds is evicted. The cheapest
+ * label of a node is never evicted. Due to the limit, the algorithm is
+ * not complete: In rare cases, a route fulfilling the constraints might
+ * not be found. Increase the limit if this is an issue.
+ * 
+ * The object describes the constraints of a single request. Use
+ * {@link RoutableGraph#getRoute(Object, Object, ConstrainedShortestPath)}
+ * to run it on a graph.
+ */
+public class ConstrainedShortestPath<NodeObject, LinkObject>
+{
+	/**
+	 * Default limit for the number of non-dominated labels stored per node.
+	 */
+	public static final int DEFAULT_MAX_LABELS_PER_NODE = 16;
+	
+	public ConstrainedShortestPath()
+	{
+		this(DEFAULT_MAX_LABELS_PER_NODE);
+	}
+	
+	/**
+	 * @param pMaxLabelsPerNode Maximum number of labels stored per node (>= 1)
+	 */
+	public ConstrainedShortestPath(int pMaxLabelsPerNode)
+	{
+		mMaxLabelsPerNode = Math.max(1, pMaxLabelsPerNode);
+	}
+	
+	/**
+	 * Sets filter for links. Links rejected by the filter are not used for the route.
+	 * 
+	 * @param pFilter Filter or null, if all links are allowed
+	 */
+	public void setFilter(LinkFilter<LinkObject> pFilter)
+	{
+		mFilter = pFilter;
+	}
+	
+	/**
+	 * Adds an additive metric, which sum along the route must not exceed the bound.
+	 * 
+	 * @param pMetric Transformer from links to metric values (values must be >= 0)
+	 * @param pBound Maximum for the sum of the metric values along the route
+	 */
+	public void addConstraint(LinkTransformer<LinkObject> pMetric, double pBound)
+	{
+		if(pMetric != null) {
+			mMetrics.add(pMetric);
+			mBounds.add(pBound);
+		}
+	}
+	
+	/**
+	 * @return Number of labels created during the last calculation (for statistics)
+	 */
+	public int getNumberLabels()
+	{
+		return mNumberLabels;
+	}
+	
+	/**
+	 * Calculates the cheapest path fulfilling all constraints.
+	 * 
+	 * @param pGraph Graph to operate on
+	 * @param pCost Link weights to minimize; null for constant weights equal to 1
+	 * @param pFrom Start node (object stored in graph)
+	 * @param pTo Destination node (object stored in graph)
+	 * @return List of links or empty list, if no path satisfies the constraints
+	 */
+	List<LinkObject> getPath(Graph<NodeObject, LinkObject> pGraph, Transformer<LinkObject, Number> pCost, NodeObject pFrom, NodeObject pTo)
+	{
+		LinkedList<LinkObject> tPath = new LinkedList<LinkObject>();
+		HashMap<NodeObject, LinkedList<Label>> tLabels = new HashMap<NodeObject, LinkedList<Label>>();
+		PriorityQueue<Label> tQueue = new PriorityQueue<Label>();
+		
+		mNumberLabels = 0;
+		if(pFrom.equals(pTo)) return tPath;
+		
+		Label tStart = new Label(pFrom, null, null, 0, new double[mMetrics.size()]);
+		insert(tLabels, tStart);
+		tQueue.add(tStart);
+		
+		while(!tQueue.isEmpty()) {
+			Label tLabel = tQueue.poll();
+			
+			// removed by a better label in the meantime?
+			if(tLabel.dominated) continue;
+			
+			// label setting: first label reaching the destination is the cheapest one
+			if(tLabel.node.equals(pTo)) {
+				while(tLabel.link != null) {
+					tPath.addFirst(tLabel.link);
+					tLabel = tLabel.predecessor;
+				}
+				break;
+			}
+			
+			for(LinkObject tLink : pGraph.getOutEdges(tLabel.node)) {
+				if((mFilter != null) && !mFilter.accept(tLink)) continue;
+				
+				double tCost = 1;
+				if(pCost != null) tCost = pCost.transform(tLink).doubleValue();
+				if(Double.isInfinite(tCost) || Double.isNaN(tCost)) continue;
+				
+				double[] tValues = new double[mMetrics.size()];
+				boolean tValid = true;
+				for(int i = 0; i < tValues.length; i++) {
+					tValues[i] = tLabel.values[i] +mMetrics.get(i).transform(tLink).doubleValue();
+					
+					if(tValues[i] > mBounds.get(i)) {
+						tValid = false;
+						break;
+					}
+				}
+				
+				if(tValid) {
+					Label tNew = new Label(pGraph.getDest(tLink), tLabel, tLink, tLabel.cost +tCost, tValues);
+					
+					if(insert(tLabels, tNew)) {
+						tQueue.add(tNew);
+					}
+				}
+			}
+		}
+		
+		return tPath;
+	}
+	
+	/**
+	 * Stores label for its node, if it is not dominated by an existing one.
+	 * Existing labels dominated by the new one are marked and removed.
+	 * 
+	 * @return true, if label was stored; false otherwise
+	 */
+	private boolean insert(HashMap<NodeObject, LinkedList<Label>> pLabels, Label pNew)
+	{
+		LinkedList<Label> tNodeLabels = pLabels.get(pNew.node);
+		
+		if(tNodeLabels == null) {
+			tNodeLabels = new LinkedList<Label>();
+			pLabels.put(pNew.node, tNodeLabels);
+		} else {
+			Iterator<Label> tIter = tNodeLabels.iterator();
+			while(tIter.hasNext()) {
+				Label tExisting = tIter.next();
+				
+				if(tExisting.dominates(pNew)) {
+					return false;
+				}
+				if(pNew.dominates(tExisting)) {
+					tExisting.dominated = true;
+					tIter.remove();
+				}
+			}
+			
+			if(tNodeLabels.size() >= mMaxLabelsPerNode) {
+				Label tWorst = getEvictionCandidate(tNodeLabels);
+				
+				/*
+				 * Keep new label, if it leaves more room for the constraints
+				 * than the worst existing one. Otherwise, a false "no route"
+				 * result might be caused by discarding it.
+				 */
+				if((tWorst == null) || (getUsage(tWorst) <= getUsage(pNew))) {
+					return false;
+				}
+				
+				tWorst.dominated = true;
+				tNodeLabels.remove(tWorst);
+			}
+		}
+		
+		tNodeLabels.add(pNew);
+		mNumberLabels++;
+		return true;
+	}
+	
+	/**
+	 * @return Label using the largest share of the bounds, excluding the cheapest label; null if none
+	 */
+	private Label getEvictionCandidate(LinkedList<Label> pNodeLabels)
+	{
+		Label tCheapest = null;
+		for(Label tLabel : pNodeLabels) {
+			if((tCheapest == null) || (tLabel.cost < tCheapest.cost)) {
+				tCheapest = tLabel;
+			}
+		}
+		
+		Label tWorst = null;
+		for(Label tLabel : pNodeLabels) {
+			if(tLabel != tCheapest) {
+				if((tWorst == null) || (getUsage(tLabel) > getUsage(tWorst))) {
+					tWorst = tLabel;
+				}
+			}
+		}
+		
+		return tWorst;
+	}
+	
+	/**
+	 * @return Sum of the metric values of a label relative to their bounds
+	 */
+	private double getUsage(Label pLabel)
+	{
+		double tUsage = 0;
+		
+		for(int i = 0; i < pLabel.values.length; i++) {
+			double tBound = mBounds.get(i);
+			
+			if(tBound > 0) {
+				tUsage += pLabel.values[i] / tBound;
+			}
+		}
+		
+		return tUsage;
+	}
+	
+	private class Label implements Comparable<Label>
+	{
+		public Label(NodeObject pNode, Label pPredecessor, LinkObject pLink, double pCost, double[] pValues)
+		{
+			node = pNode;
+			predecessor = pPredecessor;
+			link = pLink;
+			cost = pCost;
+			values = pValues;
+		}
+		
+		public boolean dominates(Label pOther)
+		{
+			if(cost > pOther.cost) return false;
+			
+			for(int i = 0; i < values.length; i++) {
+				if(values[i] > pOther.values[i]) return false;
+			}
+			
+			return true;
+		}
+		
+		@Override
+		public int compareTo(Label pOther)
+		{
+			return Double.compare(cost, pOther.cost);
+		}
+		
+		public NodeObject node;
+		public Label predecessor;
+		public LinkObject link;
+		public double cost;
+		public double[] values;
+		public boolean dominated = false;
+	}
+	
+	private int mMaxLabelsPerNode;
+	private LinkFilter<LinkObject> mFilter = null;
+	private ArrayList<LinkTransformer<LinkObject>> mMetrics = new ArrayList<LinkTransformer<LinkObject>>();
+	private ArrayList<Double> mBounds = new ArrayList<Double>();
+	private int mNumberLabels = 0;
+}
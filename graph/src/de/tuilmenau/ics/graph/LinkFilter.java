@@ -0,0 +1,22 @@
+/*******************************************************************************
+ * Graph
+ * Copyright (C) 2012, Integrated Communication Systems Group, TU Ilmenau.
+ * 
+ * This program and the accompanying materials are dual-licensed under either
+ * the terms of the Eclipse Public License v1.0 as published by the Eclipse
+ * Foundation
+ *  
+ *   or (per the licensee's choosing)
+ *  
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ ******************************************************************************/
+package de.tuilmenau.ics.graph;
+
+/**
+ * Decides if a link can be used at all for a route calculation.
+ */
+public interface LinkFilter<LinkObject>
+{
+	public boolean accept(LinkObject input);
+}
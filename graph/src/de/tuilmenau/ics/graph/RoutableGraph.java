@@ -376,6 +376,30 @@ public synchronized List<LinkObject> getRoute(NodeObject pFrom, NodeObject pTo)
 		return tPath;
 	}
 	
+	/**
+	 * Calculates the cheapest route, which fulfills the constraints given by
+	 * the algorithm object. The link weights are the same as for
+	 * {@link #getRoute(Object, Object)}.
+	 * 
+	 * @param pFrom start node
+	 * @param pTo destination node
+	 * @param pConstraints algorithm object describing the constraints of the request
+	 * @return List of links; empty if no route fulfills the constraints; null if nodes are not known
+	 */
+	public synchronized List<LinkObject> getRoute(NodeObject pFrom, NodeObject pTo, ConstrainedShortestPath<NodeObject, LinkObject> pConstraints)
+	{
+		List<LinkObject> tPath = null;
+		
+		pFrom = containsVertex(pFrom);
+		pTo = containsVertex(pTo);
+		
+		if((pFrom != null) && (pTo != null)) {
+			tPath = pConstraints.getPath(mRoutingGraph, mLinkToValueTransformer, pFrom, pTo);
+		}
+		
+		return tPath;
+	}
+	
 	/**
 	 * Method is called by objects observed by the map. It is triggering an
 	 * update event for the observers of the map. In special, this mechanism
@@ -16,8 +16,10 @@
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.io.StreamCorruptedException;
 
 
@@ -66,6 +68,22 @@ public byte[] toBytes(Object object) throws IOException
 
 		return byteStream.toByteArray();
 	}
+	
+	/**
+	 * Writes Java object to a stream by using std Java serializing procedures.
+	 * The stream is flushed but not closed.
+	 * 
+	 * @param object Java object
+	 * @param stream Stream to write to
+	 * @throws IOException On error
+	 */
+	public void toStream(Object object, OutputStream stream) throws IOException
+	{
+		ObjectOutputStream objectStream = new ObjectOutputStream(stream);
+		
+		objectStream.writeObject(object);
+		objectStream.flush();
+	}
 
 	/**
 	 * Converts a byte stream to Java objects by using std Java deserializing procedures.
@@ -91,6 +109,23 @@ public Object toObject(byte[] bytes) throws IOException, StreamCorruptedExceptio
 		}
 	}
 	
+	/**
+	 * Reads Java object from a stream by using std Java deserializing procedures.
+	 * The stream is not closed.
+	 * 
+	 * @param stream Stream to read from
+	 * @return Java object
+	 * @throws IOException On error
+	 * @throws StreamCorruptedException On bit errors in stream
+	 * @throws ClassNotFoundException On class loader problems
+	 */
+	public Object toObject(InputStream stream) throws IOException, StreamCorruptedException, ClassNotFoundException
+	{
+		ObjectInputStream objectStream = new ObjectInputStream(stream);
+		
+		return objectStream.readObject();
+	}
+	
 	
 	/**
 	 * Returns class by name within the scope of the Jini-class loader.